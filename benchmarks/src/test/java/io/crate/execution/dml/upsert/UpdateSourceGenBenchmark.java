@@ -0,0 +1,142 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.dml.upsert;
+
+import io.crate.analyze.AnalyzedUpdateStatement;
+import io.crate.expression.reference.Doc;
+import io.crate.expression.symbol.Assignments;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.testing.SQLExecutor;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.crate.testing.DiscoveryNodes.newNode;
+import static org.elasticsearch.test.ClusterServiceUtils.createClusterService;
+
+/**
+ * Compares the source generation of {@code UPDATE t SET counter = ...} on a ~20KB document, starting from the
+ * stored source as returned by the primary key lookup:
+ * The map round-trip previously used by {@link TransportShardUpsertAction} vs. patching the raw source.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class UpdateSourceGenBenchmark {
+
+    private TestThreadPool threadPool;
+    private UpdateSourceGen updateSourceGen;
+    private Symbol[] assignmentSources;
+    private String index;
+    private BytesReference storedSource;
+
+    @Param({"counter + 1", "2"})
+    public String assignment;
+
+    @Setup
+    public void setup() throws Exception {
+        threadPool = new TestThreadPool("testing");
+        DiscoveryNode localNode = newNode("benchmarkNode", "n1");
+        ClusterService clusterService = createClusterService(threadPool, localNode);
+        SQLExecutor e = SQLExecutor.builder(clusterService, 1, new Random(10))
+            .addTable("create table t (id int primary key, counter int, payload object(dynamic))")
+            .build();
+        AnalyzedUpdateStatement update = e.analyze("update t set counter = " + assignment);
+        Assignments assignments = Assignments.convert(update.assignmentByTargetCol());
+        DocTableInfo table = (DocTableInfo) update.table().tableInfo();
+        updateSourceGen = new UpdateSourceGen(
+            e.functions(),
+            CoordinatorTxnCtx.systemTransactionContext(),
+            table,
+            assignments.targetNames()
+        );
+        assignmentSources = assignments.sources();
+
+        XContentBuilder builder = XContentFactory.jsonBuilder()
+            .startObject()
+            .field("id", 1)
+            .startObject("payload");
+        for (int i = 0; i < 400; i++) {
+            builder.field("field_" + i, "value of a reasonably long text field " + i);
+        }
+        builder.endObject()
+            .field("counter", 1)
+            .endObject();
+        index = table.concreteIndices()[0];
+        storedSource = BytesReference.bytes(builder);
+    }
+
+    @TearDown
+    public void cleanup() throws InterruptedException {
+        threadPool.shutdown();
+        threadPool.awaitTermination(20, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public BytesReference measureSourceMapRoundTrip() throws Exception {
+        // the lookup used to parse the source eagerly
+        Map<String, Object> source = XContentHelper.convertToMap(storedSource, false, XContentType.JSON).v2();
+        Doc doc = new Doc(1, index, "1", 1, 1, 1, source, storedSource::utf8ToString);
+        Map<String, Object> updatedSource = updateSourceGen.generateSource(doc, assignmentSources, new Object[0]);
+        return BytesReference.bytes(XContentFactory.jsonBuilder().map(updatedSource));
+    }
+
+    @Benchmark
+    public BytesReference measurePatchSource() throws Exception {
+        Doc doc = new Doc(1, index, "1", 1, 1, 1, storedSource);
+        return updateSourceGen.generateSourceBytes(doc, assignmentSources, new Object[0]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(UpdateSourceGenBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene;
+
+import io.crate.data.Input;
+import io.crate.execution.engine.aggregation.NumericDocValuesReference;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.RegexpMatchOperator;
+import io.crate.expression.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.RowGranularity;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Measures conjunctions of an indexed range on {@code ts} with a cheap ({@code x % 3 = 0}) and an expensive
+ * ({@code x ~ '.*7.*'}) {@link GenericFunctionQuery}.
+ * The expensive clause is added first so that the clause order only changes if the match costs differ.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class GenericFunctionQueryBenchmark {
+
+    private static final int NUM_DOCS = 2_000_000;
+
+    /**
+     * Percentage of the documents matched by the range on {@code ts}
+     */
+    @Param({"1", "90"})
+    public int rangeSelectivity;
+
+    private IndexSearcher indexSearcher;
+    private Query rangeOnly;
+    private Query rangeAndScalars;
+
+    @Setup
+    public void createIndex() throws Exception {
+        IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        for (int i = 0; i < NUM_DOCS; i++) {
+            Document doc = new Document();
+            doc.add(new LongPoint("ts", i));
+            doc.add(new NumericDocValuesField("ts", i));
+            doc.add(new NumericDocValuesField("x", i));
+            iw.addDocument(doc);
+        }
+        iw.commit();
+        iw.forceMerge(1, true);
+        indexSearcher = new IndexSearcher(DirectoryReader.open(iw));
+
+        Reference x = new Reference(
+            new ReferenceIdent(new RelationName("doc", "t"), "x"), RowGranularity.DOC, DataTypes.LONG, null, null);
+        Function modulus = new Function(
+            new FunctionInfo(
+                new FunctionIdent(ArithmeticFunctions.Names.MODULUS, List.of(DataTypes.LONG, DataTypes.LONG)),
+                DataTypes.LONG),
+            List.of(x, Literal.of(3L))
+        );
+        Function cheapFunction = new Function(
+            new FunctionInfo(
+                new FunctionIdent(EqOperator.NAME, List.of(DataTypes.LONG, DataTypes.LONG)),
+                DataTypes.BOOLEAN),
+            List.of(modulus, Literal.of(0L))
+        );
+        Function expensiveFunction = new Function(
+            new FunctionInfo(
+                new FunctionIdent(RegexpMatchOperator.NAME, List.of(DataTypes.LONG, DataTypes.STRING)),
+                DataTypes.BOOLEAN),
+            List.of(x, Literal.of(".*7.*"))
+        );
+
+        NumericDocValuesReference cheapX = new NumericDocValuesReference("x");
+        Input<Boolean> cheapCondition = () -> {
+            Long value = cheapX.value();
+            return value == null ? null : value % 3 == 0;
+        };
+        NumericDocValuesReference expensiveX = new NumericDocValuesReference("x");
+        Pattern pattern = Pattern.compile(".*7.*");
+        Input<Boolean> expensiveCondition = () -> {
+            Long value = expensiveX.value();
+            return value == null ? null : pattern.matcher(Long.toString(value)).matches();
+        };
+
+        rangeOnly = LongPoint.newRangeQuery("ts", 0, (long) NUM_DOCS * rangeSelectivity / 100);
+        var expensiveQuery = new GenericFunctionQuery(expensiveFunction, List.of(expensiveX), expensiveCondition);
+        var cheapQuery = new GenericFunctionQuery(cheapFunction, List.of(cheapX), cheapCondition);
+        rangeAndScalars = new BooleanQuery.Builder()
+            .add(expensiveQuery, BooleanClause.Occur.FILTER)
+            .add(cheapQuery, BooleanClause.Occur.FILTER)
+            .add(rangeOnly, BooleanClause.Occur.FILTER)
+            .build();
+    }
+
+    @Benchmark
+    public int measureRangeOnly() throws Exception {
+        return indexSearcher.count(rangeOnly);
+    }
+
+    @Benchmark
+    public int measureRangeWithGenericFunctionQueries() throws Exception {
+        return indexSearcher.count(rangeAndScalars);
+    }
+}
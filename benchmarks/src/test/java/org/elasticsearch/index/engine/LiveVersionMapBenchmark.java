@@ -0,0 +1,116 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates bulk ingest into a shard: every invocation indexes a bulk of documents with new ids into the
+ * version map and then refreshes, which drops the map that held the previous bulk.
+ * Compares version maps allocated from the node wide page recycler with version maps allocated on the heap.
+ * Run with {@code -prof gc} to see the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+@Warmup(iterations = 3)
+public class LiveVersionMapBenchmark {
+
+    @Param({"10000", "100000"})
+    public int bulkSize;
+
+    @Param({"true", "false"})
+    public boolean recycle;
+
+    private PageCacheRecycler recycler;
+    private CircuitBreaker breaker;
+    private LiveVersionMap versionMap;
+    private BytesRef[] uids;
+    private long seqNo = 0;
+
+    @Setup
+    public void setup() {
+        if (recycle) {
+            Settings settings = Settings.EMPTY;
+            HierarchyCircuitBreakerService breakerService = new HierarchyCircuitBreakerService(
+                settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+            recycler = new PageCacheRecycler(settings);
+            breaker = breakerService.getBreaker(CircuitBreaker.REQUEST);
+            versionMap = new LiveVersionMap(new BigArrays(recycler, breakerService, CircuitBreaker.REQUEST));
+        } else {
+            versionMap = new LiveVersionMap(BigArrays.NON_RECYCLING_INSTANCE);
+        }
+        uids = new BytesRef[bulkSize];
+        for (int i = 0; i < bulkSize; i++) {
+            uids[i] = new BytesRef("id-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        versionMap.clear();
+        if (recycle) {
+            assert breaker.getUsed() == 0 : "version map arrays must be released, but " + breaker.getUsed() + " bytes are in use";
+            recycler.close();
+        }
+    }
+
+    @Benchmark
+    public LiveVersionMap measureBulkIndexAndRefresh() throws IOException {
+        versionMap.beforeRefresh();
+        for (BytesRef uid : uids) {
+            seqNo++;
+            IndexVersionValue value = new IndexVersionValue(new Translog.Location(1, seqNo * 64, 64), 1, seqNo, 1);
+            try (Releasable ignored = versionMap.acquireLock(uid)) {
+                versionMap.putIndexUnderLock(uid, value);
+            }
+        }
+        versionMap.afterRefresh(true);
+        return versionMap;
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.blob;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.CheckedRunnable;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A node local, disk backed LRU cache of blobs which are read through this node but stored on other nodes.
+ * <p>
+ * The cache is bounded by the sum of the blob sizes; the least recently read blobs are evicted first.
+ * Blobs are immutable, but can be deleted. Callers must verify that a cached blob still exists before serving it.
+ * The cache is emptied when the node starts.
+ * <p>
+ * Blobs are read through network threads, so all writes, moves and deletes of cached files run on the
+ * {@link #EXECUTOR_NAME} executor instead, see {@link #newWriter(String, long)} and {@link #invalidate(String)}.
+ */
+public class BlobCache {
+
+    public static final String EXECUTOR_NAME = "blob_cache";
+
+    private static final Logger LOGGER = LogManager.getLogger(BlobCache.class);
+
+    /**
+     * Blobs larger than this fraction of the cache size aren't cached, so that a single large blob cannot
+     * evict all the hot ones.
+     */
+    private static final int MAX_BLOB_FRACTION = 10;
+
+    private final Path directory;
+    private final Path tmpDirectory;
+    private final long maxSizeInBytes;
+    private final Executor executor;
+    private final LinkedHashMap<String, Long> sizeByDigest = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes = 0;
+
+    public BlobCache(Path directory, long maxSizeInBytes, Executor executor) throws IOException {
+        this.directory = directory;
+        this.tmpDirectory = directory.resolve("tmp");
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.executor = executor;
+        if (Files.exists(directory)) {
+            IOUtils.rm(directory);
+        }
+        Files.createDirectories(tmpDirectory);
+    }
+
+    public boolean accepts(long size) {
+        return size <= maxSizeInBytes / MAX_BLOB_FRACTION;
+    }
+
+    /**
+     * @return the file of the cached blob or null if the blob isn't cached
+     */
+    @Nullable
+    public synchronized Path get(String digest) {
+        if (sizeByDigest.get(digest) == null) {
+            return null;
+        }
+        return directory.resolve(digest);
+    }
+
+    /**
+     * @return the size of the cached blob or -1 if the blob isn't cached
+     */
+    public synchronized long size(String digest) {
+        Long size = sizeByDigest.get(digest);
+        return size == null ? -1 : size;
+    }
+
+    /**
+     * A new file to write a blob to, which is then added with {@link #put(String, Path, long)}.
+     */
+    public Path newTmpFile() {
+        return tmpDirectory.resolve(UUID.randomUUID().toString());
+    }
+
+    /**
+     * A writer which writes a blob of {@code size} bytes into the cache on the executor of the cache.
+     */
+    public Writer newWriter(String digest, long size) {
+        return new Writer(digest, size);
+    }
+
+    /**
+     * Moves a completely written blob into the cache and evicts the least recently read blobs if the cache is full.
+     * Blocks on disk I/O, but only the bookkeeping happens under the lock of the cache.
+     */
+    public void put(String digest, Path tmpFile, long size) throws IOException {
+        if (!accepts(size) || size(digest) >= 0) {
+            Files.deleteIfExists(tmpFile);
+            return;
+        }
+        Files.move(tmpFile, directory.resolve(digest), StandardCopyOption.ATOMIC_MOVE);
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = sizeByDigest.put(digest, size);
+            if (previous != null) {
+                sizeInBytes -= previous;
+            }
+            sizeInBytes += size;
+            Iterator<Map.Entry<String, Long>> it = sizeByDigest.entrySet().iterator();
+            while (sizeInBytes > maxSizeInBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                if (eldest.getKey().equals(digest)) {
+                    continue;
+                }
+                it.remove();
+                sizeInBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+            }
+        }
+        for (String evictedDigest : evicted) {
+            delete(evictedDigest);
+        }
+    }
+
+    /**
+     * Removes the blob from the cache; its file is deleted on the executor of the cache.
+     */
+    public void invalidate(String digest) {
+        Long size;
+        synchronized (this) {
+            size = sizeByDigest.remove(digest);
+            if (size != null) {
+                sizeInBytes -= size;
+            }
+        }
+        if (size != null) {
+            executor.execute(() -> delete(digest));
+        }
+    }
+
+    public synchronized long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    private void delete(String digest) {
+        // responses which are still sending the blob keep reading from their open file handle
+        try {
+            Files.deleteIfExists(directory.resolve(digest));
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete cached blob {}", digest);
+        }
+    }
+
+    /**
+     * Writes a blob chunk by chunk into a tmp file and adds it to the cache once it is complete.
+     * The operations run one after another on the executor of the cache, in the order they have been called in.
+     * If an operation fails the blob isn't cached.
+     */
+    public final class Writer {
+
+        private final String digest;
+        private final long size;
+        private final Path tmpFile;
+
+        // only accessed by the operations, which run one after another
+        @Nullable
+        private OutputStream out;
+        private volatile boolean failed = false;
+
+        private CompletableFuture<Void> lastOperation = CompletableFuture.completedFuture(null);
+
+        private Writer(String digest, long size) {
+            this.digest = digest;
+            this.size = size;
+            this.tmpFile = newTmpFile();
+        }
+
+        /**
+         * @return a future which completes once the chunk has been written, or skipped if the writer failed.
+         *         It never completes exceptionally.
+         */
+        public CompletableFuture<Void> append(BytesReference chunk) {
+            return enqueue(() -> {
+                if (out == null) {
+                    out = Files.newOutputStream(tmpFile, StandardOpenOption.CREATE_NEW);
+                }
+                chunk.writeTo(out);
+            });
+        }
+
+        public void commit() {
+            enqueue(() -> {
+                closeOut();
+                put(digest, tmpFile, size);
+            });
+        }
+
+        public void abort() {
+            enqueue(() -> {
+                failed = true;
+                closeOut();
+                Files.deleteIfExists(tmpFile);
+            });
+        }
+
+        private void closeOut() throws IOException {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        }
+
+        private synchronized CompletableFuture<Void> enqueue(CheckedRunnable<IOException> operation) {
+            lastOperation = lastOperation.thenRunAsync(() -> {
+                if (failed) {
+                    return;
+                }
+                try {
+                    operation.run();
+                } catch (IOException e) {
+                    LOGGER.warn("Could not cache blob {}", digest, e);
+                    failed = true;
+                    try {
+                        closeOut();
+                        Files.deleteIfExists(tmpFile);
+                    } catch (IOException inner) {
+                        LOGGER.warn("Could not delete partially cached blob {}", digest);
+                    }
+                }
+            }, executor).exceptionally(t -> {
+                // the executor rejected the operation, e.g. because the node is shutting down
+                failed = true;
+                return null;
+            });
+            return lastOperation;
+        }
+    }
+}
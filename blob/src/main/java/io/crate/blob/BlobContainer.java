@@ -21,19 +21,27 @@
 
 package io.crate.blob;
 
+import com.google.common.collect.Iterables;
+import io.crate.blob.exceptions.BlobAlreadyExistsException;
 import io.crate.blob.exceptions.DigestNotFoundException;
 import io.crate.common.Hex;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
+import org.elasticsearch.common.Nullable;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.nio.file.FileVisitor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -41,7 +49,7 @@ import java.util.NoSuchElementException;
 import java.util.UUID;
 import java.util.concurrent.Semaphore;
 
-public class BlobContainer {
+public class BlobContainer implements Closeable {
 
     private static final Logger LOGGER = LogManager.getLogger(BlobContainer.class);
     private static final String[] SUB_DIRS = new String[256];
@@ -62,7 +70,18 @@ public class BlobContainer {
     private final Path varDirectory;
     private final BlobCoordinator blobCoordinator;
 
+    @Nullable
+    private final PackedBlobStore packedStore;
+
     public BlobContainer(Path baseDirectory) {
+        this(baseDirectory, false);
+    }
+
+    /**
+     * @param packed if true, blobs up to {@link PackedBlobStore#MAX_PACKED_BLOB_SIZE} are appended to the segments
+     *               of a {@link PackedBlobStore} instead of being stored as individual files.
+     */
+    public BlobContainer(Path baseDirectory, boolean packed) {
         this.baseDirectory = baseDirectory;
         this.tmpDirectory = baseDirectory.resolve("tmp");
         this.varDirectory = baseDirectory.resolve("var");
@@ -81,6 +100,18 @@ public class BlobContainer {
             LOGGER.error("Could not create 'tmp' path {}", this.tmpDirectory);
             throw new RuntimeException(e);
         }
+
+        if (packed) {
+            Path packedDirectory = baseDirectory.resolve("packed");
+            try {
+                this.packedStore = new PackedBlobStore(packedDirectory);
+            } catch (IOException e) {
+                LOGGER.error("Could not open packed blob store {}", packedDirectory);
+                throw new RuntimeException(e);
+            }
+        } else {
+            this.packedStore = null;
+        }
     }
 
     /**
@@ -102,6 +133,27 @@ public class BlobContainer {
         return new RecursiveFileIterable(subDirs);
     }
 
+    /**
+     * Lists all blobs, the ones stored as files as well as the packed ones.
+     */
+    public Iterable<BlobEntry> getBlobs() {
+        Iterable<BlobEntry> files = Iterables.transform(getFiles(), file -> new BlobEntry() {
+            @Override
+            public String digest() {
+                return file.getName();
+            }
+
+            @Override
+            public long lastModified() {
+                return file.lastModified();
+            }
+        });
+        if (packedStore == null) {
+            return files;
+        }
+        return Iterables.concat(files, packedStore.entries());
+    }
+
     /**
      * get all digests in a subfolder
      * the digests are returned as byte[][] instead as String[] to save overhead in the BlobRecovery
@@ -115,6 +167,11 @@ public class BlobContainer {
         int index = prefix & 0xFF;  // byte is signed and may be negative, convert to int to get correct index
         String[] names = cleanDigests(subDirs[index].list(), index);
         byte[][] digests = new byte[names.length][];
+        if (packedStore != null) {
+            byte[][] packedDigests = packedStore.digests(prefix);
+            digests = Arrays.copyOf(digests, names.length + packedDigests.length);
+            System.arraycopy(packedDigests, 0, digests, names.length, packedDigests.length);
+        }
         for (int i = 0; i < names.length; i++) {
             try {
                 digests[i] = Hex.decodeHex(names[i]);
@@ -161,6 +218,14 @@ public class BlobContainer {
         Files.walkFileTree(varDirectory, visitor);
     }
 
+    /**
+     * The store for small blobs or null if blobs are stored as individual files only.
+     */
+    @Nullable
+    public PackedBlobStore packedStore() {
+        return packedStore;
+    }
+
     public Semaphore digestCoordinator(String digest) {
         return blobCoordinator.digestCoordinator(digest);
     }
@@ -177,6 +242,87 @@ public class BlobContainer {
         return varDirectory.resolve(digest.substring(0, 2)).resolve(digest).toFile();
     }
 
+    public boolean exists(String digest) {
+        return (packedStore != null && packedStore.contains(digest)) || getFile(digest).exists();
+    }
+
+    /**
+     * @return the length of the blob or 0 if it doesn't exist
+     */
+    public long length(String digest) {
+        if (packedStore != null) {
+            long length = packedStore.length(digest);
+            if (length >= 0) {
+                return length;
+            }
+        }
+        return getFile(digest).length();
+    }
+
+    /**
+     * Moves a completely written and verified blob from the tmp directory into the container.
+     * The caller must hold the {@link #digestCoordinator(String)} of the digest.
+     *
+     * @return the file of the blob or null if the blob has been packed.
+     */
+    @Nullable
+    File commit(String digest, File tmpFile, long size) throws IOException {
+        if (exists(digest)) {
+            throw new BlobAlreadyExistsException(digest);
+        }
+        if (packedStore != null && size <= PackedBlobStore.MAX_PACKED_BLOB_SIZE) {
+            packedStore.put(digest, tmpFile.toPath(), size);
+            Files.delete(tmpFile.toPath());
+            return null;
+        }
+        File file = getFile(digest);
+        if (!tmpFile.renameTo(file)) {
+            throw new IOException("Could not move " + tmpFile + " to " + file);
+        }
+        return file;
+    }
+
+    /**
+     * @return the length of the deleted blob or -1 if it didn't exist
+     */
+    public long delete(String digest) throws IOException {
+        if (packedStore != null) {
+            long length = packedStore.delete(digest);
+            if (length >= 0) {
+                return length;
+            }
+        }
+        Path path = getFile(digest).toPath();
+        long length = Files.exists(path) ? Files.size(path) : 0;
+        return Files.deleteIfExists(path) ? length : -1;
+    }
+
+    /**
+     * Opens a stream of the blob content, regardless of whether the blob is packed or stored as file.
+     */
+    public InputStream openInputStream(String digest) throws IOException {
+        if (packedStore != null) {
+            PackedBlobStore.PackedBlob blob = packedStore.open(digest);
+            if (blob != null) {
+                return new FilterInputStream(blob.newInputStream()) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            blob.close();
+                        }
+                    }
+                };
+            }
+        }
+        try {
+            return new FileInputStream(getFile(digest));
+        } catch (FileNotFoundException e) {
+            throw new DigestNotFoundException(digest);
+        }
+    }
+
     public DigestBlob createBlob(String digest, UUID transferId) {
         // TODO: check if exists already
         return new DigestBlob(this, digest, transferId);
@@ -190,6 +336,13 @@ public class BlobContainer {
         }
     }
 
+    @Override
+    public void close() throws IOException {
+        if (packedStore != null) {
+            packedStore.close();
+        }
+    }
+
     private static class RecursiveFileIterable implements Iterable<File> {
 
         private final File[] subDirs;
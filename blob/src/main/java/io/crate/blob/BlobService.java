@@ -24,29 +24,60 @@ package io.crate.blob;
 import io.crate.blob.exceptions.MissingHTTPEndpointException;
 import io.crate.blob.recovery.BlobRecoveryHandler;
 import io.crate.blob.transfer.BlobHeadRequestHandler;
+import io.crate.blob.transfer.BlobReadRequestHandler;
+import io.crate.blob.transfer.ReadBlobChunkRequest;
+import io.crate.blob.transfer.ReadBlobChunkResponse;
 import io.crate.blob.v2.BlobIndex;
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.plugin.PipelineRegistry;
 import io.crate.protocols.http.HttpBlobHandler;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.ShardIterator;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.env.NodeEnvironment;
 import org.elasticsearch.indices.recovery.PeerRecoverySourceService;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.elasticsearch.indices.recovery.RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_FILE_CHUNKS_SETTING;
 
 public class BlobService extends AbstractLifecycleComponent {
 
+    /**
+     * If enabled, GET and HEAD requests for blobs stored on other nodes are answered by reading the blob
+     * from the other node instead of redirecting the client.
+     */
+    public static final Setting<Boolean> SETTING_BLOBS_PROXY_READS = Setting.boolSetting(
+        "blobs.proxy_reads", false, Setting.Property.NodeScope);
+
+    /**
+     * Size of the disk cache of blobs read from other nodes, only used if {@link #SETTING_BLOBS_PROXY_READS}
+     * is enabled. 0 disables the cache.
+     */
+    public static final Setting<ByteSizeValue> SETTING_BLOBS_CACHE_SIZE = Setting.byteSizeSetting(
+        "blobs.cache.size", new ByteSizeValue(1, ByteSizeUnit.GB), Setting.Property.NodeScope);
+
     private final BlobIndicesService blobIndicesService;
     private final BlobHeadRequestHandler blobHeadRequestHandler;
+    private final BlobReadRequestHandler blobReadRequestHandler;
     private final PeerRecoverySourceService peerRecoverySourceService;
     private final ClusterService clusterService;
     private final TransportService transportService;
@@ -54,26 +85,48 @@ public class BlobService extends AbstractLifecycleComponent {
     private final Client client;
     private final PipelineRegistry pipelineRegistry;
     private final Settings settings;
+    private final boolean proxyReads;
+
+    @Nullable
+    private final BlobCache cache;
 
     @Inject
     public BlobService(ClusterService clusterService,
                        BlobIndicesService blobIndicesService,
                        BlobHeadRequestHandler blobHeadRequestHandler,
+                       BlobReadRequestHandler blobReadRequestHandler,
                        PeerRecoverySourceService peerRecoverySourceService,
                        TransportService transportService,
                        BlobTransferTarget blobTransferTarget,
                        Client client,
                        PipelineRegistry pipelineRegistry,
+                       NodeEnvironment nodeEnvironment,
+                       ThreadPool threadPool,
                        Settings settings) {
         this.clusterService = clusterService;
         this.blobIndicesService = blobIndicesService;
         this.blobHeadRequestHandler = blobHeadRequestHandler;
+        this.blobReadRequestHandler = blobReadRequestHandler;
         this.peerRecoverySourceService = peerRecoverySourceService;
         this.transportService = transportService;
         this.blobTransferTarget = blobTransferTarget;
         this.client = client;
         this.pipelineRegistry = pipelineRegistry;
         this.settings = settings;
+        this.proxyReads = SETTING_BLOBS_PROXY_READS.get(settings);
+        long cacheSize = SETTING_BLOBS_CACHE_SIZE.get(settings).getBytes();
+        if (proxyReads && cacheSize > 0) {
+            try {
+                this.cache = new BlobCache(
+                    nodeEnvironment.nodeDataPaths()[0].resolve("blob_cache"),
+                    cacheSize,
+                    threadPool.executor(BlobCache.EXECUTOR_NAME));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            this.cache = null;
+        }
     }
 
     public RemoteDigestBlob newBlob(String index, String digest) {
@@ -89,6 +142,7 @@ public class BlobService extends AbstractLifecycleComponent {
         );
 
         blobHeadRequestHandler.registerHandler();
+        blobReadRequestHandler.registerHandler();
         peerRecoverySourceService.registerRecoverySourceHandlerProvider((shard, request, recoveryTarget, fileChunkSizeInBytes) -> {
             if (!BlobIndex.isBlobIndex(shard.shardId().getIndexName())) {
                 return null;
@@ -120,28 +174,85 @@ public class BlobService extends AbstractLifecycleComponent {
      * @return null if no redirect is required, Otherwise the address to which should be redirected.
      */
     public String getRedirectAddress(String index, String digest) throws MissingHTTPEndpointException {
+        List<ShardRouting> remoteCopies = remoteCopies(index, digest);
+        if (remoteCopies == null) {
+            // no redirect required if the shard is on this node
+            return null;
+        }
+        DiscoveryNodes nodes = clusterService.state().getNodes();
+        for (ShardRouting shard : remoteCopies) {
+            DiscoveryNode node = nodes.get(shard.currentNodeId());
+            String httpAddress = node.getAttributes().get("http_address");
+            if (httpAddress != null) {
+                return httpAddress + "/_blobs/" + BlobIndex.stripPrefix(index) + "/" + digest;
+            }
+        }
+        throw new MissingHTTPEndpointException("Can't find a suitable http server to serve the blob");
+    }
+
+    public boolean proxyReads() {
+        return proxyReads;
+    }
+
+    @Nullable
+    public BlobCache cache() {
+        return cache;
+    }
+
+    /**
+     * @return null if the blob can be read locally, otherwise the node to read the blob from.
+     */
+    @Nullable
+    public DiscoveryNode getProxyNode(String index, String digest) throws MissingHTTPEndpointException {
+        List<ShardRouting> remoteCopies = remoteCopies(index, digest);
+        if (remoteCopies == null) {
+            return null;
+        }
+        if (remoteCopies.isEmpty()) {
+            throw new MissingHTTPEndpointException("Can't find an active shard copy to read the blob from");
+        }
+        return clusterService.state().getNodes().get(remoteCopies.get(0).currentNodeId());
+    }
+
+    /**
+     * Reads up to {@code length} bytes of a blob starting at {@code position} from another node.
+     */
+    public void readChunk(DiscoveryNode node,
+                          String index,
+                          String digest,
+                          long position,
+                          int length,
+                          ActionListener<ReadBlobChunkResponse> listener) {
+        transportService.sendRequest(
+            node,
+            BlobReadRequestHandler.Actions.READ_CHUNK,
+            new ReadBlobChunkRequest(index, digest, position, length),
+            new ActionListenerResponseHandler<>(listener, ReadBlobChunkResponse::new)
+        );
+    }
+
+    /**
+     * Returns the active copies of the blob's shard on other nodes in random order, so that reads are spread
+     * across the replicas, or null if there is an active copy on this node.
+     */
+    @Nullable
+    private List<ShardRouting> remoteCopies(String index, String digest) {
         ShardIterator shards = clusterService.operationRouting().getShards(
-            clusterService.state(), index, null, digest, "_local");
+            clusterService.state(), index, null, digest, null);
 
         String localNodeId = clusterService.localNode().getId();
-        DiscoveryNodes nodes = clusterService.state().getNodes();
+        List<ShardRouting> remoteCopies = new ArrayList<>(shards.size());
         ShardRouting shard;
         while ((shard = shards.nextOrNull()) != null) {
             if (!shard.active()) {
                 continue;
             }
             if (shard.currentNodeId().equals(localNodeId)) {
-                // no redirect required if the shard is on this node
                 return null;
             }
-
-            DiscoveryNode node = nodes.get(shard.currentNodeId());
-            String httpAddress = node.getAttributes().get("http_address");
-            if (httpAddress != null) {
-                return httpAddress + "/_blobs/" + BlobIndex.stripPrefix(index) + "/" + digest;
-            }
+            remoteCopies.add(shard);
         }
-        throw new MissingHTTPEndpointException("Can't find a suitable http server to serve the blob");
+        return remoteCopies;
     }
 
 }
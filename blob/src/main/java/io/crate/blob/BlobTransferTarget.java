@@ -46,7 +46,6 @@ import org.elasticsearch.transport.TransportRequestOptions;
 import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -104,16 +103,14 @@ public class BlobTransferTarget {
         LOGGER.debug("startTransfer {} {}", request.transferId(), request.isLast());
 
         BlobShard blobShard = blobIndicesService.blobShardSafe(request.shardId());
-        File existing = blobShard.blobContainer().getFile(request.id());
-        long size = existing.length();
-        if (existing.exists()) {
-            // the file exists
+        BlobContainer blobContainer = blobShard.blobContainer();
+        if (blobContainer.exists(request.id())) {
             response.status(RemoteDigestBlob.Status.EXISTS);
-            response.size(size);
+            response.size(blobContainer.length(request.id()));
             return;
         }
 
-        DigestBlob digestBlob = blobShard.blobContainer().createBlob(request.id(), request.transferId());
+        DigestBlob digestBlob = blobContainer.createBlob(request.id(), request.transferId());
         digestBlob.addContent(request.content(), request.isLast());
 
         response.size(digestBlob.size());
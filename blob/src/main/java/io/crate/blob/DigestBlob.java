@@ -28,6 +28,7 @@ import io.crate.common.Hex;
 import io.netty.buffer.ByteBuf;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.apache.logging.log4j.LogManager;
 import org.elasticsearch.transport.netty4.Netty4Utils;
@@ -37,10 +38,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -160,6 +161,12 @@ public class DigestBlob implements Closeable {
         }
     }
 
+    /**
+     * Verifies the digest and moves the blob into the container.
+     *
+     * @return the file of the blob or null if the container packed the blob into a segment.
+     */
+    @Nullable
     public File commit() throws DigestMismatchException, BlobAlreadyExistsException {
         if (headLength > 0) {
             calculateDigest();
@@ -176,17 +183,16 @@ public class DigestBlob implements Closeable {
             IOUtils.closeWhileHandlingException(headFileChannel);
             headFileChannel = null;
         }
-        File newFile = container.getFile(digest);
+        File newFile;
         Semaphore semaphore = container.digestCoordinator(digest);
         try {
             semaphore.acquire();
 
             try {
-                if (Files.exists(newFile.toPath())) {
-                    throw new BlobAlreadyExistsException(digest);
-                }
-                file.renameTo(newFile);
+                newFile = container.commit(digest, file, size);
                 file = null;
+            } catch (IOException e) {
+                throw new BlobWriteException(digest, size, e);
             } finally {
                 // semaphore was acquired successfully, release it
                 semaphore.release();
@@ -199,8 +205,11 @@ public class DigestBlob implements Closeable {
         return newFile;
     }
 
-    public File getContainerFile() {
-        return container.getFile(digest);
+    /**
+     * Opens the content of the committed blob.
+     */
+    public InputStream openCommitted() throws IOException {
+        return container.openInputStream(digest);
     }
 
     public void addContent(BytesReference content, boolean last) {
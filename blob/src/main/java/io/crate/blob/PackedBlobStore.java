@@ -0,0 +1,788 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.blob;
+
+import com.google.common.collect.Iterables;
+import io.crate.common.Hex;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stores small blobs packed into append-only segment files instead of one file per blob.
+ * <p>
+ * Layout of the store directory:
+ * <pre>
+ *   segment-0000000001  blob contents, appended one after another
+ *   segment-0000000002
+ *   index               log of PUT and DELETE records mapping a digest to (segment, offset, length)
+ * </pre>
+ * The index log is replayed into memory when the store is opened. A blob is durable once its content and its
+ * PUT record have been fsynced; content without a record (after a crash) is garbage that is dropped by the next
+ * compaction.
+ * <p>
+ * Deleting a blob only appends a DELETE record. {@link #compact()} copies the live blobs of segments that
+ * mostly contain deleted blobs into the active segment and removes the old segment once all readers released it.
+ * <p>
+ * The content of a blob is written into a range of the active segment reserved under the store lock, but the
+ * write itself and its fsync happen without holding it. Records are appended under the lock; concurrent writers
+ * share the fsync of the index. Reads are lock free.
+ */
+public class PackedBlobStore implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(PackedBlobStore.class);
+
+    /**
+     * Blobs larger than this are stored as individual files.
+     */
+    public static final long MAX_PACKED_BLOB_SIZE = 1024 * 1024;
+
+    private static final long DEFAULT_MAX_SEGMENT_SIZE = 256L * 1024 * 1024;
+
+    /**
+     * Segments with less live bytes than this ratio of their size are compacted.
+     */
+    private static final double COMPACTION_RATIO = 0.5;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String INDEX_FILE = "index";
+    private static final String INDEX_TMP_FILE = "index.tmp";
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int DIGEST_LENGTH = 20;
+
+    // op, digest, segment, offset, length, lastModified
+    private static final int RECORD_SIZE = 1 + DIGEST_LENGTH + Integer.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final Path directory;
+    private final Path indexFile;
+    private final long maxSegmentSize;
+
+    // split by the first digest byte, same as the sub directories of the BlobContainer
+    private final Map<BytesArray, Location>[] locations;
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+    private final Object indexSyncLock = new Object();
+
+    private FileChannel indexChannel;
+    // incremented if the index is rewritten; a rewritten index is fsynced completely
+    private long indexGeneration = 0;
+    private long syncedIndexPosition = 0;
+    private Segment activeSegment;
+    private int maxSegmentId = 0;
+    private long count = 0;
+    private long totalSize = 0;
+    private long garbageRecords = 0;
+    private boolean closed = false;
+
+    public PackedBlobStore(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_SEGMENT_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    PackedBlobStore(Path directory, long maxSegmentSize) throws IOException {
+        this.directory = directory;
+        this.indexFile = directory.resolve(INDEX_FILE);
+        this.maxSegmentSize = maxSegmentSize;
+        this.locations = new Map[256];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = new ConcurrentHashMap<>();
+        }
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(INDEX_TMP_FILE));
+        openSegments();
+        replayIndex();
+        Segment lastSegment = segments.get(maxSegmentId);
+        if (lastSegment != null && lastSegment.size < maxSegmentSize) {
+            activeSegment = lastSegment;
+        } else {
+            activeSegment = newSegment();
+        }
+    }
+
+    private void openSegments() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path path : stream) {
+                int id = Integer.parseInt(path.getFileName().toString().substring(SEGMENT_PREFIX.length()));
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                segments.put(id, new Segment(id, path, channel, channel.size()));
+                maxSegmentId = Math.max(maxSegmentId, id);
+            }
+        }
+    }
+
+    private void replayIndex() throws IOException {
+        indexChannel = FileChannel.open(
+            indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = indexChannel.size();
+        long validSize = size - size % RECORD_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024);
+        long position = 0;
+        while (position < validSize) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), validSize - position));
+            readFully(indexChannel, position, buffer);
+            position += buffer.position();
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                replayRecord(buffer);
+            }
+        }
+        if (validSize < size) {
+            LOGGER.warn("Truncating incomplete record at the end of the packed blob index {}", indexFile);
+            indexChannel.truncate(validSize);
+        }
+        indexChannel.position(validSize);
+        syncedIndexPosition = validSize;
+    }
+
+    private void replayRecord(ByteBuffer buffer) {
+        byte op = buffer.get();
+        byte[] digest = new byte[DIGEST_LENGTH];
+        buffer.get(digest);
+        Location location = new Location(buffer.getInt(), buffer.getLong(), buffer.getInt(), buffer.getLong());
+        BytesArray key = new BytesArray(digest);
+        Map<BytesArray, Location> map = locations[digest[0] & 0xFF];
+        if (op == PUT) {
+            Segment segment = segments.get(location.segment);
+            if (segment == null || location.offset + location.length > segment.size) {
+                // the blob has been moved by a compaction; the record pointing to the new location follows
+                garbageRecords++;
+                return;
+            }
+            Location previous = map.put(key, location);
+            if (previous != null) {
+                removed(previous);
+                garbageRecords++;
+            }
+            added(location);
+        } else {
+            Location previous = map.remove(key);
+            if (previous != null) {
+                removed(previous);
+                garbageRecords++;
+            }
+            garbageRecords++;
+        }
+    }
+
+    private static Map<BytesArray, Location> locationsFor(Map<BytesArray, Location>[] locations, byte[] digest) {
+        return locations[digest[0] & 0xFF];
+    }
+
+    public boolean contains(String digest) {
+        byte[] bytes = Hex.decodeHex(digest);
+        return locationsFor(locations, bytes).containsKey(new BytesArray(bytes));
+    }
+
+    /**
+     * @return the length of the blob or -1 if the blob isn't stored in this store
+     */
+    public long length(String digest) {
+        byte[] bytes = Hex.decodeHex(digest);
+        Location location = locationsFor(locations, bytes).get(new BytesArray(bytes));
+        return location == null ? -1 : location.length;
+    }
+
+    /**
+     * Returns a handle to read the blob from its segment. The segment stays open until the handle is closed,
+     * even if it is removed by a compaction in the meantime.
+     *
+     * @return the blob or null if the blob isn't stored in this store
+     */
+    @Nullable
+    public PackedBlob open(String digest) {
+        byte[] bytes = Hex.decodeHex(digest);
+        Map<BytesArray, Location> map = locationsFor(locations, bytes);
+        BytesArray key = new BytesArray(bytes);
+        // a compaction updates the location before it releases the old segment, so a retry sees the new location
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Location location = map.get(key);
+            if (location == null) {
+                return null;
+            }
+            Segment segment = segments.get(location.segment);
+            if (segment != null && segment.tryIncRef()) {
+                return new PackedBlob(digest, segment, location);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends the content of {@code file} to the active segment.
+     * The caller must make sure that the digest isn't already stored.
+     */
+    public void put(String digest, Path file, long size) throws IOException {
+        assert size <= MAX_PACKED_BLOB_SIZE : "blob is too large to be packed";
+        byte[] bytes = Hex.decodeHex(digest);
+        Segment segment;
+        long offset;
+        synchronized (this) {
+            ensureOpen();
+            segment = segmentFor(size);
+            offset = segment.size;
+            segment.size += size;
+            segment.pendingWrites++;
+            segment.incRef();
+        }
+        boolean written = false;
+        try {
+            try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                long transferred = 0;
+                while (transferred < size) {
+                    long n = segment.channel.transferFrom(source, offset + transferred, size - transferred);
+                    if (n <= 0) {
+                        throw new EOFException("Blob file " + file + " is shorter than " + size + " bytes");
+                    }
+                    transferred += n;
+                }
+            }
+            segment.channel.force(false);
+            written = true;
+        } finally {
+            segment.decRef();
+            if (written == false) {
+                // the reserved range is garbage that is dropped by a compaction
+                synchronized (this) {
+                    segment.pendingWrites--;
+                }
+            }
+        }
+
+        Location location = new Location(segment.id, offset, (int) size, System.currentTimeMillis());
+        long generation;
+        long position;
+        synchronized (this) {
+            segment.pendingWrites--;
+            ensureOpen();
+            writeRecord(PUT, bytes, location);
+            locationsFor(locations, bytes).put(new BytesArray(bytes), location);
+            added(location);
+            generation = indexGeneration;
+            position = indexChannel.position();
+        }
+        syncIndex(generation, position);
+    }
+
+    /**
+     * @return the length of the deleted blob or -1 if the blob isn't stored in this store
+     */
+    public long delete(String digest) throws IOException {
+        byte[] bytes = Hex.decodeHex(digest);
+        BytesArray key = new BytesArray(bytes);
+        Map<BytesArray, Location> map = locationsFor(locations, bytes);
+        Location location;
+        long generation;
+        long position;
+        synchronized (this) {
+            location = map.get(key);
+            if (location == null) {
+                return -1;
+            }
+            writeRecord(DELETE, bytes, location);
+            map.remove(key);
+            removed(location);
+            garbageRecords += 2;
+            generation = indexGeneration;
+            position = indexChannel.position();
+        }
+        syncIndex(generation, position);
+        return location.length;
+    }
+
+    /**
+     * Fsyncs the index up to {@code position}. A writer whose record has been synced by the fsync of another
+     * writer in the meantime returns without syncing again, so that concurrent writers share one fsync.
+     */
+    private void syncIndex(long generation, long position) throws IOException {
+        synchronized (indexSyncLock) {
+            FileChannel channel;
+            long end;
+            synchronized (this) {
+                if (generation != indexGeneration || syncedIndexPosition >= position) {
+                    return;
+                }
+                ensureOpen();
+                channel = indexChannel;
+                end = channel.position();
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                synchronized (this) {
+                    if (generation != indexGeneration) {
+                        // the index has been rewritten and synced in the meantime
+                        return;
+                    }
+                }
+                throw e;
+            }
+            synchronized (this) {
+                if (generation == indexGeneration) {
+                    syncedIndexPosition = Math.max(syncedIndexPosition, end);
+                }
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new AlreadyClosedException("packed blob store " + directory + " is closed");
+        }
+    }
+
+    /**
+     * @return the digests of all blobs whose digest starts with {@code prefix}
+     */
+    public byte[][] digests(byte prefix) {
+        Set<BytesArray> keys = locations[prefix & 0xFF].keySet();
+        List<byte[]> digests = new ArrayList<>(keys.size());
+        for (BytesArray key : keys) {
+            digests.add(key.array());
+        }
+        return digests.toArray(new byte[0][]);
+    }
+
+    /**
+     * Lists all blobs. Each prefix is only copied when the iteration reaches it.
+     */
+    public Iterable<BlobEntry> entries() {
+        return Iterables.concat(Iterables.transform(Arrays.asList(locations), map -> {
+            List<BlobEntry> entries = new ArrayList<>(map.size());
+            for (Map.Entry<BytesArray, Location> entry : map.entrySet()) {
+                String digest = Hex.encodeHexString(entry.getKey().array());
+                long lastModified = entry.getValue().lastModified;
+                entries.add(new BlobEntry() {
+                    @Override
+                    public String digest() {
+                        return digest;
+                    }
+
+                    @Override
+                    public long lastModified() {
+                        return lastModified;
+                    }
+                });
+            }
+            return entries;
+        }));
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized long totalSize() {
+        return totalSize;
+    }
+
+    public synchronized boolean needsCompaction() {
+        if (garbageRecords > count) {
+            return true;
+        }
+        for (Segment segment : segments.values()) {
+            if (isCompactionCandidate(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompactionCandidate(Segment segment) {
+        return segment != activeSegment
+               && segment.pendingWrites == 0
+               && (segment.liveBytes == 0 || segment.liveBytes < segment.size * COMPACTION_RATIO);
+    }
+
+    /**
+     * Moves the live blobs of sparse segments into the active segment, removes the sparse segments
+     * and rewrites the index if it mostly consists of outdated records.
+     * Concurrent calls return immediately while a compaction is running.
+     */
+    public void compact() throws IOException {
+        if (compacting.compareAndSet(false, true) == false) {
+            return;
+        }
+        try {
+            List<Segment> candidates = new ArrayList<>();
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                for (Segment segment : segments.values()) {
+                    if (isCompactionCandidate(segment)) {
+                        candidates.add(segment);
+                    }
+                }
+            }
+            for (Segment segment : candidates) {
+                compact(segment);
+            }
+            synchronized (this) {
+                if (closed == false && garbageRecords > count) {
+                    rewriteIndex();
+                }
+            }
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private void compact(Segment segment) throws IOException {
+        List<byte[]> digests = new ArrayList<>();
+        List<Location> sources = new ArrayList<>();
+        for (Map<BytesArray, Location> map : locations) {
+            for (Map.Entry<BytesArray, Location> entry : map.entrySet()) {
+                if (entry.getValue().segment == segment.id) {
+                    digests.add(entry.getKey().array());
+                    sources.add(entry.getValue());
+                }
+            }
+        }
+        LOGGER.debug("Compacting packed blob segment {} with {} live blobs", segment.path, digests.size());
+
+        // copy the content without holding the lock, so that reads and writes can continue
+        List<Location> targets = new ArrayList<>(digests.size());
+        Set<Segment> written = new HashSet<>();
+        for (int i = 0; i < digests.size(); i++) {
+            Location source = sources.get(i);
+            ByteBuffer content = ByteBuffer.allocate(source.length);
+            readFully(segment.channel, source.offset, content);
+            content.flip();
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                Segment target = segmentFor(source.length);
+                long offset = target.size;
+                while (content.hasRemaining()) {
+                    target.channel.write(content, offset + content.position());
+                }
+                target.size += source.length;
+                written.add(target);
+                targets.add(new Location(target.id, offset, source.length, source.lastModified));
+            }
+        }
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            for (Segment target : written) {
+                target.channel.force(false);
+            }
+            for (int i = 0; i < digests.size(); i++) {
+                byte[] digest = digests.get(i);
+                BytesArray key = new BytesArray(digest);
+                Map<BytesArray, Location> map = locationsFor(locations, digest);
+                Location source = sources.get(i);
+                if (map.get(key) != source) {
+                    // deleted while it was copied, the copy is garbage
+                    continue;
+                }
+                Location target = targets.get(i);
+                writeRecord(PUT, digest, target);
+                map.put(key, target);
+                removed(source);
+                added(target);
+                garbageRecords++;
+            }
+            indexChannel.force(false);
+            segments.remove(segment.id);
+            segment.obsolete = true;
+            segment.decRef();
+        }
+    }
+
+    private void rewriteIndex() throws IOException {
+        Path tmpFile = directory.resolve(INDEX_TMP_FILE);
+        try (FileChannel channel = FileChannel.open(
+            tmpFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024);
+            for (Map<BytesArray, Location> map : locations) {
+                for (Map.Entry<BytesArray, Location> entry : map.entrySet()) {
+                    if (buffer.remaining() < RECORD_SIZE) {
+                        buffer.flip();
+                        writeFully(channel, buffer);
+                        buffer.clear();
+                    }
+                    putRecord(buffer, PUT, entry.getKey().array(), entry.getValue());
+                }
+            }
+            buffer.flip();
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+        indexChannel.close();
+        Files.move(tmpFile, indexFile, StandardCopyOption.ATOMIC_MOVE);
+        indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexChannel.position(indexChannel.size());
+        indexGeneration++;
+        syncedIndexPosition = indexChannel.position();
+        garbageRecords = 0;
+    }
+
+    private Segment segmentFor(long size) throws IOException {
+        if (activeSegment.size > 0 && activeSegment.size + size > maxSegmentSize) {
+            activeSegment = newSegment();
+        }
+        return activeSegment;
+    }
+
+    private Segment newSegment() throws IOException {
+        int id = ++maxSegmentId;
+        Path path = directory.resolve(String.format(Locale.ENGLISH, "%s%010d", SEGMENT_PREFIX, id));
+        FileChannel channel = FileChannel.open(
+            path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, path, channel, 0);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private void writeRecord(byte op, byte[] digest, Location location) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        putRecord(record, op, digest, location);
+        record.flip();
+        writeFully(indexChannel, record);
+    }
+
+    private static void putRecord(ByteBuffer buffer, byte op, byte[] digest, Location location) {
+        buffer.put(op)
+            .put(digest)
+            .putInt(location.segment)
+            .putLong(location.offset)
+            .putInt(location.length)
+            .putLong(location.lastModified);
+    }
+
+    private void added(Location location) {
+        count++;
+        totalSize += location.length;
+        Segment segment = segments.get(location.segment);
+        if (segment != null) {
+            segment.liveBytes += location.length;
+        }
+    }
+
+    private void removed(Location location) {
+        count--;
+        totalSize -= location.length;
+        Segment segment = segments.get(location.segment);
+        if (segment != null) {
+            segment.liveBytes -= location.length;
+        }
+    }
+
+    private static void readFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of file reading " + buffer.remaining() + " bytes");
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Map<BytesArray, Location> map : locations) {
+            map.clear();
+        }
+        List<Segment> openSegments = new ArrayList<>(segments.values());
+        segments.clear();
+        for (Segment segment : openSegments) {
+            segment.decRef();
+        }
+        IOUtils.close(indexChannel);
+    }
+
+    private static final class Location {
+
+        private final int segment;
+        private final long offset;
+        private final int length;
+        private final long lastModified;
+
+        private Location(int segment, long offset, int length, long lastModified) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static final class Segment extends AbstractRefCounted {
+
+        private final int id;
+        private final Path path;
+        private final FileChannel channel;
+        private long size;
+        private long liveBytes = 0;
+        // puts which reserved a range of the segment but have not written their record yet
+        private int pendingWrites = 0;
+        private volatile boolean obsolete = false;
+
+        private Segment(int id, Path path, FileChannel channel, long size) {
+            super("packed blob segment");
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+
+        @Override
+        protected void closeInternal() {
+            IOUtils.closeWhileHandlingException(channel);
+            if (obsolete) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    LOGGER.warn("Could not delete compacted blob segment {}", path);
+                }
+            }
+        }
+    }
+
+    /**
+     * A blob within a segment. Must be closed to release the segment.
+     */
+    public static final class PackedBlob implements Closeable {
+
+        private final String digest;
+        private final Segment segment;
+        private final Location location;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private PackedBlob(String digest, Segment segment, Location location) {
+            this.digest = digest;
+            this.segment = segment;
+            this.location = location;
+        }
+
+        public String digest() {
+            return digest;
+        }
+
+        /**
+         * The channel of the segment containing the blob. Shared with other readers, so it must not be closed
+         * and only be read using absolute positions.
+         */
+        public FileChannel channel() {
+            return segment.channel;
+        }
+
+        public long offset() {
+            return location.offset;
+        }
+
+        public long length() {
+            return location.length;
+        }
+
+        /**
+         * Reads the remaining bytes of {@code buffer} starting at {@code position} within the blob.
+         */
+        public void readFully(long position, ByteBuffer buffer) throws IOException {
+            assert position + buffer.remaining() <= location.length : "must not read beyond the blob";
+            PackedBlobStore.readFully(segment.channel, location.offset + position, buffer);
+        }
+
+        public InputStream newInputStream() {
+            return new InputStream() {
+
+                private long position = 0;
+
+                @Override
+                public int read() throws IOException {
+                    byte[] b = new byte[1];
+                    return read(b, 0, 1) == 1 ? b[0] & 0xFF : -1;
+                }
+
+                @Override
+                public long skip(long n) {
+                    long skipped = Math.max(0, Math.min(n, location.length - position));
+                    position += skipped;
+                    return skipped;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    long remaining = location.length - position;
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int read = (int) Math.min(len, remaining);
+                    ByteBuffer buffer = ByteBuffer.wrap(b, off, read);
+                    PackedBlobStore.readFully(segment.channel, location.offset + position, buffer);
+                    position += read;
+                    return read;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                segment.decRef();
+            }
+        }
+    }
+}
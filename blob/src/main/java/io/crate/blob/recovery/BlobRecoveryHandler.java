@@ -56,8 +56,8 @@ import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -192,7 +192,7 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
                              request.shardId().getIndexName(), request.shardId().id(), digest,
                              request.targetNode().getName());
                 cancellableThreads.executeIO(
-                    new TransferFileRunnable(blobShard.blobContainer().getFile(digest),
+                    new TransferFileRunnable(digest,
                         lastException, latch)
                 );
             }
@@ -236,11 +236,17 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
     private class TransferFileRunnable implements CancellableThreads.Interruptable {
         private final AtomicReference<Exception> lastException;
         private final String baseDir;
+        private final String digest;
         private final File file;
         private final CountDownLatch latch;
 
-        TransferFileRunnable(File filePath, AtomicReference<Exception> lastException, CountDownLatch latch) {
-            this.file = filePath;
+        /**
+         * Packed blobs are read from their segment but are sent like files, so the target stores them as
+         * individual files below {@code var/}.
+         */
+        TransferFileRunnable(String digest, AtomicReference<Exception> lastException, CountDownLatch latch) {
+            this.digest = digest;
+            this.file = blobShard.blobContainer().getFile(digest);
             this.lastException = lastException;
             this.latch = latch;
             this.baseDir = blobShard.blobContainer().getBaseDirectory().toAbsolutePath().toString();
@@ -252,14 +258,14 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
             try {
                 final int BUFFER_SIZE = 4 * 4096;
 
-                long fileSize = file.length();
+                long fileSize = blobShard.blobContainer().length(digest);
 
                 if (fileSize == 0) {
                     LOGGER.warn("[{}][{}] empty file: {}",
                                 request.shardId().getIndexName(), request.shardId().id(), file.getName());
                 }
 
-                try (FileInputStream fileStream = new FileInputStream(file)) {
+                try (InputStream fileStream = blobShard.blobContainer().openInputStream(digest)) {
                     String filePath = file.getAbsolutePath();
                     String relPath = filePath.substring(baseDir.length() + 1, filePath.length());
                     assert !relPath.startsWith("/") : "relPath must not start with a /";
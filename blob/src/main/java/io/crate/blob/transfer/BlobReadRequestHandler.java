@@ -0,0 +1,88 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+package io.crate.blob.transfer;
+
+import com.google.common.io.ByteStreams;
+import io.crate.blob.BlobContainer;
+import io.crate.blob.exceptions.DigestNotFoundException;
+import io.crate.blob.v2.BlobIndicesService;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportChannel;
+import org.elasticsearch.transport.TransportRequestHandler;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.InputStream;
+
+/**
+ * Serves blob reads of nodes which don't hold a copy of the blob's shard, so that they can proxy the blob to
+ * their HTTP clients instead of redirecting them.
+ */
+public class BlobReadRequestHandler {
+
+    public static class Actions {
+        public static final String READ_CHUNK = "internal:crate:blob/shard/read_chunk";
+    }
+
+    private final TransportService transportService;
+    private final BlobIndicesService blobIndicesService;
+
+    @Inject
+    public BlobReadRequestHandler(TransportService transportService, BlobIndicesService blobIndicesService) {
+        this.transportService = transportService;
+        this.blobIndicesService = blobIndicesService;
+    }
+
+    public void registerHandler() {
+        transportService.registerRequestHandler(
+            Actions.READ_CHUNK, ReadBlobChunkRequest::new, ThreadPool.Names.GENERIC, new ReadChunkHandler());
+    }
+
+    private class ReadChunkHandler implements TransportRequestHandler<ReadBlobChunkRequest> {
+
+        @Override
+        public void messageReceived(ReadBlobChunkRequest request, TransportChannel channel, Task task) throws Exception {
+            BlobContainer container = blobIndicesService.localBlobShard(request.index, request.digest).blobContainer();
+            if (!container.exists(request.digest)) {
+                channel.sendResponse(ReadBlobChunkResponse.NOT_FOUND);
+                return;
+            }
+            long blobLength = container.length(request.digest);
+            int length = (int) Math.max(0, Math.min(request.length, blobLength - request.position));
+            if (length == 0) {
+                channel.sendResponse(new ReadBlobChunkResponse(blobLength, BytesArray.EMPTY));
+                return;
+            }
+            byte[] content = new byte[length];
+            try (InputStream in = container.openInputStream(request.digest)) {
+                ByteStreams.skipFully(in, request.position);
+                ByteStreams.readFully(in, content);
+            } catch (DigestNotFoundException e) {
+                // deleted concurrently
+                channel.sendResponse(ReadBlobChunkResponse.NOT_FOUND);
+                return;
+            }
+            channel.sendResponse(new ReadBlobChunkResponse(blobLength, new BytesArray(content)));
+        }
+    }
+}
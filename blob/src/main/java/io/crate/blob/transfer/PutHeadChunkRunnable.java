@@ -35,6 +35,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
@@ -71,7 +72,7 @@ public class PutHeadChunkRunnable implements Runnable {
 
     @Override
     public void run() {
-        FileInputStream fileInputStream = null;
+        InputStream inputStream = null;
         try {
             int bufSize = 4096;
             int bytesRead;
@@ -81,23 +82,27 @@ public class PutHeadChunkRunnable implements Runnable {
             byte[] buffer = new byte[bufSize];
             long remainingBytes = bytesToSend;
 
-            File pendingFile;
-            try {
-                pendingFile = digestBlob.file();
-                if (pendingFile == null) {
-                    pendingFile = digestBlob.getContainerFile();
+            File pendingFile = digestBlob.file();
+            if (pendingFile != null) {
+                try {
+                    inputStream = new FileInputStream(pendingFile);
+                } catch (FileNotFoundException e) {
+                    // this happens if the file has already been moved from tmpDirectory to the container
+                    pendingFile = null;
                 }
-                fileInputStream = new FileInputStream(pendingFile);
-            } catch (FileNotFoundException e) {
-                // this happens if the file has already been moved from tmpDirectory to containerDirectory
-                pendingFile = digestBlob.getContainerFile();
-                fileInputStream = new FileInputStream(pendingFile);
+            }
+            if (inputStream == null) {
+                // the blob is committed, its content is complete
+                inputStream = digestBlob.openCommitted();
             }
 
             while (remainingBytes > 0) {
                 size = (int) Math.min(bufSize, remainingBytes);
-                bytesRead = fileInputStream.read(buffer, 0, size);
+                bytesRead = inputStream.read(buffer, 0, size);
                 if (bytesRead < size) {
+                    if (pendingFile == null) {
+                        throw new HeadChunkFileTooSmallException(digestBlob.getDigest());
+                    }
                     waitUntilFileHasGrown(pendingFile);
                     fileGrowthWaited++;
                     if (fileGrowthWaited == maxFileGrowthWait) {
@@ -129,9 +134,9 @@ public class PutHeadChunkRunnable implements Runnable {
                     LOGGER.error("Error closing WatchService in {}", e, getClass().getSimpleName());
                 }
             }
-            if (fileInputStream != null) {
+            if (inputStream != null) {
                 try {
-                    fileInputStream.close();
+                    inputStream.close();
                 } catch (IOException e) {
                     LOGGER.error("Error closing HeadChunk", e);
                 }
@@ -0,0 +1,63 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+package io.crate.blob.transfer;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportRequest;
+
+import java.io.IOException;
+
+/**
+ * Requests a range of a blob from a node holding a copy of the blob's shard.
+ * A request with length 0 only checks if the blob exists and returns its length.
+ */
+public class ReadBlobChunkRequest extends TransportRequest {
+
+    public final String index;
+    public final String digest;
+    public final long position;
+    public final int length;
+
+    public ReadBlobChunkRequest(String index, String digest, long position, int length) {
+        this.index = index;
+        this.digest = digest;
+        this.position = position;
+        this.length = length;
+    }
+
+    public ReadBlobChunkRequest(StreamInput in) throws IOException {
+        super(in);
+        index = in.readString();
+        digest = in.readString();
+        position = in.readVLong();
+        length = in.readVInt();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(index);
+        out.writeString(digest);
+        out.writeVLong(position);
+        out.writeVInt(length);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+package io.crate.blob.transfer;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportResponse;
+
+import java.io.IOException;
+
+public class ReadBlobChunkResponse extends TransportResponse {
+
+    public static final ReadBlobChunkResponse NOT_FOUND = new ReadBlobChunkResponse(-1, BytesArray.EMPTY);
+
+    /**
+     * The length of the whole blob or -1 if the blob doesn't exist
+     */
+    public final long blobLength;
+    public final BytesReference content;
+
+    public ReadBlobChunkResponse(long blobLength, BytesReference content) {
+        this.blobLength = blobLength;
+        this.content = content;
+    }
+
+    public ReadBlobChunkResponse(StreamInput in) throws IOException {
+        blobLength = in.readLong();
+        content = in.readBytesReference();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeLong(blobLength);
+        out.writeBytesReference(content);
+    }
+}
@@ -142,6 +142,22 @@ public class BlobIndex {
         }
     }
 
+    /**
+     * Closes the shard but keeps it, so that its blobs can be deleted by {@link #removeShard(ShardId)}.
+     */
+    void closeShard(ShardId shardId) {
+        BlobShard shard = shards.get(shardId.id());
+        if (shard != null) {
+            shard.close();
+        }
+    }
+
+    void close() {
+        for (BlobShard shard : shards.values()) {
+            shard.close();
+        }
+    }
+
     BlobShard getShard(int shardId) {
         return shards.get(shardId);
     }
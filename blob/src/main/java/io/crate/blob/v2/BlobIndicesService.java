@@ -64,6 +64,8 @@ public class BlobIndicesService implements IndexEventListener {
         "index.blobs.enabled", false, Setting.Property.IndexScope);
     public static final Setting<String> SETTING_INDEX_BLOBS_PATH = Setting.simpleString(
         "index.blobs.path", Setting.Property.IndexScope);
+    public static final Setting<Boolean> SETTING_INDEX_BLOBS_PACKED = Setting.boolSetting(
+        "index.blobs.packed", false, Setting.Property.IndexScope, Setting.Property.Final);
     public static final Setting<String> SETTING_BLOBS_PATH = Setting.simpleString(
         "blobs.path", Setting.Property.NodeScope);
 
@@ -111,6 +113,9 @@ public class BlobIndicesService implements IndexEventListener {
         if (isBlobIndex(indexName)) {
             BlobIndex blobIndex = indices.remove(indexName);
             assert blobIndex != null : "BlobIndex not found on afterIndexDeleted";
+            if (blobIndex != null) {
+                blobIndex.close();
+            }
         }
     }
 
@@ -138,6 +143,17 @@ public class BlobIndicesService implements IndexEventListener {
         }
     }
 
+    @Override
+    public void afterIndexShardClosed(ShardId shardId, @Nullable IndexShard indexShard, Settings indexSettings) {
+        String index = shardId.getIndexName();
+        if (isBlobIndex(index)) {
+            BlobIndex blobIndex = indices.get(index);
+            if (blobIndex != null) {
+                blobIndex.closeShard(shardId);
+            }
+        }
+    }
+
     @Override
     public void afterIndexShardDeleted(ShardId shardId, Settings indexSettings) {
         String index = shardId.getIndexName();
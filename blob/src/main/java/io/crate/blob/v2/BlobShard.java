@@ -22,6 +22,7 @@
 package io.crate.blob.v2;
 
 import io.crate.blob.BlobContainer;
+import io.crate.blob.PackedBlobStore;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.IOUtils;
 import org.elasticsearch.cluster.routing.ShardRouting;
@@ -35,7 +36,6 @@ import org.elasticsearch.index.shard.ShardPath;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
@@ -57,7 +57,8 @@ public class BlobShard {
         logger = Loggers.getLogger(BlobShard.class, indexShard.shardId());
         blobDir = resolveBlobDir(indexShard.indexSettings(), indexShard.shardPath(), globalBlobPath);
         logger.info("creating BlobContainer at {}", blobDir);
-        this.blobContainer = new BlobContainer(blobDir);
+        boolean packed = BlobIndicesService.SETTING_INDEX_BLOBS_PACKED.get(indexShard.indexSettings().getSettings());
+        this.blobContainer = new BlobContainer(blobDir, packed);
     }
 
     void initialize() {
@@ -75,6 +76,12 @@ public class BlobShard {
             logger.error("Unable to compute initial blob shard size and count", e);
             throw new RuntimeException(e);
         }
+        PackedBlobStore packedStore = blobContainer.packedStore();
+        if (packedStore != null) {
+            blobsCount += packedStore.count();
+            totalSize += packedStore.totalSize();
+            maybeCompact(packedStore);
+        }
     }
 
     Path getBlobDir() {
@@ -91,21 +98,33 @@ public class BlobShard {
 
     public boolean delete(String digest) {
         try {
-            Path blobPath = blobContainer.getFile(digest).toPath();
-            long blobSize = 0;
-            if (Files.exists(blobPath)) {
-                blobSize = Files.size(blobPath);
+            long blobSize = blobContainer.delete(digest);
+            if (blobSize < 0) {
+                return false;
             }
-            boolean deleted = Files.deleteIfExists(blobPath);
-            if (deleted) {
-                decrementStats(blobSize);
+            decrementStats(blobSize);
+            PackedBlobStore packedStore = blobContainer.packedStore();
+            if (packedStore != null) {
+                maybeCompact(packedStore);
             }
-            return deleted;
+            return true;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private void maybeCompact(PackedBlobStore packedStore) {
+        if (packedStore.needsCompaction()) {
+            indexShard.getThreadPool().generic().execute(() -> {
+                try {
+                    packedStore.compact();
+                } catch (IOException e) {
+                    logger.warn("Compaction of packed blobs failed", e);
+                }
+            });
+        }
+    }
+
     public void incrementStats(long size) {
         totalSize += size;
         blobsCount++;
@@ -132,9 +151,22 @@ public class BlobShard {
         return indexShard.routingEntry();
     }
 
+    /**
+     * Releases the open files of the shard, for example if the shard is closed because it relocated
+     * or the node shuts down. The blobs stay on disk.
+     */
+    void close() {
+        try {
+            blobContainer.close();
+        } catch (IOException e) {
+            logger.warn("Could not close blob container: {} {}", blobDir, e);
+        }
+    }
+
     void deleteShard() {
         Path baseDirectory = blobContainer.getBaseDirectory();
         try {
+            blobContainer.close();
             IOUtils.rm(baseDirectory);
         } catch (IOException e) {
             logger.warn("Could not delete blob directory: {} {}", baseDirectory, e);
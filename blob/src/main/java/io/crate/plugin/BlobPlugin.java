@@ -22,6 +22,7 @@
 package io.crate.plugin;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.blob.BlobCache;
 import io.crate.blob.BlobModule;
 import io.crate.blob.BlobService;
 import io.crate.blob.DeleteBlobAction;
@@ -36,9 +37,13 @@ import org.elasticsearch.common.component.LifecycleComponent;
 import org.elasticsearch.common.inject.Module;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.plugins.ActionPlugin;
 import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.threadpool.ExecutorBuilder;
+import org.elasticsearch.threadpool.ScalingExecutorBuilder;
 import org.elasticsearch.transport.TransportRequest;
 import org.elasticsearch.transport.TransportResponse;
 
@@ -80,10 +85,20 @@ public class BlobPlugin extends Plugin implements ActionPlugin {
         return Arrays.asList(
             BlobIndicesService.SETTING_BLOBS_PATH,
             BlobIndicesService.SETTING_INDEX_BLOBS_ENABLED,
-            BlobIndicesService.SETTING_INDEX_BLOBS_PATH
+            BlobIndicesService.SETTING_INDEX_BLOBS_PATH,
+            BlobIndicesService.SETTING_INDEX_BLOBS_PACKED,
+            BlobService.SETTING_BLOBS_PROXY_READS,
+            BlobService.SETTING_BLOBS_CACHE_SIZE
         );
     }
 
+    @Override
+    public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+        // writes and deletes of the files of the blob cache, kept off the network threads
+        int maxThreads = Math.min(4, EsExecutors.numberOfProcessors(settings));
+        return List.of(new ScalingExecutorBuilder(BlobCache.EXECUTOR_NAME, 1, maxThreads, TimeValue.timeValueMinutes(5)));
+    }
+
     @Override
     public Collection<Class<? extends LifecycleComponent>> getGuiceServiceClasses() {
         return ImmutableList.of(BlobService.class);
@@ -21,17 +21,21 @@
 
 package io.crate.protocols.http;
 
+import io.crate.blob.BlobCache;
 import io.crate.blob.BlobService;
+import io.crate.blob.PackedBlobStore;
 import io.crate.blob.RemoteDigestBlob;
 import io.crate.blob.exceptions.DigestMismatchException;
 import io.crate.blob.exceptions.DigestNotFoundException;
 import io.crate.blob.exceptions.MissingHTTPEndpointException;
+import io.crate.blob.transfer.ReadBlobChunkResponse;
 import io.crate.blob.v2.BlobIndex;
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.blob.v2.BlobShard;
 import io.crate.blob.v2.BlobsDisabledException;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
@@ -42,7 +46,9 @@ import io.netty.channel.DefaultFileRegion;
 import io.netty.channel.FileRegion;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
 import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.HttpChunkedInput;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaderNames;
@@ -56,17 +62,28 @@ import io.netty.handler.ssl.NotSslRecordException;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.stream.ChunkedFile;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.CheckedConsumer;
 import org.elasticsearch.common.Nullable;
 import org.apache.logging.log4j.LogManager;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.http.netty4.cors.Netty4CorsConfig;
 import org.elasticsearch.http.netty4.cors.Netty4CorsHandler;
 import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.transport.netty4.Netty4Utils;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.file.Path;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -81,6 +98,7 @@ public class HttpBlobHandler extends SimpleChannelInboundHandler<Object> {
     private static final String SCHEME_HTTP = "http://";
     private static final String SCHEME_HTTPS = "https://";
     private static final int HTTPS_CHUNK_SIZE = 8192;
+    private static final int PROXY_CHUNK_SIZE = 512 * 1024;
     private static final String CACHE_CONTROL_VALUE = "max-age=315360000";
     private static final String EXPIRES_VALUE = "Thu, 31 Dec 2037 23:59:59 GMT";
     private static final String BLOBS_ENDPOINT = "/_blobs";
@@ -113,8 +131,22 @@ public class HttpBlobHandler extends SimpleChannelInboundHandler<Object> {
 
     private boolean possibleRedirect(HttpRequest request, String index, String digest) {
         HttpMethod method = request.method();
-        if (method.equals(HttpMethod.GET) ||
-            method.equals(HttpMethod.HEAD) ||
+        boolean isRead = method.equals(HttpMethod.GET) || method.equals(HttpMethod.HEAD);
+        if (isRead && blobService.proxyReads()) {
+            DiscoveryNode node;
+            try {
+                node = blobService.getProxyNode(index, digest);
+            } catch (MissingHTTPEndpointException ex) {
+                simpleResponse(request, HttpResponseStatus.BAD_GATEWAY);
+                return true;
+            }
+            if (node != null) {
+                proxy(request, node, index, digest);
+                return true;
+            }
+            return false;
+        }
+        if (isRead ||
             (method.equals(HttpMethod.PUT) &&
              HttpUtil.is100ContinueExpected(request))) {
             String redirectAddress;
@@ -296,10 +328,13 @@ public class HttpBlobHandler extends SimpleChannelInboundHandler<Object> {
     private void head(HttpRequest request, String index, String digest) throws IOException {
 
         // this method only supports local mode, which is ok, since there
-        // should be a redirect upfront if data is not local
+        // should be a redirect or proxied read upfront if data is not local
 
         BlobShard blobShard = localBlobShard(index, digest);
-        long length = blobShard.blobContainer().getFile(digest).length();
+        headResponse(request, blobShard.blobContainer().length(digest));
+    }
+
+    private void headResponse(HttpRequest request, long length) {
         if (length < 1) {
             simpleResponse(request, HttpResponseStatus.NOT_FOUND);
             return;
@@ -312,10 +347,280 @@ public class HttpBlobHandler extends SimpleChannelInboundHandler<Object> {
 
     private void get(HttpRequest request, String index, final String digest) throws IOException {
         String range = request.headers().get(HttpHeaderNames.RANGE);
-        if (range != null) {
-            partialContentResponse(range, request, index, digest);
+        PackedBlobStore packedStore = localBlobShard(index, digest).blobContainer().packedStore();
+        PackedBlobStore.PackedBlob packedBlob = packedStore == null ? null : packedStore.open(digest);
+        if (packedBlob != null) {
+            packedContentResponse(range, request, packedBlob);
         } else {
-            fullContentResponse(request, index, digest);
+            RandomAccessFile raf = localBlobShard(index, digest).blobContainer().getRandomAccessFile(digest);
+            fileContentResponse(range, request, digest, raf);
+        }
+    }
+
+    /**
+     * Answers a GET or HEAD request for a blob which is stored on another node. HEAD requests only fetch the length
+     * of the blob. GET requests are served from the {@link BlobCache} if it holds the blob, otherwise the blob is
+     * streamed from the other node.
+     * <p>
+     * The channel doesn't read further requests until the response has been written, so that pipelined requests
+     * are answered in order.
+     */
+    private void proxy(HttpRequest request, DiscoveryNode node, String index, String digest) {
+        reset();
+        ctx.channel().config().setAutoRead(false);
+        if (request.method().equals(HttpMethod.HEAD)) {
+            blobService.readChunk(node, index, digest, 0, 0, onEventLoop(request, response -> {
+                headResponse(request, response.blobLength);
+                resumeReads();
+            }));
+            return;
+        }
+        BlobCache cache = blobService.cache();
+        long cachedSize = cache == null ? -1 : cache.size(digest);
+        if (cachedSize < 0) {
+            new ProxiedRead(request, node, index, digest).start();
+            return;
+        }
+        // blobs can be deleted, so the cached copy is only served if the blob still exists
+        blobService.readChunk(node, index, digest, 0, 0, onEventLoop(request, response -> {
+            if (response.blobLength == cachedSize) {
+                RandomAccessFile raf = openCached(cache, digest);
+                if (raf != null) {
+                    fileContentResponse(request.headers().get(HttpHeaderNames.RANGE), request, digest, raf);
+                    resumeReads();
+                    return;
+                }
+            } else {
+                cache.invalidate(digest);
+            }
+            if (response.blobLength < 0) {
+                simpleResponse(request, HttpResponseStatus.NOT_FOUND);
+                resumeReads();
+            } else {
+                new ProxiedRead(request, node, index, digest).start();
+            }
+        }));
+    }
+
+    @Nullable
+    private static RandomAccessFile openCached(BlobCache cache, String digest) {
+        Path file = cache.get(digest);
+        if (file == null) {
+            return null;
+        }
+        try {
+            return new RandomAccessFile(file.toFile(), "r");
+        } catch (FileNotFoundException e) {
+            // evicted concurrently
+            return null;
+        }
+    }
+
+    private ActionListener<ReadBlobChunkResponse> onEventLoop(
+        HttpRequest request,
+        CheckedConsumer<ReadBlobChunkResponse, IOException> consumer) {
+
+        return onEventLoop(request, consumer, e -> proxyFailed(request, e));
+    }
+
+    /**
+     * Runs the callbacks on the event loop of the channel with the request restored as {@link #currentMessage}.
+     */
+    private ActionListener<ReadBlobChunkResponse> onEventLoop(
+        HttpRequest request,
+        CheckedConsumer<ReadBlobChunkResponse, IOException> consumer,
+        Consumer<Exception> onFailure) {
+
+        return ActionListener.wrap(
+            response -> ctx.executor().execute(() -> {
+                currentMessage = request;
+                try {
+                    consumer.accept(response);
+                } catch (Exception e) {
+                    onFailure.accept(e);
+                }
+            }),
+            e -> ctx.executor().execute(() -> {
+                currentMessage = request;
+                onFailure.accept(e);
+            })
+        );
+    }
+
+    private void proxyFailed(HttpRequest request, Exception e) {
+        Throwable cause = ExceptionsHelper.unwrapCause(e);
+        if (cause instanceof IOException) {
+            // exceptionCaught doesn't send a response for IO errors
+            LOGGER.warn("Failed to read blob from another node", cause);
+            ctx.channel().close();
+        } else {
+            try {
+                exceptionCaught(ctx, cause);
+            } catch (Exception inner) {
+                LOGGER.warn("Failed to send error response", inner);
+                ctx.channel().close();
+            }
+        }
+        resumeReads();
+    }
+
+    private void resumeReads() {
+        reset();
+        ctx.channel().config().setAutoRead(true);
+    }
+
+    /**
+     * Streams a blob from another node chunk by chunk.
+     * The next chunk is only requested once the previous one has been flushed, so that a slow client doesn't pile up
+     * chunks in memory. Full reads of blobs which are small enough are written to the {@link BlobCache} as well.
+     */
+    private class ProxiedRead {
+
+        private final HttpRequest request;
+        private final DiscoveryNode node;
+        private final String index;
+        private final String digest;
+        private final boolean keepAlive;
+        @Nullable
+        private final String range;
+
+        private boolean partial = false;
+        private long start = 0;
+        private long end = Long.MAX_VALUE;
+        private long position;
+        private long blobLength = -1;
+
+        @Nullable
+        private BlobCache.Writer cacheWriter;
+
+        ProxiedRead(HttpRequest request, DiscoveryNode node, String index, String digest) {
+            this.request = request;
+            this.node = node;
+            this.index = index;
+            this.digest = digest;
+            this.keepAlive = HttpUtil.isKeepAlive(request);
+            this.range = request.headers().get(HttpHeaderNames.RANGE);
+        }
+
+        void start() {
+            Matcher matcher = range == null ? null : CONTENT_RANGE_PATTERN.matcher(range);
+            if (matcher != null && matcher.matches()) {
+                partial = true;
+                start = Long.parseLong(matcher.group(1));
+                if (!matcher.group(2).equals("")) {
+                    end = Long.parseLong(matcher.group(2));
+                }
+            } else if (range != null) {
+                LOGGER.warn("Invalid byte-range: {}; returning full content", range);
+            }
+            position = start;
+            readNext();
+        }
+
+        private void readNext() {
+            int length = (int) Math.min(PROXY_CHUNK_SIZE, end - position + 1);
+            blobService.readChunk(
+                node, index, digest, position, length, onEventLoop(request, this::onChunk, this::onFailure));
+        }
+
+        private void onChunk(ReadBlobChunkResponse chunk) throws IOException {
+            if (blobLength == -1) {
+                if (!sendHeaders(chunk.blobLength)) {
+                    resumeReads();
+                    return;
+                }
+            } else if (chunk.blobLength != blobLength) {
+                throw new DigestNotFoundException(digest);
+            }
+            BytesReference content = chunk.content;
+            position += content.length();
+            CompletableFuture<Void> cached = cacheWriter == null
+                ? CompletableFuture.completedFuture(null)
+                : cacheWriter.append(content);
+            if (position > end) {
+                addToCache();
+                ChannelFuture writeFuture = ctx.channel().writeAndFlush(
+                    new DefaultLastHttpContent(Netty4Utils.toByteBuf(content)));
+                if (!keepAlive) {
+                    writeFuture.addListener(ChannelFutureListener.CLOSE);
+                }
+                resumeReads();
+            } else if (content.length() == 0) {
+                throw new DigestNotFoundException(digest);
+            } else {
+                ctx.channel().writeAndFlush(new DefaultHttpContent(Netty4Utils.toByteBuf(content)))
+                    .addListener((ChannelFutureListener) future -> {
+                        if (future.isSuccess()) {
+                            // a slow disk must not pile up chunks in memory either
+                            cached.whenComplete((ignored, t) -> ctx.executor().execute(this::readNext));
+                        } else {
+                            onFailure(new IOException(future.cause()));
+                        }
+                    });
+            }
+        }
+
+        private void onFailure(Exception e) {
+            abortCache();
+            if (blobLength == -1) {
+                proxyFailed(request, e);
+                return;
+            }
+            // the status line has already been sent, the client can only notice the failure by the closed connection
+            LOGGER.warn("Failed to read blob from another node", e);
+            ctx.channel().close();
+            resumeReads();
+        }
+
+        /**
+         * Sends the status line and headers once the length of the blob is known.
+         *
+         * @return false if the request has already been answered
+         */
+        private boolean sendHeaders(long length) throws IOException {
+            if (length < 0) {
+                simpleResponse(request, HttpResponseStatus.NOT_FOUND);
+                return false;
+            }
+            if (start > length) {
+                LOGGER.warn("416 Requested Range not satisfiable");
+                simpleResponse(request, HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+                return false;
+            }
+            blobLength = length;
+            end = Math.min(end, length - 1);
+            HttpResponse response;
+            if (partial) {
+                response = new DefaultHttpResponse(HTTP_1_1, PARTIAL_CONTENT);
+                response.headers().set(HttpHeaderNames.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            } else {
+                response = new DefaultHttpResponse(HTTP_1_1, HttpResponseStatus.OK);
+            }
+            maybeSetConnectionCloseHeader(response);
+            HttpUtil.setContentLength(response, end - start + 1);
+            Netty4CorsHandler.setCorsResponseHeaders(request, response, corsConfig);
+            setDefaultGetHeaders(response);
+            ctx.channel().write(response);
+
+            BlobCache cache = blobService.cache();
+            if (cache != null && !partial && cache.accepts(length)) {
+                cacheWriter = cache.newWriter(digest, length);
+            }
+            return true;
+        }
+
+        private void addToCache() {
+            if (cacheWriter != null) {
+                cacheWriter.commit();
+                cacheWriter = null;
+            }
+        }
+
+        private void abortCache() {
+            if (cacheWriter != null) {
+                cacheWriter.abort();
+                cacheWriter = null;
+            }
         }
     }
 
@@ -323,18 +628,26 @@ public class HttpBlobHandler extends SimpleChannelInboundHandler<Object> {
         return blobIndicesService.localBlobShard(index, digest);
     }
 
-    private void partialContentResponse(String range, HttpRequest request, String index, final String digest)
+    private void fileContentResponse(@Nullable String range,
+                                     HttpRequest request,
+                                     String digest,
+                                     RandomAccessFile raf) throws IOException {
+        if (range != null) {
+            partialContentResponse(range, request, digest, raf);
+        } else {
+            fullContentResponse(request, digest, raf);
+        }
+    }
+
+    private void partialContentResponse(String range, HttpRequest request, final String digest, RandomAccessFile raf)
         throws IOException {
         assert range != null : "Getting partial response but no byte-range is not present.";
         Matcher matcher = CONTENT_RANGE_PATTERN.matcher(range);
         if (!matcher.matches()) {
             LOGGER.warn("Invalid byte-range: {}; returning full content", range);
-            fullContentResponse(request, index, digest);
+            fullContentResponse(request, digest, raf);
             return;
         }
-        BlobShard blobShard = localBlobShard(index, digest);
-
-        final RandomAccessFile raf = blobShard.blobContainer().getRandomAccessFile(digest);
         long start;
         long end;
         try {
@@ -379,12 +692,11 @@ public class HttpBlobHandler extends SimpleChannelInboundHandler<Object> {
         }
     }
 
-    private void fullContentResponse(HttpRequest request, String index, final String digest) throws IOException {
-        BlobShard blobShard = localBlobShard(index, digest);
+    private void fullContentResponse(HttpRequest request, final String digest, RandomAccessFile raf)
+        throws IOException {
         HttpResponse response = new DefaultHttpResponse(HTTP_1_1, HttpResponseStatus.OK);
-        Netty4CorsHandler.setCorsResponseHeaders(request, response, corsConfig);
-        final RandomAccessFile raf = blobShard.blobContainer().getRandomAccessFile(digest);
         try {
+            Netty4CorsHandler.setCorsResponseHeaders(request, response, corsConfig);
             HttpUtil.setContentLength(response, raf.length());
             setDefaultGetHeaders(response);
             LOGGER.trace("HttpResponse: {}", response);
@@ -405,6 +717,68 @@ public class HttpBlobHandler extends SimpleChannelInboundHandler<Object> {
         }
     }
 
+    private void packedContentResponse(@Nullable String range,
+                                       HttpRequest request,
+                                       PackedBlobStore.PackedBlob blob) throws IOException {
+        try {
+            long length = blob.length();
+            long start = 0;
+            long end = length - 1;
+            HttpResponse response;
+            Matcher matcher = range == null ? null : CONTENT_RANGE_PATTERN.matcher(range);
+            if (matcher != null && matcher.matches()) {
+                start = Long.parseLong(matcher.group(1));
+                if (start > length) {
+                    LOGGER.warn("416 Requested Range not satisfiable");
+                    simpleResponse(request, HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+                    blob.close();
+                    return;
+                }
+                if (!matcher.group(2).equals("")) {
+                    end = Math.min(end, Long.parseLong(matcher.group(2)));
+                }
+                response = new DefaultHttpResponse(HTTP_1_1, PARTIAL_CONTENT);
+                maybeSetConnectionCloseHeader(response);
+                response.headers().set(HttpHeaderNames.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            } else {
+                if (range != null) {
+                    LOGGER.warn("Invalid byte-range: {}; returning full content", range);
+                }
+                response = new DefaultHttpResponse(HTTP_1_1, HttpResponseStatus.OK);
+            }
+            HttpUtil.setContentLength(response, end - start + 1);
+            Netty4CorsHandler.setCorsResponseHeaders(request, response, corsConfig);
+            setDefaultGetHeaders(response);
+
+            ctx.channel().write(response);
+            ChannelFuture writeFuture = transferPackedBlob(blob, start, end - start + 1);
+            if (!HttpUtil.isKeepAlive(request)) {
+                writeFuture.addListener(ChannelFutureListener.CLOSE);
+            }
+        } catch (Throwable t) {
+            // on success the blob is released once it has been written
+            blob.close();
+            throw t;
+        }
+    }
+
+    private ChannelFuture transferPackedBlob(PackedBlobStore.PackedBlob blob, long position, long count)
+        throws IOException {
+
+        Channel channel = ctx.channel();
+        if (sslEnabled) {
+            // packed blobs are small, so they can be sent as a single chunk
+            ByteBuffer content = ByteBuffer.allocate((int) count);
+            blob.readFully(position, content);
+            blob.close();
+            content.flip();
+            return channel.writeAndFlush(new DefaultLastHttpContent(Unpooled.wrappedBuffer(content)));
+        }
+        // the segment is sent without copying it to user space; the region releases the blob after the write
+        channel.write(new PackedBlobRegion(blob, position, count), ctx.newProgressivePromise());
+        return channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    }
+
     private ChannelFuture transferFile(final String digest, RandomAccessFile raf, long position, long count)
         throws IOException {
 
@@ -38,6 +38,7 @@ import org.elasticsearch.transport.TransportService;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.UUID;
@@ -129,7 +130,7 @@ public class BlobHeadRequestHandlerTests extends CrateUnitTest {
 
         DigestBlob digestBlob = mock(DigestBlob.class);
         when(digestBlob.file()).thenReturn(notExisting);
-        when(digestBlob.getContainerFile()).thenReturn(file);
+        when(digestBlob.openCommitted()).thenReturn(new FileInputStream(file));
         PutHeadChunkRunnable runnable = new PutHeadChunkRunnable(
             digestBlob, 5, transportService, transferTarget, discoveryNode, transferId
         );
@@ -145,6 +146,6 @@ public class BlobHeadRequestHandlerTests extends CrateUnitTest {
         )).thenReturn(result);
 
         runnable.run();
-        verify(digestBlob).getContainerFile();
+        verify(digestBlob).openCommitted();
     }
 }
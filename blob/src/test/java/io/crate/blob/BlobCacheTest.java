@@ -0,0 +1,146 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+package io.crate.blob;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class BlobCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testLeastRecentlyReadBlobIsEvicted() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        BlobCache cache = new BlobCache(directory, 100, Runnable::run);
+        for (int i = 0; i < 10; i++) {
+            put(cache, "blob" + i, 10);
+        }
+        assertThat(cache.sizeInBytes(), is(100L));
+
+        assertThat(cache.get("blob0"), notNullValue());
+        // get counts as an access, so resolve the file directly
+        Path evictedFile = directory.resolve("blob1");
+        assertThat(Files.exists(evictedFile), is(true));
+        put(cache, "new", 5);
+
+        assertThat(cache.sizeInBytes(), is(95L));
+        assertThat(cache.get("blob1"), nullValue());
+        assertThat(Files.exists(evictedFile), is(false));
+        assertThat(cache.size("blob0"), is(10L));
+        assertThat(cache.size("blob2"), is(10L));
+        assertThat(Files.exists(cache.get("new")), is(true));
+    }
+
+    @Test
+    public void testLargeBlobIsNotCached() throws Exception {
+        BlobCache cache = new BlobCache(temporaryFolder.newFolder().toPath(), 300, Runnable::run);
+        Path tmpFile = put(cache, "a", 31);
+
+        assertThat(cache.get("a"), nullValue());
+        assertThat(cache.sizeInBytes(), is(0L));
+        assertThat(Files.exists(tmpFile), is(false));
+    }
+
+    @Test
+    public void testInvalidateRemovesBlob() throws Exception {
+        BlobCache cache = new BlobCache(temporaryFolder.newFolder().toPath(), 300, Runnable::run);
+        put(cache, "a", 10);
+        Path file = cache.get("a");
+
+        cache.invalidate("a");
+
+        assertThat(cache.size("a"), is(-1L));
+        assertThat(cache.sizeInBytes(), is(0L));
+        assertThat(Files.exists(file), is(false));
+    }
+
+    @Test
+    public void testCacheIsEmptiedOnStart() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        BlobCache cache = new BlobCache(directory, 300, Runnable::run);
+        put(cache, "a", 10);
+
+        cache = new BlobCache(directory, 300, Runnable::run);
+
+        assertThat(cache.get("a"), nullValue());
+        assertThat(Files.exists(directory.resolve("a")), is(false));
+    }
+
+    @Test
+    public void testWriterWritesChunksOnExecutorAndAddsBlobOnCommit() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            BlobCache cache = new BlobCache(directory, 300, executor);
+            BlobCache.Writer writer = cache.newWriter("a", 6);
+            writer.append(new BytesArray("abc"));
+            writer.append(new BytesArray("def")).get(5, TimeUnit.SECONDS);
+            writer.commit();
+            // the operations run in order, so a task submitted afterwards sees the committed blob
+            executor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+
+            assertThat(cache.size("a"), is(6L));
+            assertThat(new String(Files.readAllBytes(cache.get("a")), StandardCharsets.UTF_8), is("abcdef"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAbortedWriterDoesNotAddBlob() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        BlobCache cache = new BlobCache(directory, 300, Runnable::run);
+        BlobCache.Writer writer = cache.newWriter("a", 6);
+        writer.append(new BytesArray("abc"));
+        writer.abort();
+        writer.commit();
+
+        assertThat(cache.size("a"), is(-1L));
+        try (var files = Files.list(directory.resolve("tmp"))) {
+            assertThat(files.count(), is(0L));
+        }
+    }
+
+    private static Path put(BlobCache cache, String digest, int size) throws IOException {
+        Path tmpFile = cache.newTmpFile();
+        Files.write(tmpFile, new byte[size]);
+        cache.put(digest, tmpFile, size);
+        return tmpFile;
+    }
+}
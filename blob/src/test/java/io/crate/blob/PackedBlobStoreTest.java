@@ -0,0 +1,198 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+package io.crate.blob;
+
+import io.crate.common.Hex;
+import io.crate.test.utils.Blobs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PackedBlobStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void testPutReadAndDelete() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        try (PackedBlobStore store = new PackedBlobStore(directory)) {
+            String digestA = put(store, "Content A");
+            String digestB = put(store, "Content B");
+
+            assertThat(store.count(), is(2L));
+            assertThat(store.totalSize(), is(18L));
+            assertThat(store.length(digestA), is(9L));
+            assertThat(read(store, digestA), is("Content A"));
+            assertThat(read(store, digestB), is("Content B"));
+
+            assertThat(store.delete(digestA), is(9L));
+            assertThat(store.delete(digestA), is(-1L));
+            assertThat(store.contains(digestA), is(false));
+            assertThat(store.open(digestA), nullValue());
+            assertThat(store.count(), is(1L));
+        }
+    }
+
+    @Test
+    public void testIndexIsReplayedOnOpen() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        String digestA;
+        String digestB;
+        try (PackedBlobStore store = new PackedBlobStore(directory)) {
+            digestA = put(store, "Content A");
+            digestB = put(store, "Content B");
+            store.delete(digestA);
+        }
+        try (PackedBlobStore store = new PackedBlobStore(directory)) {
+            assertThat(store.contains(digestA), is(false));
+            assertThat(read(store, digestB), is("Content B"));
+            assertThat(store.count(), is(1L));
+
+            List<String> digests = new ArrayList<>();
+            for (BlobEntry entry : store.entries()) {
+                digests.add(entry.digest());
+            }
+            assertThat(digests, containsInAnyOrder(digestB));
+            byte[][] prefixDigests = store.digests(Hex.decodeHex(digestB)[0]);
+            assertThat(Hex.encodeHexString(prefixDigests[0]), is(digestB));
+        }
+    }
+
+    @Test
+    public void testCompactionMovesLiveBlobsAndRemovesSparseSegments() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        String digestC;
+        String digestD;
+        try (PackedBlobStore store = new PackedBlobStore(directory, 30)) {
+            String digestA = put(store, "Content A");
+            String digestB = put(store, "Content B");
+            digestC = put(store, "Content C");
+            // A, B and C fill the first segment, D rolls over into the second one
+            digestD = put(store, "Content D");
+            assertThat(segmentCount(directory), is(2L));
+
+            store.delete(digestA);
+            store.delete(digestB);
+            assertThat(store.needsCompaction(), is(true));
+
+            PackedBlobStore.PackedBlob blobBeforeCompaction = store.open(digestC);
+            store.compact();
+            assertThat(store.needsCompaction(), is(false));
+            assertThat(read(store, digestC), is("Content C"));
+
+            // the compacted segment is only removed once the last reader released it
+            assertThat(segmentCount(directory), is(2L));
+            blobBeforeCompaction.close();
+            assertThat(segmentCount(directory), is(1L));
+        }
+        try (PackedBlobStore store = new PackedBlobStore(directory, 30)) {
+            assertThat(store.count(), is(2L));
+            assertThat(read(store, digestC), is("Content C"));
+            assertThat(read(store, digestD), is("Content D"));
+        }
+    }
+
+    @Test
+    public void testConcurrentPutsAreAllDurable() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        int numBlobs = 50;
+        List<String> digests = new ArrayList<>(numBlobs);
+        try (PackedBlobStore store = new PackedBlobStore(directory, 100)) {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<String>> futures = new ArrayList<>(numBlobs);
+                for (int i = 0; i < numBlobs; i++) {
+                    String content = "Content " + i;
+                    futures.add(executor.submit(() -> put(store, content)));
+                }
+                for (Future<String> future : futures) {
+                    digests.add(future.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertThat(store.count(), is((long) numBlobs));
+        }
+        try (PackedBlobStore store = new PackedBlobStore(directory, 100)) {
+            assertThat(store.count(), is((long) numBlobs));
+            for (int i = 0; i < numBlobs; i++) {
+                assertThat(read(store, digests.get(i)), is("Content " + i));
+            }
+        }
+    }
+
+    @Test
+    public void testPutAfterCloseFailsAndCloseIsIdempotent() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        PackedBlobStore store = new PackedBlobStore(directory);
+        put(store, "Content A");
+        store.close();
+        store.close();
+
+        expectedException.expect(AlreadyClosedException.class);
+        put(store, "Content B");
+    }
+
+    private String put(PackedBlobStore store, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, bytes);
+        String digest = Hex.encodeHexString(Blobs.digest(content));
+        store.put(digest, file, bytes.length);
+        return digest;
+    }
+
+    private static String read(PackedBlobStore store, String digest) throws IOException {
+        try (PackedBlobStore.PackedBlob blob = store.open(digest);
+             InputStream stream = blob.newInputStream()) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long segmentCount(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.profile;
+
+/**
+ * Registers the {@link OperatorStats} of the operators of a single execution phase.
+ */
+public final class OperatorProfiler {
+
+    private final ProfilingContext context;
+    private final String phaseKey;
+
+    OperatorProfiler(ProfilingContext context, String phaseKey) {
+        this.context = context;
+        this.phaseKey = phaseKey;
+    }
+
+    /**
+     * Registers the stats of an operator so that they're included in the profiling results.
+     *
+     * @param position position of the operator within the phase
+     * @param name name of the operator, e.g. the simple class name of a projector
+     */
+    public void register(int position, String name, OperatorStats stats) {
+        context.registerOperatorStats(phaseKey, ProfilingContext.generateProfilingKey(position, name), stats);
+    }
+
+    /**
+     * Registers the stats of an operator which exists only once within the phase, like a join.
+     */
+    public void register(String name, OperatorStats stats) {
+        context.registerOperatorStats(phaseKey, name, stats);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.profile;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a single operator (a projector or a join) of an execution phase.
+ *
+ * Rows, batches and timings are recorded by the component which iterates over the output of the operator,
+ * input rows by the component which iterates over the input of the operator.
+ * Timings are inclusive; they contain the time spent in the upstream operators of the same phase.
+ *
+ * The counters may be updated concurrently, e.g. by the threads consuming the two inputs of a join,
+ * and are read once the operation finished.
+ */
+public final class OperatorStats {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final double NS_TO_MS_FACTOR = 1_000_000.0d;
+
+    private final LongAdder inputRows = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder loadNextBatchWaitNanos = new LongAdder();
+    private final LongAdder timeNanos = new LongAdder();
+    private final LongAdder cpuTimeNanos = new LongAdder();
+    private final AtomicLong accountedBytes = new AtomicLong();
+    private final AtomicLong peakAccountedBytes = new AtomicLong();
+
+    public void onInputRow() {
+        inputRows.increment();
+    }
+
+    public void onRow() {
+        rows.increment();
+    }
+
+    public void onBatch(long loadNextBatchWaitNanos) {
+        batches.increment();
+        this.loadNextBatchWaitNanos.add(loadNextBatchWaitNanos);
+    }
+
+    public void onIteration(long timeNanos, long cpuTimeNanos) {
+        this.timeNanos.add(timeNanos);
+        this.cpuTimeNanos.add(cpuTimeNanos);
+    }
+
+    public void addBytes(long bytes) {
+        long current = accountedBytes.addAndGet(bytes);
+        peakAccountedBytes.accumulateAndGet(current, Math::max);
+    }
+
+    public void releaseBytes() {
+        accountedBytes.set(0);
+    }
+
+    public long inputRows() {
+        return inputRows.sum();
+    }
+
+    public long rows() {
+        return rows.sum();
+    }
+
+    public long batches() {
+        return batches.sum();
+    }
+
+    public long peakAccountedBytes() {
+        return peakAccountedBytes.get();
+    }
+
+    /**
+     * @return the CPU time of the current thread in nanoseconds or -1 if not supported
+     */
+    public static long currentThreadCpuTime() {
+        if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()) {
+            return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+        }
+        return -1L;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("InputRows", inputRows.sum());
+        stats.put("Rows", rows.sum());
+        stats.put("Batches", batches.sum());
+        stats.put("LoadNextBatchWaitTime", loadNextBatchWaitNanos.sum() / NS_TO_MS_FACTOR);
+        stats.put("Time", timeNanos.sum() / NS_TO_MS_FACTOR);
+        stats.put("CpuTime", cpuTimeNanos.sum() / NS_TO_MS_FACTOR);
+        stats.put("PeakAccountedBytes", peakAccountedBytes.get());
+        return stats;
+    }
+
+    /**
+     * Merges the stats of an operator, as returned by {@link ProfilingContext#getDurationInMSByTimer()},
+     * into the given stats. Used to aggregate the stats of the same operator across nodes.
+     */
+    public static void merge(Map<String, Object> target, Map<String, Object> source) {
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            Object value = entry.getValue();
+            if (entry.getKey().equals("PeakAccountedBytes")) {
+                target.merge(entry.getKey(), value, (a, b) -> Math.max(((Number) a).longValue(), ((Number) b).longValue()));
+            } else if (value instanceof Double) {
+                target.merge(entry.getKey(), value, (a, b) -> ((Number) a).doubleValue() + ((Number) b).doubleValue());
+            } else if (value instanceof Number) {
+                target.merge(entry.getKey(), value, (a, b) -> ((Number) a).longValue() + ((Number) b).longValue());
+            }
+        }
+    }
+}
@@ -26,6 +26,7 @@ import com.google.common.collect.ImmutableMap;
 import org.elasticsearch.search.profile.ProfileResult;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -35,7 +36,8 @@ import java.util.stream.Collectors;
  * Simple stop watch type class that can be used as a context across multiple layers (analyzer, planner, executor)
  * to accumulate timing results in a map.
  *
- * It is not meant to be thread-safe.
+ * It is not meant to be thread-safe, except for the registration of {@link OperatorStats}, which may happen
+ * concurrently while execution phases are set up.
  *
  */
 public class ProfilingContext {
@@ -43,6 +45,7 @@ public class ProfilingContext {
     private static final double NS_TO_MS_FACTOR = 1_000_000.0d;
     private final ImmutableMap.Builder<String, Double> durationInMSByTimer;
     private final Supplier<List<ProfileResult>> queryProfilingResults;
+    private final Map<String, Map<String, List<OperatorStats>>> operatorStatsByPhase = new LinkedHashMap<>();
 
     public ProfilingContext(Supplier<List<ProfileResult>> queryProfilingResults) {
         this.queryProfilingResults = queryProfilingResults;
@@ -59,9 +62,35 @@ public class ProfilingContext {
         if (!queryTimings.isEmpty()) {
             builder.put("QueryBreakdown", queryTimings);
         }
+        Map<String, Object> operators = operatorStatsAsMap();
+        if (!operators.isEmpty()) {
+            builder.put("Operators", operators);
+        }
         return builder.build();
     }
 
+    /**
+     * Returns the stats of the operators by phase and operator key.
+     * Stats of the same operator (e.g. applied on several shards) are merged.
+     */
+    private Map<String, Object> operatorStatsAsMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        synchronized (operatorStatsByPhase) {
+            for (Map.Entry<String, Map<String, List<OperatorStats>>> phaseEntry : operatorStatsByPhase.entrySet()) {
+                Map<String, Object> operators = new LinkedHashMap<>();
+                for (Map.Entry<String, List<OperatorStats>> operatorEntry : phaseEntry.getValue().entrySet()) {
+                    Map<String, Object> stats = new LinkedHashMap<>();
+                    for (OperatorStats operatorStats : operatorEntry.getValue()) {
+                        OperatorStats.merge(stats, operatorStats.toMap());
+                    }
+                    operators.put(operatorEntry.getKey(), stats);
+                }
+                result.put(phaseEntry.getKey(), operators);
+            }
+        }
+        return result;
+    }
+
     private static Map<String, Object> resultAsMap(ProfileResult profileResult) {
         ImmutableMap.Builder<String, Object> queryTimingsBuilder = ImmutableMap.<String, Object>builder()
             .put("QueryName", profileResult.getQueryName())
@@ -96,6 +125,19 @@ public class ProfilingContext {
         return new Timer(name);
     }
 
+    public OperatorProfiler operatorProfiler(int phaseId, String phaseName) {
+        return new OperatorProfiler(this, generateProfilingKey(phaseId, phaseName));
+    }
+
+    void registerOperatorStats(String phaseKey, String operatorKey, OperatorStats operatorStats) {
+        synchronized (operatorStatsByPhase) {
+            operatorStatsByPhase
+                .computeIfAbsent(phaseKey, k -> new LinkedHashMap<>())
+                .computeIfAbsent(operatorKey, k -> new ArrayList<>())
+                .add(operatorStats);
+        }
+    }
+
     public static String generateProfilingKey(int id, String name) {
         return id + "-" + name;
     }
@@ -0,0 +1,81 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.profile;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class OperatorStatsTest {
+
+    @Test
+    public void testConcurrentUpdatesAreNotLost() throws Exception {
+        OperatorStats stats = new OperatorStats();
+        int numThreads = 4;
+        int numRows = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                for (int j = 0; j < numRows; j++) {
+                    stats.onInputRow();
+                    stats.onRow();
+                    stats.addBytes(1);
+                }
+                stats.onBatch(10);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(stats.inputRows(), is((long) numThreads * numRows));
+        assertThat(stats.rows(), is((long) numThreads * numRows));
+        assertThat(stats.batches(), is((long) numThreads));
+        assertThat(stats.peakAccountedBytes(), is((long) numThreads * numRows));
+    }
+
+    @Test
+    public void testPeakAccountedBytesSurvivesRelease() {
+        OperatorStats stats = new OperatorStats();
+        stats.addBytes(100);
+        stats.releaseBytes();
+        stats.addBytes(40);
+        assertThat(stats.peakAccountedBytes(), is(100L));
+        assertThat(stats.toMap().get("PeakAccountedBytes"), is(100L));
+    }
+}
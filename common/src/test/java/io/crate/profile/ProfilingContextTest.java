@@ -24,6 +24,9 @@ package io.crate.profile;
 
 import org.junit.Test;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -40,4 +43,28 @@ public class ProfilingContextTest {
         String key = ProfilingContext.generateProfilingKey(1, null);
         assertThat(key, is("1-null"));
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStatsOfTheSameOperatorAreMerged() {
+        ProfilingContext context = new ProfilingContext(List::of);
+        OperatorProfiler operatorProfiler = context.operatorProfiler(0, "collect");
+        OperatorStats shard1 = new OperatorStats();
+        OperatorStats shard2 = new OperatorStats();
+        operatorProfiler.register(0, "GroupingProjector", shard1);
+        operatorProfiler.register(0, "GroupingProjector", shard2);
+
+        shard1.onRow();
+        shard1.addBytes(100);
+        shard2.onRow();
+        shard2.onRow();
+        shard2.addBytes(40);
+        shard2.onBatch(10);
+
+        Map<String, Object> operators = (Map<String, Object>) context.getDurationInMSByTimer().get("Operators");
+        Map<String, Object> stats = ((Map<String, Map<String, Object>>) operators.get("0-collect")).get("0-GroupingProjector");
+        assertThat(stats.get("Rows"), is(3L));
+        assertThat(stats.get("Batches"), is(1L));
+        assertThat(stats.get("PeakAccountedBytes"), is(100L));
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+package io.crate.beans;
+
+import io.crate.execution.jobs.NodeJobsCounter;
+import io.crate.execution.jobs.NodeLimit;
+
+import java.beans.ConstructorProperties;
+import java.util.ArrayList;
+
+/**
+ * Exposes the adaptive {@link NodeLimit}s used to throttle write requests issued from this node.
+ */
+public class NodeLimits implements NodeLimitsMXBean {
+
+    public static class NodeLimitInfo {
+
+        private final String nodeId;
+        private final long inflightRequests;
+        private final int concurrencyLimit;
+        private final double bulkSizeFactor;
+        private final long lastRttNanos;
+        private final long samples;
+        private final long rejections;
+        private final long limitDecreases;
+
+        @ConstructorProperties({"nodeId", "inflightRequests", "concurrencyLimit", "bulkSizeFactor",
+            "lastRttNanos", "samples", "rejections", "limitDecreases"})
+        public NodeLimitInfo(String nodeId,
+                             long inflightRequests,
+                             int concurrencyLimit,
+                             double bulkSizeFactor,
+                             long lastRttNanos,
+                             long samples,
+                             long rejections,
+                             long limitDecreases) {
+            this.nodeId = nodeId;
+            this.inflightRequests = inflightRequests;
+            this.concurrencyLimit = concurrencyLimit;
+            this.bulkSizeFactor = bulkSizeFactor;
+            this.lastRttNanos = lastRttNanos;
+            this.samples = samples;
+            this.rejections = rejections;
+            this.limitDecreases = limitDecreases;
+        }
+
+        @SuppressWarnings("unused")
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        @SuppressWarnings("unused")
+        public long getInflightRequests() {
+            return inflightRequests;
+        }
+
+        @SuppressWarnings("unused")
+        public int getConcurrencyLimit() {
+            return concurrencyLimit;
+        }
+
+        @SuppressWarnings("unused")
+        public double getBulkSizeFactor() {
+            return bulkSizeFactor;
+        }
+
+        @SuppressWarnings("unused")
+        public long getLastRttNanos() {
+            return lastRttNanos;
+        }
+
+        @SuppressWarnings("unused")
+        public long getSamples() {
+            return samples;
+        }
+
+        @SuppressWarnings("unused")
+        public long getRejections() {
+            return rejections;
+        }
+
+        @SuppressWarnings("unused")
+        public long getLimitDecreases() {
+            return limitDecreases;
+        }
+    }
+
+    public static final String NAME = "io.crate.monitoring:type=NodeLimits";
+
+    private final NodeJobsCounter nodeJobsCounter;
+
+    public NodeLimits(NodeJobsCounter nodeJobsCounter) {
+        this.nodeJobsCounter = nodeJobsCounter;
+    }
+
+    @Override
+    public NodeLimitInfo[] getNodeLimits() {
+        ArrayList<NodeLimitInfo> infos = new ArrayList<>();
+        for (NodeLimit limit : nodeJobsCounter.limits()) {
+            infos.add(new NodeLimitInfo(
+                limit.nodeId(),
+                nodeJobsCounter.getInProgressJobsForNode(limit.nodeId()),
+                limit.concurrencyLimit(),
+                limit.bulkSizeFactor(),
+                limit.lastRttNanos(),
+                limit.numSamples(),
+                limit.numRejections(),
+                limit.numLimitDecreases()
+            ));
+        }
+        return infos.toArray(new NodeLimitInfo[0]);
+    }
+}
@@ -22,11 +22,13 @@ import io.crate.action.sql.SQLOperations;
 import io.crate.beans.CircuitBreakers;
 import io.crate.beans.Connections;
 import io.crate.beans.NodeInfo;
+import io.crate.beans.NodeLimits;
 import io.crate.beans.NodeStatus;
 import io.crate.beans.QueryStats;
 import io.crate.beans.ThreadPools;
 import io.crate.breaker.CrateCircuitBreakerService;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.protocols.ConnectionStats;
 import io.crate.protocols.postgres.PostgresNetty;
 import org.apache.logging.log4j.LogManager;
@@ -59,7 +61,8 @@ public class CrateMonitor {
                         SQLOperations sqlOperations,
                         ClusterService clusterService,
                         ThreadPool threadPool,
-                        CrateCircuitBreakerService breakerService) {
+                        CrateCircuitBreakerService breakerService,
+                        NodeJobsCounter nodeJobsCounter) {
         logger = LogManager.getLogger(CrateMonitor.class);
         registerMBean(QueryStats.NAME, new QueryStats(jobsLogs));
         registerMBean(NodeStatus.NAME, new NodeStatus(sqlOperations::isEnabled));
@@ -71,6 +74,7 @@ public class CrateMonitor {
         ));
         registerMBean(ThreadPools.NAME, new ThreadPools(threadPool));
         registerMBean(CircuitBreakers.NAME, new CircuitBreakers(breakerService));
+        registerMBean(NodeLimits.NAME, new NodeLimits(nodeJobsCounter));
     }
 
     private void registerMBean(String name, Object bean) {
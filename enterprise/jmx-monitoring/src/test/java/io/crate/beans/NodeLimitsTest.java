@@ -0,0 +1,77 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+package io.crate.beans;
+
+import io.crate.execution.jobs.NodeJobsCounter;
+import io.crate.execution.jobs.NodeLimit;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.is;
+
+public class NodeLimitsTest {
+
+    private static NodeJobsCounter counterWithOneRejection() {
+        NodeJobsCounter nodeJobsCounter = new NodeJobsCounter();
+        nodeJobsCounter.increment("n1");
+        nodeJobsCounter.increment("n1");
+        NodeLimit limit = nodeJobsCounter.getLimit("n1");
+        limit.onSample(1000L, 10);
+        limit.onRejection();
+        return nodeJobsCounter;
+    }
+
+    @Test
+    public void test_node_limits_expose_the_limit_of_each_node() {
+        NodeLimits nodeLimits = new NodeLimits(counterWithOneRejection());
+
+        NodeLimits.NodeLimitInfo[] infos = nodeLimits.getNodeLimits();
+        assertThat(infos, arrayWithSize(1));
+        NodeLimits.NodeLimitInfo info = infos[0];
+        assertThat(info.getNodeId(), is("n1"));
+        assertThat(info.getInflightRequests(), is(2L));
+        // a sample increases the limit of 5 to 5.2, the rejection halves it
+        assertThat(info.getConcurrencyLimit(), is(2));
+        assertThat(info.getBulkSizeFactor(), is((1.0 + 1.0 / 16) / 2));
+        assertThat(info.getLastRttNanos(), is(1000L));
+        assertThat(info.getSamples(), is(1L));
+        assertThat(info.getRejections(), is(1L));
+        assertThat(info.getLimitDecreases(), is(1L));
+    }
+
+    @Test
+    public void test_node_limits_are_readable_as_mxbean_attribute() throws Exception {
+        MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName(NodeLimits.NAME);
+        mBeanServer.registerMBean(new NodeLimits(counterWithOneRejection()), name);
+
+        CompositeData[] limits = (CompositeData[]) mBeanServer.getAttribute(name, "NodeLimits");
+        assertThat(limits, arrayWithSize(1));
+        assertThat(limits[0].get("nodeId"), is("n1"));
+        assertThat(limits[0].get("inflightRequests"), is(2L));
+        assertThat(limits[0].get("concurrencyLimit"), is(2));
+        assertThat(limits[0].get("rejections"), is(1L));
+    }
+}
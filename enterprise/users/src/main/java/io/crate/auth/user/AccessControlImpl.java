@@ -30,9 +30,11 @@ import io.crate.analyze.AnalyzedCommit;
 import io.crate.analyze.AnalyzedCopyFrom;
 import io.crate.analyze.AnalyzedCopyTo;
 import io.crate.analyze.AnalyzedCreateAnalyzer;
+import io.crate.analyze.AnalyzedCreateMaterializedView;
 import io.crate.analyze.AnalyzedCreateSnapshot;
 import io.crate.analyze.AnalyzedCreateTable;
 import io.crate.analyze.AnalyzedDeleteStatement;
+import io.crate.analyze.AnalyzedRefreshMaterializedView;
 import io.crate.analyze.AnalyzedRefreshTable;
 import io.crate.analyze.AnalyzedDropTable;
 import io.crate.analyze.AnalyzedRestoreSnapshot;
@@ -559,6 +561,30 @@ public final class AccessControlImpl implements AccessControl {
             return null;
         }
 
+        @Override
+        public Void visitCreateMaterializedView(AnalyzedCreateMaterializedView createMaterializedView, User user) {
+            Privileges.ensureUserHasPrivilege(
+                Privilege.Type.DDL,
+                Privilege.Clazz.SCHEMA,
+                createMaterializedView.name().schema(),
+                user,
+                defaultSchema);
+            visitRelation(createMaterializedView.analyzedQuery(), user, Privilege.Type.DQL);
+            return null;
+        }
+
+        @Override
+        public Void visitRefreshMaterializedView(AnalyzedRefreshMaterializedView refreshMaterializedView, User user) {
+            Privileges.ensureUserHasPrivilege(
+                Privilege.Type.DML,
+                Privilege.Clazz.TABLE,
+                refreshMaterializedView.name().toString(),
+                user,
+                defaultSchema);
+            visitRelation(refreshMaterializedView.query(), user, Privilege.Type.DQL);
+            return null;
+        }
+
         @Override
         protected Void visitAnalyzedCreateUser(AnalyzedCreateUser createUser, User user) {
             Privileges.ensureUserHasPrivilege(
@@ -47,6 +47,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -108,13 +109,18 @@ class MockAmazonS3 extends AbstractAmazonS3 {
         assertThat(request.getBucketName(), equalTo(bucket));
 
         final String blobName = request.getKey();
-        final byte[] content = blobs.get(blobName);
+        byte[] content = blobs.get(blobName);
         if (content == null) {
             AmazonS3Exception exception = new AmazonS3Exception("[" + blobName + "] does not exist.");
             exception.setStatusCode(404);
             throw exception;
         }
 
+        final long[] range = request.getRange();
+        if (range != null) {
+            content = Arrays.copyOfRange(content, (int) range[0], (int) Math.min(range[1] + 1, content.length));
+        }
+
         ObjectMetadata metadata = new ObjectMetadata();
         metadata.setContentLength(content.length);
 
@@ -57,5 +57,17 @@ public class OneMergeHelper {
         return merge.totalBytesSize();
     }
 
+    /**
+     * Lowers the MB per second rate limit of the merge run by this thread to at most {@code mbPerSec}.
+     * Merges smaller than {@code minMergeBytes} and paused merges are left alone.
+     **/
+    public static void limitMbPerSec(Thread thread, double mbPerSec, long minMergeBytes) {
+        if (thread instanceof ConcurrentMergeScheduler.MergeThread) {
+            ConcurrentMergeScheduler.MergeThread mergeThread = (ConcurrentMergeScheduler.MergeThread) thread;
+            if (mergeThread.merge.estimatedMergeBytes >= minMergeBytes && mergeThread.rateLimiter.getMBPerSec() > mbPerSec) {
+                mergeThread.rateLimiter.setMBPerSec(mbPerSec);
+            }
+        }
+    }
 
 }
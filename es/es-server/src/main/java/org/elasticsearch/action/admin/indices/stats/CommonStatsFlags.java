@@ -209,7 +209,8 @@ public class CommonStatsFlags implements Writeable, Cloneable {
     public enum Flag {
         Store(0),
         Docs(9),
-        Completion(11);
+        Completion(11),
+        Load(12);
 
         private final int index;
 
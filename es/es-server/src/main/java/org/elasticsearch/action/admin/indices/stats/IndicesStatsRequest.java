@@ -95,6 +95,15 @@ public class IndicesStatsRequest extends BroadcastRequest<IndicesStatsRequest> {
         return flags.isSet(Flag.Store);
     }
 
+    public IndicesStatsRequest load(boolean load) {
+        flags.set(Flag.Load, load);
+        return this;
+    }
+
+    public boolean load() {
+        return flags.isSet(Flag.Load);
+    }
+
     public IndicesStatsRequest fieldDataFields(String... fieldDataFields) {
         flags.fieldDataFields(fieldDataFields);
         return this;
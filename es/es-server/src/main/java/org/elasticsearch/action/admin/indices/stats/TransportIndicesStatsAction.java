@@ -116,6 +116,9 @@ public class TransportIndicesStatsAction extends TransportBroadcastByNodeAction<
         if (request.store()) {
             flags.set(CommonStatsFlags.Flag.Store);
         }
+        if (request.load()) {
+            flags.set(CommonStatsFlags.Flag.Load);
+        }
         if (request.completion()) {
             flags.set(CommonStatsFlags.Flag.Completion);
             flags.completionDataFields(request.completionFields());
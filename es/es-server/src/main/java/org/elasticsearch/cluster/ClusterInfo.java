@@ -21,6 +21,7 @@ package org.elasticsearch.cluster;
 
 import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -34,9 +35,9 @@ import java.io.IOException;
 import java.util.Map;
 /**
  * ClusterInfo is an object representing a map of nodes to {@link DiskUsage}
- * and a map of shard ids to shard sizes, see
+ * and maps of shard ids to shard sizes and shard loads, see
  * <code>InternalClusterInfoService.shardIdentifierFromRouting(String)</code>
- * for the key used in the shardSizes map
+ * for the key used in the shardSizes and shardLoads maps
  */
 public class ClusterInfo implements ToXContentFragment, Writeable {
     private final ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsage;
@@ -44,6 +45,7 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
     final ImmutableOpenMap<String, Long> shardSizes;
     public static final ClusterInfo EMPTY = new ClusterInfo();
     final ImmutableOpenMap<ShardRouting, String> routingToDataPath;
+    final ImmutableOpenMap<String, ShardLoad> shardLoads;
 
     protected ClusterInfo() {
        this(ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of());
@@ -61,10 +63,27 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
     public ClusterInfo(ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsage,
             ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsage, ImmutableOpenMap<String, Long> shardSizes,
             ImmutableOpenMap<ShardRouting, String> routingToDataPath) {
+        this(leastAvailableSpaceUsage, mostAvailableSpaceUsage, shardSizes, routingToDataPath, ImmutableOpenMap.of());
+    }
+
+    /**
+     * Creates a new ClusterInfo instance.
+     *
+     * @param leastAvailableSpaceUsage a node id to disk usage mapping for the path that has the least available space on the node.
+     * @param mostAvailableSpaceUsage  a node id to disk usage mapping for the path that has the most available space on the node.
+     * @param shardSizes a shardkey to size in bytes mapping per shard.
+     * @param routingToDataPath the shard routing to datapath mapping
+     * @param shardLoads a shardkey to load mapping per shard.
+     * @see #shardIdentifierFromRouting
+     */
+    public ClusterInfo(ImmutableOpenMap<String, DiskUsage> leastAvailableSpaceUsage,
+            ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsage, ImmutableOpenMap<String, Long> shardSizes,
+            ImmutableOpenMap<ShardRouting, String> routingToDataPath, ImmutableOpenMap<String, ShardLoad> shardLoads) {
         this.leastAvailableSpaceUsage = leastAvailableSpaceUsage;
         this.shardSizes = shardSizes;
         this.mostAvailableSpaceUsage = mostAvailableSpaceUsage;
         this.routingToDataPath = routingToDataPath;
+        this.shardLoads = shardLoads;
     }
 
     public ClusterInfo(StreamInput in) throws IOException {
@@ -81,6 +100,13 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         this.shardSizes = sizeBuilder.putAll(sizeMap).build();
         ImmutableOpenMap.Builder<ShardRouting, String> routingBuilder = ImmutableOpenMap.builder();
         this.routingToDataPath = routingBuilder.putAll(routingMap).build();
+        if (in.getVersion().onOrAfter(Version.V_4_2_0)) {
+            Map<String, ShardLoad> loadMap = in.readMap(StreamInput::readString, ShardLoad::new);
+            ImmutableOpenMap.Builder<String, ShardLoad> loadBuilder = ImmutableOpenMap.builder();
+            this.shardLoads = loadBuilder.putAll(loadMap).build();
+        } else {
+            this.shardLoads = ImmutableOpenMap.of();
+        }
     }
 
     @Override
@@ -109,6 +135,13 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
             c.key.writeTo(out);
             out.writeString(c.value);
         }
+        if (out.getVersion().onOrAfter(Version.V_4_2_0)) {
+            out.writeVInt(this.shardLoads.size());
+            for (ObjectObjectCursor<String, ShardLoad> c : this.shardLoads) {
+                out.writeString(c.key);
+                c.value.writeTo(out);
+            }
+        }
     }
 
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
@@ -144,6 +177,16 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
             }
         }
         builder.endObject(); // end "shard_paths"
+        builder.startObject("shard_loads"); {
+            for (ObjectObjectCursor<String, ShardLoad> c : this.shardLoads) {
+                builder.startObject(c.key); {
+                    builder.field("indexing_rate", c.value.getIndexingRate());
+                    builder.field("search_rate", c.value.getSearchRate());
+                }
+                builder.endObject();
+            }
+        }
+        builder.endObject(); // end "shard_loads"
         return builder;
     }
 
@@ -183,6 +226,14 @@ public class ClusterInfo implements ToXContentFragment, Writeable {
         return shardSize == null ? defaultValue : shardSize;
     }
 
+    /**
+     * Returns the load of the given shard routing or {@link ShardLoad#EMPTY} if that metric is not available.
+     */
+    public ShardLoad getShardLoad(ShardRouting shardRouting) {
+        ShardLoad shardLoad = shardLoads.get(shardIdentifierFromRouting(shardRouting));
+        return shardLoad == null ? ShardLoad.EMPTY : shardLoad;
+    }
+
     /**
      * Method that incorporates the ShardId for the shard into a string that
      * includes a 'p' or 'r' depending on whether the shard is a primary.
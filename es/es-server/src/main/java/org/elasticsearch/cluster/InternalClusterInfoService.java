@@ -44,11 +44,14 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.shard.ShardLoadStats;
 import org.elasticsearch.monitor.fs.FsInfo;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.ReceiveTimeoutTransportException;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -62,8 +65,9 @@ import java.util.function.Consumer;
  * Listens for changes in the number of data nodes and immediately submits a
  * ClusterInfoUpdateJob if a node has been added.
  *
- * Every time the timer runs, gathers information about the disk usage and
- * shard sizes across the cluster.
+ * Every time the timer runs, gathers information about the disk usage,
+ * shard sizes and shard loads across the cluster. The shard loads are rates
+ * derived from the operation counters of two consecutive runs.
  */
 public class InternalClusterInfoService implements ClusterInfoService, LocalNodeMasterListener, ClusterStateListener {
 
@@ -82,6 +86,9 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
     volatile ImmutableOpenMap<String, DiskUsage> mostAvailableSpaceUsages;
     private volatile ImmutableOpenMap<ShardRouting, String> shardRoutingToDataPath;
     private volatile ImmutableOpenMap<String, Long> shardSizes;
+    private volatile ImmutableOpenMap<String, ShardLoad> shardLoads;
+    private volatile Map<String, ShardLoadStats> previousLoadStats;
+    private volatile long previousLoadStatsNanos;
     private volatile boolean isMaster = false;
     private volatile boolean enabled;
     private volatile TimeValue fetchTimeout;
@@ -95,6 +102,8 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
         this.mostAvailableSpaceUsages = ImmutableOpenMap.of();
         this.shardRoutingToDataPath = ImmutableOpenMap.of();
         this.shardSizes = ImmutableOpenMap.of();
+        this.shardLoads = ImmutableOpenMap.of();
+        this.previousLoadStats = Map.of();
         this.clusterService = clusterService;
         this.threadPool = threadPool;
         this.client = client;
@@ -197,7 +206,8 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
 
     @Override
     public ClusterInfo getClusterInfo() {
-        return new ClusterInfo(leastAvailableSpaceUsages, mostAvailableSpaceUsages, shardSizes, shardRoutingToDataPath);
+        return new ClusterInfo(
+            leastAvailableSpaceUsages, mostAvailableSpaceUsages, shardSizes, shardRoutingToDataPath, shardLoads);
     }
 
 
@@ -256,6 +266,7 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
         final IndicesStatsRequest indicesStatsRequest = new IndicesStatsRequest();
         indicesStatsRequest.clear();
         indicesStatsRequest.store(true);
+        indicesStatsRequest.load(true);
 
         client.admin().indices().stats(indicesStatsRequest, new LatchedActionListener<>(listener, latch));
         return latch;
@@ -321,6 +332,13 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
                 buildShardLevelInfo(LOGGER, stats, newShardSizes, newShardRoutingToDataPath, clusterService.state());
                 shardSizes = newShardSizes.build();
                 shardRoutingToDataPath = newShardRoutingToDataPath.build();
+
+                long nowNanos = System.nanoTime();
+                ImmutableOpenMap.Builder<String, ShardLoad> newShardLoads = ImmutableOpenMap.builder();
+                previousLoadStats = buildShardLoads(
+                    stats, previousLoadStats, nowNanos - previousLoadStatsNanos, newShardLoads);
+                previousLoadStatsNanos = nowNanos;
+                shardLoads = newShardLoads.build();
             }
 
             @Override
@@ -338,6 +356,8 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
                     // we empty the usages list, to be safe - we don't know what's going on.
                     shardSizes = ImmutableOpenMap.of();
                     shardRoutingToDataPath = ImmutableOpenMap.of();
+                    shardLoads = ImmutableOpenMap.of();
+                    previousLoadStats = Map.of();
                 }
             }
         });
@@ -388,6 +408,43 @@ public class InternalClusterInfoService implements ClusterInfoService, LocalNode
         }
     }
 
+    /**
+     * Computes the load of every shard from the difference between its current operation counters and the ones
+     * of the previous run. Shards without a previous sample are left out, as are shards whose counters went
+     * backwards because the shard copy was recreated in the meantime.
+     *
+     * @return the current samples, keyed by allocation id, to pass in as {@code previousStats} on the next run
+     */
+    static Map<String, ShardLoadStats> buildShardLoads(ShardStats[] stats,
+                                                       Map<String, ShardLoadStats> previousStats,
+                                                       long elapsedNanos,
+                                                       ImmutableOpenMap.Builder<String, ShardLoad> newShardLoads) {
+        Map<String, ShardLoadStats> currentStats = new HashMap<>(stats.length);
+        double elapsedSeconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        for (ShardStats s : stats) {
+            ShardLoadStats load = s.getStats().getLoad();
+            if (load == null) {
+                continue;
+            }
+            String allocationId = s.getShardRouting().allocationId().getId();
+            currentStats.put(allocationId, load);
+            ShardLoadStats previous = previousStats.get(allocationId);
+            if (previous == null || elapsedSeconds <= 0) {
+                continue;
+            }
+            long indexingOps = load.getIndexingOps() - previous.getIndexingOps();
+            long searches = load.getSearches() - previous.getSearches();
+            if (indexingOps < 0 || searches < 0) {
+                continue;
+            }
+            // replicas share the key, same as in the shard sizes
+            newShardLoads.put(
+                ClusterInfo.shardIdentifierFromRouting(s.getShardRouting()),
+                new ShardLoad(indexingOps / elapsedSeconds, searches / elapsedSeconds));
+        }
+        return currentStats;
+    }
+
     static void fillDiskUsagePerNode(Logger logger,
                                      List<NodeStats> nodeStatsArray,
                                      ImmutableOpenMap.Builder<String, DiskUsage> newLeastAvaiableUsages,
@@ -0,0 +1,73 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import java.io.IOException;
+
+/**
+ * The load a shard put on its node during the last cluster info update interval,
+ * expressed as operations per second.
+ */
+public final class ShardLoad implements Writeable {
+
+    public static final ShardLoad EMPTY = new ShardLoad(0.0, 0.0);
+
+    private final double indexingRate;
+    private final double searchRate;
+
+    public ShardLoad(double indexingRate, double searchRate) {
+        this.indexingRate = indexingRate;
+        this.searchRate = searchRate;
+    }
+
+    public ShardLoad(StreamInput in) throws IOException {
+        this.indexingRate = in.readDouble();
+        this.searchRate = in.readDouble();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeDouble(indexingRate);
+        out.writeDouble(searchRate);
+    }
+
+    /**
+     * @return index and delete operations per second
+     */
+    public double getIndexingRate() {
+        return indexingRate;
+    }
+
+    /**
+     * @return acquired searchers per second
+     */
+    public double getSearchRate() {
+        return searchRate;
+    }
+
+    @Override
+    public String toString() {
+        return "ShardLoad{indexingRate=" + indexingRate + ", searchRate=" + searchRate + '}';
+    }
+}
@@ -447,6 +447,13 @@ public class MetaDataCreateIndexService {
                     removalExtraInfo = "failed on parsing default mapping/mappings on index creation";
                     throw e;
                 }
+                try {
+                    // validate that the index sort can be built from the mappings
+                    indexService.getIndexSortSupplier().get();
+                } catch (Exception e) {
+                    removalExtraInfo = "failed to build the index sort";
+                    throw e;
+                }
 
                 // now, update the mappings with the actual source
                 Map<String, MappingMetaData> mappingsMetaData = new HashMap<>();
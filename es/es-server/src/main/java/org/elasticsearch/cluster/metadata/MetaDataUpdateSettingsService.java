@@ -42,6 +42,7 @@ import org.elasticsearch.common.settings.IndexScopedSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.store.SnapshotIndexStore;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -130,6 +131,9 @@ public class MetaDataUpdateSettingsService {
                     Index index = request.indices()[i];
                     actualIndices[i] = index.getName();
                     final IndexMetaData metaData = currentState.metaData().getIndexSafe(index);
+                    if (SnapshotIndexStore.isMounted(metaData.getSettings())) {
+                        SnapshotIndexStore.ensureNoReplicas(index.getName(), closedSettings);
+                    }
                     if (metaData.getState() == IndexMetaData.State.OPEN) {
                         openIndices.add(index);
                     } else {
@@ -23,6 +23,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.IntroSorter;
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ShardLoad;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.routing.RoutingNode;
@@ -40,6 +42,7 @@ import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.cluster.routing.allocation.decider.Decision;
 import org.elasticsearch.cluster.routing.allocation.decider.Decision.Type;
 import org.elasticsearch.cluster.routing.allocation.decider.DiskThresholdDecider;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.ClusterSettings;
@@ -64,12 +67,15 @@ import static org.elasticsearch.cluster.routing.ShardRoutingState.RELOCATING;
 
 /**
  * The {@link BalancedShardsAllocator} re-balances the nodes allocations
- * within an cluster based on a {@link WeightFunction}. The clusters balance is defined by four parameters which can be set
- * in the cluster update API that allows changes in real-time:
+ * within an cluster based on a {@link WeightFunction}. The clusters balance is defined by the following parameters which can be
+ * set in the cluster update API that allows changes in real-time:
  * <ul><li><code>cluster.routing.allocation.balance.shard</code> - The <b>shard balance</b> defines the weight factor
  * for shards allocated on a {@link RoutingNode}</li>
  * <li><code>cluster.routing.allocation.balance.index</code> - The <b>index balance</b> defines a factor to the number
  * of {@link org.elasticsearch.cluster.routing.ShardRouting}s per index allocated on a specific node</li>
+ * <li><code>cluster.routing.allocation.balance.write_load</code>, <code>cluster.routing.allocation.balance.read_load</code>
+ * and <code>cluster.routing.allocation.balance.disk_usage</code> - The <b>load balance</b> factors for the indexing rate,
+ * the search rate and the size of the shards allocated on a {@link RoutingNode}, as published in the {@link ClusterInfo}</li>
  * <li><code>cluster.routing.allocation.balance.threshold</code> - A <b>threshold</b> to set the minimal optimization
  * value of operations that should be performed</li>
  * </ul>
@@ -85,12 +91,23 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         Setting.floatSetting("cluster.routing.allocation.balance.index", 0.55f, 0.0f, Property.Dynamic, Property.NodeScope);
     public static final Setting<Float> SHARD_BALANCE_FACTOR_SETTING =
         Setting.floatSetting("cluster.routing.allocation.balance.shard", 0.45f, 0.0f, Property.Dynamic, Property.NodeScope);
+    public static final Setting<Float> WRITE_LOAD_BALANCE_FACTOR_SETTING =
+        Setting.floatSetting("cluster.routing.allocation.balance.write_load", 0.0f, 0.0f, Property.Dynamic, Property.NodeScope);
+    public static final Setting<Float> READ_LOAD_BALANCE_FACTOR_SETTING =
+        Setting.floatSetting("cluster.routing.allocation.balance.read_load", 0.0f, 0.0f, Property.Dynamic, Property.NodeScope);
+    public static final Setting<Float> DISK_USAGE_BALANCE_FACTOR_SETTING =
+        Setting.floatSetting("cluster.routing.allocation.balance.disk_usage", 0.0f, 0.0f, Property.Dynamic, Property.NodeScope);
     public static final Setting<Float> THRESHOLD_SETTING =
         Setting.floatSetting("cluster.routing.allocation.balance.threshold", 1.0f, 0.0f,
             Property.Dynamic, Property.NodeScope);
 
     private volatile WeightFunction weightFunction;
     private volatile float threshold;
+    private volatile float indexBalanceFactor;
+    private volatile float shardBalanceFactor;
+    private volatile float writeLoadBalanceFactor;
+    private volatile float readLoadBalanceFactor;
+    private volatile float diskUsageBalanceFactor;
 
     public BalancedShardsAllocator(Settings settings) {
         this(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
@@ -98,14 +115,47 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
     @Inject
     public BalancedShardsAllocator(Settings settings, ClusterSettings clusterSettings) {
+        writeLoadBalanceFactor = WRITE_LOAD_BALANCE_FACTOR_SETTING.get(settings);
+        readLoadBalanceFactor = READ_LOAD_BALANCE_FACTOR_SETTING.get(settings);
+        diskUsageBalanceFactor = DISK_USAGE_BALANCE_FACTOR_SETTING.get(settings);
         setWeightFunction(INDEX_BALANCE_FACTOR_SETTING.get(settings), SHARD_BALANCE_FACTOR_SETTING.get(settings));
         setThreshold(THRESHOLD_SETTING.get(settings));
         clusterSettings.addSettingsUpdateConsumer(INDEX_BALANCE_FACTOR_SETTING, SHARD_BALANCE_FACTOR_SETTING, this::setWeightFunction);
+        clusterSettings.addSettingsUpdateConsumer(WRITE_LOAD_BALANCE_FACTOR_SETTING, this::setWriteLoadBalanceFactor);
+        clusterSettings.addSettingsUpdateConsumer(READ_LOAD_BALANCE_FACTOR_SETTING, this::setReadLoadBalanceFactor);
+        clusterSettings.addSettingsUpdateConsumer(DISK_USAGE_BALANCE_FACTOR_SETTING, this::setDiskUsageBalanceFactor);
         clusterSettings.addSettingsUpdateConsumer(THRESHOLD_SETTING, this::setThreshold);
     }
 
     private void setWeightFunction(float indexBalance, float shardBalanceFactor) {
-        weightFunction = new WeightFunction(indexBalance, shardBalanceFactor);
+        this.indexBalanceFactor = indexBalance;
+        this.shardBalanceFactor = shardBalanceFactor;
+        updateWeightFunction();
+    }
+
+    private void setWriteLoadBalanceFactor(float writeLoadBalanceFactor) {
+        this.writeLoadBalanceFactor = writeLoadBalanceFactor;
+        updateWeightFunction();
+    }
+
+    private void setReadLoadBalanceFactor(float readLoadBalanceFactor) {
+        this.readLoadBalanceFactor = readLoadBalanceFactor;
+        updateWeightFunction();
+    }
+
+    private void setDiskUsageBalanceFactor(float diskUsageBalanceFactor) {
+        this.diskUsageBalanceFactor = diskUsageBalanceFactor;
+        updateWeightFunction();
+    }
+
+    private synchronized void updateWeightFunction() {
+        weightFunction = new WeightFunction(
+            indexBalanceFactor,
+            shardBalanceFactor,
+            writeLoadBalanceFactor,
+            readLoadBalanceFactor,
+            diskUsageBalanceFactor
+        );
     }
 
     private void setThreshold(float threshold) {
@@ -143,10 +193,13 @@ public class BalancedShardsAllocator implements ShardsAllocator {
 
     /**
      * This class is the primary weight function used to create balanced over nodes and shards in the cluster.
-     * Currently this function has 3 properties:
+     * Currently this function has 5 properties:
      * <ul>
      * <li><code>index balance</code> - balance property over shards per index</li>
      * <li><code>shard balance</code> - balance property over shards per cluster</li>
+     * <li><code>write load</code> - balance property over the indexing rate of the shards per cluster</li>
+     * <li><code>read load</code> - balance property over the search rate of the shards per cluster</li>
+     * <li><code>disk usage</code> - balance property over the size of the shards per cluster</li>
      * </ul>
      * <p>
      * Each of these properties are expressed as factor such that the properties factor defines the relative importance of the property for the
@@ -162,39 +215,104 @@ public class BalancedShardsAllocator implements ShardsAllocator {
      * <code>weight<sub>node</sub>(node, index) = shardBalance * (node.numShards() - avgShardsPerNode)</code>
      * </li>
      * </ul>
-     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index)</code>
+     * <li>
+     * <code>weight<sub>load</sub>(node) = loadBalance * (node.load() - avgLoadPerNode) / avgLoadPerShard</code>
+     * for each of the write load, read load and disk usage
+     * </li>
+     * </ul>
+     * <code>weight(node, index) = weight<sub>index</sub>(node, index) + weight<sub>node</sub>(node, index) +
+     * weight<sub>load</sub>(node)</code>
+     * <p>
+     * Dividing the load by the average load of a shard expresses it in the same unit as the shard counts, so that one
+     * shard with twice the average indexing rate weighs as much as two average shards.
+     * </p>
      */
     public static class WeightFunction {
 
         private final float theta0;
         private final float theta1;
-
+        private final float theta2;
+        private final float theta3;
+        private final float theta4;
 
         public WeightFunction(float indexBalance, float shardBalance) {
-            float sum = indexBalance + shardBalance;
+            this(indexBalance, shardBalance, 0.0f, 0.0f, 0.0f);
+        }
+
+        public WeightFunction(float indexBalance,
+                              float shardBalance,
+                              float writeLoadBalance,
+                              float readLoadBalance,
+                              float diskUsageBalance) {
+            float sum = indexBalance + shardBalance + writeLoadBalance + readLoadBalance + diskUsageBalance;
             if (sum <= 0.0f) {
                 throw new IllegalArgumentException("Balance factors must sum to a value > 0 but was: " + sum);
             }
             theta0 = shardBalance / sum;
             theta1 = indexBalance / sum;
+            theta2 = writeLoadBalance / sum;
+            theta3 = readLoadBalance / sum;
+            theta4 = diskUsageBalance / sum;
+        }
+
+        /**
+         * Returns true if any of the load balance factors is set and the nodes need to keep track of their load.
+         */
+        boolean usesShardLoad() {
+            return theta2 > 0.0f || theta3 > 0.0f || theta4 > 0.0f;
         }
 
         public float weight(Balancer balancer, ModelNode node, String index) {
-            return weight(balancer, node, index, 0);
+            return weight(balancer, node, index, null, 0);
         }
 
-        public float weightShardAdded(Balancer balancer, ModelNode node, String index) {
-            return weight(balancer, node, index, 1);
+        public float weightShardAdded(Balancer balancer, ModelNode node, ShardRouting shard) {
+            return weight(balancer, node, shard.getIndexName(), shard, 1);
         }
 
-        public float weightShardRemoved(Balancer balancer, ModelNode node, String index) {
-            return weight(balancer, node, index, -1);
+        public float weightShardRemoved(Balancer balancer, ModelNode node, ShardRouting shard) {
+            return weight(balancer, node, shard.getIndexName(), shard, -1);
         }
 
-        private float weight(Balancer balancer, ModelNode node, String index, int numAdditionalShards) {
+        private float weight(Balancer balancer,
+                             ModelNode node,
+                             String index,
+                             @Nullable ShardRouting shard,
+                             int numAdditionalShards) {
             final float weightShard = node.numShards() + numAdditionalShards - balancer.avgShardsPerNode();
             final float weightIndex = node.numShards(index) + numAdditionalShards - balancer.avgShardsPerNode(index);
-            return theta0 * weightShard + theta1 * weightIndex;
+            float weight = theta0 * weightShard + theta1 * weightIndex;
+            if (usesShardLoad()) {
+                double shardWriteLoad = 0.0;
+                double shardReadLoad = 0.0;
+                double shardDiskUsage = 0.0;
+                if (shard != null) {
+                    ShardLoad shardLoad = balancer.shardLoad(shard);
+                    shardWriteLoad = shardLoad.getIndexingRate();
+                    shardReadLoad = shardLoad.getSearchRate();
+                    shardDiskUsage = balancer.shardSize(shard);
+                }
+                weight += theta2 * loadWeight(
+                    node.writeLoad() + numAdditionalShards * shardWriteLoad,
+                    balancer.avgWriteLoadPerNode,
+                    balancer.avgWriteLoadPerShard);
+                weight += theta3 * loadWeight(
+                    node.readLoad() + numAdditionalShards * shardReadLoad,
+                    balancer.avgReadLoadPerNode,
+                    balancer.avgReadLoadPerShard);
+                weight += theta4 * loadWeight(
+                    node.diskUsage() + numAdditionalShards * shardDiskUsage,
+                    balancer.avgDiskUsagePerNode,
+                    balancer.avgDiskUsagePerShard);
+            }
+            return weight;
+        }
+
+        private static float loadWeight(double nodeLoad, double avgLoadPerNode, double avgLoadPerShard) {
+            if (avgLoadPerShard <= 0.0) {
+                return 0.0f;
+            }
+            return (float) ((nodeLoad - avgLoadPerNode) / avgLoadPerShard);
         }
     }
 
@@ -212,6 +330,14 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private final MetaData metaData;
         private final float avgShardsPerNode;
         private final NodeSorter sorter;
+        @Nullable
+        private final ClusterInfo clusterInfo;
+        private double avgWriteLoadPerNode;
+        private double avgWriteLoadPerShard;
+        private double avgReadLoadPerNode;
+        private double avgReadLoadPerShard;
+        private double avgDiskUsagePerNode;
+        private double avgDiskUsagePerShard;
 
         public Balancer(Logger logger, RoutingAllocation allocation, WeightFunction weight, float threshold) {
             this.logger = logger;
@@ -221,10 +347,51 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             this.routingNodes = allocation.routingNodes();
             this.metaData = allocation.metaData();
             avgShardsPerNode = ((float) metaData.getTotalNumberOfShards()) / routingNodes.size();
+            clusterInfo = weight.usesShardLoad() ? allocation.clusterInfo() : null;
             nodes = Collections.unmodifiableMap(buildModelFromAssigned());
+            if (clusterInfo != null) {
+                computeAvgLoads();
+            }
             sorter = newNodeSorter();
         }
 
+        private void computeAvgLoads() {
+            double writeLoad = 0.0;
+            double readLoad = 0.0;
+            double diskUsage = 0.0;
+            int numShards = 0;
+            for (ModelNode node : nodes.values()) {
+                writeLoad += node.writeLoad();
+                readLoad += node.readLoad();
+                diskUsage += node.diskUsage();
+                numShards += node.numShards();
+            }
+            if (nodes.isEmpty() == false) {
+                avgWriteLoadPerNode = writeLoad / nodes.size();
+                avgReadLoadPerNode = readLoad / nodes.size();
+                avgDiskUsagePerNode = diskUsage / nodes.size();
+            }
+            if (numShards > 0) {
+                avgWriteLoadPerShard = writeLoad / numShards;
+                avgReadLoadPerShard = readLoad / numShards;
+                avgDiskUsagePerShard = diskUsage / numShards;
+            }
+        }
+
+        /**
+         * Returns the load of the given shard as published in the {@link ClusterInfo}.
+         */
+        ShardLoad shardLoad(ShardRouting shard) {
+            return clusterInfo == null ? ShardLoad.EMPTY : clusterInfo.getShardLoad(shard);
+        }
+
+        /**
+         * Returns the size of the given shard as published in the {@link ClusterInfo} or 0 if unknown.
+         */
+        long shardSize(ShardRouting shard) {
+            return clusterInfo == null ? 0L : clusterInfo.getShardSize(shard, 0L);
+        }
+
         /**
          * Returns an array view on the nodes in the balancer. Nodes should not be removed from this list.
          */
@@ -334,7 +501,6 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             // balance the shard, if a better node can be found
             final float currentWeight = sorter.weight(currentNode);
             final AllocationDeciders deciders = allocation.deciders();
-            final String idxName = shard.getIndexName();
             Type rebalanceDecisionType = Type.NO;
             ModelNode assignedNode = null;
             List<Tuple<ModelNode, Decision>> betterBalanceNodes = new ArrayList<>();
@@ -364,10 +530,10 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                     // the gains make it worth it, as defined by the threshold
                     boolean deltaAboveThreshold = lessThan(currentDelta, threshold) == false;
                     // simulate the weight of the node if we were to relocate the shard to it
-                    float weightWithShardAdded = weight.weightShardAdded(this, node, idxName);
+                    float weightWithShardAdded = weight.weightShardAdded(this, node, shard);
                     // calculate the delta of the weights of the two nodes if we were to add the shard to the
                     // node in question and move it away from the node that currently holds it.
-                    float proposedDelta = weightWithShardAdded - weight.weightShardRemoved(this, currentNode, idxName);
+                    float proposedDelta = weightWithShardAdded - weight.weightShardRemoved(this, currentNode, shard);
                     boolean betterWeightWithShardAdded = proposedDelta < currentDelta;
                     rebalanceConditionsMet = deltaAboveThreshold && betterWeightWithShardAdded;
                     // if the simulated weight delta with the shard moved away is better than the weight delta
@@ -692,7 +858,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         private Map<String, ModelNode> buildModelFromAssigned() {
             Map<String, ModelNode> nodes = new HashMap<>();
             for (RoutingNode rn : routingNodes) {
-                ModelNode node = new ModelNode(rn);
+                ModelNode node = new ModelNode(rn, this);
                 nodes.put(rn.nodeId(), node);
                 for (ShardRouting shard : rn) {
                     assert rn.nodeId().equals(shard.currentNodeId());
@@ -867,7 +1033,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                 }
 
                 // simulate weight if we would add shard to node
-                float currentWeight = weight.weightShardAdded(this, node, shard.getIndexName());
+                float currentWeight = weight.weightShardAdded(this, node, shard);
                 // moving the shard would not improve the balance, and we are not in explain mode, so short circuit
                 if (currentWeight > minWeight && explain == false) {
                     continue;
@@ -960,7 +1126,8 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                                 && ((rebalanceDecision.type() == Type.YES) || (rebalanceDecision.type() == Type.THROTTLE))) {
                             if (maxNode.containsShard(shard)) {
                                 // simulate moving shard from maxNode to minNode
-                                final float delta = weight.weightShardAdded(this, minNode, idx) - weight.weightShardRemoved(this, maxNode, idx);
+                                final float delta = weight.weightShardAdded(this, minNode, shard)
+                                    - weight.weightShardRemoved(this, maxNode, shard);
                                 if (delta < minCost ||
                                         (candidate != null && Float.compare(delta, minCost) == 0 && candidate.id() > shard.id())) {
                                     /* this last line is a tie-breaker to make the shard allocation alg deterministic
@@ -1003,10 +1170,15 @@ public class BalancedShardsAllocator implements ShardsAllocator {
     static class ModelNode implements Iterable<ModelIndex> {
         private final Map<String, ModelIndex> indices = new HashMap<>();
         private int numShards = 0;
+        private double writeLoad = 0.0;
+        private double readLoad = 0.0;
+        private double diskUsage = 0.0;
         private final RoutingNode routingNode;
+        private final Balancer balancer;
 
-        ModelNode(RoutingNode routingNode) {
+        ModelNode(RoutingNode routingNode, Balancer balancer) {
             this.routingNode = routingNode;
+            this.balancer = balancer;
         }
 
         public ModelIndex getIndex(String indexId) {
@@ -1030,6 +1202,37 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             return index == null ? 0 : index.numShards();
         }
 
+        /**
+         * Returns the summed up indexing rate of the shards on this node, 0 if the weight function doesn't use it.
+         */
+        public double writeLoad() {
+            return writeLoad;
+        }
+
+        /**
+         * Returns the summed up search rate of the shards on this node, 0 if the weight function doesn't use it.
+         */
+        public double readLoad() {
+            return readLoad;
+        }
+
+        /**
+         * Returns the summed up size of the shards on this node, 0 if the weight function doesn't use it.
+         */
+        public double diskUsage() {
+            return diskUsage;
+        }
+
+        private void addLoad(ShardRouting shard, int sign) {
+            if (balancer.clusterInfo == null) {
+                return;
+            }
+            ShardLoad shardLoad = balancer.shardLoad(shard);
+            writeLoad += sign * shardLoad.getIndexingRate();
+            readLoad += sign * shardLoad.getSearchRate();
+            diskUsage += sign * balancer.shardSize(shard);
+        }
+
         public int highestPrimary(String index) {
             ModelIndex idx = indices.get(index);
             if (idx != null) {
@@ -1046,6 +1249,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             }
             index.addShard(shard);
             numShards++;
+            addLoad(shard, 1);
         }
 
         public void removeShard(ShardRouting shard) {
@@ -1057,6 +1261,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                 }
             }
             numShards--;
+            addLoad(shard, -1);
         }
 
         @Override
@@ -0,0 +1,60 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.decider;
+
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.index.store.SnapshotIndexStore;
+
+/**
+ * This {@link AllocationDecider} keeps the shards of indices which are mounted from a snapshot on their node.
+ * A relocation recovers the target from the source shard by copying all files, which would download every file of
+ * the shard snapshot onto the local disk of the target node, see {@link SnapshotIndexStore}.
+ * <p>
+ * Unassigned shards are not affected, they are initialized from the snapshot repository wherever they are allocated.
+ * </p>
+ */
+public class MountedIndexAllocationDecider extends AllocationDecider {
+
+    public static final String NAME = "mounted_index";
+
+    @Override
+    public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+        if (shardRouting.unassigned()) {
+            return allocation.decision(Decision.YES, NAME, "shard is not allocated yet");
+        }
+        return canMove(shardRouting, allocation);
+    }
+
+    @Override
+    public Decision canRebalance(ShardRouting shardRouting, RoutingAllocation allocation) {
+        return canMove(shardRouting, allocation);
+    }
+
+    private static Decision canMove(ShardRouting shardRouting, RoutingAllocation allocation) {
+        if (SnapshotIndexStore.isMounted(allocation.metaData().getIndexSafe(shardRouting.index()).getSettings())) {
+            return allocation.decision(Decision.NO, NAME,
+                "shards of an index mounted from a snapshot cannot be moved, " +
+                "a relocation would copy all files of the snapshot to the target node");
+        }
+        return allocation.decision(Decision.YES, NAME, "index is not mounted from a snapshot");
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.decider;
+
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ShardLoad;
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+
+/**
+ * This {@link AllocationDecider} prevents moving a shard to a node if the indexing or search rate of the node
+ * would exceed the average rate per node by more than {@code cluster.routing.allocation.load.max_ratio}.
+ * The rates are taken from the shard loads published in the {@link ClusterInfo}.
+ * <p>
+ * The decider only limits relocations; unassigned shards are always allowed so that the load never gets in the way
+ * of the availability of the data. Nodes without any load are allowed to take any shard, otherwise a single shard
+ * that is hotter than the limit could never move.
+ * </p>
+ */
+public class ShardLoadAllocationDecider extends AllocationDecider {
+
+    public static final String NAME = "shard_load";
+
+    /**
+     * The maximum indexing or search rate of a node, as a multiple of the average rate per node.
+     * Values {@code <= 0} disable the decider.
+     */
+    public static final Setting<Float> CLUSTER_ROUTING_ALLOCATION_LOAD_MAX_RATIO_SETTING =
+        Setting.floatSetting("cluster.routing.allocation.load.max_ratio", 0.0f, 0.0f,
+            Property.Dynamic, Property.NodeScope);
+
+    private volatile float maxRatio;
+
+    private volatile AvgLoads avgLoads;
+
+    public ShardLoadAllocationDecider(Settings settings, ClusterSettings clusterSettings) {
+        this.maxRatio = CLUSTER_ROUTING_ALLOCATION_LOAD_MAX_RATIO_SETTING.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(CLUSTER_ROUTING_ALLOCATION_LOAD_MAX_RATIO_SETTING, this::setMaxRatio);
+    }
+
+    private void setMaxRatio(float maxRatio) {
+        this.maxRatio = maxRatio;
+    }
+
+    @Override
+    public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+        // Capture the limit here in case it changes during this method's execution
+        final float maxRatio = this.maxRatio;
+        if (maxRatio <= 0.0f) {
+            return allocation.decision(Decision.YES, NAME, "shard load limit is disabled: [%s=%.2f]",
+                CLUSTER_ROUTING_ALLOCATION_LOAD_MAX_RATIO_SETTING.getKey(), maxRatio);
+        }
+        if (shardRouting.unassigned()) {
+            return allocation.decision(Decision.YES, NAME, "the shard load limit only applies to relocations");
+        }
+        ClusterInfo clusterInfo = allocation.clusterInfo();
+        double nodeIndexingRate = 0.0;
+        double nodeSearchRate = 0.0;
+        for (ShardRouting nodeShard : node) {
+            // don't count relocating shards, their load moves to the target node
+            if (nodeShard.relocating()) {
+                continue;
+            }
+            ShardLoad load = clusterInfo.getShardLoad(nodeShard);
+            nodeIndexingRate += load.getIndexingRate();
+            nodeSearchRate += load.getSearchRate();
+        }
+        ShardLoad shardLoad = clusterInfo.getShardLoad(shardRouting);
+        AvgLoads avgLoads = avgLoads(allocation);
+        double maxIndexingRate = maxRatio * avgLoads.indexingRate;
+        if (nodeIndexingRate > 0.0 && nodeIndexingRate + shardLoad.getIndexingRate() > maxIndexingRate) {
+            return allocation.decision(Decision.NO, NAME,
+                "the indexing rate of the node [%.2f/s] would exceed the limit [%.2f/s], cluster setting [%s=%.2f]",
+                nodeIndexingRate + shardLoad.getIndexingRate(), maxIndexingRate,
+                CLUSTER_ROUTING_ALLOCATION_LOAD_MAX_RATIO_SETTING.getKey(), maxRatio);
+        }
+        double maxSearchRate = maxRatio * avgLoads.searchRate;
+        if (nodeSearchRate > 0.0 && nodeSearchRate + shardLoad.getSearchRate() > maxSearchRate) {
+            return allocation.decision(Decision.NO, NAME,
+                "the search rate of the node [%.2f/s] would exceed the limit [%.2f/s], cluster setting [%s=%.2f]",
+                nodeSearchRate + shardLoad.getSearchRate(), maxSearchRate,
+                CLUSTER_ROUTING_ALLOCATION_LOAD_MAX_RATIO_SETTING.getKey(), maxRatio);
+        }
+        return allocation.decision(Decision.YES, NAME,
+            "the indexing rate [%.2f/s] and search rate [%.2f/s] of the node are under the limits [%.2f/s, %.2f/s]",
+            nodeIndexingRate + shardLoad.getIndexingRate(), nodeSearchRate + shardLoad.getSearchRate(),
+            maxIndexingRate, maxSearchRate);
+    }
+
+    /**
+     * Relocations don't change the total load of the cluster, so the averages are computed once per
+     * {@link ClusterInfo} instead of for every decision.
+     */
+    private AvgLoads avgLoads(RoutingAllocation allocation) {
+        ClusterInfo clusterInfo = allocation.clusterInfo();
+        AvgLoads avgLoads = this.avgLoads;
+        if (avgLoads != null && avgLoads.clusterInfo == clusterInfo && avgLoads.numNodes == allocation.routingNodes().size()) {
+            return avgLoads;
+        }
+        double indexingRate = 0.0;
+        double searchRate = 0.0;
+        int numNodes = 0;
+        for (RoutingNode routingNode : allocation.routingNodes()) {
+            numNodes++;
+            for (ShardRouting shard : routingNode) {
+                if (shard.relocating()) {
+                    continue;
+                }
+                ShardLoad load = clusterInfo.getShardLoad(shard);
+                indexingRate += load.getIndexingRate();
+                searchRate += load.getSearchRate();
+            }
+        }
+        avgLoads = numNodes == 0
+            ? new AvgLoads(clusterInfo, 0, 0.0, 0.0)
+            : new AvgLoads(clusterInfo, numNodes, indexingRate / numNodes, searchRate / numNodes);
+        this.avgLoads = avgLoads;
+        return avgLoads;
+    }
+
+    private static final class AvgLoads {
+
+        private final ClusterInfo clusterInfo;
+        private final int numNodes;
+        private final double indexingRate;
+        private final double searchRate;
+
+        private AvgLoads(ClusterInfo clusterInfo, int numNodes, double indexingRate, double searchRate) {
+            this.clusterInfo = clusterInfo;
+            this.numNodes = numNodes;
+            this.indexingRate = indexingRate;
+            this.searchRate = searchRate;
+        }
+    }
+}
@@ -19,6 +19,9 @@
 
 package org.elasticsearch.common.blobstore;
 
+import org.elasticsearch.common.io.Streams;
+
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.FileAlreadyExistsException;
@@ -57,6 +60,44 @@ public interface BlobContainer {
      */
     InputStream readBlob(String blobName) throws IOException;
 
+    /**
+     * Creates a new {@link InputStream} that reads a range of bytes of the given blob.
+     * <p>
+     * The default implementation skips the bytes before {@code position}; implementations which can seek
+     * or request a range of a blob should override it.
+     *
+     * @param   blobName
+     *          The name of the blob to get an {@link InputStream} for.
+     * @param   position
+     *          The position in the blob where the stream starts.
+     * @param   length
+     *          The number of bytes the stream returns at most.
+     * @return  The {@code InputStream} to read the range of the blob.
+     * @throws  NoSuchFileException if the blob does not exist
+     * @throws  IOException if the blob can not be read.
+     */
+    default InputStream readBlob(String blobName, long position, long length) throws IOException {
+        final InputStream inputStream = readBlob(blobName);
+        try {
+            long toSkip = position;
+            while (toSkip > 0) {
+                final long skipped = inputStream.skip(toSkip);
+                if (skipped <= 0) {
+                    if (inputStream.read() == -1) {
+                        throw new EOFException("position [" + position + "] is beyond the end of blob [" + blobName + "]");
+                    }
+                    toSkip--;
+                } else {
+                    toSkip -= skipped;
+                }
+            }
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+        return Streams.limitStream(inputStream, length);
+    }
+
     /**
      * Reads blob content from the input stream and writes it to the container in a new blob with the given name.
      * This method assumes the container does not already contain a blob of the same blobName.  If a blob by the
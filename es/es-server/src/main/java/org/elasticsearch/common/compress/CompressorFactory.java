@@ -33,6 +33,7 @@ import java.util.Objects;
 public class CompressorFactory {
 
     public static final Compressor COMPRESSOR = new DeflateCompressor();
+    public static final Compressor LZ4 = new LZ4Compressor();
 
     @Nullable
     public static Compressor compressor(BytesReference bytes) {
@@ -43,6 +44,10 @@ public class CompressorFactory {
                 assert XContentHelper.xContentType(bytes) == null;
                 return COMPRESSOR;
             }
+            if (LZ4.isCompressed(bytes)) {
+                assert XContentHelper.xContentType(bytes) == null;
+                return LZ4;
+            }
 
         XContentType contentType = XContentHelper.xContentType(bytes);
         if (contentType == null) {
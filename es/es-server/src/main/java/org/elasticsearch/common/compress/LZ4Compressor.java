@@ -0,0 +1,260 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.compress.LZ4;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * {@link Compressor} implementation based on the LZ4 implementation of Lucene.
+ *
+ * LZ4 trades compression ratio for speed, it is considerably cheaper in terms of CPU than {@link DeflateCompressor}.
+ *
+ * The data is split into blocks of up to {@link #BLOCK_SIZE} bytes. Each block is written as
+ * {@code <uncompressed length (int)><compressed length (int)><compressed bytes>}.
+ * A block with an uncompressed length of 0 marks the end of the stream.
+ */
+public class LZ4Compressor implements Compressor {
+
+    // An arbitrary header that we use to identify compressed streams
+    // It needs to be different from other compressors and to not be specific
+    // enough so that no stream starting with these bytes could be detected as
+    // a XContent
+    private static final byte[] HEADER = new byte[]{'L', 'Z', '4', '\0'};
+
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    @Override
+    public boolean isCompressed(BytesReference bytes) {
+        if (bytes.length() < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; ++i) {
+            if (bytes.get(i) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public StreamInput streamInput(StreamInput in) throws IOException {
+        final byte[] headerBytes = new byte[HEADER.length];
+        int len = Streams.readFully(in, headerBytes, 0, headerBytes.length);
+        if (len != HEADER.length || Arrays.equals(headerBytes, HEADER) == false) {
+            throw new IllegalArgumentException("Input stream is not compressed with LZ4!");
+        }
+        return new InputStreamStreamInput(new LZ4InputStream(in));
+    }
+
+    @Override
+    public StreamOutput streamOutput(StreamOutput out) throws IOException {
+        out.writeBytes(HEADER);
+        return new OutputStreamStreamOutput(new LZ4OutputStream(out));
+    }
+
+    private static int maxCompressedLength(int length) {
+        return length + (length / 255) + 16;
+    }
+
+    private static final class LZ4OutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BLOCK_SIZE];
+        private final byte[] compressed = new byte[maxCompressedLength(BLOCK_SIZE)];
+        private final byte[] blockHeader = new byte[8];
+        private final LZ4.FastCompressionHashTable hashTable = new LZ4.FastCompressionHashTable();
+        private int pos = 0;
+        private boolean closed = false;
+
+        LZ4OutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (pos == buffer.length) {
+                writeBlock();
+            }
+            buffer[pos++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (pos == buffer.length) {
+                    writeBlock();
+                }
+                int toCopy = Math.min(len, buffer.length - pos);
+                System.arraycopy(b, off, buffer, pos, toCopy);
+                pos += toCopy;
+                off += toCopy;
+                len -= toCopy;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (pos > 0) {
+                writeBlock();
+            }
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (pos > 0) {
+                    writeBlock();
+                }
+                writeBlockHeader(0, 0);
+            } finally {
+                out.close();
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            ByteArrayDataOutput dataOut = new ByteArrayDataOutput(compressed);
+            LZ4.compress(buffer, 0, pos, dataOut, hashTable);
+            int compressedLength = dataOut.getPosition();
+            writeBlockHeader(pos, compressedLength);
+            out.write(compressed, 0, compressedLength);
+            pos = 0;
+        }
+
+        private void writeBlockHeader(int uncompressedLength, int compressedLength) throws IOException {
+            writeInt(uncompressedLength, 0);
+            writeInt(compressedLength, 4);
+            out.write(blockHeader, 0, blockHeader.length);
+        }
+
+        private void writeInt(int value, int offset) {
+            blockHeader[offset] = (byte) (value >> 24);
+            blockHeader[offset + 1] = (byte) (value >> 16);
+            blockHeader[offset + 2] = (byte) (value >> 8);
+            blockHeader[offset + 3] = (byte) value;
+        }
+    }
+
+    private static final class LZ4InputStream extends InputStream {
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[BLOCK_SIZE];
+        private final byte[] blockHeader = new byte[8];
+        private byte[] compressed = new byte[0];
+        private int pos = 0;
+        private int limit = 0;
+        private boolean eof = false;
+
+        LZ4InputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pos == limit && readBlock() == false) {
+                return -1;
+            }
+            return buffer[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (pos == limit && readBlock() == false) {
+                return -1;
+            }
+            int toCopy = Math.min(len, limit - pos);
+            System.arraycopy(buffer, pos, b, off, toCopy);
+            pos += toCopy;
+            return toCopy;
+        }
+
+        @Override
+        public int available() {
+            return limit - pos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private boolean readBlock() throws IOException {
+            if (eof) {
+                return false;
+            }
+            readFully(blockHeader, blockHeader.length);
+            int uncompressedLength = readInt(0);
+            int compressedLength = readInt(4);
+            if (uncompressedLength == 0) {
+                eof = true;
+                return false;
+            }
+            if (uncompressedLength < 0 || uncompressedLength > BLOCK_SIZE
+                || compressedLength < 0 || compressedLength > maxCompressedLength(BLOCK_SIZE)) {
+                throw new IOException("Invalid LZ4 block, uncompressed length [" + uncompressedLength
+                                      + "] compressed length [" + compressedLength + "]");
+            }
+            compressed = ArrayUtil.grow(compressed, compressedLength);
+            readFully(compressed, compressedLength);
+            LZ4.decompress(new ByteArrayDataInput(compressed, 0, compressedLength), uncompressedLength, buffer, 0);
+            pos = 0;
+            limit = uncompressedLength;
+            return true;
+        }
+
+        private void readFully(byte[] bytes, int length) throws IOException {
+            if (Streams.readFully(in, bytes, 0, length) != length) {
+                throw new EOFException("Unexpected end of LZ4 compressed stream");
+            }
+        }
+
+        private int readInt(int offset) {
+            return ((blockHeader[offset] & 0xFF) << 24)
+                   | ((blockHeader[offset + 1] & 0xFF) << 16)
+                   | ((blockHeader[offset + 2] & 0xFF) << 8)
+                   | (blockHeader[offset + 3] & 0xFF);
+        }
+    }
+}
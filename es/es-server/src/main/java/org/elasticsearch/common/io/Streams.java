@@ -25,6 +25,7 @@ import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.core.internal.io.IOUtils;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -161,6 +162,13 @@ public abstract class Streams {
         }
     }
 
+    /**
+     * Limits the given input stream to the provided number of bytes
+     */
+    public static InputStream limitStream(InputStream in, long limit) {
+        return new LimitedInputStream(in, limit);
+    }
+
     /**
      * Wraps the given {@link BytesStream} in a {@link StreamOutput} that simply flushes when
      * close is called.
@@ -212,4 +220,61 @@ public abstract class Streams {
             return delegate.bytes();
         }
     }
+
+    /**
+     * A wrapper around an {@link InputStream} that limits the number of bytes that can be read from the stream.
+     */
+    static class LimitedInputStream extends FilterInputStream {
+
+        private long currentLimit;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            if (limit < 0L) {
+                throw new IllegalArgumentException("limit must be non-negative");
+            }
+            this.currentLimit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (currentLimit > 0) {
+                final int read = in.read();
+                if (read != -1) {
+                    currentLimit--;
+                }
+                return read;
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (currentLimit > 0) {
+                final int read = in.read(b, off, Math.toIntExact(Math.min(len, currentLimit)));
+                if (read != -1) {
+                    currentLimit -= read;
+                }
+                return read;
+            }
+            return -1;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final long skipped = in.skip(Math.min(n, currentLimit));
+            currentLimit -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return Math.toIntExact(Math.min(in.available(), currentLimit));
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
 }
@@ -23,6 +23,7 @@ import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.util.Constants;
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.common.Booleans;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -41,6 +42,7 @@ import org.elasticsearch.index.shard.IndexSearcherWrapper;
 import org.elasticsearch.index.shard.IndexingOperationListener;
 import org.elasticsearch.index.store.IndexStore;
 import org.elasticsearch.indices.IndicesQueryCache;
+import org.elasticsearch.indices.MergeCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
 import org.elasticsearch.indices.mapper.MapperRegistry;
@@ -320,6 +322,7 @@ public final class IndexModule {
             NamedXContentRegistry xContentRegistry,
             IndexService.ShardStoreDeleter shardStoreDeleter,
             CircuitBreakerService circuitBreakerService,
+            @Nullable MergeCoordinator mergeCoordinator,
             BigArrays bigArrays,
             ThreadPool threadPool,
             IndicesQueryCache indicesQueryCache,
@@ -351,6 +354,7 @@ public final class IndexModule {
             analysisRegistry,
             engineFactory,
             circuitBreakerService,
+            mergeCoordinator,
             bigArrays,
             threadPool,
             queryCache,
@@ -20,6 +20,7 @@
 package org.elasticsearch.index;
 
 import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.Accountable;
 import org.elasticsearch.Assertions;
@@ -62,6 +63,7 @@ import org.elasticsearch.index.store.DirectoryService;
 import org.elasticsearch.index.store.IndexStore;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.indices.MergeCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -82,6 +84,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.unmodifiableMap;
@@ -102,6 +105,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final EngineFactory engineFactory;
     private final IndexWarmer warmer;
+    private final Supplier<Sort> indexSortSupplier;
     private volatile Map<Integer, IndexShard> shards = emptyMap();
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final AtomicBoolean deleted = new AtomicBoolean(false);
@@ -118,6 +122,8 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
     private final ThreadPool threadPool;
     private final BigArrays bigArrays;
     private final CircuitBreakerService circuitBreakerService;
+    @Nullable
+    private final MergeCoordinator mergeCoordinator;
 
     public IndexService(
             IndexSettings indexSettings,
@@ -127,6 +133,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
             AnalysisRegistry registry,
             EngineFactory engineFactory,
             CircuitBreakerService circuitBreakerService,
+            @Nullable MergeCoordinator mergeCoordinator,
             BigArrays bigArrays,
             ThreadPool threadPool,
             QueryCache queryCache,
@@ -142,6 +149,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         this.xContentRegistry = xContentRegistry;
         this.namedWriteableRegistry = namedWriteableRegistry;
         this.circuitBreakerService = circuitBreakerService;
+        this.mergeCoordinator = mergeCoordinator;
         this.mapperService = new MapperService(
             indexSettings,
             registry.build(indexSettings),
@@ -151,6 +159,13 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
             this::newQueryShardContext
         );
         this.indexFieldData = new IndexFieldDataService(indexSettings, indicesFieldDataCache, circuitBreakerService, mapperService);
+        if (IndexSortConfig.hasIndexSort(indexSettings.getSettings())) {
+            // the sort is built lazily because the mappings are not available yet
+            this.indexSortSupplier = () -> IndexSortConfig.buildIndexSort(
+                indexSettings.getSettings(), mapperService::fullName, indexFieldData::getForField);
+        } else {
+            this.indexSortSupplier = () -> null;
+        }
         this.shardStoreDeleter = shardStoreDeleter;
         this.bigArrays = bigArrays;
         this.threadPool = threadPool;
@@ -348,7 +363,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
                 indexCache, mapperService, engineFactory,
                 eventListener, searcherWrapper, threadPool, bigArrays, engineWarmer,
                 indexingOperationListeners, () -> globalCheckpointSyncer.accept(shardId),
-                circuitBreakerService);
+                circuitBreakerService, indexSortSupplier, mergeCoordinator);
             eventListener.indexShardStateChanged(indexShard, null, indexShard.state(), "shard created");
             eventListener.afterIndexShardCreated(indexShard);
             shards = newMapBuilder(shards).put(shardId.id(), indexShard).immutableMap();
@@ -472,6 +487,14 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         return indexFieldData;
     }
 
+    /**
+     * Returns a supplier of the index sort. The supplier returns <code>null</code> if the index isn't sorted
+     * and throws an {@link IllegalArgumentException} if the sort cannot be built from the current mappings.
+     */
+    public Supplier<Sort> getIndexSortSupplier() {
+        return indexSortSupplier;
+    }
+
     private class StoreCloseListener implements Store.OnClose {
         private final ShardId shardId;
         private final Closeable[] toClose;
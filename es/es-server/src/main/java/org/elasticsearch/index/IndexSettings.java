@@ -66,6 +66,21 @@ public final class IndexSettings {
     public static final Setting<Translog.Durability> INDEX_TRANSLOG_DURABILITY_SETTING =
         new Setting<>("index.translog.durability", Translog.Durability.REQUEST.name(),
             (value) -> Translog.Durability.valueOf(value.toUpperCase(Locale.ROOT)), Property.Dynamic, Property.IndexScope);
+    /**
+     * The time the translog fsync for a write with {@link Translog.Durability#REQUEST} durability waits for concurrent
+     * writes, so that they are all synced together. {@code 0} syncs right away.
+     */
+    public static final Setting<TimeValue> INDEX_TRANSLOG_GROUP_COMMIT_WINDOW_SETTING =
+        Setting.timeSetting("index.translog.group_commit.window", TimeValue.ZERO, TimeValue.ZERO, TimeValue.timeValueSeconds(1),
+            Property.Dynamic, Property.IndexScope);
+    /**
+     * The number of bytes of the operations waiting for a group commit which trigger the fsync before the
+     * {@link #INDEX_TRANSLOG_GROUP_COMMIT_WINDOW_SETTING window} elapsed.
+     */
+    public static final Setting<ByteSizeValue> INDEX_TRANSLOG_GROUP_COMMIT_MAX_BYTES_SETTING =
+        Setting.byteSizeSetting("index.translog.group_commit.max_bytes", new ByteSizeValue(1, ByteSizeUnit.MB),
+            new ByteSizeValue(1, ByteSizeUnit.BYTES), new ByteSizeValue(Long.MAX_VALUE, ByteSizeUnit.BYTES),
+            Property.Dynamic, Property.IndexScope);
     public static final Setting<Boolean> INDEX_WARMER_ENABLED_SETTING =
         Setting.boolSetting("index.warmer.enabled", true, Property.Dynamic, Property.IndexScope);
 
@@ -208,6 +223,8 @@ public final class IndexSettings {
     private final boolean defaultAllowUnmappedFields;
     private volatile Translog.Durability durability;
     private final TimeValue syncInterval;
+    private volatile TimeValue groupCommitWindow;
+    private volatile ByteSizeValue groupCommitMaxBytes;
     private volatile TimeValue refreshInterval;
     private volatile ByteSizeValue flushThresholdSize;
     private volatile TimeValue translogRetentionAge;
@@ -285,6 +302,8 @@ public final class IndexSettings {
         this.durability = scopedSettings.get(INDEX_TRANSLOG_DURABILITY_SETTING);
         defaultFields = scopedSettings.get(DEFAULT_FIELD_SETTING);
         syncInterval = INDEX_TRANSLOG_SYNC_INTERVAL_SETTING.get(settings);
+        groupCommitWindow = scopedSettings.get(INDEX_TRANSLOG_GROUP_COMMIT_WINDOW_SETTING);
+        groupCommitMaxBytes = scopedSettings.get(INDEX_TRANSLOG_GROUP_COMMIT_MAX_BYTES_SETTING);
         refreshInterval = scopedSettings.get(INDEX_REFRESH_INTERVAL_SETTING);
         flushThresholdSize = scopedSettings.get(INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING);
         translogRetentionAge = scopedSettings.get(INDEX_TRANSLOG_RETENTION_AGE_SETTING);
@@ -319,6 +338,8 @@ public final class IndexSettings {
             mergeSchedulerConfig::setMaxThreadAndMergeCount);
         scopedSettings.addSettingsUpdateConsumer(MergeSchedulerConfig.AUTO_THROTTLE_SETTING, mergeSchedulerConfig::setAutoThrottle);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_DURABILITY_SETTING, this::setTranslogDurability);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_GROUP_COMMIT_WINDOW_SETTING, this::setTranslogGroupCommitWindow);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_GROUP_COMMIT_MAX_BYTES_SETTING, this::setTranslogGroupCommitMaxBytes);
         scopedSettings.addSettingsUpdateConsumer(MAX_NGRAM_DIFF_SETTING, this::setMaxNgramDiff);
         scopedSettings.addSettingsUpdateConsumer(MAX_SHINGLE_DIFF_SETTING, this::setMaxShingleDiff);
         scopedSettings.addSettingsUpdateConsumer(INDEX_WARMER_ENABLED_SETTING, this::setEnableWarmer);
@@ -488,6 +509,28 @@ public final class IndexSettings {
         this.durability = durability;
     }
 
+    /**
+     * Returns the time a translog fsync waits for concurrent writes so that they are synced together.
+     */
+    public TimeValue getTranslogGroupCommitWindow() {
+        return groupCommitWindow;
+    }
+
+    private void setTranslogGroupCommitWindow(TimeValue groupCommitWindow) {
+        this.groupCommitWindow = groupCommitWindow;
+    }
+
+    /**
+     * Returns the number of bytes of pending operations which trigger a group commit before its window elapsed.
+     */
+    public ByteSizeValue getTranslogGroupCommitMaxBytes() {
+        return groupCommitMaxBytes;
+    }
+
+    private void setTranslogGroupCommitMaxBytes(ByteSizeValue groupCommitMaxBytes) {
+        this.groupCommitMaxBytes = groupCommitMaxBytes;
+    }
+
     /**
      * Returns true if index warmers are enabled, otherwise <code>false</code>
      */
@@ -0,0 +1,146 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index;
+
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.SortedSetSortField;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.NullValueOrder;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.search.MultiValueMode;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Holds the settings to configure the order in which documents are stored within the segments of a shard.
+ * <p>
+ * The sort is built with the same {@link IndexFieldData#sortField(NullValueOrder, MultiValueMode, boolean)}
+ * used for query-time sorting, so a query ordering by a prefix of the index sort produces
+ * {@link SortField}s that are equal to the index sort and Lucene's {@link org.apache.lucene.search.TopFieldCollector}
+ * can stop collecting a segment once it has gathered enough hits.
+ * </p>
+ * Both settings are final; the index sort cannot be changed once the index has been created.
+ */
+public final class IndexSortConfig {
+
+    /**
+     * Comma separated list of the fields to sort the index on.
+     */
+    public static final Setting<String> INDEX_SORT_FIELD_SETTING = Setting.simpleString(
+        "index.sort.field",
+        Setting.Property.IndexScope,
+        Setting.Property.Final
+    );
+
+    /**
+     * Comma separated list of the sort orders (`asc` or `desc`) of the fields in {@link #INDEX_SORT_FIELD_SETTING}.
+     * Fields without an explicit order are sorted ascending.
+     */
+    public static final Setting<String> INDEX_SORT_ORDER_SETTING = Setting.simpleString(
+        "index.sort.order",
+        IndexSortConfig::validateOrder,
+        Setting.Property.IndexScope,
+        Setting.Property.Final
+    );
+
+    private IndexSortConfig() {
+    }
+
+    public static boolean hasIndexSort(Settings settings) {
+        return splitValues(INDEX_SORT_FIELD_SETTING.get(settings)).length > 0;
+    }
+
+    /**
+     * Builds the index sort from the index settings.
+     *
+     * @return the sort or null if no index sort is configured.
+     * @throws IllegalArgumentException if a field is unknown, has no doc values or cannot be used to sort an index.
+     */
+    @Nullable
+    public static Sort buildIndexSort(Settings settings,
+                                      Function<String, MappedFieldType> fieldTypeLookup,
+                                      Function<MappedFieldType, IndexFieldData<?>> fieldDataLookup) {
+        String[] fields = splitValues(INDEX_SORT_FIELD_SETTING.get(settings));
+        if (fields.length == 0) {
+            return null;
+        }
+        String[] orders = splitValues(INDEX_SORT_ORDER_SETTING.get(settings));
+        if (orders.length > fields.length) {
+            throw new IllegalArgumentException(
+                "index sort order [" + String.join(",", orders) + "] has more entries than index sort fields [" +
+                String.join(",", fields) + "]");
+        }
+        SortField[] sortFields = new SortField[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            boolean reverse = i < orders.length && isDescending(orders[i]);
+            MappedFieldType fieldType = fieldTypeLookup.apply(field);
+            if (fieldType == null) {
+                throw new IllegalArgumentException("unknown index sort field [" + field + "]");
+            }
+            if (fieldType.hasDocValues() == false) {
+                throw new IllegalArgumentException("index sort field [" + field + "] must have doc values");
+            }
+            // nulls are sorted like in an ORDER BY without NULLS FIRST/LAST: last for ascending, first for descending
+            SortField sortField = fieldDataLookup.apply(fieldType).sortField(
+                NullValueOrder.fromFlag(reverse),
+                reverse ? MultiValueMode.MAX : MultiValueMode.MIN,
+                reverse
+            );
+            if (!(sortField instanceof SortedNumericSortField) && !(sortField instanceof SortedSetSortField)) {
+                throw new IllegalArgumentException(
+                    "invalid index sort field [" + field + "] of type [" + fieldType.typeName() + "]");
+            }
+            sortFields[i] = sortField;
+        }
+        return new Sort(sortFields);
+    }
+
+    private static void validateOrder(String value) {
+        for (String order : splitValues(value)) {
+            isDescending(order);
+        }
+    }
+
+    private static boolean isDescending(String order) {
+        switch (order.toLowerCase(Locale.ENGLISH)) {
+            case "asc":
+                return false;
+
+            case "desc":
+                return true;
+
+            default:
+                throw new IllegalArgumentException(
+                    "invalid index sort order [" + order + "], must be one of [asc, desc]");
+        }
+    }
+
+    private static String[] splitValues(String value) {
+        return Strings.tokenizeToStringArray(value, ",");
+    }
+}
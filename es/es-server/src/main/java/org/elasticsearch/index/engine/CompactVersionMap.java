@@ -0,0 +1,414 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.ByteArray;
+import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A thread safe map from _uid bytes to {@link IndexVersionValue}s which keeps the values in primitive arrays instead of
+ * one {@link BytesRef}, {@link IndexVersionValue} and {@link Translog.Location} object per entry.
+ * <p>
+ * The map is split into segments, each guarded by its own lock. A segment stores its entries densely in parallel arrays,
+ * the key bytes in a single byte array, and finds them through an open addressing table of entry ordinals with linear
+ * probing. Removed entries are replaced by the last entry, so the arrays never have holes. The bytes of removed keys are
+ * reclaimed once they make up half of the key bytes.
+ * <p>
+ * The arrays are allocated from {@link BigArrays}, so the pages of the maps which are dropped on every refresh are recycled
+ * for the maps which replace them and are accounted on the circuit breaker of the {@link BigArrays}. The map must be
+ * {@link #close() closed} to give them back. A closed map is empty and ignores further modifications.
+ * <p>
+ * Values are materialized on {@link #get(BytesRef)}, so lookups allocate a short lived object but the map itself only
+ * consists of a few arrays per segment, no matter how many entries it holds.
+ */
+final class CompactVersionMap implements Releasable {
+
+    /**
+     * The approximate number of bytes an entry uses, excluding its key bytes:
+     * a hash, version, seqNo, term, the translog location, the key offset and length, and two table slots.
+     */
+    static final long BYTES_PER_ENTRY = Integer.BYTES + 5 * Long.BYTES + 3 * Integer.BYTES + 2 * Integer.BYTES;
+
+    private static final int NUM_SEGMENTS = 32;
+    private static final int SEGMENT_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(NUM_SEGMENTS);
+    private static final long NO_LOCATION = -1L;
+
+    private final Segment[] segments = new Segment[NUM_SEGMENTS];
+
+    CompactVersionMap() {
+        this(0);
+    }
+
+    CompactVersionMap(int expectedSize) {
+        this(BigArrays.NON_RECYCLING_INSTANCE, expectedSize);
+    }
+
+    CompactVersionMap(BigArrays bigArrays, int expectedSize) {
+        int expectedSegmentSize = expectedSize / NUM_SEGMENTS;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(bigArrays, expectedSegmentSize);
+        }
+    }
+
+    private Segment segment(int hash) {
+        return segments[hash >>> SEGMENT_SHIFT];
+    }
+
+    IndexVersionValue get(BytesRef uid) {
+        int hash = uid.hashCode();
+        return segment(hash).get(uid, hash);
+    }
+
+    /**
+     * @return true if the uid was not in the map yet
+     */
+    boolean put(BytesRef uid, IndexVersionValue value) {
+        int hash = uid.hashCode();
+        return segment(hash).put(uid, hash, value);
+    }
+
+    /**
+     * @return true if the uid was in the map
+     */
+    boolean remove(BytesRef uid) {
+        int hash = uid.hashCode();
+        return segment(hash).remove(uid, hash);
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    boolean isEmpty() {
+        for (Segment segment : segments) {
+            if (segment.size() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a point in time copy of the entries of each segment
+     */
+    Map<BytesRef, VersionValue> toMap() {
+        Map<BytesRef, VersionValue> map = new HashMap<>();
+        for (Segment segment : segments) {
+            segment.copyTo(map);
+        }
+        return map;
+    }
+
+    @Override
+    public void close() {
+        Releasables.close(segments);
+    }
+
+    private static final class Segment implements Releasable {
+
+        private static final int MIN_CAPACITY = 8;
+
+        private final BigArrays bigArrays;
+        private final BytesRef scratch = new BytesRef();
+
+        // open addressing table of entry ordinal + 1, 0 marks an empty slot
+        private IntArray table;
+        private int mask;
+
+        private IntArray hashes;
+        private LongArray versions;
+        private LongArray seqNos;
+        private LongArray terms;
+        private LongArray locationGenerations;
+        private LongArray locationPositions;
+        private IntArray locationSizes;
+        private IntArray keyOffsets;
+        private IntArray keyLengths;
+        private ByteArray keys;
+        // all entry arrays have exactly this size, BigArrays#grow would oversize int and long arrays differently
+        private int capacity = 0;
+        private int keysUsed = 0;
+        private int keysGarbage = 0;
+        private int size = 0;
+        private boolean closed = false;
+        private final int initialCapacity;
+
+        Segment(BigArrays bigArrays, int expectedSize) {
+            this.bigArrays = bigArrays;
+            this.initialCapacity = Math.max(MIN_CAPACITY, expectedSize);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized IndexVersionValue get(BytesRef uid, int hash) {
+            if (size == 0) {
+                return null;
+            }
+            int slot = findSlot(uid, hash);
+            int ord = table.get(slot) - 1;
+            if (ord < 0) {
+                return null;
+            }
+            return valueAt(ord);
+        }
+
+        synchronized boolean put(BytesRef uid, int hash, IndexVersionValue value) {
+            if (closed) {
+                return false;
+            }
+            if (table == null) {
+                allocate(initialCapacity);
+            }
+            int slot = findSlot(uid, hash);
+            int ord = table.get(slot) - 1;
+            boolean isNew = ord < 0;
+            if (isNew) {
+                if (size == capacity) {
+                    growEntries();
+                }
+                ord = size++;
+                table.set(slot, ord + 1);
+                hashes.set(ord, hash);
+                keyOffsets.set(ord, appendKey(uid));
+                keyLengths.set(ord, uid.length);
+            }
+            versions.set(ord, value.version);
+            seqNos.set(ord, value.seqNo);
+            terms.set(ord, value.term);
+            Translog.Location location = value.getLocation();
+            if (location == null) {
+                locationGenerations.set(ord, NO_LOCATION);
+            } else {
+                locationGenerations.set(ord, location.generation);
+                locationPositions.set(ord, location.translogLocation);
+                locationSizes.set(ord, location.size);
+            }
+            if (isNew && size * 2 > table.size()) {
+                rehash((int) table.size() * 2);
+            }
+            return isNew;
+        }
+
+        synchronized boolean remove(BytesRef uid, int hash) {
+            if (size == 0) {
+                return false;
+            }
+            int slot = findSlot(uid, hash);
+            int ord = table.get(slot) - 1;
+            if (ord < 0) {
+                return false;
+            }
+            deleteSlot(slot);
+            keysGarbage += keyLengths.get(ord);
+            int last = --size;
+            if (ord != last) {
+                // move the last entry into the hole so that the entries stay dense
+                table.set(slotOf(last), ord + 1);
+                hashes.set(ord, hashes.get(last));
+                versions.set(ord, versions.get(last));
+                seqNos.set(ord, seqNos.get(last));
+                terms.set(ord, terms.get(last));
+                locationGenerations.set(ord, locationGenerations.get(last));
+                locationPositions.set(ord, locationPositions.get(last));
+                locationSizes.set(ord, locationSizes.get(last));
+                keyOffsets.set(ord, keyOffsets.get(last));
+                keyLengths.set(ord, keyLengths.get(last));
+            }
+            if (keysGarbage * 2 > keysUsed) {
+                compactKeys();
+            }
+            return true;
+        }
+
+        synchronized void copyTo(Map<BytesRef, VersionValue> map) {
+            for (int ord = 0; ord < size; ord++) {
+                keys.get(keyOffsets.get(ord), keyLengths.get(ord), scratch);
+                map.put(BytesRef.deepCopyOf(scratch), valueAt(ord));
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed == false) {
+                closed = true;
+                size = 0;
+                capacity = 0;
+                keysUsed = 0;
+                keysGarbage = 0;
+                Releasables.close(table, hashes, versions, seqNos, terms, locationGenerations, locationPositions,
+                    locationSizes, keyOffsets, keyLengths, keys);
+                table = null;
+                hashes = null;
+                versions = null;
+                seqNos = null;
+                terms = null;
+                locationGenerations = null;
+                locationPositions = null;
+                locationSizes = null;
+                keyOffsets = null;
+                keyLengths = null;
+                keys = null;
+            }
+        }
+
+        private IndexVersionValue valueAt(int ord) {
+            long generation = locationGenerations.get(ord);
+            Translog.Location location = generation == NO_LOCATION
+                ? null
+                : new Translog.Location(generation, locationPositions.get(ord), locationSizes.get(ord));
+            return new IndexVersionValue(location, versions.get(ord), seqNos.get(ord), terms.get(ord));
+        }
+
+        /**
+         * Returns the slot which holds the uid, or the empty slot where it would be inserted.
+         */
+        private int findSlot(BytesRef uid, int hash) {
+            int slot = hash & mask;
+            while (true) {
+                int ord = table.get(slot) - 1;
+                if (ord < 0) {
+                    return slot;
+                }
+                if (hashes.get(ord) == hash && keyEquals(ord, uid)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private int slotOf(int ord) {
+            int slot = hashes.get(ord) & mask;
+            while (table.get(slot) != ord + 1) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Empties the slot and shifts the following entries of the probe sequence back, so lookups don't need tombstones.
+         */
+        private void deleteSlot(int slot) {
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            int entry;
+            while ((entry = table.get(next)) != 0) {
+                int ideal = hashes.get(entry - 1) & mask;
+                // move the entry if its ideal slot is not within (hole, next]
+                if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                    table.set(hole, entry);
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            table.set(hole, 0);
+        }
+
+        private boolean keyEquals(int ord, BytesRef uid) {
+            if (keyLengths.get(ord) != uid.length) {
+                return false;
+            }
+            keys.get(keyOffsets.get(ord), uid.length, scratch);
+            return scratch.bytesEquals(uid);
+        }
+
+        private int appendKey(BytesRef uid) {
+            keys = bigArrays.grow(keys, keysUsed + uid.length);
+            int offset = keysUsed;
+            keys.set(offset, uid.bytes, uid.offset, uid.length);
+            keysUsed += uid.length;
+            return offset;
+        }
+
+        private void compactKeys() {
+            ByteArray compacted = bigArrays.newByteArray(Math.max(MIN_CAPACITY, keysUsed - keysGarbage), false);
+            int used = 0;
+            for (int ord = 0; ord < size; ord++) {
+                int length = keyLengths.get(ord);
+                keys.get(keyOffsets.get(ord), length, scratch);
+                compacted.set(used, scratch.bytes, scratch.offset, length);
+                keyOffsets.set(ord, used);
+                used += length;
+            }
+            keys.close();
+            keys = compacted;
+            keysUsed = used;
+            keysGarbage = 0;
+        }
+
+        private void allocate(int capacity) {
+            this.capacity = capacity;
+            hashes = bigArrays.newIntArray(capacity, false);
+            versions = bigArrays.newLongArray(capacity, false);
+            seqNos = bigArrays.newLongArray(capacity, false);
+            terms = bigArrays.newLongArray(capacity, false);
+            locationGenerations = bigArrays.newLongArray(capacity, false);
+            locationPositions = bigArrays.newLongArray(capacity, false);
+            locationSizes = bigArrays.newIntArray(capacity, false);
+            keyOffsets = bigArrays.newIntArray(capacity, false);
+            keyLengths = bigArrays.newIntArray(capacity, false);
+            keys = bigArrays.newByteArray(capacity * 16L, false);
+            int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            table = bigArrays.newIntArray(tableSize, true);
+            mask = tableSize - 1;
+        }
+
+        private void growEntries() {
+            capacity = Math.toIntExact(BigArrays.overSize(size + 1L, PageCacheRecycler.LONG_PAGE_SIZE, Long.BYTES));
+            hashes = bigArrays.resize(hashes, capacity);
+            versions = bigArrays.resize(versions, capacity);
+            seqNos = bigArrays.resize(seqNos, capacity);
+            terms = bigArrays.resize(terms, capacity);
+            locationGenerations = bigArrays.resize(locationGenerations, capacity);
+            locationPositions = bigArrays.resize(locationPositions, capacity);
+            locationSizes = bigArrays.resize(locationSizes, capacity);
+            keyOffsets = bigArrays.resize(keyOffsets, capacity);
+            keyLengths = bigArrays.resize(keyLengths, capacity);
+        }
+
+        private void rehash(int tableSize) {
+            table.close();
+            table = bigArrays.newIntArray(tableSize, true);
+            mask = tableSize - 1;
+            for (int ord = 0; ord < size; ord++) {
+                int slot = hashes.get(ord) & mask;
+                while (table.get(slot) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table.set(slot, ord + 1);
+            }
+        }
+    }
+}
@@ -25,6 +25,8 @@ import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.MergeScheduler;
 import org.apache.lucene.index.OneMergeHelper;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
@@ -35,6 +37,7 @@ import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.MergeSchedulerConfig;
 import org.elasticsearch.index.merge.OnGoingMerge;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.MergeCoordinator;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -54,13 +57,24 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
     private final Set<OnGoingMerge> onGoingMerges = ConcurrentCollections.newConcurrentSet();
     private final Set<OnGoingMerge> readOnlyOnGoingMerges = Collections.unmodifiableSet(onGoingMerges);
     private final MergeSchedulerConfig config;
+    @Nullable
+    private final MergeCoordinator mergeCoordinator;
+    private final Runnable ioRateListener = this::updateMergeThreads;
 
     ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings) {
+        this(shardId, indexSettings, null);
+    }
+
+    ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings, @Nullable MergeCoordinator mergeCoordinator) {
         this.config = indexSettings.getMergeSchedulerConfig();
         this.shardId = shardId;
         this.indexSettings = indexSettings.getSettings();
         this.logger = Loggers.getLogger(getClass(), shardId);
+        this.mergeCoordinator = mergeCoordinator;
         refreshConfig();
+        if (mergeCoordinator != null) {
+            mergeCoordinator.addIORateListener(ioRateListener);
+        }
     }
 
     public Set<OnGoingMerge> onGoingMerges() {
@@ -69,6 +83,14 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
 
     @Override
     protected void doMerge(IndexWriter writer, MergePolicy.OneMerge merge) throws IOException {
+        // a merge only counts as ongoing once it got a slot of the node, otherwise merges waiting for a slot would
+        // activate the index throttling of the engine
+        try (Releasable ignored = acquireMergeSlot(merge)) {
+            runMerge(writer, merge);
+        }
+    }
+
+    private void runMerge(IndexWriter writer, MergePolicy.OneMerge merge) throws IOException {
         int totalNumDocs = merge.totalNumDocs();
         long totalSizeInBytes = merge.totalBytesSize();
         long timeNS = System.nanoTime();
@@ -116,6 +138,13 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
         }
     }
 
+    private Releasable acquireMergeSlot(MergePolicy.OneMerge merge) {
+        if (mergeCoordinator == null) {
+            return () -> {};
+        }
+        return mergeCoordinator.acquire(shardId, merge.segments.size(), merge.estimatedMergeBytes, merge::isAborted);
+    }
+
     /**
      * A callback allowing for custom logic before an actual merge starts.
      */
@@ -148,6 +177,31 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
         return thread;
     }
 
+    @Override
+    protected synchronized void updateMergeThreads() {
+        super.updateMergeThreads();
+        if (mergeCoordinator != null) {
+            // the node wide io budget caps the rate chosen by the auto io throttle
+            double mbPerSec = mergeCoordinator.mbPerSecPerMerge();
+            if (mbPerSec != Double.POSITIVE_INFINITY) {
+                for (MergeThread mergeThread : mergeThreads) {
+                    OneMergeHelper.limitMbPerSec(mergeThread, mbPerSec, MergeCoordinator.MIN_THROTTLED_MERGE_BYTES);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } finally {
+            if (mergeCoordinator != null) {
+                mergeCoordinator.removeIORateListener(ioRateListener);
+            }
+        }
+    }
+
     void refreshConfig() {
         if (this.getMaxMergeCount() != config.getMaxMergeCount() || this.getMaxThreadCount() != config.getMaxThreadCount()) {
             this.setMaxMergesAndThreads(config.getMaxMergeCount(), config.getMaxThreadCount());
@@ -24,6 +24,7 @@ import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.search.QueryCache;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.Sort;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -37,6 +38,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.indices.IndexingMemoryController;
+import org.elasticsearch.indices.MergeCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -74,6 +76,10 @@ public final class EngineConfig {
     private final LongSupplier globalCheckpointSupplier;
     private final LongSupplier primaryTermSupplier;
     private final TombstoneDocSupplier tombstoneDocSupplier;
+    @Nullable
+    private final Sort indexSort;
+    @Nullable
+    private final MergeCoordinator mergeCoordinator;
 
     /**
      * Index setting to change the low level lucene codec used for writing new segments.
@@ -121,6 +127,47 @@ public final class EngineConfig {
                         List<ReferenceManager.RefreshListener> internalRefreshListener,
                         CircuitBreakerService circuitBreakerService, LongSupplier globalCheckpointSupplier,
                         LongSupplier primaryTermSupplier, TombstoneDocSupplier tombstoneDocSupplier) {
+        this(shardId, allocationId, threadPool, indexSettings, warmer, store, mergePolicy, analyzer, codecService,
+            eventListener, queryCache, queryCachingPolicy, translogConfig, flushMergesAfter, externalRefreshListener,
+            internalRefreshListener, circuitBreakerService, globalCheckpointSupplier, primaryTermSupplier,
+            tombstoneDocSupplier, null);
+    }
+
+    /**
+     * Creates a new {@link org.elasticsearch.index.engine.EngineConfig} with an optional index sort
+     */
+    public EngineConfig(ShardId shardId, String allocationId, ThreadPool threadPool,
+                        IndexSettings indexSettings, Engine.Warmer warmer, Store store,
+                        MergePolicy mergePolicy, Analyzer analyzer,
+                        CodecService codecService, Engine.EventListener eventListener,
+                        QueryCache queryCache, QueryCachingPolicy queryCachingPolicy,
+                        TranslogConfig translogConfig, TimeValue flushMergesAfter,
+                        List<ReferenceManager.RefreshListener> externalRefreshListener,
+                        List<ReferenceManager.RefreshListener> internalRefreshListener,
+                        CircuitBreakerService circuitBreakerService, LongSupplier globalCheckpointSupplier,
+                        LongSupplier primaryTermSupplier, TombstoneDocSupplier tombstoneDocSupplier,
+                        @Nullable Sort indexSort) {
+        this(shardId, allocationId, threadPool, indexSettings, warmer, store, mergePolicy, analyzer, codecService,
+            eventListener, queryCache, queryCachingPolicy, translogConfig, flushMergesAfter, externalRefreshListener,
+            internalRefreshListener, circuitBreakerService, globalCheckpointSupplier, primaryTermSupplier,
+            tombstoneDocSupplier, indexSort, null);
+    }
+
+    /**
+     * Creates a new {@link org.elasticsearch.index.engine.EngineConfig} with an optional index sort and an optional
+     * coordinator which schedules the merges of the engine together with the merges of the other shards of the node
+     */
+    public EngineConfig(ShardId shardId, String allocationId, ThreadPool threadPool,
+                        IndexSettings indexSettings, Engine.Warmer warmer, Store store,
+                        MergePolicy mergePolicy, Analyzer analyzer,
+                        CodecService codecService, Engine.EventListener eventListener,
+                        QueryCache queryCache, QueryCachingPolicy queryCachingPolicy,
+                        TranslogConfig translogConfig, TimeValue flushMergesAfter,
+                        List<ReferenceManager.RefreshListener> externalRefreshListener,
+                        List<ReferenceManager.RefreshListener> internalRefreshListener,
+                        CircuitBreakerService circuitBreakerService, LongSupplier globalCheckpointSupplier,
+                        LongSupplier primaryTermSupplier, TombstoneDocSupplier tombstoneDocSupplier,
+                        @Nullable Sort indexSort, @Nullable MergeCoordinator mergeCoordinator) {
         this.shardId = shardId;
         this.allocationId = allocationId;
         this.indexSettings = indexSettings;
@@ -156,6 +203,8 @@ public final class EngineConfig {
         this.globalCheckpointSupplier = globalCheckpointSupplier;
         this.primaryTermSupplier = primaryTermSupplier;
         this.tombstoneDocSupplier = tombstoneDocSupplier;
+        this.indexSort = indexSort;
+        this.mergeCoordinator = mergeCoordinator;
     }
 
     /**
@@ -333,6 +382,15 @@ public final class EngineConfig {
         return this.circuitBreakerService;
     }
 
+    /**
+     * Returns the coordinator of the merges of all shards of the node, or {@code null} if the merges of this engine are
+     * scheduled independently.
+     */
+    @Nullable
+    public MergeCoordinator getMergeCoordinator() {
+        return mergeCoordinator;
+    }
+
     /**
      * Returns a supplier that supplies the latest primary term value of the associated shard.
      */
@@ -360,4 +418,12 @@ public final class EngineConfig {
     public TombstoneDocSupplier getTombstoneDocSupplier() {
         return tombstoneDocSupplier;
     }
+
+    /**
+     * Returns the sort order of the documents within the segments or <code>null</code> if the index isn't sorted.
+     */
+    @Nullable
+    public Sort getIndexSort() {
+        return indexSort;
+    }
 }
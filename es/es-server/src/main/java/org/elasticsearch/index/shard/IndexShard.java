@@ -29,6 +29,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.BytesRef;
@@ -99,9 +100,11 @@ import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
+import org.elasticsearch.index.translog.TranslogGroupCommitter;
 import org.elasticsearch.index.translog.TranslogStats;
 import org.elasticsearch.indices.IndexingMemoryController;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.MergeCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.recovery.PeerRecoveryTargetService;
@@ -133,7 +136,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
@@ -179,6 +184,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final MeanMetric refreshMetric = new MeanMetric();
     private final MeanMetric flushMetric = new MeanMetric();
     private final CounterMetric periodicFlushMetric = new CounterMetric();
+    private final CounterMetric indexingOpsMetric = new CounterMetric();
+    private final CounterMetric searchesMetric = new CounterMetric();
 
     private final ShardEventListener shardEventListener = new ShardEventListener();
 
@@ -206,6 +213,13 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      */
     private final RefreshListeners refreshListeners;
 
+    private final TranslogGroupCommitter translogGroupCommitter;
+
+    private final Supplier<Sort> indexSortSupplier;
+
+    @Nullable
+    private final MergeCoordinator mergeCoordinator;
+
     public IndexShard(
             ShardRouting shardRouting,
             IndexSettings indexSettings,
@@ -222,6 +236,51 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             List<IndexingOperationListener> listeners,
             Runnable globalCheckpointSyncer,
             CircuitBreakerService circuitBreakerService) throws IOException {
+        this(shardRouting, indexSettings, path, store, indexCache, mapperService, engineFactory, indexEventListener,
+            indexSearcherWrapper, threadPool, bigArrays, warmer, listeners, globalCheckpointSyncer,
+            circuitBreakerService, () -> null);
+    }
+
+    public IndexShard(
+            ShardRouting shardRouting,
+            IndexSettings indexSettings,
+            ShardPath path,
+            Store store,
+            IndexCache indexCache,
+            MapperService mapperService,
+            @Nullable EngineFactory engineFactory,
+            IndexEventListener indexEventListener,
+            IndexSearcherWrapper indexSearcherWrapper,
+            ThreadPool threadPool,
+            BigArrays bigArrays,
+            Engine.Warmer warmer,
+            List<IndexingOperationListener> listeners,
+            Runnable globalCheckpointSyncer,
+            CircuitBreakerService circuitBreakerService,
+            Supplier<Sort> indexSortSupplier) throws IOException {
+        this(shardRouting, indexSettings, path, store, indexCache, mapperService, engineFactory, indexEventListener,
+            indexSearcherWrapper, threadPool, bigArrays, warmer, listeners, globalCheckpointSyncer,
+            circuitBreakerService, indexSortSupplier, null);
+    }
+
+    public IndexShard(
+            ShardRouting shardRouting,
+            IndexSettings indexSettings,
+            ShardPath path,
+            Store store,
+            IndexCache indexCache,
+            MapperService mapperService,
+            @Nullable EngineFactory engineFactory,
+            IndexEventListener indexEventListener,
+            IndexSearcherWrapper indexSearcherWrapper,
+            ThreadPool threadPool,
+            BigArrays bigArrays,
+            Engine.Warmer warmer,
+            List<IndexingOperationListener> listeners,
+            Runnable globalCheckpointSyncer,
+            CircuitBreakerService circuitBreakerService,
+            Supplier<Sort> indexSortSupplier,
+            @Nullable MergeCoordinator mergeCoordinator) throws IOException {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
         this.shardRouting = shardRouting;
@@ -241,6 +300,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         state = IndexShardState.CREATED;
         this.path = path;
         this.circuitBreakerService = circuitBreakerService;
+        this.indexSortSupplier = indexSortSupplier;
+        this.mergeCoordinator = mergeCoordinator;
         /* create engine config */
         logger.debug("state: [CREATED]");
 
@@ -273,6 +334,12 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         pendingPrimaryTerm = indexSettings.getIndexMetaData().primaryTerm(shardId.id());
         operationPrimaryTerm = pendingPrimaryTerm;
         refreshListeners = buildRefreshListeners();
+        translogGroupCommitter = new TranslogGroupCommitter(
+            logger,
+            threadPool,
+            indexSettings::getTranslogGroupCommitWindow,
+            () -> indexSettings.getTranslogGroupCommitMaxBytes().getBytes(),
+            this::syncTranslogLocations);
         persistMetadata(path, indexSettings, shardRouting, null, logger);
     }
 
@@ -725,6 +792,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             throw e;
         }
         indexingOperationListeners.postIndex(shardId, index, result);
+        indexingOpsMetric.inc();
         return result;
     }
 
@@ -841,6 +909,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             throw e;
         }
         indexingOperationListeners.postDelete(shardId, delete, result);
+        indexingOpsMetric.inc();
         return result;
     }
 
@@ -871,6 +940,10 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return engine.getWritingBytes();
     }
 
+    public ShardLoadStats loadStats() {
+        return new ShardLoadStats(indexingOpsMetric.count(), searchesMetric.count());
+    }
+
     public DocsStats docStats() {
         readAllowed();
         return getEngine().docStats();
@@ -1085,6 +1158,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         getEngine().failEngine(reason, e);
     }
     public Engine.Searcher acquireSearcher(String source) {
+        searchesMetric.inc();
         return acquireSearcher(source, Engine.SearcherScope.EXTERNAL);
     }
 
@@ -2212,7 +2286,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             IndexingMemoryController.SHARD_INACTIVE_TIME_SETTING.get(indexSettings.getSettings()),
             Collections.singletonList(refreshListeners),
             Collections.singletonList(new RefreshMetricUpdater(refreshMetric)),
-             circuitBreakerService, replicationTracker, () -> operationPrimaryTerm, tombstoneDocSupplier());
+             circuitBreakerService, replicationTracker, () -> operationPrimaryTerm, tombstoneDocSupplier(),
+            indexSortSupplier.get(), mergeCoordinator);
     }
 
     /**
@@ -2365,30 +2440,40 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final AsyncIOProcessor<Translog.Location> translogSyncProcessor = new AsyncIOProcessor<Translog.Location>(logger, 1024) {
         @Override
         protected void write(List<Tuple<Translog.Location, Consumer<Exception>>> candidates) throws IOException {
-            try {
-                getEngine().ensureTranslogSynced(candidates.stream().map(Tuple::v1));
-            } catch (AlreadyClosedException ex) {
-                // that's fine since we already synced everything on engine close - this also is conform with the methods
-                // documentation
-            } catch (IOException ex) { // if this fails we are in deep shit - fail the request
-                logger.debug("failed to sync translog", ex);
-                throw ex;
-            }
+            syncTranslogLocations(candidates.stream().map(Tuple::v1));
         }
     };
 
+    private void syncTranslogLocations(Stream<Translog.Location> locations) throws IOException {
+        try {
+            getEngine().ensureTranslogSynced(locations);
+        } catch (AlreadyClosedException ex) {
+            // that's fine since we already synced everything on engine close - this also is conform with the methods
+            // documentation
+        } catch (IOException ex) { // if this fails we are in deep shit - fail the request
+            logger.debug("failed to sync translog", ex);
+            throw ex;
+        }
+    }
+
     /**
      * Syncs the given location with the underlying storage unless already synced. This method might return immediately without
      * actually fsyncing the location until the sync listener is called. Yet, unless there is already another thread fsyncing
      * the transaction log the caller thread will be hijacked to run the fsync for all pending fsync operations.
      * This method allows indexing threads to continue indexing without blocking on fsync calls. We ensure that there is only
      * one thread blocking on the sync an all others can continue indexing.
+     * If a {@link IndexSettings#INDEX_TRANSLOG_GROUP_COMMIT_WINDOW_SETTING group commit window} is set, the location is synced
+     * together with the locations of all concurrent writes once the window elapsed, see {@link TranslogGroupCommitter}.
      * NOTE: if the syncListener throws an exception when it's processed the exception will only be logged. Users should make sure that the
      * listener handles all exception cases internally.
      */
     public final void sync(Translog.Location location, Consumer<Exception> syncListener) {
         verifyNotClosed();
-        translogSyncProcessor.put(location, syncListener);
+        if (indexSettings.getTranslogGroupCommitWindow().nanos() > 0) {
+            translogGroupCommitter.put(location, syncListener);
+        } else {
+            translogSyncProcessor.put(location, syncListener);
+        }
     }
 
     public void sync() throws IOException {
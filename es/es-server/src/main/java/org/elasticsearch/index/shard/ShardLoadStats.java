@@ -0,0 +1,78 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.shard;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import java.io.IOException;
+
+/**
+ * Cumulative counters of the operations a shard has served since it was started.
+ * The rates used to balance shards are derived from the difference of two samples.
+ */
+public final class ShardLoadStats implements Writeable {
+
+    private long indexingOps;
+    private long searches;
+
+    public ShardLoadStats() {
+        this(0, 0);
+    }
+
+    public ShardLoadStats(long indexingOps, long searches) {
+        this.indexingOps = indexingOps;
+        this.searches = searches;
+    }
+
+    public ShardLoadStats(StreamInput in) throws IOException {
+        indexingOps = in.readVLong();
+        searches = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(indexingOps);
+        out.writeVLong(searches);
+    }
+
+    public void add(ShardLoadStats other) {
+        if (other == null) {
+            return;
+        }
+        this.indexingOps += other.indexingOps;
+        this.searches += other.searches;
+    }
+
+    /**
+     * @return the number of index and delete operations executed on the shard
+     */
+    public long getIndexingOps() {
+        return indexingOps;
+    }
+
+    /**
+     * @return the number of searchers acquired to read from the shard
+     */
+    public long getSearches() {
+        return searches;
+    }
+}
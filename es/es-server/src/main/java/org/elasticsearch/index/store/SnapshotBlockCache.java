@@ -0,0 +1,193 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.internal.io.IOUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A node local, disk backed LRU cache of fixed size blocks of files which are read from a snapshot repository
+ * by indices mounted with the {@link SnapshotIndexStore}.
+ * <p>
+ * The cache is bounded by the sum of the block sizes; the least recently read blocks are evicted first.
+ * Snapshot files are immutable, so cached blocks never have to be invalidated. The cache is emptied when the node starts.
+ */
+public class SnapshotBlockCache {
+
+    public static final Setting<ByteSizeValue> SNAPSHOT_CACHE_SIZE_SETTING = Setting.byteSizeSetting(
+        "indices.snapshot_cache.size", new ByteSizeValue(10, ByteSizeUnit.GB), Property.NodeScope);
+
+    public static final int BLOCK_SIZE = 1 << 20;
+
+    private static final Logger LOGGER = LogManager.getLogger(SnapshotBlockCache.class);
+
+    /**
+     * Loads {@code length} bytes of a file, starting at {@code position}, from the repository.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        void load(long position, byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    private final Path directory;
+    private final Path tmpDirectory;
+    private final long maxSizeInBytes;
+    private final LinkedHashMap<String, Long> sizeByBlock = new LinkedHashMap<>(16, 0.75f, true);
+    private final CounterMetric hits = new CounterMetric();
+    private final CounterMetric misses = new CounterMetric();
+    private long sizeInBytes = 0;
+    private long tmpFileCounter = 0;
+
+    public SnapshotBlockCache(Path directory, long maxSizeInBytes) throws IOException {
+        this.directory = directory;
+        this.tmpDirectory = directory.resolve("tmp");
+        this.maxSizeInBytes = maxSizeInBytes;
+        if (Files.exists(directory)) {
+            IOUtils.rm(directory);
+        }
+        Files.createDirectories(tmpDirectory);
+    }
+
+    /**
+     * Reads {@code length} bytes of a file, starting at {@code position}, into {@code buffer}.
+     * The read must not cross a block boundary. On a miss the whole block is loaded and cached.
+     *
+     * @param fileKey    a key which uniquely identifies the file across all repositories, snapshots and shards.
+     *                   It must be usable as a file name.
+     * @param fileLength the length of the file, used to determine the length of its last block
+     */
+    public void read(String fileKey,
+                     long fileLength,
+                     long position,
+                     byte[] buffer,
+                     int offset,
+                     int length,
+                     Loader loader) throws IOException {
+        final long block = position / BLOCK_SIZE;
+        final int positionInBlock = (int) (position % BLOCK_SIZE);
+        assert positionInBlock + length <= BLOCK_SIZE : "read must not cross a block boundary";
+        if (maxSizeInBytes == 0) {
+            misses.inc();
+            loader.load(position, buffer, offset, length);
+            return;
+        }
+        final String blockName = fileKey + "." + block;
+        if (readCached(blockName, positionInBlock, buffer, offset, length)) {
+            hits.inc();
+            return;
+        }
+        misses.inc();
+        final long blockStart = block * BLOCK_SIZE;
+        final byte[] blockBytes = new byte[(int) Math.min(BLOCK_SIZE, fileLength - blockStart)];
+        loader.load(blockStart, blockBytes, 0, blockBytes.length);
+        System.arraycopy(blockBytes, positionInBlock, buffer, offset, length);
+        put(blockName, blockBytes);
+    }
+
+    private boolean readCached(String blockName, int positionInBlock, byte[] buffer, int offset, int length) throws IOException {
+        synchronized (this) {
+            if (sizeByBlock.get(blockName) == null) {
+                return false;
+            }
+        }
+        // the block can be evicted concurrently, which is then treated as a miss
+        try (FileChannel channel = FileChannel.open(directory.resolve(blockName), StandardOpenOption.READ)) {
+            ByteBuffer dst = ByteBuffer.wrap(buffer, offset, length);
+            long pos = positionInBlock;
+            while (dst.hasRemaining()) {
+                int read = channel.read(dst, pos);
+                if (read < 0) {
+                    throw new EOFException("unexpected end of cached block [" + blockName + "]");
+                }
+                pos += read;
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private void put(String blockName, byte[] blockBytes) throws IOException {
+        final Path tmpFile;
+        synchronized (this) {
+            if (sizeByBlock.containsKey(blockName)) {
+                return;
+            }
+            tmpFile = tmpDirectory.resolve(blockName + "." + tmpFileCounter++);
+        }
+        Files.write(tmpFile, blockBytes);
+        synchronized (this) {
+            if (sizeByBlock.containsKey(blockName)) {
+                Files.deleteIfExists(tmpFile);
+                return;
+            }
+            Files.move(tmpFile, directory.resolve(blockName), StandardCopyOption.ATOMIC_MOVE);
+            sizeByBlock.put(blockName, (long) blockBytes.length);
+            sizeInBytes += blockBytes.length;
+            Iterator<Map.Entry<String, Long>> it = sizeByBlock.entrySet().iterator();
+            while (sizeInBytes > maxSizeInBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                it.remove();
+                sizeInBytes -= eldest.getValue();
+                delete(eldest.getKey());
+            }
+        }
+    }
+
+    public synchronized long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public long hits() {
+        return hits.count();
+    }
+
+    public long misses() {
+        return misses.count();
+    }
+
+    private void delete(String blockName) {
+        // readers which already opened the block keep reading from their open file handle
+        try {
+            Files.deleteIfExists(directory.resolve(blockName));
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete cached snapshot block {}", blockName);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A directory which overlays the files of a shard snapshot over a local directory.
+ * <p>
+ * Snapshot files are read lazily from the repository through the {@link SnapshotBlockCache}.
+ * Files written by the shard, like new commits, go to the local directory and take precedence over snapshot
+ * files with the same name. Deleting a snapshot file only hides it until the directory is opened again.
+ */
+public class SnapshotDirectory extends FilterDirectory {
+
+    private static final int BUFFER_SIZE = 32 * 1024;
+
+    /**
+     * Reads {@code length} bytes of a snapshot file, starting at {@code position}, from the repository.
+     */
+    @FunctionalInterface
+    public interface FileReader {
+        void read(FileInfo fileInfo, long position, byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    private final SnapshotBlockCache cache;
+    private final String cacheKeyPrefix;
+    private final CheckedSupplier<List<FileInfo>, IOException> filesLoader;
+    private final FileReader reader;
+    private volatile Map<String, FileInfo> snapshotFiles;
+
+    /**
+     * @param cacheKeyPrefix a prefix which makes the names of the snapshot blobs unique within the cache,
+     *                       e.g. the repository index id and shard id
+     */
+    public SnapshotDirectory(Directory localDirectory,
+                             SnapshotBlockCache cache,
+                             String cacheKeyPrefix,
+                             CheckedSupplier<List<FileInfo>, IOException> filesLoader,
+                             FileReader reader) {
+        super(localDirectory);
+        this.cache = cache;
+        this.cacheKeyPrefix = cacheKeyPrefix;
+        this.filesLoader = filesLoader;
+        this.reader = reader;
+    }
+
+    private Map<String, FileInfo> snapshotFiles() throws IOException {
+        Map<String, FileInfo> files = snapshotFiles;
+        if (files == null) {
+            synchronized (this) {
+                files = snapshotFiles;
+                if (files == null) {
+                    files = new ConcurrentHashMap<>();
+                    Set<String> localFiles = Set.of(in.listAll());
+                    for (FileInfo fileInfo : filesLoader.get()) {
+                        if (localFiles.contains(fileInfo.physicalName()) == false) {
+                            files.put(fileInfo.physicalName(), fileInfo);
+                        }
+                    }
+                    snapshotFiles = files;
+                }
+            }
+        }
+        return files;
+    }
+
+    @Override
+    public String[] listAll() throws IOException {
+        Set<String> files = new TreeSet<>(snapshotFiles().keySet());
+        for (String file : in.listAll()) {
+            files.add(file);
+        }
+        return files.toArray(new String[0]);
+    }
+
+    @Override
+    public void deleteFile(String name) throws IOException {
+        if (snapshotFiles().remove(name) == null) {
+            in.deleteFile(name);
+        }
+    }
+
+    @Override
+    public long fileLength(String name) throws IOException {
+        FileInfo fileInfo = snapshotFiles().get(name);
+        if (fileInfo == null) {
+            return in.fileLength(name);
+        }
+        return fileInfo.length();
+    }
+
+    @Override
+    public IndexOutput createOutput(String name, IOContext context) throws IOException {
+        snapshotFiles().remove(name);
+        return in.createOutput(name, context);
+    }
+
+    @Override
+    public void sync(Collection<String> names) throws IOException {
+        Map<String, FileInfo> files = snapshotFiles();
+        in.sync(names.stream().filter(name -> files.containsKey(name) == false).collect(Collectors.toList()));
+    }
+
+    @Override
+    public void rename(String source, String dest) throws IOException {
+        snapshotFiles().remove(dest);
+        in.rename(source, dest);
+    }
+
+    @Override
+    public IndexInput openInput(String name, IOContext context) throws IOException {
+        FileInfo fileInfo = snapshotFiles().get(name);
+        if (fileInfo == null) {
+            return in.openInput(name, context);
+        }
+        return new SnapshotIndexInput("SnapshotIndexInput(" + name + ")", fileInfo, 0L, fileInfo.length());
+    }
+
+    /**
+     * Reads a snapshot file through the block cache. Reads are buffered, but a buffer never spans two cache blocks.
+     */
+    private final class SnapshotIndexInput extends IndexInput {
+
+        private final FileInfo fileInfo;
+        private final String cacheKey;
+        private final long offset;
+        private final long length;
+
+        private byte[] buffer;
+        private long bufferStart = 0;
+        private int bufferLength = 0;
+        private long position = 0;
+
+        SnapshotIndexInput(String resourceDescription, FileInfo fileInfo, long offset, long length) {
+            super(resourceDescription);
+            this.fileInfo = fileInfo;
+            this.cacheKey = cacheKeyPrefix + "_" + fileInfo.name();
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            if (position < bufferStart || position >= bufferStart + bufferLength) {
+                refill();
+            }
+            return buffer[(int) (position++ - bufferStart)];
+        }
+
+        @Override
+        public void readBytes(byte[] b, int off, int len) throws IOException {
+            if (position + len > length) {
+                throw new EOFException("read past EOF: " + this);
+            }
+            while (len > 0) {
+                if (position >= bufferStart && position < bufferStart + bufferLength) {
+                    int available = (int) Math.min(len, bufferStart + bufferLength - position);
+                    System.arraycopy(buffer, (int) (position - bufferStart), b, off, available);
+                    position += available;
+                    off += available;
+                    len -= available;
+                } else if (len >= BUFFER_SIZE) {
+                    // large reads bypass the buffer
+                    readFromCache(offset + position, b, off, len);
+                    position += len;
+                    return;
+                } else {
+                    refill();
+                }
+            }
+        }
+
+        private void refill() throws IOException {
+            if (position >= length) {
+                throw new EOFException("read past EOF: " + this);
+            }
+            if (buffer == null) {
+                buffer = new byte[BUFFER_SIZE];
+            }
+            long filePosition = offset + position;
+            long blockEnd = (filePosition / SnapshotBlockCache.BLOCK_SIZE + 1) * SnapshotBlockCache.BLOCK_SIZE;
+            int toRead = (int) Math.min(BUFFER_SIZE, Math.min(length - position, blockEnd - filePosition));
+            readFromCache(filePosition, buffer, 0, toRead);
+            bufferStart = position;
+            bufferLength = toRead;
+        }
+
+        private void readFromCache(long filePosition, byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                long blockEnd = (filePosition / SnapshotBlockCache.BLOCK_SIZE + 1) * SnapshotBlockCache.BLOCK_SIZE;
+                int toRead = (int) Math.min(len, blockEnd - filePosition);
+                cache.read(
+                    cacheKey,
+                    fileInfo.length(),
+                    filePosition,
+                    b,
+                    off,
+                    toRead,
+                    (pos, dst, dstOffset, dstLength) -> reader.read(fileInfo, pos, dst, dstOffset, dstLength));
+                filePosition += toRead;
+                off += toRead;
+                len -= toRead;
+            }
+        }
+
+        @Override
+        public long getFilePointer() {
+            return position;
+        }
+
+        @Override
+        public void seek(long pos) throws IOException {
+            if (pos < 0 || pos > length) {
+                throw new EOFException("seek out of bounds [" + pos + "]: " + this);
+            }
+            position = pos;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public SnapshotIndexInput clone() {
+            SnapshotIndexInput clone = (SnapshotIndexInput) super.clone();
+            clone.buffer = null;
+            clone.bufferStart = 0;
+            clone.bufferLength = 0;
+            return clone;
+        }
+
+        @Override
+        public IndexInput slice(String sliceDescription, long sliceOffset, long sliceLength) throws IOException {
+            if (sliceOffset < 0 || sliceLength < 0 || sliceOffset + sliceLength > length) {
+                throw new IllegalArgumentException("slice() " + sliceDescription + " out of bounds: " + this);
+            }
+            return new SnapshotIndexInput(getFullSliceDescription(sliceDescription), fileInfo, offset + sliceOffset, sliceLength);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.LockFactory;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexModule;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.shard.ShardPath;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.Repository;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.snapshots.Snapshot;
+import org.elasticsearch.snapshots.SnapshotId;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * An index store for indices which are mounted from a snapshot instead of being restored.
+ * The shards read the snapshot files on demand from the repository, see {@link SnapshotDirectory}.
+ */
+public class SnapshotIndexStore extends IndexStore {
+
+    public static final String TYPE = "snapshot";
+
+    public static final Setting<String> SNAPSHOT_REPOSITORY_SETTING =
+        Setting.simpleString("index.store.snapshot.repository", Property.IndexScope, Property.PrivateIndex);
+
+    public static final Setting<String> SNAPSHOT_NAME_SETTING =
+        Setting.simpleString("index.store.snapshot.snapshot_name", Property.IndexScope, Property.PrivateIndex);
+
+    public static final Setting<String> SNAPSHOT_UUID_SETTING =
+        Setting.simpleString("index.store.snapshot.snapshot_uuid", Property.IndexScope, Property.PrivateIndex);
+
+    public static final Setting<String> SNAPSHOT_INDEX_NAME_SETTING =
+        Setting.simpleString("index.store.snapshot.index_name", Property.IndexScope, Property.PrivateIndex);
+
+    public static final Setting<String> SNAPSHOT_INDEX_ID_SETTING =
+        Setting.simpleString("index.store.snapshot.index_id", Property.IndexScope, Property.PrivateIndex);
+
+    private final Supplier<RepositoriesService> repositoriesService;
+    private final SnapshotBlockCache cache;
+
+    public SnapshotIndexStore(IndexSettings indexSettings,
+                              Supplier<RepositoriesService> repositoriesService,
+                              SnapshotBlockCache cache) {
+        super(indexSettings);
+        this.repositoriesService = repositoriesService;
+        this.cache = cache;
+    }
+
+    public static boolean isMounted(Settings indexSettings) {
+        return TYPE.equals(IndexModule.INDEX_STORE_TYPE_SETTING.get(indexSettings));
+    }
+
+    /**
+     * The settings which mount an index of a snapshot
+     */
+    public static Settings mountSettings(Snapshot snapshot, IndexId indexId) {
+        return Settings.builder()
+            .put(IndexModule.INDEX_STORE_TYPE_SETTING.getKey(), TYPE)
+            .put(SNAPSHOT_REPOSITORY_SETTING.getKey(), snapshot.getRepository())
+            .put(SNAPSHOT_NAME_SETTING.getKey(), snapshot.getSnapshotId().getName())
+            .put(SNAPSHOT_UUID_SETTING.getKey(), snapshot.getSnapshotId().getUUID())
+            .put(SNAPSHOT_INDEX_NAME_SETTING.getKey(), indexId.getName())
+            .put(SNAPSHOT_INDEX_ID_SETTING.getKey(), indexId.getId())
+            .build();
+    }
+
+    /**
+     * Mounted indices cannot have replicas: a replica is recovered from its primary by copying all files, so it
+     * would download every file of the shard snapshot onto the local disk of its node.
+     *
+     * @throws IllegalArgumentException if the settings add replicas
+     */
+    public static void ensureNoReplicas(String index, Settings settings) {
+        boolean replicas = IndexMetaData.INDEX_NUMBER_OF_REPLICAS_SETTING.exists(settings)
+                           && IndexMetaData.INDEX_NUMBER_OF_REPLICAS_SETTING.get(settings) > 0;
+        boolean autoExpandReplicas = IndexMetaData.INDEX_AUTO_EXPAND_REPLICAS_SETTING.exists(settings)
+                                     && IndexMetaData.INDEX_AUTO_EXPAND_REPLICAS_SETTING.get(settings).isEnabled();
+        if (replicas || autoExpandReplicas) {
+            throw new IllegalArgumentException(
+                "index [" + index + "] is mounted from a snapshot and cannot have replicas");
+        }
+    }
+
+    /**
+     * Removes the settings added by {@link #mountSettings(Snapshot, IndexId)}
+     */
+    public static Settings unmountSettings(Settings indexSettings) {
+        return indexSettings.filter(key -> key.equals(IndexModule.INDEX_STORE_TYPE_SETTING.getKey()) == false
+                                           && key.startsWith("index.store.snapshot.") == false);
+    }
+
+    @Override
+    public DirectoryService newDirectoryService(ShardPath path) {
+        return new DirectoryService(path.getShardId(), indexSettings) {
+
+            @Override
+            public Directory newDirectory() throws IOException {
+                Settings settings = indexSettings.getSettings();
+                String repositoryName = SNAPSHOT_REPOSITORY_SETTING.get(settings);
+                Repository repository = repositoriesService.get().repository(repositoryName);
+                if (repository instanceof BlobStoreRepository == false) {
+                    throw new IllegalArgumentException(
+                        "repository [" + repositoryName + "] does not support mounting snapshots");
+                }
+                BlobStoreRepository blobStoreRepository = (BlobStoreRepository) repository;
+                SnapshotId snapshotId = new SnapshotId(SNAPSHOT_NAME_SETTING.get(settings), SNAPSHOT_UUID_SETTING.get(settings));
+                IndexId indexId = new IndexId(SNAPSHOT_INDEX_NAME_SETTING.get(settings), SNAPSHOT_INDEX_ID_SETTING.get(settings));
+
+                Path location = path.resolveIndex();
+                LockFactory lockFactory = indexSettings.getValue(FsDirectoryService.INDEX_LOCK_FACTOR_SETTING);
+                Files.createDirectories(location);
+                return new SnapshotDirectory(
+                    FSDirectory.open(location, lockFactory),
+                    cache,
+                    indexId.getId() + "_" + shardId.id(),
+                    () -> blobStoreRepository.loadShardSnapshotFiles(snapshotId, indexId, shardId),
+                    (fileInfo, position, buffer, offset, length) ->
+                        blobStoreRepository.readShardSnapshotFile(indexId, shardId, fileInfo, position, buffer, offset, length)
+                );
+            }
+        };
+    }
+}
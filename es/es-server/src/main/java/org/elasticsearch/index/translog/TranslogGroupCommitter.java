@@ -0,0 +1,168 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.CheckedConsumer;
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Groups the fsync calls of concurrent writers into a single fsync per commit window.
+ * <p>
+ * Writers register a listener for the location of their operation. The first writer of a group schedules a sync which
+ * runs once the commit window elapsed. The group is synced earlier, on the thread of the writer which completes it, if the
+ * operations of the group reach the configured number of bytes. All listeners of a group are notified once the sync is done.
+ */
+public final class TranslogGroupCommitter {
+
+    private final Logger logger;
+    private final ThreadPool threadPool;
+    private final Supplier<TimeValue> commitWindow;
+    private final LongSupplier maxBytes;
+    private final CheckedConsumer<Stream<Translog.Location>, IOException> syncer;
+
+    private List<Tuple<Translog.Location, Consumer<Exception>>> pending = new ArrayList<>();
+    private long pendingBytes = 0;
+    private long group = 0;
+    private boolean scheduled = false;
+
+    /**
+     * @param commitWindow the time a group waits for more writers before it is synced
+     * @param maxBytes     the number of bytes of the operations of a group which trigger the sync before the window elapsed
+     * @param syncer       ensures that all the given locations are synced
+     */
+    public TranslogGroupCommitter(Logger logger,
+                                  ThreadPool threadPool,
+                                  Supplier<TimeValue> commitWindow,
+                                  LongSupplier maxBytes,
+                                  CheckedConsumer<Stream<Translog.Location>, IOException> syncer) {
+        this.logger = logger;
+        this.threadPool = threadPool;
+        this.commitWindow = commitWindow;
+        this.maxBytes = maxBytes;
+        this.syncer = syncer;
+    }
+
+    /**
+     * Adds the location to the current group. The listener is notified once the location is synced.
+     */
+    public void put(Translog.Location location, Consumer<Exception> listener) {
+        Objects.requireNonNull(location, "location must not be null");
+        Objects.requireNonNull(listener, "listener must not be null");
+        final List<Tuple<Translog.Location, Consumer<Exception>>> toSync;
+        final long groupToSchedule;
+        synchronized (this) {
+            pending.add(new Tuple<>(location, listener));
+            pendingBytes += location.size;
+            if (pendingBytes >= maxBytes.getAsLong()) {
+                toSync = drain();
+                groupToSchedule = -1;
+            } else if (scheduled == false) {
+                scheduled = true;
+                toSync = null;
+                groupToSchedule = group;
+            } else {
+                toSync = null;
+                groupToSchedule = -1;
+            }
+        }
+        if (toSync != null) {
+            sync(toSync);
+        } else if (groupToSchedule >= 0) {
+            try {
+                // ThreadPool#schedule truncates the delay to milliseconds, but commit windows are usually sub-millisecond
+                threadPool.scheduler().schedule(
+                    () -> syncOnGenericThread(groupToSchedule), commitWindow.get().nanos(), TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                // the thread pool is shutting down, sync right away instead of leaving the writers waiting
+                onCommitWindowElapsed(groupToSchedule);
+            }
+        }
+    }
+
+    private void syncOnGenericThread(long scheduledGroup) {
+        try {
+            threadPool.generic().execute(() -> onCommitWindowElapsed(scheduledGroup));
+        } catch (Exception e) {
+            onCommitWindowElapsed(scheduledGroup);
+        }
+    }
+
+    private void onCommitWindowElapsed(long scheduledGroup) {
+        final List<Tuple<Translog.Location, Consumer<Exception>>> toSync;
+        synchronized (this) {
+            if (scheduledGroup != group) {
+                // the group was already synced because it reached the max bytes
+                return;
+            }
+            toSync = drain();
+        }
+        sync(toSync);
+    }
+
+    private List<Tuple<Translog.Location, Consumer<Exception>>> drain() {
+        assert Thread.holdsLock(this);
+        final List<Tuple<Translog.Location, Consumer<Exception>>> toSync = pending;
+        pending = new ArrayList<>();
+        pendingBytes = 0;
+        scheduled = false;
+        group++;
+        return toSync;
+    }
+
+    private void sync(List<Tuple<Translog.Location, Consumer<Exception>>> toSync) {
+        if (toSync.isEmpty()) {
+            return;
+        }
+        Exception exception = null;
+        try {
+            syncer.accept(toSync.stream().map(Tuple::v1));
+        } catch (Exception e) {
+            logger.debug("failed to sync translog", e);
+            exception = e;
+        }
+        for (Tuple<Translog.Location, Consumer<Exception>> tuple : toSync) {
+            try {
+                tuple.v2().accept(exception);
+            } catch (Exception e) {
+                logger.warn("failed to notify callback", e);
+            }
+        }
+    }
+
+    /**
+     * The number of writers waiting for the current group to be synced
+     */
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+}
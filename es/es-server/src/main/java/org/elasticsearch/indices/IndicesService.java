@@ -128,6 +128,7 @@ public class IndicesService extends AbstractLifecycleComponent
     private final CacheCleaner cacheCleaner;
     private final ThreadPool threadPool;
     private final CircuitBreakerService circuitBreakerService;
+    private final MergeCoordinator mergeCoordinator;
     private final BigArrays bigArrays;
     private final Client client;
     private final Settings settings;
@@ -159,6 +160,7 @@ public class IndicesService extends AbstractLifecycleComponent
                           ThreadPool threadPool,
                           IndexScopedSettings indexScopedSettings,
                           CircuitBreakerService circuitBreakerService,
+                          MergeCoordinator mergeCoordinator,
                           BigArrays bigArrays,
                           Client client,
                           MetaStateService metaStateService,
@@ -179,6 +181,7 @@ public class IndicesService extends AbstractLifecycleComponent
                                                                 () -> Iterables.flatten(this).iterator());
         this.indexScopedSettings = indexScopedSettings;
         this.circuitBreakerService = circuitBreakerService;
+        this.mergeCoordinator = mergeCoordinator;
         this.bigArrays = bigArrays;
         this.client = client;
         this.indicesFieldDataCache = new IndicesFieldDataCache(settings, new IndexFieldDataCache.Listener() {
@@ -354,6 +357,7 @@ public class IndicesService extends AbstractLifecycleComponent
                 xContentRegistry,
                 this,
                 circuitBreakerService,
+                mergeCoordinator,
                 bigArrays,
                 threadPool,
                 indicesQueryCache,
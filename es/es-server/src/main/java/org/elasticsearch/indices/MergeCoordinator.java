@@ -0,0 +1,432 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.threadpool.Scheduler.Cancellable;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.threadpool.ThreadPool.Names;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Coordinates the merges of all shards of a node.
+ * <p>
+ * Every merge thread asks for a slot before it starts merging. If {@link #MAX_CONCURRENT_MERGES_SETTING} is set, at
+ * most that many merges run at the same time and the others wait. Free slots go to the merges of the shard with the
+ * most segments waiting to be merged first, and among those to the smallest merge, so that shards which fall behind
+ * catch up and small merges aren't stuck behind big ones.
+ * <p>
+ * If {@link #IO_BUDGET_SETTING} is set, the write rate of the big merges is limited so that they share the budget. The
+ * budget shrinks while the latency of the queries executed on the node exceeds {@link #QUERY_LATENCY_TARGET_SETTING} and
+ * grows back to the configured budget once the latency is below the target again.
+ */
+public class MergeCoordinator implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(MergeCoordinator.class);
+
+    /** How many merges may run concurrently on the node, 0 doesn't limit the merges (default: 0). */
+    public static final Setting<Integer> MAX_CONCURRENT_MERGES_SETTING = Setting.intSetting(
+        "indices.merges.max_concurrent",
+        0,
+        0,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /** The bytes per second all merges of the node may write together, 0 disables the budget (default: 0). */
+    public static final Setting<ByteSizeValue> IO_BUDGET_SETTING = Setting.byteSizeSetting(
+        "indices.merges.io_budget",
+        new ByteSizeValue(0),
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /** The query latency above which the io budget is lowered, 0 disables the adaption (default: 0). */
+    public static final Setting<TimeValue> QUERY_LATENCY_TARGET_SETTING = Setting.timeSetting(
+        "indices.merges.query_latency_target",
+        TimeValue.ZERO,
+        TimeValue.ZERO,
+        Property.Dynamic,
+        Property.NodeScope
+    );
+
+    /**
+     * Merges smaller than this aren't limited by the io budget, the same threshold below which the
+     * {@link org.apache.lucene.index.ConcurrentMergeScheduler} doesn't throttle merges.
+     */
+    public static final long MIN_THROTTLED_MERGE_BYTES = new ByteSizeValue(50, ByteSizeUnit.MB).getBytes();
+
+    static final TimeValue ADJUST_INTERVAL = TimeValue.timeValueSeconds(1);
+    static final double MIN_BUDGET_FRACTION = 0.1;
+    static final double DECREASE_FACTOR = 0.75;
+    static final double INCREASE_FRACTION = 0.1;
+    private static final double LATENCY_ALPHA = 0.3;
+    private static final long WAIT_MILLIS = 100;
+    private static final double BYTES_PER_MB = 1024 * 1024;
+
+    private final List<Merge> queued = new ArrayList<>();
+    private final List<Merge> running = new ArrayList<>();
+    private final Map<ShardId, Integer> pendingSegments = new HashMap<>();
+    private final List<Runnable> ioRateListeners = new CopyOnWriteArrayList<>();
+    private final LongAdder latencySumInMillis = new LongAdder();
+    private final LongAdder latencyCount = new LongAdder();
+    private final Cancellable adjuster;
+
+    private long sequence = 0;
+    private double latencyInMillis = -1;
+
+    private volatile int maxConcurrentMerges;
+    private volatile double maxMBPerSec;
+    private volatile double budgetMBPerSec;
+    private volatile double mbPerSecPerMerge = Double.POSITIVE_INFINITY;
+    private volatile TimeValue queryLatencyTarget;
+
+    public MergeCoordinator(Settings settings, ClusterSettings clusterSettings, ThreadPool threadPool) {
+        this.maxConcurrentMerges = MAX_CONCURRENT_MERGES_SETTING.get(settings);
+        this.maxMBPerSec = toMBPerSec(IO_BUDGET_SETTING.get(settings));
+        this.budgetMBPerSec = maxMBPerSec;
+        this.queryLatencyTarget = QUERY_LATENCY_TARGET_SETTING.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(MAX_CONCURRENT_MERGES_SETTING, this::setMaxConcurrentMerges);
+        clusterSettings.addSettingsUpdateConsumer(IO_BUDGET_SETTING, this::setIOBudget);
+        clusterSettings.addSettingsUpdateConsumer(QUERY_LATENCY_TARGET_SETTING, value -> this.queryLatencyTarget = value);
+        this.adjuster = scheduleBudgetAdjustment(threadPool);
+    }
+
+    protected Cancellable scheduleBudgetAdjustment(ThreadPool threadPool) {
+        // it's fine to run it on the scheduler thread, no busy work
+        return threadPool.scheduleWithFixedDelay(this::adjustBudget, ADJUST_INTERVAL, Names.SAME);
+    }
+
+    private static double toMBPerSec(ByteSizeValue budget) {
+        return budget.getBytes() <= 0 ? Double.POSITIVE_INFINITY : budget.getBytes() / BYTES_PER_MB;
+    }
+
+    private synchronized void setMaxConcurrentMerges(int maxConcurrentMerges) {
+        this.maxConcurrentMerges = maxConcurrentMerges;
+        notifyAll();
+    }
+
+    private void setIOBudget(ByteSizeValue budget) {
+        maxMBPerSec = toMBPerSec(budget);
+        budgetMBPerSec = maxMBPerSec;
+        updateMBPerSecPerMerge();
+    }
+
+    /**
+     * Blocks until the merge may run. The returned {@link Releasable} must be closed once the merge is done.
+     * Merges which are aborted while they wait don't get a slot, they are expected to stop right away.
+     */
+    public Releasable acquire(ShardId shardId, int numSegments, long estimatedBytes, BooleanSupplier isAborted) {
+        final Merge merge;
+        synchronized (this) {
+            merge = new Merge(shardId, numSegments, estimatedBytes, sequence++);
+            queued.add(merge);
+            pendingSegments.merge(shardId, numSegments, Integer::sum);
+            try {
+                while (mustWait(merge)) {
+                    if (isAborted.getAsBoolean()) {
+                        dequeue(merge);
+                        return () -> {};
+                    }
+                    wait(WAIT_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                dequeue(merge);
+                Thread.currentThread().interrupt();
+                throw new ThreadInterruptedException(e);
+            }
+            queued.remove(merge);
+            merge.startedAt = System.currentTimeMillis();
+            running.add(merge);
+            // the next merge may fit as well
+            notifyAll();
+        }
+        updateMBPerSecPerMerge();
+        return () -> release(merge);
+    }
+
+    private boolean mustWait(Merge merge) {
+        assert Thread.holdsLock(this);
+        int max = maxConcurrentMerges;
+        return max > 0 && (running.size() >= max || nextMerge() != merge);
+    }
+
+    private void release(Merge merge) {
+        synchronized (this) {
+            if (running.remove(merge) == false) {
+                return;
+            }
+            removePendingSegments(merge);
+            notifyAll();
+        }
+        updateMBPerSecPerMerge();
+    }
+
+    private void dequeue(Merge merge) {
+        assert Thread.holdsLock(this);
+        queued.remove(merge);
+        removePendingSegments(merge);
+        notifyAll();
+    }
+
+    private void removePendingSegments(Merge merge) {
+        pendingSegments.computeIfPresent(merge.shardId, (shardId, segments) -> {
+            int remaining = segments - merge.numSegments;
+            return remaining > 0 ? remaining : null;
+        });
+    }
+
+    private Merge nextMerge() {
+        assert Thread.holdsLock(this);
+        Merge next = null;
+        for (Merge merge : queued) {
+            if (next == null || compare(merge, next) < 0) {
+                next = merge;
+            }
+        }
+        return next;
+    }
+
+    private int compare(Merge a, Merge b) {
+        int cmp = Integer.compare(pressure(b.shardId), pressure(a.shardId));
+        if (cmp == 0) {
+            cmp = Long.compare(a.estimatedBytes, b.estimatedBytes);
+        }
+        if (cmp == 0) {
+            cmp = Long.compare(a.sequence, b.sequence);
+        }
+        return cmp;
+    }
+
+    private int pressure(ShardId shardId) {
+        return pendingSegments.getOrDefault(shardId, 0);
+    }
+
+    /**
+     * Records the latency of a query executed on this node.
+     */
+    public void onQueryExecuted(long tookInMillis) {
+        latencySumInMillis.add(tookInMillis);
+        latencyCount.increment();
+    }
+
+    /**
+     * Lowers the io budget if the average query latency is above the target, raises it back otherwise.
+     * Only called by the scheduled adjustment, so the latency needs no further synchronization.
+     */
+    void adjustBudget() {
+        long count = latencyCount.sumThenReset();
+        long sum = latencySumInMillis.sumThenReset();
+        // an interval without queries counts as an interval without latency, so the budget recovers once queries stop
+        double sample = count == 0 ? 0 : (double) sum / count;
+        latencyInMillis = latencyInMillis < 0 ? sample : LATENCY_ALPHA * sample + (1 - LATENCY_ALPHA) * latencyInMillis;
+
+        double max = maxMBPerSec;
+        if (Double.isInfinite(max)) {
+            budgetMBPerSec = max;
+        } else {
+            long target = queryLatencyTarget.millis();
+            double budget = budgetMBPerSec;
+            if (target > 0 && latencyInMillis > target) {
+                budget = Math.max(max * MIN_BUDGET_FRACTION, budget * DECREASE_FACTOR);
+            } else {
+                budget = Math.min(max, budget + max * INCREASE_FRACTION);
+            }
+            if (budget != budgetMBPerSec) {
+                LOGGER.debug("merge io budget changed from [{}] to [{}] MB/sec, query latency [{}ms], target [{}]",
+                    budgetMBPerSec, budget, latencyInMillis, queryLatencyTarget);
+            }
+            budgetMBPerSec = budget;
+        }
+        updateMBPerSecPerMerge();
+    }
+
+    private void updateMBPerSecPerMerge() {
+        double budget = budgetMBPerSec;
+        double perMerge;
+        synchronized (this) {
+            if (Double.isInfinite(budget)) {
+                perMerge = budget;
+            } else {
+                int throttled = 0;
+                for (Merge merge : running) {
+                    if (merge.estimatedBytes >= MIN_THROTTLED_MERGE_BYTES) {
+                        throttled++;
+                    }
+                }
+                perMerge = budget / Math.max(1, throttled);
+            }
+            if (perMerge == mbPerSecPerMerge) {
+                return;
+            }
+            mbPerSecPerMerge = perMerge;
+        }
+        for (Runnable listener : ioRateListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                LOGGER.warn("failed to apply merge io rate", e);
+            }
+        }
+    }
+
+    /**
+     * The rate in MB per second each merge of at least {@link #MIN_THROTTLED_MERGE_BYTES} may write with.
+     */
+    public double mbPerSecPerMerge() {
+        return mbPerSecPerMerge;
+    }
+
+    /**
+     * The io budget in MB per second of all merges of the node.
+     */
+    public double budgetMBPerSec() {
+        return budgetMBPerSec;
+    }
+
+    /**
+     * Registers a listener which is called whenever {@link #mbPerSecPerMerge()} changes.
+     */
+    public void addIORateListener(Runnable listener) {
+        ioRateListeners.add(listener);
+    }
+
+    public void removeIORateListener(Runnable listener) {
+        ioRateListeners.remove(listener);
+    }
+
+    /**
+     * A point in time copy of the running and queued merges
+     */
+    public synchronized List<MergeInfo> merges() {
+        List<MergeInfo> merges = new ArrayList<>(running.size() + queued.size());
+        double perMerge = mbPerSecPerMerge;
+        for (Merge merge : running) {
+            Double mbPerSec = Double.isInfinite(perMerge) || merge.estimatedBytes < MIN_THROTTLED_MERGE_BYTES ? null : perMerge;
+            merges.add(new MergeInfo(merge, true, pressure(merge.shardId), mbPerSec));
+        }
+        for (Merge merge : queued) {
+            merges.add(new MergeInfo(merge, false, pressure(merge.shardId), null));
+        }
+        return merges;
+    }
+
+    @Override
+    public void close() {
+        adjuster.cancel();
+    }
+
+    private static final class Merge {
+
+        private final ShardId shardId;
+        private final int numSegments;
+        private final long estimatedBytes;
+        private final long sequence;
+        private final long queuedAt = System.currentTimeMillis();
+        private long startedAt = -1;
+
+        Merge(ShardId shardId, int numSegments, long estimatedBytes, long sequence) {
+            this.shardId = shardId;
+            this.numSegments = numSegments;
+            this.estimatedBytes = estimatedBytes;
+            this.sequence = sequence;
+        }
+    }
+
+    public static final class MergeInfo {
+
+        private final ShardId shardId;
+        private final boolean running;
+        private final int numSegments;
+        private final long estimatedBytes;
+        private final int pressure;
+        private final long queuedAt;
+        private final Long startedAt;
+        private final Long ioRateLimit;
+
+        private MergeInfo(Merge merge, boolean running, int pressure, Double mbPerSec) {
+            this.shardId = merge.shardId;
+            this.running = running;
+            this.numSegments = merge.numSegments;
+            this.estimatedBytes = merge.estimatedBytes;
+            this.pressure = pressure;
+            this.queuedAt = merge.queuedAt;
+            this.startedAt = running ? merge.startedAt : null;
+            this.ioRateLimit = mbPerSec == null ? null : (long) (mbPerSec * BYTES_PER_MB);
+        }
+
+        public ShardId shardId() {
+            return shardId;
+        }
+
+        public boolean isRunning() {
+            return running;
+        }
+
+        public int numSegments() {
+            return numSegments;
+        }
+
+        public long estimatedBytes() {
+            return estimatedBytes;
+        }
+
+        /**
+         * The number of segments of the shard which are waiting for or part of a merge
+         */
+        public int pressure() {
+            return pressure;
+        }
+
+        public long queuedAt() {
+            return queuedAt;
+        }
+
+        public Long startedAt() {
+            return startedAt;
+        }
+
+        /**
+         * The bytes per second the merge may write with, null if it isn't limited
+         */
+        public Long ioRateLimit() {
+            return ioRateLimit;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses the size of the file chunks sent during a peer recovery based on the observed throughput.
+ * <p>
+ * Chunks start with the configured chunk size. Every acknowledged chunk updates an exponentially weighted moving
+ * average of the throughput and the next chunk is sized so that it takes about {@link #TARGET_CHUNK_NANOS} to transfer,
+ * but never smaller than the configured chunk size and never larger than the max chunk size.
+ * Fast links therefore need fewer round trips while slow or throttled links keep the small chunks.
+ */
+final class FileChunkSizer {
+
+    static final long TARGET_CHUNK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final double ALPHA = 0.25;
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private double bytesPerNano = -1;
+    private int chunkSize;
+
+    FileChunkSizer(int chunkSize, int maxChunkSize) {
+        this.minChunkSize = chunkSize;
+        this.maxChunkSize = Math.max(chunkSize, maxChunkSize);
+        this.chunkSize = chunkSize;
+    }
+
+    int maxChunkSize() {
+        return maxChunkSize;
+    }
+
+    synchronized int nextChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Called once a chunk of {@code bytes} was acknowledged by the target {@code tookInNanos} after it was sent.
+     */
+    synchronized void onChunkAcknowledged(int bytes, long tookInNanos) {
+        if (bytes <= 0) {
+            return;
+        }
+        double sample = (double) bytes / Math.max(1L, tookInNanos);
+        bytesPerNano = bytesPerNano < 0 ? sample : ALPHA * sample + (1 - ALPHA) * bytesPerNano;
+        long size = Math.round(bytesPerNano * TARGET_CHUNK_NANOS);
+        chunkSize = (int) Math.max(minChunkSize, Math.min(maxChunkSize, size));
+    }
+}
@@ -208,7 +208,9 @@ public class PeerRecoverySourceService implements IndexEventListener {
                         recoveryTarget,
                         request,
                         recoveryChunkSizeInBytes,
-                        recoverySettings.getMaxConcurrentFileChunks());
+                        recoverySettings.getMaxConcurrentFileChunks(),
+                        recoverySettings.getMaxConcurrentFiles(),
+                        recoverySettings.getMaxChunkSize().bytesAsInt());
                 }
             }
         }
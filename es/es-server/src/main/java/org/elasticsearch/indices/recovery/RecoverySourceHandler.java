@@ -41,7 +41,6 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.logging.Loggers;
-import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.CancellableThreads;
@@ -63,7 +62,7 @@ import org.elasticsearch.transport.RemoteTransportException;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -101,6 +100,8 @@ public class RecoverySourceHandler {
     private final int chunkSizeInBytes;
     private final RecoveryTargetHandler recoveryTarget;
     private final int maxConcurrentFileChunks;
+    private final int maxConcurrentFiles;
+    private final int maxChunkSizeInBytes;
     protected final CancellableThreads cancellableThreads = new CancellableThreads();
 
     public RecoverySourceHandler(final IndexShard shard,
@@ -108,6 +109,16 @@ public class RecoverySourceHandler {
                                  final StartRecoveryRequest request,
                                  final int fileChunkSizeInBytes,
                                  final int maxConcurrentFileChunks) {
+        this(shard, recoveryTarget, request, fileChunkSizeInBytes, maxConcurrentFileChunks, 1, fileChunkSizeInBytes);
+    }
+
+    public RecoverySourceHandler(final IndexShard shard,
+                                 RecoveryTargetHandler recoveryTarget,
+                                 final StartRecoveryRequest request,
+                                 final int fileChunkSizeInBytes,
+                                 final int maxConcurrentFileChunks,
+                                 final int maxConcurrentFiles,
+                                 final int maxChunkSizeInBytes) {
         this.shard = shard;
         this.recoveryTarget = recoveryTarget;
         this.request = request;
@@ -115,9 +126,10 @@ public class RecoverySourceHandler {
         this.logger = Loggers.getLogger(getClass(), request.shardId(), "recover to " + request.targetNode().getName());
         this.chunkSizeInBytes = fileChunkSizeInBytes;
         // if the target is on an old version, it won't be able to handle out-of-order file chunks.
-        this.maxConcurrentFileChunks =
-            request.targetNode().getVersion().onOrAfter(Version.V_4_0_0)
-            ? maxConcurrentFileChunks : 1;
+        final boolean outOfOrderChunks = request.targetNode().getVersion().onOrAfter(Version.V_4_0_0);
+        this.maxConcurrentFileChunks = outOfOrderChunks ? maxConcurrentFileChunks : 1;
+        this.maxConcurrentFiles = outOfOrderChunks ? maxConcurrentFiles : 1;
+        this.maxChunkSizeInBytes = maxChunkSizeInBytes;
     }
 
     public StartRecoveryRequest getRequest() {
@@ -757,30 +769,58 @@ public class RecoverySourceHandler {
                 '}';
     }
 
+    /**
+     * Sends the files round robin, chunk by chunk, with up to {@code maxConcurrentFiles} files open at a time and up to
+     * {@code maxConcurrentFileChunks} requests in flight per open file. The size of the chunks adapts to the observed
+     * throughput, see {@link FileChunkSizer}.
+     */
     void sendFiles(Store store, StoreFileMetaData[] files, Supplier<Integer> translogOps) throws Exception {
         ArrayUtil.timSort(files, Comparator.comparingLong(StoreFileMetaData::length)); // send smallest first
         final LocalCheckpointTracker requestSeqIdTracker = new LocalCheckpointTracker(NO_OPS_PERFORMED, NO_OPS_PERFORMED);
         final AtomicReference<Tuple<StoreFileMetaData, Exception>> error = new AtomicReference<>();
-        final byte[] buffer = new byte[chunkSizeInBytes];
-        for (final StoreFileMetaData md : files) {
-            if (error.get() != null) {
-                break;
-            }
-            try (IndexInput indexInput = store.directory().openInput(md.name(), IOContext.READONCE);
-                 InputStream in = new InputStreamIndexInput(indexInput, md.length())) {
-                long position = 0;
-                int bytesRead;
-                while ((bytesRead = in.read(buffer, 0, buffer.length)) != -1) {
-                    final BytesArray content = new BytesArray(buffer, 0, bytesRead);
-                    final boolean lastChunk = position + content.length() == md.length();
+        final FileChunkSizer chunkSizer = new FileChunkSizer(chunkSizeInBytes, maxChunkSizeInBytes);
+        // the transport serializes the request before writeFileChunk returns, so a single buffer can be re-used
+        final byte[] buffer = new byte[chunkSizer.maxChunkSize()];
+        final int maxRequestsInFlight = maxConcurrentFileChunks * maxConcurrentFiles;
+        final ArrayDeque<FileToSend> openFiles = new ArrayDeque<>(maxConcurrentFiles);
+        int nextFile = 0;
+        try {
+            while (error.get() == null) {
+                while (openFiles.size() < maxConcurrentFiles && nextFile < files.length) {
+                    final StoreFileMetaData md = files[nextFile++];
+                    if (md.length() == 0) {
+                        continue;
+                    }
+                    try {
+                        openFiles.add(new FileToSend(md, store.directory().openInput(md.name(), IOContext.READONCE)));
+                    } catch (Exception e) {
+                        error.compareAndSet(null, Tuple.tuple(md, e));
+                        break;
+                    }
+                }
+                final FileToSend file = openFiles.poll();
+                if (file == null || error.get() != null) {
+                    if (file != null) {
+                        openFiles.add(file);
+                    }
+                    break;
+                }
+                final StoreFileMetaData md = file.md;
+                try {
                     final long requestSeqId = requestSeqIdTracker.generateSeqNo();
                     cancellableThreads
-                        .execute(() -> requestSeqIdTracker.waitForProcessedOpsToComplete(requestSeqId - maxConcurrentFileChunks));
+                        .execute(() -> requestSeqIdTracker.waitForProcessedOpsToComplete(requestSeqId - maxRequestsInFlight));
                     cancellableThreads.checkForCancel();
                     if (error.get() != null) {
+                        openFiles.add(file);
                         break;
                     }
-                    final long requestFilePosition = position;
+                    final long requestFilePosition = file.position;
+                    final int chunkSize = (int) Math.min(chunkSizer.nextChunkSize(), md.length() - requestFilePosition);
+                    file.input.readBytes(buffer, 0, chunkSize);
+                    final BytesArray content = new BytesArray(buffer, 0, chunkSize);
+                    final boolean lastChunk = requestFilePosition + chunkSize == md.length();
+                    final long startTime = System.nanoTime();
                     cancellableThreads.executeIO(() -> recoveryTarget.writeFileChunk(
                         md,
                         requestFilePosition,
@@ -788,18 +828,29 @@ public class RecoverySourceHandler {
                         lastChunk,
                         translogOps.get(),
                         ActionListener.wrap(
-                            r -> requestSeqIdTracker.markSeqNoAsProcessed(requestSeqId),
+                            r -> {
+                                chunkSizer.onChunkAcknowledged(chunkSize, System.nanoTime() - startTime);
+                                requestSeqIdTracker.markSeqNoAsProcessed(requestSeqId);
+                            },
                             e -> {
                                 error.compareAndSet(null, Tuple.tuple(md, e));
                                 requestSeqIdTracker.markSeqNoAsProcessed(requestSeqId);
                             }))
                     );
-                    position += content.length();
+                    file.position += chunkSize;
+                    if (lastChunk) {
+                        file.close();
+                    } else {
+                        openFiles.add(file);
+                    }
+                } catch (Exception e) {
+                    IOUtils.closeWhileHandlingException(file);
+                    error.compareAndSet(null, Tuple.tuple(md, e));
+                    break;
                 }
-            } catch (Exception e) {
-                error.compareAndSet(null, Tuple.tuple(md, e));
-                break;
             }
+        } finally {
+            IOUtils.closeWhileHandlingException(openFiles);
         }
         // When we terminate exceptionally, we don't wait for the outstanding requests as we don't use their results anyway.
         // This allows us to end quickly and eliminate the complexity of handling requestSeqIds in case of error.
@@ -812,6 +863,23 @@ public class RecoverySourceHandler {
         }
     }
 
+    private static final class FileToSend implements Closeable {
+
+        private final StoreFileMetaData md;
+        private final IndexInput input;
+        private long position = 0;
+
+        FileToSend(StoreFileMetaData md, IndexInput input) {
+            this.md = md;
+            this.input = input;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
     private void handleErrorOnSendFiles(Store store, StoreFileMetaData md, Exception e) throws Exception {
         final IOException corruptIndexException;
         if ((corruptIndexException = ExceptionsHelper.unwrapCorruption(e)) != null) {
@@ -774,6 +774,23 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             return recovered;
         }
 
+        /**
+         * average number of bytes per second copied from the source, excluding reused files
+         */
+        public synchronized long recoveredBytesPerSecond() {
+            long timeInMillis = time();
+            if (timeInMillis <= 0) {
+                return 0L;
+            }
+            long recovered = 0;
+            for (File file : fileDetails.values()) {
+                if (file.reused() == false) {
+                    recovered += file.recovered();
+                }
+            }
+            return recovered * 1000 / timeInMillis;
+        }
+
         /**
          * percent of bytes recovered out of total files bytes *to be* recovered
          */
@@ -95,8 +95,11 @@ import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
 import org.elasticsearch.index.engine.EngineFactory;
 import org.elasticsearch.index.store.IndexStore;
+import org.elasticsearch.index.store.SnapshotBlockCache;
+import org.elasticsearch.index.store.SnapshotIndexStore;
 import org.elasticsearch.indices.IndicesModule;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.MergeCoordinator;
 import org.elasticsearch.indices.analysis.AnalysisModule;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
@@ -120,6 +123,7 @@ import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.plugins.RepositoryPlugin;
 import org.elasticsearch.repositories.RepositoriesModule;
+import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.search.SearchModule;
 import org.elasticsearch.snapshots.SnapshotShardsService;
 import org.elasticsearch.snapshots.SnapshotsService;
@@ -362,13 +366,23 @@ public class Node implements Closeable {
                     .collect(Collectors.toList());
 
 
-            final Map<String, Function<IndexSettings, IndexStore>> indexStoreFactories =
+            final Map<String, Function<IndexSettings, IndexStore>> indexStoreFactories = new HashMap<>(
                 pluginsService.filterPlugins(IndexStorePlugin.class)
                     .stream()
                     .map(IndexStorePlugin::getIndexStoreFactories)
                     .flatMap(m -> m.entrySet().stream())
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+            final SnapshotBlockCache snapshotBlockCache = new SnapshotBlockCache(
+                nodeEnvironment.nodeDataPaths()[0].resolve("snapshot_cache"),
+                SnapshotBlockCache.SNAPSHOT_CACHE_SIZE_SETTING.get(settings).getBytes());
+            final SetOnce<RepositoriesService> repositoriesServiceReference = new SetOnce<>();
+            indexStoreFactories.put(
+                SnapshotIndexStore.TYPE,
+                indexSettings -> new SnapshotIndexStore(indexSettings, repositoriesServiceReference::get, snapshotBlockCache));
+
+            final MergeCoordinator mergeCoordinator = new MergeCoordinator(
+                settings, settingsModule.getClusterSettings(), threadPool);
+            resourcesToClose.add(mergeCoordinator);
             final IndicesService indicesService = new IndicesService(
                 settings,
                 pluginsService,
@@ -380,6 +394,7 @@ public class Node implements Closeable {
                 threadPool,
                 settingsModule.getIndexScopedSettings(),
                 circuitBreakerService,
+                mergeCoordinator,
                 bigArrays,
                 client,
                 metaStateService,
@@ -499,6 +514,7 @@ public class Node implements Closeable {
                     b.bind(MetaDataUpgrader.class).toInstance(metaDataUpgrader);
                     b.bind(MetaStateService.class).toInstance(metaStateService);
                     b.bind(IndicesService.class).toInstance(indicesService);
+                    b.bind(MergeCoordinator.class).toInstance(mergeCoordinator);
                     b.bind(AliasValidator.class).toInstance(aliasValidator);
                     b.bind(MetaDataCreateIndexService.class).toInstance(metaDataCreateIndexService);
                     b.bind(Transport.class).toInstance(transport);
@@ -525,6 +541,7 @@ public class Node implements Closeable {
                 }
             );
             injector = modules.createInjector();
+            repositoriesServiceReference.set(injector.getInstance(RepositoriesService.class));
 
             // TODO hack around circular dependencies problems in AllocationService
             clusterModule.getAllocationService().setGatewayAllocator(injector.getInstance(GatewayAllocator.class));
@@ -795,6 +812,7 @@ public class Node implements Closeable {
         toClose.add(injector.getInstance(IndicesClusterStateService.class));
         toClose.add(() -> stopWatch.stop().start("indices"));
         toClose.add(injector.getInstance(IndicesService.class));
+        toClose.add(injector.getInstance(MergeCoordinator.class));
         // close filter/fielddata caches after indices
         toClose.add(injector.getInstance(IndicesStore.class));
         toClose.add(() -> stopWatch.stop().start("routing"));
@@ -48,6 +48,7 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.metadata.RepositoryMetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.CheckedRunnable;
 import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.UUIDs;
@@ -109,6 +110,7 @@ import org.elasticsearch.snapshots.SnapshotMissingException;
 import org.elasticsearch.snapshots.SnapshotShardFailure;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.EOFException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -123,6 +125,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyMap;
@@ -218,10 +221,19 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      */
     public static final Setting<Boolean> COMPRESS_SETTING = Setting.boolSetting("compress", true, Setting.Property.NodeScope);
 
+    /**
+     * The maximum number of files, or parts of files, which are uploaded or downloaded concurrently while a single
+     * shard is snapshotted or restored. The transfers run on the {@link ThreadPool.Names#SNAPSHOT} thread pool.
+     */
+    public static final Setting<Integer> MAX_CONCURRENT_FILE_TRANSFERS_SETTING =
+        Setting.intSetting("max_concurrent_file_transfers", 4, 1, Setting.Property.NodeScope);
+
     protected final Settings settings;
 
     private final boolean compress;
 
+    private final int maxConcurrentFileTransfers;
+
     private final RateLimiter snapshotRateLimiter;
 
     private final RateLimiter restoreRateLimiter;
@@ -262,6 +274,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         this.metadata = metadata;
         this.threadPool = threadPool;
         this.compress = COMPRESS_SETTING.get(metadata.settings());
+        this.maxConcurrentFileTransfers = MAX_CONCURRENT_FILE_TRANSFERS_SETTING.get(metadata.settings());
         snapshotRateLimiter = getRateLimiter(metadata.settings(), "max_snapshot_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB));
         restoreRateLimiter = getRateLimiter(metadata.settings(), "max_restore_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB));
         readOnly = metadata.settings().getAsBoolean("readonly", false);
@@ -915,6 +928,57 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             snapshot.incrementalSize(), snapshot.totalSize());
     }
 
+    /**
+     * Loads the files of a shard snapshot. Their content can be read with
+     * {@link #readShardSnapshotFile(IndexId, ShardId, BlobStoreIndexShardSnapshot.FileInfo, long, byte[], int, int)}
+     * without restoring the shard.
+     */
+    public List<BlobStoreIndexShardSnapshot.FileInfo> loadShardSnapshotFiles(SnapshotId snapshotId, IndexId indexId, ShardId snapshotShardId) {
+        Context context = new Context(snapshotId, null, indexId, snapshotShardId);
+        return context.loadSnapshot().indexFiles();
+    }
+
+    /**
+     * Reads {@code length} bytes of a file of a shard snapshot, starting at {@code position}, into {@code buffer}.
+     * Reads are throttled by the restore rate limiter of the repository.
+     */
+    public void readShardSnapshotFile(IndexId indexId,
+                                      ShardId snapshotShardId,
+                                      BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                      long position,
+                                      byte[] buffer,
+                                      int offset,
+                                      int length) throws IOException {
+        if (position < 0 || position + length > fileInfo.length()) {
+            throw new EOFException("read past EOF: position=" + position + " length=" + length +
+                                   " fileLength=" + fileInfo.length() + " file=" + fileInfo.physicalName());
+        }
+        final BlobContainer container = shardContainer(indexId, snapshotShardId);
+        final long partBytes = fileInfo.numberOfParts() > 1 ? fileInfo.partSize().getBytes() : fileInfo.length();
+        while (length > 0) {
+            int part = (int) (position / partBytes);
+            long positionInPart = position % partBytes;
+            int toRead = (int) Math.min(length, fileInfo.partBytes(part) - positionInPart);
+            InputStream stream = container.readBlob(fileInfo.partName(part), positionInPart, toRead);
+            if (restoreRateLimiter != null) {
+                stream = new RateLimitingInputStream(stream, restoreRateLimiter, restoreRateLimitingTimeInNanos::inc);
+            }
+            try (InputStream in = stream) {
+                int read = org.elasticsearch.common.io.Streams.readFully(in, buffer, offset, toRead);
+                if (read < toRead) {
+                    throw new EOFException("unexpected end of blob [" + fileInfo.partName(part) + "]");
+                }
+            }
+            position += toRead;
+            offset += toRead;
+            length -= toRead;
+        }
+    }
+
+    private BlobContainer shardContainer(IndexId indexId, ShardId snapshotShardId) {
+        return blobStore().blobContainer(basePath().add("indices").add(indexId.getId()).add(Integer.toString(snapshotShardId.getId())));
+    }
+
     @Override
     public void verify(String seed, DiscoveryNode localNode) {
         assertSnapshotOrGenericThread();
@@ -975,7 +1039,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             this.snapshotId = snapshotId;
             this.version = version;
             this.shardId = shardId;
-            blobContainer = blobStore().blobContainer(basePath().add("indices").add(indexId.getId()).add(Integer.toString(snapshotShardId.getId())));
+            blobContainer = shardContainer(indexId, snapshotShardId);
         }
 
         /**
@@ -1293,12 +1357,17 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 snapshotStatus.moveToStarted(startTime, indexIncrementalFileCount,
                     indexTotalNumberOfFiles, indexIncrementalSize, indexTotalFileCount);
 
+                List<CheckedRunnable<Exception>> uploads = new ArrayList<>();
                 for (BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo : filesToSnapshot) {
-                    try {
-                        snapshotFile(snapshotFileInfo);
-                    } catch (IOException e) {
-                        throw new IndexShardSnapshotFailedException(shardId, "Failed to perform snapshot (index files)", e);
-                    }
+                    addUploads(snapshotFileInfo, uploads);
+                }
+                try {
+                    ConcurrentTransfers.run(
+                        threadPool.executor(ThreadPool.Names.SNAPSHOT), maxConcurrentFileTransfers, uploads);
+                } catch (IndexShardSnapshotFailedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IndexShardSnapshotFailedException(shardId, "Failed to perform snapshot (index files)", e);
                 }
             } finally {
                 store.decRef();
@@ -1340,29 +1409,40 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
 
         /**
-         * Snapshot individual file
+         * Adds the uploads of a file to {@code uploads}.
          * <p>
-         * This is asynchronous method. Upon completion of the operation latch is getting counted down and any failures are
-         * added to the {@code failures} list
+         * A file stored as a single blob is verified while it is uploaded. The parts of a file stored as multiple blobs
+         * are uploaded independently of each other; the file is verified once all its parts have been uploaded.
+         *
+         * @param fileInfo file to be snapshotted
+         */
+        private void addUploads(final BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                final List<CheckedRunnable<Exception>> uploads) {
+            if (fileInfo.numberOfParts() == 1) {
+                uploads.add(() -> snapshotFile(fileInfo));
+                return;
+            }
+            final AtomicLong remainingParts = new AtomicLong(fileInfo.numberOfParts());
+            for (int i = 0; i < fileInfo.numberOfParts(); i++) {
+                final int part = i;
+                uploads.add(() -> {
+                    snapshotFilePart(fileInfo, part);
+                    if (remainingParts.decrementAndGet() == 0) {
+                        verifySnapshottedFile(fileInfo);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Snapshot individual file which is stored as a single blob
          *
          * @param fileInfo file to be snapshotted
          */
         private void snapshotFile(final BlobStoreIndexShardSnapshot.FileInfo fileInfo) throws IOException {
             final String file = fileInfo.physicalName();
             try (IndexInput indexInput = store.openVerifyingInput(file, IOContext.READONCE, fileInfo.metadata())) {
-                for (int i = 0; i < fileInfo.numberOfParts(); i++) {
-                    final long partBytes = fileInfo.partBytes(i);
-                    try (final InputStreamIndexInput inputStreamIndexInput = new InputStreamIndexInput(indexInput,
-                                                                                                       partBytes)) {
-                        InputStream inputStream = inputStreamIndexInput;
-                        if (snapshotRateLimiter != null) {
-                            inputStream = new RateLimitingInputStream(inputStreamIndexInput, snapshotRateLimiter,
-                                                                      snapshotRateLimitingTimeInNanos::inc);
-                        }
-                        inputStream = new AbortableInputStream(inputStream, fileInfo.physicalName());
-                        blobContainer.writeBlob(fileInfo.partName(i), inputStream, partBytes, true);
-                    }
-                }
+                writePart(fileInfo, 0, indexInput);
                 Store.verify(indexInput);
                 snapshotStatus.addProcessedFile(fileInfo.length());
             } catch (Exception t) {
@@ -1372,6 +1452,43 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             }
         }
 
+        private void snapshotFilePart(final BlobStoreIndexShardSnapshot.FileInfo fileInfo, int part) throws IOException {
+            final String file = fileInfo.physicalName();
+            try (IndexInput indexInput = store.directory().openInput(file, IOContext.READONCE)) {
+                indexInput.seek(part * fileInfo.partSize().getBytes());
+                writePart(fileInfo, part, indexInput);
+            } catch (Exception t) {
+                failStoreIfCorrupted(t);
+                throw t;
+            }
+        }
+
+        private void verifySnapshottedFile(final BlobStoreIndexShardSnapshot.FileInfo fileInfo) throws IOException {
+            try {
+                Store.checkIntegrity(fileInfo.metadata(), store.directory());
+                snapshotStatus.addProcessedFile(fileInfo.length());
+            } catch (Exception t) {
+                failStoreIfCorrupted(t);
+                snapshotStatus.addProcessedFile(0);
+                throw t;
+            }
+        }
+
+        private void writePart(final BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                               int part,
+                               IndexInput indexInput) throws IOException {
+            final long partBytes = fileInfo.partBytes(part);
+            try (final InputStreamIndexInput inputStreamIndexInput = new InputStreamIndexInput(indexInput, partBytes)) {
+                InputStream inputStream = inputStreamIndexInput;
+                if (snapshotRateLimiter != null) {
+                    inputStream = new RateLimitingInputStream(inputStreamIndexInput, snapshotRateLimiter,
+                                                              snapshotRateLimitingTimeInNanos::inc);
+                }
+                inputStream = new AbortableInputStream(inputStream, fileInfo.physicalName());
+                blobContainer.writeBlob(fileInfo.partName(part), inputStream, partBytes, true);
+            }
+        }
+
         private void failStoreIfCorrupted(Exception e) {
             if (Lucene.isCorruptionException(e)) {
                 try {
@@ -1607,6 +1724,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     final List<String> deleteIfExistFiles = Arrays.asList(store.directory().listAll());
 
                     // restore the files from the snapshot to the Lucene store
+                    final List<CheckedRunnable<Exception>> downloads = new ArrayList<>(filesToRecover.size());
                     for (final BlobStoreIndexShardSnapshot.FileInfo fileToRecover : filesToRecover) {
                         // if a file with a same physical name already exist in the store we need to delete it
                         // before restoring it from the snapshot. We could be lenient and try to reuse the existing
@@ -1620,10 +1738,17 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                             store.directory().deleteFile(physicalName);
                         }
 
-                        LOGGER.trace("[{}] [{}] restoring file [{}]", shardId, snapshotId, fileToRecover.name());
-                        restoreFile(fileToRecover, store);
+                        downloads.add(() -> {
+                            LOGGER.trace("[{}] [{}] restoring file [{}]", shardId, snapshotId, fileToRecover.name());
+                            restoreFile(fileToRecover, store);
+                        });
                     }
-                } catch (IOException ex) {
+                    // the parts of a file are written sequentially, so only distinct files are restored concurrently
+                    ConcurrentTransfers.run(
+                        threadPool.executor(ThreadPool.Names.SNAPSHOT), maxConcurrentFileTransfers, downloads);
+                } catch (IndexShardRestoreFailedException ex) {
+                    throw ex;
+                } catch (Exception ex) {
                     throw new IndexShardRestoreFailedException(shardId, "Failed to recover index", ex);
                 }
 
@@ -0,0 +1,93 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.CheckedRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the file transfers of a single shard snapshot or restore with a bounded concurrency.
+ * <p>
+ * The calling thread works through the transfers itself and is helped by up to {@code maxConcurrency - 1} tasks
+ * submitted to the executor. A helper that only starts after all transfers have been taken exits right away, so
+ * waiting for the transfers never depends on a free thread in the executor. This matters because the calling thread
+ * usually belongs to the same {@code snapshot} pool, which is shared by all shards of the node: a busy pool degrades
+ * every shard to sequential transfers instead of stalling some of them.
+ * </p>
+ * After the first failure the remaining transfers are skipped and the failure is rethrown to the caller.
+ */
+final class ConcurrentTransfers {
+
+    private ConcurrentTransfers() {
+    }
+
+    static void run(Executor executor,
+                    int maxConcurrency,
+                    List<CheckedRunnable<Exception>> transfers) throws Exception {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        Queue<CheckedRunnable<Exception>> queue = new ConcurrentLinkedQueue<>(transfers);
+        CountDownLatch done = new CountDownLatch(transfers.size());
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Runnable worker = () -> runTransfers(queue, done, failure);
+        int numHelpers = Math.min(maxConcurrency, transfers.size()) - 1;
+        for (int i = 0; i < numHelpers; i++) {
+            try {
+                executor.execute(worker);
+            } catch (EsRejectedExecutionException e) {
+                // the calling thread and the other helpers will take over the transfers
+                break;
+            }
+        }
+        worker.run();
+        done.await();
+        Exception e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private static void runTransfers(Queue<CheckedRunnable<Exception>> queue,
+                                     CountDownLatch done,
+                                     AtomicReference<Exception> failure) {
+        CheckedRunnable<Exception> transfer;
+        while ((transfer = queue.poll()) != null) {
+            try {
+                if (failure.get() == null) {
+                    transfer.run();
+                }
+            } catch (Exception e) {
+                if (failure.compareAndSet(null, e) == false) {
+                    failure.get().addSuppressed(e);
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+    }
+}
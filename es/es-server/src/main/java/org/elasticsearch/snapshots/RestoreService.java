@@ -68,10 +68,12 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.SnapshotIndexStore;
 import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.Repository;
 import org.elasticsearch.repositories.RepositoryData;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -197,6 +199,13 @@ public class RestoreService implements ClusterStateApplier {
             // Make sure that we can restore from this snapshot
             validateSnapshotRestorable(request.repositoryName, snapshotInfo);
 
+            final boolean mount = SnapshotIndexStore.isMounted(
+                Settings.builder().put(request.indexSettings()).normalizePrefix(IndexMetaData.INDEX_SETTING_PREFIX).build());
+            if (mount && repository instanceof BlobStoreRepository == false) {
+                throw new SnapshotRestoreException(request.repositoryName, request.snapshotName,
+                    "repository does not support mounting snapshots");
+            }
+
             // Resolve the indices from the snapshot that need to be restored
             final List<String> indicesInSnapshot = filterIndices(snapshotInfo.indices(), request.indices(), request.indicesOptions());
 
@@ -258,7 +267,32 @@ public class RestoreService implements ClusterStateApplier {
                             SnapshotRecoverySource recoverySource = new SnapshotRecoverySource(snapshot, snapshotInfo.version(), index);
                             String renamedIndexName = indexEntry.getKey();
                             IndexMetaData snapshotIndexMetaData = metaData.index(index);
+                            if (SnapshotIndexStore.isMounted(snapshotIndexMetaData.getSettings())) {
+                                // the snapshot contains all files of an index which was mounted when it was snapshotted
+                                snapshotIndexMetaData = IndexMetaData.builder(snapshotIndexMetaData)
+                                    .settings(SnapshotIndexStore.unmountSettings(snapshotIndexMetaData.getSettings()))
+                                    .build();
+                            }
                             snapshotIndexMetaData = updateIndexSettings(snapshotIndexMetaData, request.indexSettings, request.ignoreIndexSettings);
+                            if (mount) {
+                                if (currentState.metaData().hasIndex(renamedIndexName)) {
+                                    throw new SnapshotRestoreException(snapshot, "cannot mount index [" + renamedIndexName +
+                                        "] because an index with same name already exists in the cluster");
+                                }
+                                SnapshotIndexStore.ensureNoReplicas(renamedIndexName, Settings.builder()
+                                    .put(request.indexSettings())
+                                    .normalizePrefix(IndexMetaData.INDEX_SETTING_PREFIX)
+                                    .build());
+                                snapshotIndexMetaData = IndexMetaData.builder(snapshotIndexMetaData)
+                                    .settings(Settings.builder()
+                                        .put(snapshotIndexMetaData.getSettings())
+                                        .put(SnapshotIndexStore.mountSettings(snapshot, repositoryData.resolveIndexId(index)))
+                                        .put(IndexMetaData.SETTING_BLOCKS_WRITE, true)
+                                        // the replicas of the snapshotted index would copy all files of the snapshot
+                                        .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+                                        .put(IndexMetaData.SETTING_AUTO_EXPAND_REPLICAS, "false"))
+                                    .build();
+                            }
                             try {
                                 snapshotIndexMetaData = metaDataIndexUpgradeService.upgradeIndexMetaData(snapshotIndexMetaData,
                                     minIndexCompatibilityVersion);
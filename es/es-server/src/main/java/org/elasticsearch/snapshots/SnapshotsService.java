@@ -63,6 +63,7 @@ import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.snapshots.IndexShardSnapshotStatus;
+import org.elasticsearch.index.store.SnapshotIndexStore;
 import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.Repository;
@@ -1187,6 +1188,16 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
                         throw new ConcurrentSnapshotExecutionException(snapshot, "cannot delete snapshot during a restore");
                     }
                 }
+                // mounted indices read their files from the snapshot
+                for (ObjectCursor<IndexMetaData> cursor : currentState.metaData().indices().values()) {
+                    Settings indexSettings = cursor.value.getSettings();
+                    if (SnapshotIndexStore.isMounted(indexSettings)
+                        && snapshot.getRepository().equals(SnapshotIndexStore.SNAPSHOT_REPOSITORY_SETTING.get(indexSettings))
+                        && snapshot.getSnapshotId().getUUID().equals(SnapshotIndexStore.SNAPSHOT_UUID_SETTING.get(indexSettings))) {
+                        throw new SnapshotException(snapshot,
+                            "cannot delete snapshot because it is mounted by index [" + cursor.value.getIndex().getName() + "]");
+                    }
+                }
                 ClusterState.Builder clusterStateBuilder = ClusterState.builder(currentState);
                 SnapshotsInProgress snapshots = currentState.custom(SnapshotsInProgress.TYPE);
                 SnapshotsInProgress.Entry snapshotEntry = snapshots != null ? snapshots.snapshot(snapshot) : null;
@@ -0,0 +1,85 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+
+import java.util.Locale;
+
+/**
+ * The compression algorithms which can be used to compress transport messages.
+ */
+public enum CompressionScheme {
+
+    DEFLATE(CompressorFactory.COMPRESSOR, Version.V_4_0_0),
+    LZ4(CompressorFactory.LZ4, Version.V_4_2_0);
+
+    private final Compressor compressor;
+    private final Version minVersion;
+
+    CompressionScheme(Compressor compressor, Version minVersion) {
+        this.compressor = compressor;
+        this.minVersion = minVersion;
+    }
+
+    public Compressor compressor() {
+        return compressor;
+    }
+
+    /**
+     * @return this scheme if a node with the given version is able to decompress it, otherwise {@link #DEFLATE}.
+     */
+    public CompressionScheme forVersion(Version version) {
+        return version.onOrAfter(minVersion) ? this : DEFLATE;
+    }
+
+    /**
+     * @return the scheme which uses the given compressor or null if there is none.
+     */
+    @Nullable
+    public static CompressionScheme of(Compressor compressor) {
+        for (CompressionScheme scheme : values()) {
+            if (scheme.compressor == compressor) {
+                return scheme;
+            }
+        }
+        return null;
+    }
+
+    public static CompressionScheme of(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                "Invalid transport compression scheme [" + value + "], must be one of [deflate, lz4]");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -31,6 +31,7 @@ import org.elasticsearch.action.NotifyOnceListener;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.Booleans;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.bytes.BytesArray;
@@ -151,6 +152,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     // connections while no connect operations is going on
     private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
     protected final boolean compress;
+    private final CompressionScheme compressionScheme;
     protected final Settings settings;
     private final String nodeName;
     private volatile BoundTransportAddress boundAddress;
@@ -162,6 +164,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
 
     private final MeanMetric readBytesMetric = new MeanMetric();
     private final MeanMetric transmittedBytesMetric = new MeanMetric();
+    private final CounterMetric deflateCompressedMessages = new CounterMetric();
+    private final CounterMetric lz4CompressedMessages = new CounterMetric();
     private volatile Map<String, RequestHandlerRegistry> requestHandlers = Collections.emptyMap();
     private final ResponseHandlers responseHandlers = new ResponseHandlers();
     private final BytesReference pingMessage;
@@ -176,6 +180,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         this.circuitBreakerService = circuitBreakerService;
         this.namedWriteableRegistry = namedWriteableRegistry;
         this.compress = Transport.TRANSPORT_TCP_COMPRESS.get(settings);
+        this.compressionScheme = TransportSettings.TRANSPORT_COMPRESSION_SCHEME.get(settings);
         this.networkService = networkService;
         this.transportName = transportName;
         this.nodeName = Node.NODE_NAME_SETTING.get(settings);
@@ -268,10 +273,16 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         private final List<TcpChannel> channels;
         private final DiscoveryNode node;
         private final Version version;
+        private final boolean compressionEnabled;
+        private final CompressionScheme channelsCompressionScheme;
         private final AtomicBoolean isClosing = new AtomicBoolean(false);
 
         NodeChannels(DiscoveryNode node, List<TcpChannel> channels, ConnectionProfile connectionProfile, Version handshakeVersion) {
             this.node = node;
+            this.compressionEnabled = compress || Boolean.TRUE.equals(connectionProfile.getCompressionEnabled());
+            this.channelsCompressionScheme = connectionProfile.getCompressionScheme() == null
+                ? compressionScheme
+                : connectionProfile.getCompressionScheme();
             this.channels = Collections.unmodifiableList(channels);
             assert channels.size() == connectionProfile.getNumConnections() : "expected channels size to be == "
                 + connectionProfile.getNumConnections() + " but was: [" + channels.size() + "]";
@@ -368,7 +379,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                 throw new NodeNotConnectedException(node, "connection already closed");
             }
             TcpChannel channel = channel(options.type());
-            sendRequestToChannel(this.node, channel, requestId, action, request, options, getVersion(), (byte) 0);
+            sendRequestToChannel(this.node, channel, requestId, action, request, options, getVersion(),
+                compressionEnabled, channelsCompressionScheme, (byte) 0);
         }
 
         @Override
@@ -819,35 +831,35 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     protected void stopInternal() {
     }
 
-    public boolean canCompress(TransportRequest request) {
-        return compress && (!(request instanceof BytesTransportRequest));
-    }
-
     private void sendRequestToChannel(final DiscoveryNode node, final TcpChannel channel, final long requestId, final String action,
                                       final TransportRequest request, TransportRequestOptions options, Version channelVersion,
+                                      boolean compressionEnabled, CompressionScheme requestedCompressionScheme,
                                       byte status) throws IOException, TransportException {
-        if (compress) {
+        if (compressionEnabled) {
             options = TransportRequestOptions.builder(options).withCompress(true).build();
         }
 
         // only compress if asked and the request is not bytes. Otherwise only
         // the header part is compressed, and the "body" can't be extracted as compressed
-        final boolean compressMessage = options.compress() && canCompress(request);
+        final boolean compressMessage = options.compress()
+                                        && compressionEnabled
+                                        && (request instanceof BytesTransportRequest) == false;
+
+        // we pick the smallest of the 2, to support both backward and forward compatibility
+        // note, this is the only place we need to do this, since from here on, we use the serialized version
+        // as the version to use also when the node receiving this request will send the response with
+        Version version = Version.min(getCurrentVersion(), channelVersion);
 
         status = TransportStatus.setRequest(status);
         ReleasableBytesStreamOutput bStream = new ReleasableBytesStreamOutput(bigArrays);
-        final CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bStream, compressMessage);
+        final CompressibleBytesOutputStream stream = newCompressibleStream(
+            bStream, compressMessage, requestedCompressionScheme, version);
         boolean addedReleaseListener = false;
         try {
             if (compressMessage) {
                 status = TransportStatus.setCompress(status);
             }
 
-            // we pick the smallest of the 2, to support both backward and forward compatibility
-            // note, this is the only place we need to do this, since from here on, we use the serialized version
-            // as the version to use also when the node receiving this request will send the response with
-            Version version = Version.min(getCurrentVersion(), channelVersion);
-
             stream.setVersion(version);
             threadPool.getThreadContext().writeTo(stream);
             stream.writeStringArray(features);
@@ -918,6 +930,9 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     /**
      * Sends the response to the given channel. This method should be used to send {@link TransportResponse} objects back to the caller.
      *
+     * @param requestCompressionScheme the scheme the request was compressed with or null if it wasn't compressed.
+     *                                 The response to a compressed request is compressed using the same scheme, so
+     *                                 that the compression settings of the connection profile of the caller apply.
      * @see #sendErrorResponse(Version, Set, TcpChannel, Exception, long, String) for sending back errors to the caller
      */
     public void sendResponse(
@@ -927,8 +942,9 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             final TransportResponse response,
             final long requestId,
             final String action,
-            final TransportResponseOptions options) throws IOException {
-        sendResponse(nodeVersion, features, channel, response, requestId, action, options, (byte) 0);
+            final TransportResponseOptions options,
+            @Nullable final CompressionScheme requestCompressionScheme) throws IOException {
+        sendResponse(nodeVersion, features, channel, response, requestId, action, options, requestCompressionScheme, (byte) 0);
     }
 
     private void sendResponse(
@@ -939,13 +955,18 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             final long requestId,
             final String action,
             TransportResponseOptions options,
+            @Nullable CompressionScheme requestCompressionScheme,
             byte status) throws IOException {
-        if (compress) {
+        if (compress || requestCompressionScheme != null) {
             options = TransportResponseOptions.builder(options).withCompress(true).build();
         }
         status = TransportStatus.setResponse(status); // TODO share some code with sendRequest
         ReleasableBytesStreamOutput bStream = new ReleasableBytesStreamOutput(bigArrays);
-        CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bStream, options.compress());
+        CompressibleBytesOutputStream stream = newCompressibleStream(
+            bStream,
+            options.compress(),
+            requestCompressionScheme == null ? compressionScheme : requestCompressionScheme,
+            nodeVersion);
         boolean addedReleaseListener = false;
         try {
             if (options.compress()) {
@@ -969,6 +990,26 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         }
     }
 
+    /**
+     * Creates the stream to serialize a message into. If the message is compressed, the requested compression
+     * scheme is used if the receiving node with the given version supports it, otherwise {@link CompressionScheme#DEFLATE}.
+     */
+    private CompressibleBytesOutputStream newCompressibleStream(ReleasableBytesStreamOutput bStream,
+                                                                boolean compressMessage,
+                                                                CompressionScheme requestedCompressionScheme,
+                                                                Version version) throws IOException {
+        if (compressMessage == false) {
+            return new CompressibleBytesOutputStream(bStream, null);
+        }
+        CompressionScheme scheme = requestedCompressionScheme.forVersion(version);
+        if (scheme == CompressionScheme.LZ4) {
+            lz4CompressedMessages.inc();
+        } else {
+            deflateCompressedMessages.inc();
+        }
+        return new CompressibleBytesOutputStream(bStream, scheme.compressor());
+    }
+
     /**
      * Writes the Tcp message header into a bytes reference.
      *
@@ -1123,6 +1164,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             long requestId = streamIn.readLong();
             byte status = streamIn.readByte();
             Version version = Version.fromId(streamIn.readInt());
+            CompressionScheme requestCompressionScheme = null;
             if (TransportStatus.isCompress(status) && hasMessageBytesToRead && streamIn.available() > 0) {
                 Compressor compressor;
                 try {
@@ -1139,6 +1181,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                     sb.append("]");
                     throw new IllegalStateException(sb.toString());
                 }
+                requestCompressionScheme = CompressionScheme.of(compressor);
                 streamIn = compressor.streamInput(streamIn);
             }
             final boolean isHandshake = TransportStatus.isHandshake(status);
@@ -1148,7 +1191,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             threadPool.getThreadContext().readHeaders(streamIn);
             threadPool.getThreadContext().putTransient("_remote_address", remoteAddress);
             if (TransportStatus.isRequest(status)) {
-                handleRequest(channel, profileName, streamIn, requestId, messageLengthBytes, version, remoteAddress, status);
+                handleRequest(channel, profileName, streamIn, requestId, messageLengthBytes, version, remoteAddress, status,
+                    requestCompressionScheme);
             } else {
                 final TransportResponseHandler<?> handler;
                 if (isHandshake) {
@@ -1251,8 +1295,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     }
 
     protected String handleRequest(TcpChannel channel, String profileName, final StreamInput stream, long requestId,
-                                   int messageLengthBytes, Version version, InetSocketAddress remoteAddress, byte status)
-        throws IOException {
+                                   int messageLengthBytes, Version version, InetSocketAddress remoteAddress, byte status,
+                                   @Nullable CompressionScheme requestCompressionScheme) throws IOException {
         final Set<String> features = Collections.unmodifiableSet(new TreeSet<>(Arrays.asList(stream.readStringArray())));
         final String action = stream.readString();
         messageListener.onRequestReceived(requestId, action);
@@ -1261,7 +1305,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             if (TransportStatus.isHandshake(status)) {
                 final VersionHandshakeResponse response = new VersionHandshakeResponse(getCurrentVersion());
                 sendResponse(version, features, channel, response, requestId, HANDSHAKE_ACTION_NAME, TransportResponseOptions.EMPTY,
-                    TransportStatus.setHandshake((byte) 0));
+                    null, TransportStatus.setHandshake((byte) 0));
             } else {
                 final RequestHandlerRegistry reg = getRequestHandler(action);
                 if (reg == null) {
@@ -1273,7 +1317,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                     getInFlightRequestBreaker().addWithoutBreaking(messageLengthBytes);
                 }
                 transportChannel = new TcpTransportChannel(this, channel, transportName, action, requestId, version, features, profileName,
-                    messageLengthBytes);
+                    messageLengthBytes, requestCompressionScheme);
                 final TransportRequest request = reg.newRequest(stream);
                 // in case we throw an exception, i.e. when the limit is hit, we don't want to verify
                 validateRequest(stream, requestId, action);
@@ -1282,8 +1326,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         } catch (Exception e) {
             // the circuit breaker tripped
             if (transportChannel == null) {
-                transportChannel =
-                        new TcpTransportChannel(this, channel, transportName, action, requestId, version, features, profileName, 0);
+                transportChannel = new TcpTransportChannel(
+                    this, channel, transportName, action, requestId, version, features, profileName, 0, requestCompressionScheme);
             }
             try {
                 transportChannel.sendResponse(e);
@@ -1382,7 +1426,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             // to as the payload.
             final Version minCompatVersion = getCurrentVersion().minimumCompatibilityVersion();
             sendRequestToChannel(node, channel, requestId, HANDSHAKE_ACTION_NAME, TransportRequest.Empty.INSTANCE,
-                TransportRequestOptions.EMPTY, minCompatVersion, TransportStatus.setHandshake((byte) 0));
+                TransportRequestOptions.EMPTY, minCompatVersion, compress, compressionScheme, TransportStatus.setHandshake((byte) 0));
             if (handler.latch.await(timeout.millis(), TimeUnit.MILLISECONDS) == false) {
                 throw new ConnectTransportException(node, "handshake_timeout[" + timeout + "]");
             }
@@ -1498,7 +1542,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     @Override
     public final TransportStats getStats() {
         return new TransportStats(acceptedChannels.size(), readBytesMetric.count(), readBytesMetric.sum(), transmittedBytesMetric.count(),
-            transmittedBytesMetric.sum());
+            transmittedBytesMetric.sum(), deflateCompressedMessages.count(), lz4CompressedMessages.count());
     }
 
     /**
@@ -20,6 +20,7 @@
 package org.elasticsearch.transport;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 
 import java.io.IOException;
 import java.util.Set;
@@ -36,9 +37,12 @@ public final class TcpTransportChannel implements TransportChannel {
     private final AtomicBoolean released = new AtomicBoolean();
     private final String channelType;
     private final TcpChannel channel;
+    @Nullable
+    private final CompressionScheme compressionScheme;
 
     TcpTransportChannel(TcpTransport transport, TcpChannel channel, String channelType, String action, long requestId, Version version,
-                        Set<String> features, String profileName, long reservedBytes) {
+                        Set<String> features, String profileName, long reservedBytes,
+                        @Nullable CompressionScheme compressionScheme) {
         this.version = version;
         this.features = features;
         this.channel = channel;
@@ -48,6 +52,7 @@ public final class TcpTransportChannel implements TransportChannel {
         this.profileName = profileName;
         this.reservedBytes = reservedBytes;
         this.channelType = channelType;
+        this.compressionScheme = compressionScheme;
     }
 
     @Override
@@ -63,7 +68,7 @@ public final class TcpTransportChannel implements TransportChannel {
     @Override
     public void sendResponse(TransportResponse response, TransportResponseOptions options) throws IOException {
         try {
-            transport.sendResponse(version, features, channel, response, requestId, action, options);
+            transport.sendResponse(version, features, channel, response, requestId, action, options, compressionScheme);
         } finally {
             release(false);
         }
@@ -28,13 +28,27 @@ public class TransportStats {
     private final long rxSize;
     private final long txCount;
     private final long txSize;
+    private final long txDeflateCount;
+    private final long txLz4Count;
 
     public TransportStats(long serverOpen, long rxCount, long rxSize, long txCount, long txSize) {
+        this(serverOpen, rxCount, rxSize, txCount, txSize, 0L, 0L);
+    }
+
+    public TransportStats(long serverOpen,
+                          long rxCount,
+                          long rxSize,
+                          long txCount,
+                          long txSize,
+                          long txDeflateCount,
+                          long txLz4Count) {
         this.serverOpen = serverOpen;
         this.rxCount = rxCount;
         this.rxSize = rxSize;
         this.txCount = txCount;
         this.txSize = txSize;
+        this.txDeflateCount = txDeflateCount;
+        this.txLz4Count = txLz4Count;
     }
 
     public long serverOpen() {
@@ -76,4 +90,18 @@ public class TransportStats {
     public ByteSizeValue getTxSize() {
         return txSize();
     }
+
+    /**
+     * @return the number of sent messages which were compressed using {@link CompressionScheme#DEFLATE}
+     */
+    public long txDeflateCount() {
+        return txDeflateCount;
+    }
+
+    /**
+     * @return the number of sent messages which were compressed using {@link CompressionScheme#LZ4}
+     */
+    public long txLz4Count() {
+        return txLz4Count;
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.decider;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ESAllocationTestCase;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.cluster.routing.TestShardRouting;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexModule;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.SnapshotIndexStore;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+public class MountedIndexAllocationDeciderTests extends ESAllocationTestCase {
+
+    private final MountedIndexAllocationDecider decider = new MountedIndexAllocationDecider();
+
+    private static ClusterState clusterState(boolean mounted, ShardRoutingState state) {
+        Settings.Builder settings = settings(Version.CURRENT);
+        if (mounted) {
+            settings.put(IndexModule.INDEX_STORE_TYPE_SETTING.getKey(), SnapshotIndexStore.TYPE);
+        }
+        MetaData metaData = MetaData.builder()
+            .put(IndexMetaData.builder("test").settings(settings).numberOfShards(2).numberOfReplicas(0))
+            .build();
+        Index index = metaData.index("test").getIndex();
+        String nodeId = state == ShardRoutingState.UNASSIGNED ? null : "node_0";
+        IndexRoutingTable.Builder indexRoutingTable = IndexRoutingTable.builder(index);
+        for (int shardId = 0; shardId < 2; shardId++) {
+            indexRoutingTable.addShard(TestShardRouting.newShardRouting(new ShardId(index, shardId), nodeId, true, state));
+        }
+        return ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+            .metaData(metaData)
+            .routingTable(RoutingTable.builder().add(indexRoutingTable).build())
+            .nodes(DiscoveryNodes.builder().add(newNode("node_0")).add(newNode("node_1")))
+            .build();
+    }
+
+    private RoutingAllocation allocation(ClusterState clusterState) {
+        RoutingAllocation allocation = new RoutingAllocation(
+            new AllocationDeciders(Collections.singleton(decider)),
+            clusterState.getRoutingNodes(),
+            clusterState,
+            ClusterInfo.EMPTY,
+            System.nanoTime());
+        allocation.debugDecision(true);
+        return allocation;
+    }
+
+    private static ShardRouting shard(ClusterState clusterState) {
+        return clusterState.routingTable().index("test").shard(0).primaryShard();
+    }
+
+    @Test
+    public void testShardOfMountedIndexCannotMove() {
+        ClusterState clusterState = clusterState(true, ShardRoutingState.STARTED);
+        RoutingAllocation allocation = allocation(clusterState);
+
+        Decision decision = decider.canAllocate(shard(clusterState), allocation.routingNodes().node("node_1"), allocation);
+        assertThat(decision.type(), is(Decision.Type.NO));
+        assertThat(decision.getExplanation(), containsString("shards of an index mounted from a snapshot cannot be moved"));
+
+        decision = decider.canRebalance(shard(clusterState), allocation);
+        assertThat(decision.type(), is(Decision.Type.NO));
+    }
+
+    @Test
+    public void testUnassignedShardOfMountedIndexCanBeAllocated() {
+        ClusterState clusterState = clusterState(true, ShardRoutingState.UNASSIGNED);
+        RoutingAllocation allocation = allocation(clusterState);
+
+        Decision decision = decider.canAllocate(shard(clusterState), allocation.routingNodes().node("node_1"), allocation);
+        assertThat(decision.type(), is(Decision.Type.YES));
+    }
+
+    @Test
+    public void testShardOfRegularIndexCanMove() {
+        ClusterState clusterState = clusterState(false, ShardRoutingState.STARTED);
+        RoutingAllocation allocation = allocation(clusterState);
+
+        Decision decision = decider.canAllocate(shard(clusterState), allocation.routingNodes().node("node_1"), allocation);
+        assertThat(decision.type(), is(Decision.Type.YES));
+        assertThat(decider.canRebalance(shard(clusterState), allocation).type(), is(Decision.Type.YES));
+    }
+
+    @Test
+    public void testBalancerDoesNotRelocateShardsOfMountedIndex() {
+        ClusterState clusterState = createAllocationService().reroute(clusterState(true, ShardRoutingState.STARTED), "reroute");
+        assertThat(clusterState.getRoutingNodes().shardsWithState(ShardRoutingState.RELOCATING).size(), is(0));
+        assertThat(clusterState.getRoutingNodes().node("node_0").size(), is(2));
+
+        // the same layout of a regular index is balanced
+        clusterState = createAllocationService().reroute(clusterState(false, ShardRoutingState.STARTED), "reroute");
+        assertThat(clusterState.getRoutingNodes().shardsWithState(ShardRoutingState.RELOCATING).size(), is(1));
+    }
+}
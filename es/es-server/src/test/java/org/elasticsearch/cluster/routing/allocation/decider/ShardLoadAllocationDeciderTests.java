@@ -0,0 +1,133 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.decider;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterInfo;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ESAllocationTestCase;
+import org.elasticsearch.cluster.ShardLoad;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.cluster.routing.TestShardRouting;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+public class ShardLoadAllocationDeciderTests extends ESAllocationTestCase {
+
+    private ShardRouting shard0;
+    private ShardRouting shard1;
+    private ShardRouting shard2;
+    private ClusterState clusterState;
+    private ClusterInfo clusterInfo;
+
+    @Before
+    public void setUpClusterState() {
+        MetaData metaData = MetaData.builder()
+            .put(IndexMetaData.builder("test").settings(settings(Version.CURRENT)).numberOfShards(3).numberOfReplicas(0))
+            .build();
+        Index index = metaData.index("test").getIndex();
+        shard0 = TestShardRouting.newShardRouting(new ShardId(index, 0), "node_0", true, ShardRoutingState.STARTED);
+        shard1 = TestShardRouting.newShardRouting(new ShardId(index, 1), "node_0", true, ShardRoutingState.STARTED);
+        shard2 = TestShardRouting.newShardRouting(new ShardId(index, 2), "node_1", true, ShardRoutingState.STARTED);
+        RoutingTable routingTable = RoutingTable.builder()
+            .add(IndexRoutingTable.builder(index).addShard(shard0).addShard(shard1).addShard(shard2))
+            .build();
+        clusterState = ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+            .metaData(metaData)
+            .routingTable(routingTable)
+            .nodes(DiscoveryNodes.builder().add(newNode("node_0")).add(newNode("node_1")).add(newNode("node_2")))
+            .build();
+
+        // 160 indexing ops/s on 3 nodes, an average of 53.3 per node
+        ImmutableOpenMap.Builder<String, ShardLoad> shardLoads = ImmutableOpenMap.builder();
+        shardLoads.put("[test][0][p]", new ShardLoad(100.0, 1.0));
+        shardLoads.put("[test][1][p]", new ShardLoad(50.0, 0.0));
+        shardLoads.put("[test][2][p]", new ShardLoad(10.0, 0.0));
+        clusterInfo = new ClusterInfo(
+            ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), ImmutableOpenMap.of(), shardLoads.build());
+    }
+
+    private Decision canAllocate(float maxRatio, ShardRouting shard, String nodeId) {
+        Settings settings = Settings.builder()
+            .put(ShardLoadAllocationDecider.CLUSTER_ROUTING_ALLOCATION_LOAD_MAX_RATIO_SETTING.getKey(), maxRatio)
+            .build();
+        ClusterSettings clusterSettings = new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        ShardLoadAllocationDecider decider = new ShardLoadAllocationDecider(settings, clusterSettings);
+        RoutingAllocation allocation = new RoutingAllocation(
+            new AllocationDeciders(Collections.singleton(decider)),
+            clusterState.getRoutingNodes(),
+            clusterState,
+            clusterInfo,
+            System.nanoTime());
+        allocation.debugDecision(true);
+        return decider.canAllocate(shard, allocation.routingNodes().node(nodeId), allocation);
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        Decision decision = canAllocate(0.0f, shard2, "node_0");
+        assertThat(decision.type(), is(Decision.Type.YES));
+        assertThat(decision.getExplanation(), containsString("shard load limit is disabled"));
+    }
+
+    @Test
+    public void testCannotAllocateIfIndexingRateExceedsLimit() {
+        Decision decision = canAllocate(1.5f, shard2, "node_0");
+        assertThat(decision.type(), is(Decision.Type.NO));
+        assertThat(decision.getExplanation(), containsString(
+            "the indexing rate of the node [160.00/s] would exceed the limit [80.00/s]"));
+
+        decision = canAllocate(1.5f, shard0, "node_1");
+        assertThat(decision.type(), is(Decision.Type.NO));
+    }
+
+    @Test
+    public void testCanAllocateIfRatesAreBelowLimit() {
+        Decision decision = canAllocate(1.5f, shard1, "node_1");
+        assertThat(decision.type(), is(Decision.Type.YES));
+    }
+
+    @Test
+    public void testNodeWithoutLoadCanTakeAnyShard() {
+        Decision decision = canAllocate(1.1f, shard0, "node_2");
+        assertThat(decision.type(), is(Decision.Type.YES));
+    }
+}
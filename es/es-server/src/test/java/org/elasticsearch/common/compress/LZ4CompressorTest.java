@@ -0,0 +1,88 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class LZ4CompressorTest extends ESTestCase {
+
+    private static BytesReference compress(byte[] bytes) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        try (StreamOutput compressedOut = CompressorFactory.LZ4.streamOutput(out)) {
+            compressedOut.writeBytes(bytes);
+        }
+        return out.bytes();
+    }
+
+    private static byte[] uncompress(BytesReference compressed, int length) throws IOException {
+        Compressor compressor = CompressorFactory.compressor(compressed);
+        assertThat(compressor, is(CompressorFactory.LZ4));
+        byte[] result = new byte[length];
+        try (StreamInput in = compressor.streamInput(compressed.streamInput())) {
+            in.readBytes(result, 0, length);
+            assertThat(in.read(), is(-1));
+        }
+        return result;
+    }
+
+    public void test_round_trip_of_random_bytes_spanning_multiple_blocks() throws Exception {
+        byte[] bytes = randomByteArrayOfLength(LZ4Compressor.BLOCK_SIZE * 3 + randomIntBetween(0, 1000));
+        BytesReference compressed = compress(bytes);
+        assertArrayEquals(bytes, uncompress(compressed, bytes.length));
+    }
+
+    public void test_repetitive_data_is_compressed() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            sb.append("row ").append(i % 10).append(", ");
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        BytesReference compressed = compress(bytes);
+        assertThat(compressed.length(), lessThan(bytes.length / 10));
+        assertArrayEquals(bytes, uncompress(compressed, bytes.length));
+    }
+
+    public void test_empty_stream_round_trip() throws Exception {
+        BytesReference compressed = compress(new byte[0]);
+        assertArrayEquals(new byte[0], uncompress(compressed, 0));
+    }
+
+    public void test_deflate_compressed_bytes_are_not_detected_as_lz4() throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        try (StreamOutput compressedOut = CompressorFactory.COMPRESSOR.streamOutput(out)) {
+            compressedOut.writeString("foo");
+        }
+        assertThat(CompressorFactory.LZ4.isCompressed(out.bytes()), is(false));
+        assertThat(CompressorFactory.compressor(out.bytes()), is(CompressorFactory.COMPRESSOR));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CompactVersionMapTests extends ESTestCase {
+
+    private static IndexVersionValue randomVersionValue() {
+        Translog.Location location = randomBoolean()
+            ? null
+            : new Translog.Location(randomNonNegativeLong(), randomNonNegativeLong(), randomIntBetween(1, 1024));
+        return new IndexVersionValue(location, randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong());
+    }
+
+    private static BytesRef uid(int id) {
+        // pad some of the ids so that the keys have different lengths
+        return new BytesRef(id % 3 == 0 ? "id-" + id + "-padded" : "id-" + id);
+    }
+
+    @Test
+    public void testBehavesLikeAMap() {
+        CompactVersionMap map = new CompactVersionMap(randomIntBetween(0, 100));
+        Map<BytesRef, VersionValue> expected = new HashMap<>();
+        int numIds = randomIntBetween(1, 2000);
+        int numOps = randomIntBetween(1, 20_000);
+        for (int i = 0; i < numOps; i++) {
+            BytesRef uid = uid(randomInt(numIds));
+            if (randomInt(9) < 3) {
+                assertThat(map.remove(uid), is(expected.remove(uid) != null));
+            } else {
+                IndexVersionValue value = randomVersionValue();
+                assertThat(map.put(uid, value), is(expected.put(uid, value) == null));
+            }
+            BytesRef lookup = uid(randomInt(numIds));
+            assertEquals(expected.get(lookup), map.get(lookup));
+        }
+        assertThat(map.size(), is(expected.size()));
+        assertThat(map.isEmpty(), is(expected.isEmpty()));
+        assertEquals(expected, map.toMap());
+
+        for (BytesRef uid : expected.keySet()) {
+            assertThat(map.remove(uid), is(true));
+        }
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.get(uid(0)), nullValue());
+    }
+
+    @Test
+    public void testArraysAreAccountedAndReleasedOnClose() {
+        CircuitBreakerService breakerService = new HierarchyCircuitBreakerService(
+            Settings.EMPTY, new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.REQUEST);
+        MockBigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), breakerService);
+        CompactVersionMap map = new CompactVersionMap(bigArrays, randomIntBetween(0, 100));
+        Map<BytesRef, VersionValue> expected = new HashMap<>();
+        int numIds = randomIntBetween(1, 5000);
+        for (int i = 0; i < numIds; i++) {
+            IndexVersionValue value = randomVersionValue();
+            map.put(uid(i), value);
+            expected.put(uid(i), value);
+        }
+        for (int i = 0; i < numIds; i += 2) {
+            map.remove(uid(i));
+            expected.remove(uid(i));
+        }
+        assertEquals(expected, map.toMap());
+        assertThat(breaker.getUsed(), greaterThan(0L));
+
+        map.close();
+        assertThat(breaker.getUsed(), is(0L));
+        assertThat(map.isEmpty(), is(true));
+        assertThat(map.get(uid(1)), nullValue());
+        assertThat(map.put(uid(1), randomVersionValue()), is(false));
+        assertThat(map.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testSegmentsGrowFarBeyondTheirInitialCapacity() {
+        CircuitBreakerService breakerService = new HierarchyCircuitBreakerService(
+            Settings.EMPTY, new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        MockBigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), breakerService);
+        CompactVersionMap map = new CompactVersionMap(bigArrays, 0);
+        int numIds = 5000;
+        for (int i = 0; i < numIds; i++) {
+            assertThat(map.put(uid(i), new IndexVersionValue(null, i, i, 1)), is(true));
+        }
+        assertThat(map.size(), is(numIds));
+        for (int i = 0; i < numIds; i++) {
+            assertThat(map.get(uid(i)).version, is((long) i));
+        }
+        for (int i = 0; i < numIds; i += 2) {
+            assertThat(map.remove(uid(i)), is(true));
+        }
+        assertThat(map.size(), is(numIds / 2));
+        map.close();
+        assertThat(breakerService.getBreaker(CircuitBreaker.REQUEST).getUsed(), is(0L));
+    }
+
+    @Test
+    public void testConcurrentPutsOfDifferentIds() throws Exception {
+        CompactVersionMap map = new CompactVersionMap();
+        int numThreads = randomIntBetween(2, 8);
+        int idsPerThread = randomIntBetween(100, 5000);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final int offset = t * idsPerThread;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                for (int i = 0; i < idsPerThread; i++) {
+                    map.put(uid(offset + i), new IndexVersionValue(null, offset + i, offset + i, 1));
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(map.size(), is(numThreads * idsPerThread));
+        for (int id = 0; id < numThreads * idsPerThread; id++) {
+            assertThat(map.get(uid(id)).seqNo, is((long) id));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.Version;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.is;
+
+public class SnapshotDirectoryTests extends ESTestCase {
+
+    private byte[] content;
+    private FileInfo fileInfo;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUpSnapshotFile() {
+        content = randomByteArrayOfLength(SnapshotBlockCache.BLOCK_SIZE * 2 + SnapshotBlockCache.BLOCK_SIZE / 2);
+        fileInfo = new FileInfo("__1", new StoreFileMetaData("_0.cfs", content.length, "0", Version.LATEST), null);
+        loads = new AtomicInteger();
+    }
+
+    private SnapshotDirectory newDirectory(SnapshotBlockCache cache) throws IOException {
+        Directory local = FSDirectory.open(createTempDir());
+        return new SnapshotDirectory(
+            local,
+            cache,
+            "index_0",
+            () -> List.of(fileInfo),
+            (file, position, buffer, offset, length) -> {
+                loads.incrementAndGet();
+                System.arraycopy(content, (int) position, buffer, offset, length);
+            });
+    }
+
+    private static byte[] readFully(IndexInput input) throws IOException {
+        byte[] bytes = new byte[(int) input.length()];
+        int pos = 0;
+        while (pos < bytes.length) {
+            if (randomBoolean()) {
+                bytes[pos++] = input.readByte();
+            } else {
+                int len = randomIntBetween(1, Math.min(bytes.length - pos, 100_000));
+                input.readBytes(bytes, pos, len);
+                pos += len;
+            }
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testRepeatedReadsAreServedByTheCache() throws IOException {
+        SnapshotBlockCache cache = new SnapshotBlockCache(createTempDir(), SnapshotBlockCache.BLOCK_SIZE * 10);
+        try (SnapshotDirectory directory = newDirectory(cache)) {
+            assertThat(directory.fileLength("_0.cfs"), is((long) content.length));
+            try (IndexInput input = directory.openInput("_0.cfs", IOContext.DEFAULT)) {
+                assertArrayEquals(content, readFully(input));
+            }
+            assertThat(loads.get(), is(3));
+            assertThat(cache.sizeInBytes(), is((long) content.length));
+
+            try (IndexInput input = directory.openInput("_0.cfs", IOContext.DEFAULT)) {
+                assertArrayEquals(content, readFully(input));
+            }
+            assertThat(loads.get(), is(3));
+            assertThat(cache.misses(), is(3L));
+        }
+    }
+
+    @Test
+    public void testSliceAcrossBlockBoundary() throws IOException {
+        SnapshotBlockCache cache = new SnapshotBlockCache(createTempDir(), SnapshotBlockCache.BLOCK_SIZE * 10);
+        try (SnapshotDirectory directory = newDirectory(cache);
+             IndexInput input = directory.openInput("_0.cfs", IOContext.DEFAULT)) {
+            int offset = SnapshotBlockCache.BLOCK_SIZE - 10;
+            IndexInput slice = input.slice("slice", offset, 20);
+            IndexInput clone = slice.clone();
+            clone.seek(5);
+            assertThat(clone.readByte(), is(content[offset + 5]));
+            byte[] bytes = new byte[20];
+            slice.readBytes(bytes, 0, 20);
+            for (int i = 0; i < bytes.length; i++) {
+                assertThat(bytes[i], is(content[offset + i]));
+            }
+            expectThrows(IOException.class, slice::readByte);
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyReadBlocksAreEvicted() throws IOException {
+        SnapshotBlockCache cache = new SnapshotBlockCache(createTempDir(), SnapshotBlockCache.BLOCK_SIZE * 2);
+        try (SnapshotDirectory directory = newDirectory(cache);
+             IndexInput input = directory.openInput("_0.cfs", IOContext.DEFAULT)) {
+            assertArrayEquals(content, readFully(input));
+            assertThat(cache.sizeInBytes(), is((long) SnapshotBlockCache.BLOCK_SIZE + SnapshotBlockCache.BLOCK_SIZE / 2));
+
+            // the first block was evicted
+            input.seek(0);
+            input.readByte();
+            assertThat(loads.get(), is(4));
+            // the last block is still cached
+            input.seek(content.length - 1);
+            assertThat(input.readByte(), is(content[content.length - 1]));
+            assertThat(loads.get(), is(4));
+        }
+    }
+
+    @Test
+    public void testLocalFilesOverlaySnapshotFiles() throws IOException {
+        SnapshotBlockCache cache = new SnapshotBlockCache(createTempDir(), 0);
+        try (SnapshotDirectory directory = newDirectory(cache)) {
+            try (IndexOutput output = directory.createOutput("segments_2", IOContext.DEFAULT)) {
+                output.writeInt(42);
+            }
+            assertThat(directory.listAll(), arrayContaining("_0.cfs", "segments_2"));
+
+            directory.deleteFile("_0.cfs");
+            assertThat(directory.listAll(), arrayContaining("segments_2"));
+            assertThat(directory.getDelegate().listAll(), arrayContaining("segments_2"));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TranslogGroupCommitterTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+    private AtomicInteger syncs;
+    private List<Translog.Location> syncedLocations;
+
+    @Before
+    public void setUpThreadPool() {
+        threadPool = new TestThreadPool(getTestName());
+        syncs = new AtomicInteger();
+        syncedLocations = new CopyOnWriteArrayList<>();
+    }
+
+    @After
+    public void tearDownThreadPool() {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    }
+
+    private TranslogGroupCommitter newCommitter(TimeValue window, long maxBytes) {
+        return new TranslogGroupCommitter(logger, threadPool, () -> window, () -> maxBytes, locations -> {
+            syncs.incrementAndGet();
+            syncedLocations.addAll(locations.collect(Collectors.toList()));
+        });
+    }
+
+    @Test
+    public void testWritersOfOneWindowShareOneSync() throws Exception {
+        TranslogGroupCommitter committer = newCommitter(TimeValue.timeValueMillis(200), Long.MAX_VALUE);
+        List<Exception> results = new CopyOnWriteArrayList<>();
+        int numWriters = randomIntBetween(2, 50);
+        for (int i = 0; i < numWriters; i++) {
+            committer.put(new Translog.Location(1, i * 10, 10), results::add);
+        }
+        assertThat(committer.pendingCount(), is(numWriters));
+        assertBusy(() -> assertThat(results, hasSize(numWriters)));
+        for (Exception result : results) {
+            assertThat(result, nullValue());
+        }
+        assertThat(syncs.get(), is(1));
+        assertThat(syncedLocations, hasSize(numWriters));
+        assertThat(committer.pendingCount(), is(0));
+    }
+
+    @Test
+    public void testSubMillisecondWindowIsNotTruncated() throws Exception {
+        TimeValue window = TimeValue.timeValueNanos(TimeUnit.MICROSECONDS.toNanos(500));
+        AtomicLong syncedAt = new AtomicLong();
+        TranslogGroupCommitter committer = new TranslogGroupCommitter(
+            logger, threadPool, () -> window, () -> Long.MAX_VALUE, locations -> syncedAt.set(System.nanoTime()));
+        List<Exception> results = new CopyOnWriteArrayList<>();
+        long startedAt = System.nanoTime();
+        committer.put(new Translog.Location(1, 0, 10), results::add);
+        assertBusy(() -> assertThat(results, hasSize(1)));
+        assertThat(syncedAt.get() - startedAt, greaterThanOrEqualTo(window.nanos()));
+    }
+
+    @Test
+    public void testGroupIsSyncedOnceMaxBytesAreReached() throws Exception {
+        TranslogGroupCommitter committer = newCommitter(TimeValue.timeValueHours(1), 30);
+        List<Exception> results = new CopyOnWriteArrayList<>();
+        committer.put(new Translog.Location(1, 0, 10), results::add);
+        committer.put(new Translog.Location(1, 10, 10), results::add);
+        assertThat(results, hasSize(0));
+
+        // the writer which completes the group syncs it on its own thread
+        committer.put(new Translog.Location(1, 20, 10), results::add);
+        assertThat(results, hasSize(3));
+        assertThat(syncs.get(), is(1));
+
+        committer.put(new Translog.Location(1, 30, 10), results::add);
+        assertThat(committer.pendingCount(), is(1));
+        assertThat(syncs.get(), is(1));
+    }
+
+    @Test
+    public void testSyncFailureIsPassedToAllWritersOfTheGroup() throws Exception {
+        IOException failure = new IOException("disk on fire");
+        TranslogGroupCommitter committer = new TranslogGroupCommitter(
+            logger, threadPool, () -> TimeValue.timeValueMillis(10), () -> Long.MAX_VALUE, locations -> {
+                throw failure;
+            });
+        List<Exception> results = new CopyOnWriteArrayList<>();
+        committer.put(new Translog.Location(1, 0, 10), results::add);
+        committer.put(new Translog.Location(1, 10, 10), results::add);
+        assertBusy(() -> assertThat(results, hasSize(2)));
+        for (Exception result : results) {
+            assertThat(result, sameInstance(failure));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.Scheduler.Cancellable;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class MergeCoordinatorTests extends ESTestCase {
+
+    private static final long BIG_MERGE = MergeCoordinator.MIN_THROTTLED_MERGE_BYTES * 2;
+
+    private static MergeCoordinator newCoordinator(Settings settings) {
+        ClusterSettings clusterSettings = new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        return new MergeCoordinator(settings, clusterSettings, null) {
+            @Override
+            protected Cancellable scheduleBudgetAdjustment(ThreadPool threadPool) {
+                // the tests adjust the budget themselves
+                return new Cancellable() {
+                    @Override
+                    public boolean cancel() {
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return true;
+                    }
+                };
+            }
+        };
+    }
+
+    @Test
+    public void testMergesAreNotLimitedByDefault() {
+        MergeCoordinator coordinator = newCoordinator(Settings.EMPTY);
+        ShardId shardId = new ShardId("t1", "_na_", 0);
+        List<Releasable> running = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            running.add(coordinator.acquire(shardId, 2, 100, () -> false));
+        }
+        assertThat(coordinator.merges(), hasSize(50));
+        for (Releasable releasable : running) {
+            releasable.close();
+        }
+        assertThat(coordinator.merges(), hasSize(0));
+        coordinator.close();
+    }
+
+    @Test
+    public void testQueuedMergesOfShardWithMostPendingSegmentsRunFirst() throws Exception {
+        MergeCoordinator coordinator = newCoordinator(Settings.builder()
+            .put(MergeCoordinator.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1)
+            .build());
+        ShardId busyShard = new ShardId("t1", "_na_", 0);
+        ShardId quietShard = new ShardId("t2", "_na_", 0);
+        Releasable running = coordinator.acquire(quietShard, 2, 100, () -> false);
+
+        List<String> started = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        threads.add(mergeThread(coordinator, started, "quiet", quietShard, 2, 10));
+        threads.add(mergeThread(coordinator, started, "busy-big", busyShard, 5, 2000));
+        threads.add(mergeThread(coordinator, started, "busy-small", busyShard, 5, 1000));
+        for (Thread thread : threads) {
+            thread.start();
+            // queue the merges one after the other so that the order doesn't depend on the order they are queued in
+            assertBusy(() -> assertThat(coordinator.merges(), hasSize(threads.size() + 1)));
+        }
+        assertThat(started, hasSize(0));
+
+        running.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(started, contains("busy-small", "busy-big", "quiet"));
+        assertThat(coordinator.merges(), hasSize(0));
+    }
+
+    private static Thread mergeThread(MergeCoordinator coordinator,
+                                      List<String> started,
+                                      String name,
+                                      ShardId shardId,
+                                      int numSegments,
+                                      long estimatedBytes) {
+        return new Thread(() -> {
+            try (Releasable ignored = coordinator.acquire(shardId, numSegments, estimatedBytes, () -> false)) {
+                started.add(name);
+            }
+        });
+    }
+
+    @Test
+    public void testAbortedMergeStopsWaiting() throws Exception {
+        MergeCoordinator coordinator = newCoordinator(Settings.builder()
+            .put(MergeCoordinator.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1)
+            .build());
+        ShardId shardId = new ShardId("t1", "_na_", 0);
+        try (Releasable ignored = coordinator.acquire(shardId, 2, 100, () -> false)) {
+            Releasable aborted = coordinator.acquire(shardId, 2, 100, () -> true);
+            aborted.close();
+            assertThat(coordinator.merges(), hasSize(1));
+        }
+        assertThat(coordinator.merges(), hasSize(0));
+    }
+
+    @Test
+    public void testIOBudgetIsSharedByBigMergesAndAdaptsToQueryLatency() {
+        MergeCoordinator coordinator = newCoordinator(Settings.builder()
+            .put(MergeCoordinator.MAX_CONCURRENT_MERGES_SETTING.getKey(), 4)
+            .put(MergeCoordinator.IO_BUDGET_SETTING.getKey(), "100mb")
+            .put(MergeCoordinator.QUERY_LATENCY_TARGET_SETTING.getKey(), "100ms")
+            .build());
+        AtomicInteger rateChanges = new AtomicInteger();
+        coordinator.addIORateListener(rateChanges::incrementAndGet);
+        ShardId shardId = new ShardId("t1", "_na_", 0);
+
+        Releasable first = coordinator.acquire(shardId, 10, BIG_MERGE, () -> false);
+        Releasable second = coordinator.acquire(shardId, 10, BIG_MERGE, () -> false);
+        Releasable small = coordinator.acquire(shardId, 2, 1024, () -> false);
+        assertThat(coordinator.mbPerSecPerMerge(), is(50.0));
+        assertThat(rateChanges.get(), greaterThan(0));
+
+        for (int i = 0; i < 20; i++) {
+            coordinator.onQueryExecuted(500);
+            coordinator.adjustBudget();
+        }
+        assertThat(coordinator.budgetMBPerSec(), is(100 * MergeCoordinator.MIN_BUDGET_FRACTION));
+        assertThat(coordinator.mbPerSecPerMerge(), is(5.0));
+
+        for (int i = 0; i < 50; i++) {
+            coordinator.onQueryExecuted(10);
+            coordinator.adjustBudget();
+        }
+        assertThat(coordinator.budgetMBPerSec(), is(100.0));
+
+        second.close();
+        assertThat(coordinator.mbPerSecPerMerge(), is(100.0));
+        coordinator.onQueryExecuted(1000);
+        coordinator.adjustBudget();
+        assertThat(coordinator.mbPerSecPerMerge(), lessThan(100.0));
+        first.close();
+        small.close();
+        coordinator.close();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.CheckedRunnable;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ConcurrentTransfersTests extends ESTestCase {
+
+    @Test
+    public void testConcurrencyIsBounded() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            AtomicInteger completed = new AtomicInteger();
+            List<CheckedRunnable<Exception>> transfers = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                transfers.add(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(1);
+                    running.decrementAndGet();
+                    completed.incrementAndGet();
+                });
+            }
+
+            ConcurrentTransfers.run(executor, 3, transfers);
+
+            assertThat(completed.get(), is(50));
+            assertThat(maxRunning.get(), lessThanOrEqualTo(3));
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testCallingThreadRunsAllTransfersIfExecutorIsBusy() throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        List<CheckedRunnable<Exception>> transfers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            transfers.add(completed::incrementAndGet);
+        }
+
+        // the helper tasks never run
+        ConcurrentTransfers.run(command -> { }, 4, transfers);
+
+        assertThat(completed.get(), is(10));
+    }
+
+    @Test
+    public void testRemainingTransfersAreSkippedAfterFailure() throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        List<CheckedRunnable<Exception>> transfers = new ArrayList<>();
+        transfers.add(() -> {
+            throw new IOException("failed");
+        });
+        for (int i = 0; i < 10; i++) {
+            transfers.add(completed::incrementAndGet);
+        }
+
+        IOException e = expectThrows(IOException.class, () -> ConcurrentTransfers.run(command -> { }, 4, transfers));
+
+        assertThat(e.getMessage(), is("failed"));
+        assertThat(completed.get(), is(0));
+    }
+}
@@ -19,8 +19,13 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.network.NetworkService;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.TransportAddress;
@@ -28,12 +33,17 @@ import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.hamcrest.Matcher;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
 
 public class TcpTransportTest extends ESTestCase {
 
@@ -144,34 +154,168 @@ public class TcpTransportTest extends ESTestCase {
     private void testDefaultSeedAddresses(final Settings settings, Matcher<Iterable<? extends String>> seedAddressesMatcher) {
         final TestThreadPool testThreadPool = new TestThreadPool("test");
         try {
-            final TcpTransport tcpTransport = new TcpTransport("test",
-                                                               settings,
-                                                               testThreadPool,
-                                                               BigArrays.NON_RECYCLING_INSTANCE,
-                                                               new NoneCircuitBreakerService(),
-                                                               writableRegistry(),
-                                                               new NetworkService(Collections.emptyList())) {
-
-                @Override
-                protected TcpChannel bind(String name, InetSocketAddress address) {
-                    throw new UnsupportedOperationException();
-                }
-
-                @Override
-                protected TcpChannel initiateChannel(DiscoveryNode node,
-                                                     ActionListener<Void> connectListener) {
-                    throw new UnsupportedOperationException();
-                }
-
-                @Override
-                protected void stopInternal() {
-                    throw new UnsupportedOperationException();
-                }
-            };
-
+            final TcpTransport tcpTransport = newTransport(settings, testThreadPool);
             assertThat(tcpTransport.getDefaultSeedAddresses(), seedAddressesMatcher);
         } finally {
             testThreadPool.shutdown();
         }
     }
+
+    public void testRequestToCurrentNodeIsCompressedUsingLz4() throws Exception {
+        Settings settings = Settings.builder().put(TransportSettings.TRANSPORT_COMPRESS.getKey(), true).build();
+        assertCompressedRequest(settings, null, Version.CURRENT, CompressorFactory.LZ4);
+    }
+
+    public void testRequestToOlderNodeFallsBackToDeflate() throws Exception {
+        Settings settings = Settings.builder().put(TransportSettings.TRANSPORT_COMPRESS.getKey(), true).build();
+        assertCompressedRequest(settings, null, Version.V_4_1_0, CompressorFactory.COMPRESSOR);
+    }
+
+    public void testRequestIsCompressedUsingSchemeOfConnectionProfile() throws Exception {
+        Settings settings = Settings.builder().put(TransportSettings.TRANSPORT_COMPRESS.getKey(), true).build();
+        assertCompressedRequest(settings, CompressionScheme.DEFLATE, Version.CURRENT, CompressorFactory.COMPRESSOR);
+    }
+
+    public void testRequestIsNotCompressedIfCompressionIsDisabled() throws Exception {
+        assertCompressedRequest(Settings.EMPTY, null, Version.CURRENT, null);
+    }
+
+    public void testResponseToOlderNodeFallsBackToDeflate() throws Exception {
+        Settings settings = Settings.builder().put(TransportSettings.TRANSPORT_COMPRESS.getKey(), true).build();
+        assertCompressedResponse(settings, null, Version.V_4_1_0, CompressorFactory.COMPRESSOR);
+    }
+
+    public void testResponseIsCompressedUsingSchemeOfRequest() throws Exception {
+        // the node itself doesn't compress, but the connection profile of the caller does
+        assertCompressedResponse(Settings.EMPTY, CompressionScheme.DEFLATE, Version.CURRENT, CompressorFactory.COMPRESSOR);
+        assertCompressedResponse(Settings.EMPTY, CompressionScheme.LZ4, Version.CURRENT, CompressorFactory.LZ4);
+    }
+
+    private void assertCompressedRequest(Settings settings,
+                                         CompressionScheme profileScheme,
+                                         Version nodeVersion,
+                                         Compressor expectedCompressor) throws Exception {
+        final TestThreadPool testThreadPool = new TestThreadPool("test");
+        try {
+            TcpTransport tcpTransport = newTransport(settings, testThreadPool);
+            CapturingChannel channel = new CapturingChannel();
+            ConnectionProfile.Builder profile = new ConnectionProfile.Builder()
+                .addConnections(1, TransportRequestOptions.Type.values());
+            if (profileScheme != null) {
+                profile.setCompressionScheme(profileScheme);
+            }
+            DiscoveryNode node = new DiscoveryNode("n1", buildNewFakeTransportAddress(), nodeVersion);
+            TcpTransport.NodeChannels connection = tcpTransport.new NodeChannels(
+                node, Collections.singletonList(channel), profile.build(), nodeVersion);
+
+            connection.sendRequest(1L, "internal:test", TransportRequest.Empty.INSTANCE, TransportRequestOptions.EMPTY);
+
+            assertThat(channel.messages.size(), is(1));
+            assertCompressor(channel.messages.get(0), expectedCompressor);
+            assertStats(tcpTransport.getStats(), expectedCompressor);
+        } finally {
+            testThreadPool.shutdown();
+        }
+    }
+
+    private void assertCompressedResponse(Settings settings,
+                                          CompressionScheme requestScheme,
+                                          Version nodeVersion,
+                                          Compressor expectedCompressor) throws Exception {
+        final TestThreadPool testThreadPool = new TestThreadPool("test");
+        try {
+            TcpTransport tcpTransport = newTransport(settings, testThreadPool);
+            CapturingChannel channel = new CapturingChannel();
+            TcpTransportChannel transportChannel = new TcpTransportChannel(
+                tcpTransport, channel, "test", "internal:test", 1L, nodeVersion, Collections.emptySet(), "default", 0,
+                requestScheme);
+
+            transportChannel.sendResponse(TransportResponse.Empty.INSTANCE);
+
+            assertThat(channel.messages.size(), is(1));
+            assertCompressor(channel.messages.get(0), expectedCompressor);
+            assertStats(tcpTransport.getStats(), expectedCompressor);
+        } finally {
+            testThreadPool.shutdown();
+        }
+    }
+
+    private static void assertCompressor(BytesReference message, Compressor expectedCompressor) {
+        BytesReference content = message.slice(TcpHeader.HEADER_SIZE, message.length() - TcpHeader.HEADER_SIZE);
+        byte status = message.get(TcpHeader.MARKER_BYTES_SIZE + TcpHeader.MESSAGE_LENGTH_SIZE + TcpHeader.REQUEST_ID_SIZE);
+        if (expectedCompressor == null) {
+            assertThat(TransportStatus.isCompress(status), is(false));
+            assertThat(CompressorFactory.LZ4.isCompressed(content), is(false));
+            assertThat(CompressorFactory.COMPRESSOR.isCompressed(content), is(false));
+        } else {
+            assertThat(TransportStatus.isCompress(status), is(true));
+            assertThat(CompressorFactory.compressor(content), is(expectedCompressor));
+        }
+    }
+
+    private static void assertStats(TransportStats stats, Compressor expectedCompressor) {
+        assertThat(stats.txLz4Count(), is(expectedCompressor == CompressorFactory.LZ4 ? 1L : 0L));
+        assertThat(stats.txDeflateCount(), is(expectedCompressor == CompressorFactory.COMPRESSOR ? 1L : 0L));
+    }
+
+    private TcpTransport newTransport(Settings settings, ThreadPool threadPool) {
+        return new TcpTransport("test",
+                                settings,
+                                threadPool,
+                                BigArrays.NON_RECYCLING_INSTANCE,
+                                new NoneCircuitBreakerService(),
+                                writableRegistry(),
+                                new NetworkService(Collections.emptyList())) {
+
+            @Override
+            protected TcpChannel bind(String name, InetSocketAddress address) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected TcpChannel initiateChannel(DiscoveryNode node,
+                                                 ActionListener<Void> connectListener) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected void stopInternal() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static class CapturingChannel implements TcpChannel {
+
+        private final List<BytesReference> messages = new ArrayList<>();
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void addCloseListener(ActionListener<Void> listener) {
+        }
+
+        @Override
+        public void setSoLinger(int value) {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        }
+
+        @Override
+        public void sendMessage(BytesReference reference, ActionListener<Void> listener) {
+            // copy the message, the bytes are released once the listener is notified
+            messages.add(new BytesArray(BytesReference.toBytes(reference)));
+            listener.onResponse(null);
+        }
+    }
 }
@@ -32,6 +32,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.store.BaseDirectoryWrapper;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.ExceptionsHelper;
@@ -89,6 +90,8 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -685,6 +688,57 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         store.close();
     }
 
+    @Test
+    public void testSendFilesConcurrentlyWithAdaptiveChunkSize() throws Exception {
+        final Map<String, byte[]> receivedFiles = new ConcurrentHashMap<>();
+        final TestRecoveryTargetHandler recoveryTarget = new TestRecoveryTargetHandler() {
+            @Override
+            public void writeFileChunk(StoreFileMetaData md, long position, BytesReference content, boolean lastChunk,
+                                       int totalTranslogOps, ActionListener<Void> listener) {
+                byte[] file = receivedFiles.computeIfAbsent(md.name(), name -> new byte[(int) md.length()]);
+                BytesRef bytes = content.toBytesRef();
+                System.arraycopy(bytes.bytes, bytes.offset, file, (int) position, bytes.length);
+                assertThat(lastChunk, is(position + bytes.length == md.length()));
+                maybeExecuteAsync(() -> listener.onResponse(null));
+            }
+        };
+        final int chunkSize = between(1, 32);
+        final RecoverySourceHandler handler = new RecoverySourceHandler(
+            null, recoveryTarget, getStartRecoveryRequest(), chunkSize, between(1, 4), between(1, 4), chunkSize * between(1, 4));
+        Store store = newStore(createTempDir(), false);
+        List<StoreFileMetaData> files = generateFiles(store, between(1, 10), () -> between(1, chunkSize * 20));
+        handler.sendFiles(store, files.toArray(new StoreFileMetaData[0]), () -> 0);
+
+        assertThat(receivedFiles.size(), is(files.size()));
+        for (StoreFileMetaData md : files) {
+            try (IndexInput input = store.directory().openInput(md.name(), IOContext.READONCE)) {
+                byte[] expected = new byte[(int) md.length()];
+                input.readBytes(expected, 0, expected.length);
+                assertArrayEquals(expected, receivedFiles.get(md.name()));
+            }
+        }
+        store.close();
+    }
+
+    @Test
+    public void testFileChunkSizeFollowsThroughput() {
+        FileChunkSizer chunkSizer = new FileChunkSizer(512, 4096);
+        assertThat(chunkSizer.nextChunkSize(), is(512));
+
+        chunkSizer.onChunkAcknowledged(512, 1);
+        assertThat(chunkSizer.nextChunkSize(), is(4096));
+
+        for (int i = 0; i < 100; i++) {
+            chunkSizer.onChunkAcknowledged(4096, FileChunkSizer.TARGET_CHUNK_NANOS * 100);
+        }
+        assertThat(chunkSizer.nextChunkSize(), is(512));
+
+        // a chunk which takes exactly the target time keeps its size
+        chunkSizer = new FileChunkSizer(512, 4096);
+        chunkSizer.onChunkAcknowledged(2048, FileChunkSizer.TARGET_CHUNK_NANOS);
+        assertThat(chunkSizer.nextChunkSize(), is(2048));
+    }
+
     @Test
     public void testCancellationsDoesNotLeakPrimaryPermits() throws Exception {
         final CancellableThreads cancellableThreads = new CancellableThreads();
@@ -25,6 +25,8 @@ import org.elasticsearch.common.blobstore.BlobMetaData;
 import org.elasticsearch.common.blobstore.BlobPath;
 import org.elasticsearch.common.blobstore.BlobStore;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
@@ -81,6 +83,20 @@ public abstract class ESBlobStoreContainerTestCase extends ESTestCase {
         }
     }
 
+    public void testReadRange() throws IOException {
+        try(BlobStore store = newBlobStore()) {
+            final BlobContainer container = store.blobContainer(new BlobPath());
+            final byte[] data = randomBytes(randomIntBetween(10, scaledRandomIntBetween(1024, 1 << 16)));
+            writeBlob(container, "foobar", new BytesArray(data), randomBoolean());
+            final int position = randomIntBetween(0, data.length - 1);
+            final int length = randomIntBetween(0, data.length - position);
+            try (InputStream stream = container.readBlob("foobar", position, length)) {
+                final byte[] range = BytesReference.toBytes(Streams.readFully(stream));
+                assertArrayEquals(Arrays.copyOfRange(data, position, position + length), range);
+            }
+        }
+    }
+
     public void testList() throws IOException {
         try(BlobStore store = newBlobStore()) {
             final BlobContainer container = store.blobContainer(new BlobPath());
@@ -37,6 +37,7 @@ statement
     | EXPLAIN (ANALYZE)? statement                                                   #explain
     | OPTIMIZE TABLE tableWithPartitions withProperties?                             #optimize
     | REFRESH TABLE tableWithPartitions                                              #refreshTable
+    | REFRESH MATERIALIZED VIEW name=qname                                           #refreshMaterializedView
     | UPDATE aliasedRelation
         SET assignment (',' assignment)*
         where?
@@ -479,6 +480,7 @@ createStmt
         AS body=parameterOrString                                                    #createFunction
     | CREATE USER name=ident withProperties?                                         #createUser
     | CREATE ( OR REPLACE )? VIEW name=qname AS query                                #createView
+    | CREATE MATERIALIZED VIEW name=qname withProperties? AS query                   #createMaterializedView
     ;
 
 functionArgument
@@ -66,6 +66,7 @@ import io.crate.sql.tree.CopyTo;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateFunction;
+import io.crate.sql.tree.CreateMaterializedView;
 import io.crate.sql.tree.CreateRepository;
 import io.crate.sql.tree.CreateSnapshot;
 import io.crate.sql.tree.CreateTable;
@@ -138,6 +139,7 @@ import io.crate.sql.tree.QualifiedNameReference;
 import io.crate.sql.tree.Query;
 import io.crate.sql.tree.QueryBody;
 import io.crate.sql.tree.QuerySpecification;
+import io.crate.sql.tree.RefreshMaterializedView;
 import io.crate.sql.tree.RefreshStatement;
 import io.crate.sql.tree.Relation;
 import io.crate.sql.tree.RerouteAllocateReplicaShard;
@@ -341,6 +343,20 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
         );
     }
 
+    @Override
+    public Node visitCreateMaterializedView(SqlBaseParser.CreateMaterializedViewContext ctx) {
+        return new CreateMaterializedView<>(
+            getQualifiedName(ctx.qname()),
+            (Query) visit(ctx.query()),
+            extractGenericProperties(ctx.withProperties())
+        );
+    }
+
+    @Override
+    public Node visitRefreshMaterializedView(SqlBaseParser.RefreshMaterializedViewContext ctx) {
+        return new RefreshMaterializedView(getQualifiedName(ctx.qname()));
+    }
+
     @Override
     public Node visitDropView(SqlBaseParser.DropViewContext ctx) {
         return new DropView(getQualifiedNames(ctx.qnames()), ctx.EXISTS() != null);
@@ -1571,6 +1571,13 @@ public class TestStatementBuilder {
         printStatement("CREATE OR REPLACE VIEW myView AS SELECT * FROM foobar");
     }
 
+    @Test
+    public void test_materialized_view_parsing() {
+        printStatement("CREATE MATERIALIZED VIEW mv AS SELECT x, count(*) FROM foobar GROUP BY x");
+        printStatement("CREATE MATERIALIZED VIEW doc.mv WITH (watermark_column = 'ts') AS SELECT * FROM foobar");
+        printStatement("REFRESH MATERIALIZED VIEW mv");
+    }
+
     @Test
     public void testDropViewParsing() {
         printStatement("DROP VIEW myView");
@@ -0,0 +1,101 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.auth.user.User;
+import io.crate.metadata.RelationName;
+
+import javax.annotation.Nullable;
+
+public final class AnalyzedCreateMaterializedView implements AnalyzedStatement {
+
+    private final RelationName name;
+    private final AnalyzedCreateTable createTable;
+    private final AnalyzedRelation analyzedQuery;
+    private final String formattedQuery;
+    @Nullable
+    private final String watermarkColumn;
+    private final long watermarkDelay;
+    @Nullable
+    private final User owner;
+
+    AnalyzedCreateMaterializedView(RelationName name,
+                                   AnalyzedCreateTable createTable,
+                                   AnalyzedRelation analyzedQuery,
+                                   String formattedQuery,
+                                   @Nullable String watermarkColumn,
+                                   long watermarkDelay,
+                                   @Nullable User owner) {
+        this.name = name;
+        this.createTable = createTable;
+        this.analyzedQuery = analyzedQuery;
+        this.formattedQuery = formattedQuery;
+        this.watermarkColumn = watermarkColumn;
+        this.watermarkDelay = watermarkDelay;
+        this.owner = owner;
+    }
+
+    public RelationName name() {
+        return name;
+    }
+
+    /**
+     * The table which stores the rows of the view.
+     */
+    public AnalyzedCreateTable createTable() {
+        return createTable;
+    }
+
+    public AnalyzedRelation analyzedQuery() {
+        return analyzedQuery;
+    }
+
+    public String formattedQuery() {
+        return formattedQuery;
+    }
+
+    @Nullable
+    public String watermarkColumn() {
+        return watermarkColumn;
+    }
+
+    public long watermarkDelay() {
+        return watermarkDelay;
+    }
+
+    @Nullable
+    public User owner() {
+        return owner;
+    }
+
+    @Override
+    public <C, R> R accept(AnalyzedStatementVisitor<C, R> visitor, C context) {
+        return visitor.visitCreateMaterializedView(this, context);
+    }
+
+    @Override
+    public boolean isWriteOperation() {
+        return true;
+    }
+}
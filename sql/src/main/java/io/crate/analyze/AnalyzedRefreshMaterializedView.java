@@ -0,0 +1,150 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.view.MaterializedViewMetaData;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+
+/**
+ * A refresh of a materialized view.
+ *
+ * <p>
+ * A full refresh writes the result of the query into a staging table ({@link #stagingTable()}) and swaps it
+ * with the table of the view, so that the previous rows stay visible until the new ones are complete.
+ * An incremental view is refreshed the same way if a previous incremental refresh failed.
+ * </p>
+ *
+ * <p>
+ * An incremental refresh first looks up the current maximum of the watermark column ({@link #maxWatermark()})
+ * and then inserts the rows between the previous and the current watermark.
+ * The insert has two parameters: {@code $1} is the previous watermark (or null) and {@code $2} the current one.
+ * </p>
+ */
+public final class AnalyzedRefreshMaterializedView implements AnalyzedStatement {
+
+    private final RelationName name;
+    private final MaterializedViewMetaData view;
+    private final AnalyzedRelation query;
+    private final RelationName stagingTable;
+    private final String createStagingTable;
+    private final String insertIntoStagingTable;
+    @Nullable
+    private final AnalyzedInsertStatement insert;
+    @Nullable
+    private final AnalyzedRelation maxWatermark;
+    @Nullable
+    private final DataType<?> watermarkType;
+
+    AnalyzedRefreshMaterializedView(RelationName name,
+                                    MaterializedViewMetaData view,
+                                    AnalyzedRelation query,
+                                    RelationName stagingTable,
+                                    String createStagingTable,
+                                    String insertIntoStagingTable,
+                                    @Nullable AnalyzedInsertStatement insert,
+                                    @Nullable AnalyzedRelation maxWatermark,
+                                    @Nullable DataType<?> watermarkType) {
+        this.name = name;
+        this.view = view;
+        this.query = query;
+        this.stagingTable = stagingTable;
+        this.createStagingTable = createStagingTable;
+        this.insertIntoStagingTable = insertIntoStagingTable;
+        this.insert = insert;
+        this.maxWatermark = maxWatermark;
+        this.watermarkType = watermarkType;
+    }
+
+    public RelationName name() {
+        return name;
+    }
+
+    public MaterializedViewMetaData view() {
+        return view;
+    }
+
+    /**
+     * The query of the view.
+     */
+    public AnalyzedRelation query() {
+        return query;
+    }
+
+    public RelationName stagingTable() {
+        return stagingTable;
+    }
+
+    /**
+     * The CREATE TABLE statement of the {@link #stagingTable()}.
+     */
+    public String createStagingTable() {
+        return createStagingTable;
+    }
+
+    /**
+     * The INSERT statement which writes the result of the query into the {@link #stagingTable()}.
+     * For an incremental view it has one parameter, {@code $1}, the watermark up to which rows are included.
+     */
+    public String insertIntoStagingTable() {
+        return insertIntoStagingTable;
+    }
+
+    /**
+     * Inserts the rows between two watermarks into the view, only present for an incremental refresh.
+     */
+    @Nullable
+    public AnalyzedInsertStatement insert() {
+        return insert;
+    }
+
+    /**
+     * Selects the current maximum of the watermark column, only present for an incremental refresh.
+     */
+    @Nullable
+    public AnalyzedRelation maxWatermark() {
+        return maxWatermark;
+    }
+
+    @Nullable
+    public DataType<?> watermarkType() {
+        return watermarkType;
+    }
+
+    public boolean isIncremental() {
+        return maxWatermark != null;
+    }
+
+    @Override
+    public <C, R> R accept(AnalyzedStatementVisitor<C, R> visitor, C context) {
+        return visitor.visitRefreshMaterializedView(this, context);
+    }
+
+    @Override
+    public boolean isWriteOperation() {
+        return true;
+    }
+}
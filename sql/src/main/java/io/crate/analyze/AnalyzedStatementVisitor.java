@@ -199,6 +199,14 @@ public class AnalyzedStatementVisitor<C, R> {
         return visitAnalyzedStatement(createViewStmt, context);
     }
 
+    public R visitCreateMaterializedView(AnalyzedCreateMaterializedView createMaterializedView, C context) {
+        return visitAnalyzedStatement(createMaterializedView, context);
+    }
+
+    public R visitRefreshMaterializedView(AnalyzedRefreshMaterializedView refreshMaterializedView, C context) {
+        return visitAnalyzedStatement(refreshMaterializedView, context);
+    }
+
     public R visitDropView(AnalyzedDropView dropView, C context) {
         return visitAnalyzedStatement(dropView, context);
     }
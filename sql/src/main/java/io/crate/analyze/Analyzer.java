@@ -46,6 +46,7 @@ import io.crate.sql.tree.CopyTo;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateFunction;
+import io.crate.sql.tree.CreateMaterializedView;
 import io.crate.sql.tree.CreateRepository;
 import io.crate.sql.tree.CreateSnapshot;
 import io.crate.sql.tree.CreateTable;
@@ -71,6 +72,7 @@ import io.crate.sql.tree.Insert;
 import io.crate.sql.tree.KillStatement;
 import io.crate.sql.tree.OptimizeStatement;
 import io.crate.sql.tree.Query;
+import io.crate.sql.tree.RefreshMaterializedView;
 import io.crate.sql.tree.RefreshStatement;
 import io.crate.sql.tree.ResetStatement;
 import io.crate.sql.tree.RestoreSnapshot;
@@ -123,6 +125,7 @@ public class Analyzer {
     private final AlterTableRerouteAnalyzer alterTableRerouteAnalyzer;
     private final UserAnalyzer userAnalyzer;
     private final ViewAnalyzer viewAnalyzer;
+    private final MaterializedViewAnalyzer materializedViewAnalyzer;
     private final SwapTableAnalyzer swapTableAnalyzer;
     private final DecommissionNodeAnalyzer decommissionNodeAnalyzer;
     private final KillAnalyzer killAnalyzer;
@@ -155,6 +158,8 @@ public class Analyzer {
         this.updateAnalyzer = new UpdateAnalyzer(functions, relationAnalyzer);
         this.deleteAnalyzer = new DeleteAnalyzer(functions, relationAnalyzer);
         this.insertAnalyzer = new InsertAnalyzer(functions, schemas, relationAnalyzer);
+        this.materializedViewAnalyzer = new MaterializedViewAnalyzer(
+            relationAnalyzer, createTableStatementAnalyzer, insertAnalyzer, clusterService, schemas);
         this.optimizeTableAnalyzer = new OptimizeTableAnalyzer(schemas, functions);
         this.createRepositoryAnalyzer = new CreateRepositoryAnalyzer(repositoryService, functions);
         this.dropRepositoryAnalyzer = new DropRepositoryAnalyzer(repositoryService);
@@ -364,6 +369,13 @@ public class Analyzer {
             return viewAnalyzer.analyze(node, context.transactionContext());
         }
 
+        @Override
+        public AnalyzedStatement visitCreateMaterializedView(CreateMaterializedView<?> node, Analysis context) {
+            return materializedViewAnalyzer.analyze(
+                (CreateMaterializedView<Expression>) node,
+                context.transactionContext());
+        }
+
         @Override
         public AnalyzedStatement visitDeallocateStatement(DeallocateStatement node, Analysis context) {
             return DeallocateAnalyzer.analyze(node);
@@ -476,6 +488,11 @@ public class Analyzer {
                 context.paramTypeHints());
         }
 
+        @Override
+        public AnalyzedStatement visitRefreshMaterializedView(RefreshMaterializedView node, Analysis context) {
+            return materializedViewAnalyzer.analyze(node, context.transactionContext());
+        }
+
         @Override
         public AnalyzedStatement visitRefreshStatement(RefreshStatement<?> node, Analysis context) {
             return refreshTableAnalyzer.analyze(
@@ -0,0 +1,114 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.FunctionCopyVisitor;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.metadata.GeneratedReference;
+import io.crate.metadata.Reference;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.doc.DocTableInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces expressions which are equal to the expression of a generated column with a reference to that column.
+ *
+ * <pre>
+ *     create table t (ts timestamp, day as date_trunc('day', ts))
+ *
+ *     date_trunc('day', ts) = '2020-01-01'  ->  day = '2020-01-01'
+ * </pre>
+ *
+ * The value of a generated column is computed on insert, so the indexed column and the doc values of the column can
+ * be used instead of evaluating the expression for every document.
+ */
+public final class GeneratedColumnReplacer extends FunctionCopyVisitor<List<GeneratedReference>> {
+
+    private static final GeneratedColumnReplacer INSTANCE = new GeneratedColumnReplacer();
+
+    private GeneratedColumnReplacer() {
+    }
+
+    public static Symbol replace(Symbol tree, DocTableInfo table) {
+        List<GeneratedReference> candidates = candidates(table);
+        if (candidates.isEmpty()) {
+            return tree;
+        }
+        return tree.accept(INSTANCE, candidates);
+    }
+
+    public static List<Symbol> replace(List<Symbol> symbols, DocTableInfo table) {
+        List<GeneratedReference> candidates = candidates(table);
+        if (candidates.isEmpty()) {
+            return symbols;
+        }
+        ArrayList<Symbol> result = new ArrayList<>(symbols.size());
+        for (Symbol symbol : symbols) {
+            result.add(symbol.accept(INSTANCE, candidates));
+        }
+        return result;
+    }
+
+    /**
+     * Generated columns which can safely be used in place of their expression:
+     *
+     *  - The expression must be a deterministic function; plain references are left as they are, otherwise a
+     *    filter on a primary key column could be turned into a filter on a different column.
+     *  - The type of the column must match the type of the expression, the value would have been casted otherwise.
+     *  - Partition columns are already handled by the partition pruning and are normalized to literals on the shards.
+     *  - Analyzed columns don't contain the original value, columns without column store can't be sorted on.
+     */
+    private static List<GeneratedReference> candidates(DocTableInfo table) {
+        List<GeneratedReference> generatedColumns = table.generatedColumns();
+        if (generatedColumns.isEmpty()) {
+            return List.of();
+        }
+        ArrayList<GeneratedReference> candidates = new ArrayList<>(generatedColumns.size());
+        for (GeneratedReference generatedColumn : generatedColumns) {
+            Symbol expression = generatedColumn.generatedExpression();
+            if (expression instanceof Function
+                && generatedColumn.valueType().equals(expression.valueType())
+                && generatedColumn.granularity() == RowGranularity.DOC
+                && generatedColumn.indexType() == Reference.IndexType.NOT_ANALYZED
+                && !generatedColumn.isColumnStoreDisabled()
+                && !SymbolVisitors.any(s -> s instanceof Function && !((Function) s).info().isDeterministic(), expression)) {
+                candidates.add(generatedColumn);
+            }
+        }
+        return candidates;
+    }
+
+    @Override
+    public Symbol visitFunction(Function func, List<GeneratedReference> candidates) {
+        for (GeneratedReference generatedColumn : candidates) {
+            if (func.equals(generatedColumn.generatedExpression())) {
+                return generatedColumn;
+            }
+        }
+        return processAndMaybeCopy(func, candidates);
+    }
+}
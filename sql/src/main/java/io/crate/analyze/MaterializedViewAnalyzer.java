@@ -0,0 +1,520 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.analyze.expressions.ExpressionToNumberVisitor;
+import io.crate.analyze.expressions.ExpressionToStringVisitor;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.analyze.relations.RelationAnalyzer;
+import io.crate.common.collections.Lists2;
+import io.crate.data.Row;
+import io.crate.exceptions.RelationUnknown;
+import io.crate.expression.symbol.Field;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Reference;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.blob.BlobSchemaInfo;
+import io.crate.metadata.view.MaterializedViewMetaData;
+import io.crate.metadata.view.MaterializedViewsMetaData;
+import io.crate.sql.Identifiers;
+import io.crate.sql.SqlFormatter;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.ArithmeticExpression;
+import io.crate.sql.tree.Assignment;
+import io.crate.sql.tree.CollectionColumnType;
+import io.crate.sql.tree.ColumnDefinition;
+import io.crate.sql.tree.ColumnType;
+import io.crate.sql.tree.ComparisonExpression;
+import io.crate.sql.tree.CreateMaterializedView;
+import io.crate.sql.tree.CreateTable;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.FunctionCall;
+import io.crate.sql.tree.GenericProperties;
+import io.crate.sql.tree.Insert;
+import io.crate.sql.tree.IsNullPredicate;
+import io.crate.sql.tree.LogicalBinaryExpression;
+import io.crate.sql.tree.ObjectColumnType;
+import io.crate.sql.tree.ParameterExpression;
+import io.crate.sql.tree.PrimaryKeyConstraint;
+import io.crate.sql.tree.QualifiedName;
+import io.crate.sql.tree.QualifiedNameReference;
+import io.crate.sql.tree.Query;
+import io.crate.sql.tree.QuerySpecification;
+import io.crate.sql.tree.RefreshMaterializedView;
+import io.crate.sql.tree.Table;
+import io.crate.sql.tree.TableElement;
+import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.ObjectType;
+import org.elasticsearch.cluster.service.ClusterService;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public final class MaterializedViewAnalyzer {
+
+    static final String WATERMARK_COLUMN = "watermark_column";
+    static final String WATERMARK_DELAY = "watermark_delay";
+
+    private static final Set<DataType<?>> WATERMARK_TYPES = Set.of(
+        DataTypes.BYTE,
+        DataTypes.SHORT,
+        DataTypes.INTEGER,
+        DataTypes.LONG,
+        DataTypes.TIMESTAMPZ,
+        DataTypes.TIMESTAMP
+    );
+
+    /**
+     * Aggregations whose result can be merged with the result of the same aggregation on new rows
+     * without keeping any additional state; the value is the scalar used to merge both results.
+     */
+    private static final Map<String, String> MERGE_FUNCTION_BY_AGGREGATE = Map.of(
+        "count", "sum",
+        "sum", "sum",
+        "min", "least",
+        "max", "greatest"
+    );
+
+    private static final ParamTypeHints NO_PARAMETERS = new ParamTypeHints(List.of()) {
+
+        @Override
+        public Symbol apply(@Nullable ParameterExpression input) {
+            throw new UnsupportedOperationException(
+                "Materialized view definition must not contain any parameter placeholders");
+        }
+    };
+
+    private final RelationAnalyzer relationAnalyzer;
+    private final CreateTableStatementAnalyzer createTableStatementAnalyzer;
+    private final InsertAnalyzer insertAnalyzer;
+    private final ClusterService clusterService;
+    private final Schemas schemas;
+
+    MaterializedViewAnalyzer(RelationAnalyzer relationAnalyzer,
+                             CreateTableStatementAnalyzer createTableStatementAnalyzer,
+                             InsertAnalyzer insertAnalyzer,
+                             ClusterService clusterService,
+                             Schemas schemas) {
+        this.relationAnalyzer = relationAnalyzer;
+        this.createTableStatementAnalyzer = createTableStatementAnalyzer;
+        this.insertAnalyzer = insertAnalyzer;
+        this.clusterService = clusterService;
+        this.schemas = schemas;
+    }
+
+    public AnalyzedCreateMaterializedView analyze(CreateMaterializedView<Expression> createView,
+                                                  CoordinatorTxnCtx txnCtx) {
+        RelationName name = RelationName.of(createView.name(), txnCtx.sessionContext().searchPath().currentSchema());
+        name.ensureValidForRelationCreation();
+        if (BlobSchemaInfo.NAME.equals(name.schema())) {
+            throw new UnsupportedOperationException("Creating a materialized view in the \"blob\" schema is not supported");
+        }
+        RelationName stagingTable = MaterializedViewsMetaData.stagingTable(name);
+        if (schemas.tableExists(stagingTable) || schemas.viewExists(stagingTable)) {
+            throw new IllegalArgumentException(
+                "Relation '" + stagingTable + "' is used to refresh materialized view '" + name + "' but already exists");
+        }
+        String watermarkColumn = null;
+        long watermarkDelay = 0L;
+        for (Map.Entry<String, Expression> property : createView.properties().properties().entrySet()) {
+            switch (property.getKey()) {
+                case WATERMARK_COLUMN:
+                    watermarkColumn = ExpressionToStringVisitor.convert(property.getValue(), Row.EMPTY);
+                    break;
+
+                case WATERMARK_DELAY:
+                    watermarkDelay = ExpressionToNumberVisitor.convert(property.getValue(), Row.EMPTY).longValue();
+                    if (watermarkDelay < 0) {
+                        throw new IllegalArgumentException("Setting '" + WATERMARK_DELAY + "' must not be negative");
+                    }
+                    break;
+
+                default:
+                    throw new IllegalArgumentException(
+                        "Setting '" + property.getKey() + "' is not supported for materialized views");
+            }
+        }
+        if (watermarkColumn == null && watermarkDelay != 0L) {
+            throw new IllegalArgumentException(
+                "Setting '" + WATERMARK_DELAY + "' requires the '" + WATERMARK_COLUMN + "' setting");
+        }
+
+        String formattedQuery;
+        try {
+            formattedQuery = SqlFormatter.formatSql(createView.query());
+        } catch (Exception e) {
+            throw new UnsupportedOperationException(
+                "Invalid query used in CREATE MATERIALIZED VIEW. Query: " + createView.query());
+        }
+        AnalyzedRelation query = relationAnalyzer.analyze(
+            (Query) SqlParser.createStatement(formattedQuery),
+            txnCtx,
+            NO_PARAMETERS);
+        if (query.fields().stream().map(f -> f.path().sqlFqn()).distinct().count() != query.fields().size()) {
+            throw new IllegalArgumentException("Query in CREATE MATERIALIZED VIEW must not have duplicate column names");
+        }
+
+        IncrementalRefresh incrementalRefresh = watermarkColumn == null
+            ? null
+            : IncrementalRefresh.of(query, watermarkColumn);
+        return new AnalyzedCreateMaterializedView(
+            name,
+            createTableStatementAnalyzer.analyze(createTable(name, query, incrementalRefresh), ParamTypeHints.EMPTY, txnCtx),
+            query,
+            formattedQuery,
+            watermarkColumn,
+            watermarkDelay,
+            txnCtx.sessionContext().user()
+        );
+    }
+
+    /**
+     * The table which stores the rows of a view: one column per output of the query and, for incrementally
+     * refreshed GROUP BY queries, the group keys as primary key.
+     */
+    private static CreateTable<Expression> createTable(RelationName name,
+                                                       AnalyzedRelation query,
+                                                       @Nullable IncrementalRefresh incrementalRefresh) {
+        ArrayList<TableElement<Expression>> tableElements = new ArrayList<>(query.fields().size() + 1);
+        for (Field field : query.fields()) {
+            tableElements.add(new ColumnDefinition<>(
+                field.path().sqlFqn(),
+                null,
+                null,
+                toColumnType(field.valueType()),
+                List.of()
+            ));
+        }
+        if (incrementalRefresh != null && !incrementalRefresh.keyColumns.isEmpty()) {
+            tableElements.add(new PrimaryKeyConstraint<>(
+                Lists2.map(incrementalRefresh.keyColumns, MaterializedViewAnalyzer::columnReference)));
+        }
+        return new CreateTable<>(
+            new Table<>(QualifiedName.of(name.schema(), name.name())),
+            tableElements,
+            Optional.empty(),
+            Optional.empty(),
+            GenericProperties.empty(),
+            false
+        );
+    }
+
+    public AnalyzedRefreshMaterializedView analyze(RefreshMaterializedView refreshView, CoordinatorTxnCtx txnCtx) {
+        MaterializedViewsMetaData views = clusterService.state().metaData().custom(MaterializedViewsMetaData.TYPE);
+        RelationName name = resolveView(refreshView.name(), views, txnCtx);
+        MaterializedViewMetaData view = views.getView(name);
+        assert view != null : "view must exist after it has been resolved";
+
+        Table<Expression> table = new Table<>(QualifiedName.of(name.schema(), name.name()));
+        Query query = (Query) SqlParser.createStatement(view.stmt());
+        AnalyzedRelation relation = relationAnalyzer.analyze(query, txnCtx, NO_PARAMETERS);
+        List<String> columns = Lists2.map(relation.fields(), f -> f.path().sqlFqn());
+
+        String watermarkColumn = view.watermarkColumn();
+        IncrementalRefresh incrementalRefresh = watermarkColumn == null
+            ? null
+            : IncrementalRefresh.of(relation, watermarkColumn);
+        RelationName stagingTable = MaterializedViewsMetaData.stagingTable(name);
+        String createStagingTable = SqlFormatter.formatSql(createTable(stagingTable, relation, incrementalRefresh));
+        String insertIntoStagingTable = String.format(
+            Locale.ENGLISH,
+            "INSERT INTO %s (%s) %s",
+            stagingTable.sqlFqn(),
+            String.join(", ", Lists2.map(columns, Identifiers::quoteIfNeeded)),
+            SqlFormatter.formatSql(watermarkColumn == null ? query : withUpperWatermarkFilter(query, watermarkColumn))
+        );
+        if (incrementalRefresh == null) {
+            return new AnalyzedRefreshMaterializedView(
+                name, view, relation, stagingTable, createStagingTable, insertIntoStagingTable, null, null, null);
+        }
+
+        AnalyzedRelation maxWatermark = relationAnalyzer.analyze(
+            (Query) SqlParser.createStatement(String.format(
+                Locale.ENGLISH,
+                "SELECT max(%s) FROM %s",
+                Identifiers.quoteIfNeeded(watermarkColumn),
+                incrementalRefresh.source.sqlFqn())),
+            txnCtx,
+            ParamTypeHints.EMPTY
+        );
+        Insert.DuplicateKeyContext<Expression> onConflict;
+        if (incrementalRefresh.keyColumns.isEmpty()) {
+            onConflict = Insert.DuplicateKeyContext.none();
+        } else {
+            ArrayList<Assignment<Expression>> assignments = new ArrayList<>(incrementalRefresh.aggregateColumns.size());
+            for (Map.Entry<String, String> entry : incrementalRefresh.aggregateColumns.entrySet()) {
+                assignments.add(new Assignment<>(
+                    columnReference(entry.getKey()),
+                    mergeExpression(entry.getKey(), entry.getValue())));
+            }
+            onConflict = new Insert.DuplicateKeyContext<>(
+                Insert.DuplicateKeyContext.Type.ON_CONFLICT_DO_UPDATE_SET,
+                assignments,
+                incrementalRefresh.keyColumns
+            );
+        }
+        ParamTypeHints watermarkParams = new ParamTypeHints(
+            List.<DataType>of(incrementalRefresh.watermarkType, incrementalRefresh.watermarkType));
+        AnalyzedInsertStatement insert = insertAnalyzer.analyze(
+            new Insert<>(table, withWatermarkFilter(query, watermarkColumn), columns, onConflict),
+            watermarkParams,
+            txnCtx
+        );
+        return new AnalyzedRefreshMaterializedView(
+            name,
+            view,
+            relation,
+            stagingTable,
+            createStagingTable,
+            insertIntoStagingTable,
+            insert,
+            maxWatermark,
+            incrementalRefresh.watermarkType
+        );
+    }
+
+    private static RelationName resolveView(QualifiedName qualifiedName,
+                                            @Nullable MaterializedViewsMetaData views,
+                                            CoordinatorTxnCtx txnCtx) {
+        if (qualifiedName.getParts().size() == 1 && views != null) {
+            for (String schema : txnCtx.sessionContext().searchPath()) {
+                RelationName candidate = new RelationName(schema, qualifiedName.getSuffix());
+                if (views.contains(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+        RelationName name = RelationName.of(qualifiedName, txnCtx.sessionContext().searchPath().currentSchema());
+        if (views == null || !views.contains(name)) {
+            throw new RelationUnknown(name);
+        }
+        return name;
+    }
+
+    /**
+     * Adds {@code ($1 IS NULL OR watermarkColumn > $1) AND watermarkColumn <= $2} to the WHERE clause of the query
+     */
+    private static Query withWatermarkFilter(Query query, String watermarkColumn) {
+        Expression column = columnReference(watermarkColumn);
+        Expression previous = new ParameterExpression(1);
+        return withFilter(query, new LogicalBinaryExpression(
+            LogicalBinaryExpression.Type.AND,
+            new LogicalBinaryExpression(
+                LogicalBinaryExpression.Type.OR,
+                new IsNullPredicate(previous),
+                new ComparisonExpression(ComparisonExpression.Type.GREATER_THAN, column, previous)),
+            new ComparisonExpression(ComparisonExpression.Type.LESS_THAN_OR_EQUAL, column, new ParameterExpression(2))
+        ));
+    }
+
+    /**
+     * Adds {@code watermarkColumn <= $1} to the WHERE clause of the query
+     */
+    private static Query withUpperWatermarkFilter(Query query, String watermarkColumn) {
+        return withFilter(query, new ComparisonExpression(
+            ComparisonExpression.Type.LESS_THAN_OR_EQUAL,
+            columnReference(watermarkColumn),
+            new ParameterExpression(1)
+        ));
+    }
+
+    private static Query withFilter(Query query, Expression filter) {
+        QuerySpecification spec = (QuerySpecification) query.getQueryBody();
+        Expression where = spec.getWhere()
+            .map(w -> (Expression) new LogicalBinaryExpression(LogicalBinaryExpression.Type.AND, w, filter))
+            .orElse(filter);
+        QuerySpecification newSpec = new QuerySpecification(
+            spec.getSelect(),
+            spec.getFrom(),
+            Optional.of(where),
+            spec.getGroupBy(),
+            spec.getHaving(),
+            spec.getWindows(),
+            spec.getOrderBy(),
+            spec.getLimit(),
+            spec.getOffset()
+        );
+        return new Query(newSpec, query.getOrderBy(), query.getLimit(), query.getOffset());
+    }
+
+    /**
+     * Merges the existing value of an aggregation column with the value computed over the new rows.
+     * count and sum are merged with {@code coalesce(col + excluded.col, col, excluded.col)} as sum may be null.
+     */
+    private static Expression mergeExpression(String column, String aggregate) {
+        Expression current = columnReference(column);
+        Expression excluded = new QualifiedNameReference(QualifiedName.of("excluded", column));
+        String mergeFunction = MERGE_FUNCTION_BY_AGGREGATE.get(aggregate);
+        if (mergeFunction.equals("sum")) {
+            return new FunctionCall(QualifiedName.of("coalesce"), List.of(
+                new ArithmeticExpression(ArithmeticExpression.Type.ADD, current, excluded),
+                current,
+                excluded));
+        }
+        return new FunctionCall(QualifiedName.of(mergeFunction), List.of(current, excluded));
+    }
+
+    private static Expression columnReference(String column) {
+        return new QualifiedNameReference(QualifiedName.of(column));
+    }
+
+    private static ColumnType<Expression> toColumnType(DataType<?> type) {
+        if (type.id() == ArrayType.ID) {
+            return new CollectionColumnType<>(toColumnType(((ArrayType<?>) type).innerType()));
+        }
+        if (type.id() == ObjectType.ID) {
+            return new ObjectColumnType<>(null, List.of());
+        }
+        return new ColumnType<>(type.getName());
+    }
+
+    private static Symbol unwrapField(Symbol symbol) {
+        while (symbol instanceof Field) {
+            symbol = ((Field) symbol).pointer();
+        }
+        return symbol;
+    }
+
+    /**
+     * Describes how the result of a query over new rows can be merged into the materialized view.
+     *
+     * Supported are queries on a single table without DISTINCT, HAVING, LIMIT or OFFSET which either
+     * select plain rows (the new rows are appended) or group by NOT NULL columns and select the group keys and
+     * {@code count}, {@code sum}, {@code min} or {@code max} aggregations (the new groups are merged
+     * into existing ones using the group keys as primary key).
+     */
+    private static final class IncrementalRefresh {
+
+        private final RelationName source;
+        private final DataType<?> watermarkType;
+        private final List<String> keyColumns;
+        private final Map<String, String> aggregateColumns;
+
+        private IncrementalRefresh(RelationName source,
+                                   DataType<?> watermarkType,
+                                   List<String> keyColumns,
+                                   Map<String, String> aggregateColumns) {
+            this.source = source;
+            this.watermarkType = watermarkType;
+            this.keyColumns = keyColumns;
+            this.aggregateColumns = aggregateColumns;
+        }
+
+        static IncrementalRefresh of(AnalyzedRelation query, String watermarkColumn) {
+            if (!(query instanceof QueriedSelectRelation)
+                || !(((QueriedSelectRelation<?>) query).subRelation() instanceof DocTableRelation)) {
+                throw unsupported("the query must select from a single table");
+            }
+            if (query.isDistinct() || query.having() != null || query.limit() != null || query.offset() != null) {
+                throw unsupported("the query must not use DISTINCT, HAVING, LIMIT or OFFSET");
+            }
+            DocTableRelation table = (DocTableRelation) ((QueriedSelectRelation<?>) query).subRelation();
+            ColumnIdent watermarkIdent = ColumnIdent.fromPath(watermarkColumn);
+            Reference watermarkRef = table.tableInfo().getReference(watermarkIdent);
+            if (watermarkRef == null || !watermarkIdent.isTopLevel()) {
+                throw unsupported("the watermark column '" + watermarkColumn + "' must be a top level column of "
+                                  + table.tableInfo().ident());
+            }
+            if (!WATERMARK_TYPES.contains(watermarkRef.valueType())) {
+                throw unsupported("the watermark column '" + watermarkColumn + "' must have an integer or timestamp type");
+            }
+
+            List<Symbol> groupKeys = Lists2.map(query.groupBy(), MaterializedViewAnalyzer::unwrapField);
+            if (groupKeys.isEmpty()) {
+                if (query.hasAggregates()) {
+                    throw unsupported("aggregations are only supported together with GROUP BY");
+                }
+                return new IncrementalRefresh(table.tableInfo().ident(), watermarkRef.valueType(), List.of(), Map.of());
+            }
+            ArrayList<String> keyColumns = new ArrayList<>(groupKeys.size());
+            LinkedHashMap<String, String> aggregateColumns = new LinkedHashMap<>();
+            for (Field field : query.fields()) {
+                Symbol output = unwrapField(field.pointer());
+                String column = field.path().sqlFqn();
+                if (groupKeys.contains(output)) {
+                    if (!isNotNullColumn(table, output)) {
+                        throw unsupported("the GROUP BY key '" + column + "' must be a column with a NOT NULL constraint "
+                                          + "as the keys are the primary key of the view");
+                    }
+                    keyColumns.add(column);
+                } else if (isMergeableAggregate(output)) {
+                    aggregateColumns.put(column, ((Function) output).info().ident().name());
+                } else {
+                    throw unsupported("only GROUP BY keys and count, sum, min or max aggregations can be selected, got: "
+                                      + output);
+                }
+            }
+            if (keyColumns.size() != groupKeys.size()) {
+                throw unsupported("all GROUP BY keys must be selected");
+            }
+            return new IncrementalRefresh(table.tableInfo().ident(), watermarkRef.valueType(), keyColumns, aggregateColumns);
+        }
+
+        /**
+         * GROUP BY keys are stored in the primary key of the view, which can't store the group of NULL keys.
+         */
+        private static boolean isNotNullColumn(DocTableRelation table, Symbol symbol) {
+            if (!(symbol instanceof Reference)) {
+                return false;
+            }
+            Reference ref = (Reference) symbol;
+            return !ref.isNullable() || table.tableInfo().primaryKey().contains(ref.column());
+        }
+
+        private static boolean isMergeableAggregate(Symbol symbol) {
+            if (!(symbol instanceof Function)) {
+                return false;
+            }
+            Function function = (Function) symbol;
+            if (function.info().type() != FunctionInfo.Type.AGGREGATE
+                || !MERGE_FUNCTION_BY_AGGREGATE.containsKey(function.info().ident().name())) {
+                return false;
+            }
+            for (Symbol argument : function.arguments()) {
+                if (!(unwrapField(argument) instanceof Reference)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static IllegalArgumentException unsupported(String reason) {
+            return new IllegalArgumentException(
+                "Materialized view with a watermark_column cannot be refreshed incrementally: " + reason);
+        }
+    }
+}
@@ -33,11 +33,19 @@ public final class SnapshotSettings {
 
     public static final Setting<Boolean> WAIT_FOR_COMPLETION = Setting.boolSetting("wait_for_completion", false);
 
+    public static final Setting<Boolean> MOUNT = Setting.boolSetting("mount", false);
+
     public static final Map<String, Setting<?>> SETTINGS = Map.of(
         IGNORE_UNAVAILABLE.getKey(), IGNORE_UNAVAILABLE,
         WAIT_FOR_COMPLETION.getKey(), WAIT_FOR_COMPLETION
     );
 
+    public static final Map<String, Setting<?>> RESTORE_SETTINGS = Map.of(
+        IGNORE_UNAVAILABLE.getKey(), IGNORE_UNAVAILABLE,
+        WAIT_FOR_COMPLETION.getKey(), WAIT_FOR_COMPLETION,
+        MOUNT.getKey(), MOUNT
+    );
+
     private SnapshotSettings() {
     }
 }
@@ -27,6 +27,7 @@ import io.crate.sql.tree.GenericProperties;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 
 import java.util.Map;
 
@@ -35,6 +36,7 @@ public class TypeSettings {
     private static final Map<String, Setting<?>> GENERIC = ImmutableMap.<String, Setting<?>>builder()
         .put("max_restore_bytes_per_sec", Setting.byteSizeSetting("max_restore_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB), Setting.Property.NodeScope))
         .put("max_snapshot_bytes_per_sec", Setting.byteSizeSetting("max_snapshot_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB), Setting.Property.NodeScope))
+        .put("max_concurrent_file_transfers", BlobStoreRepository.MAX_CONCURRENT_FILE_TRANSFERS_SETTING)
         .build();
 
     private final Map<String, Setting<?>> required;
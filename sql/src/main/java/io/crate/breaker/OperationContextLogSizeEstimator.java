@@ -33,7 +33,7 @@ public class OperationContextLogSizeEstimator extends SizeEstimator<OperationCon
         long size = 0L;
 
         // OperationContextLog
-        size += 32L; // 24 bytes (ref+headers) + 8 bytes (ended)
+        size += 64L; // 24 bytes (ref+headers) + 8 bytes (ended) + 32 bytes (cpuTime, allocated, peakUsed, sentBytes)
         size += value.errorMessage() == null ? 0 : value.errorMessage().length();  // error message
 
         // OperationContext
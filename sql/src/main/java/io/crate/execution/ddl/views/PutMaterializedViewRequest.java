@@ -0,0 +1,114 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.ddl.views;
+
+import io.crate.metadata.RelationName;
+import io.crate.metadata.view.MaterializedViewMetaData;
+import org.elasticsearch.action.support.master.MasterNodeRequest;
+import org.elasticsearch.cluster.ack.AckedRequest;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.TimeValue;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+import static org.elasticsearch.action.support.master.AcknowledgedRequest.DEFAULT_ACK_TIMEOUT;
+
+/**
+ * Adds or updates the definition of a materialized view.
+ */
+public final class PutMaterializedViewRequest extends MasterNodeRequest<PutMaterializedViewRequest> implements AckedRequest {
+
+    private final RelationName name;
+    private final MaterializedViewMetaData view;
+    private final boolean mustExist;
+    @Nullable
+    private final MaterializedViewMetaData expected;
+
+    /**
+     * @param mustExist if true, the definition is only updated if the view still exists;
+     *                  if false, the view must not exist yet.
+     */
+    public PutMaterializedViewRequest(RelationName name, MaterializedViewMetaData view, boolean mustExist) {
+        this(name, view, mustExist, null);
+    }
+
+    /**
+     * Updates the definition of an existing view only if its current definition equals {@code expected}.
+     */
+    public PutMaterializedViewRequest(RelationName name,
+                                      MaterializedViewMetaData view,
+                                      MaterializedViewMetaData expected) {
+        this(name, view, true, expected);
+    }
+
+    private PutMaterializedViewRequest(RelationName name,
+                                       MaterializedViewMetaData view,
+                                       boolean mustExist,
+                                       @Nullable MaterializedViewMetaData expected) {
+        this.name = name;
+        this.view = view;
+        this.mustExist = mustExist;
+        this.expected = expected;
+    }
+
+    public RelationName name() {
+        return name;
+    }
+
+    MaterializedViewMetaData view() {
+        return view;
+    }
+
+    boolean mustExist() {
+        return mustExist;
+    }
+
+    @Nullable
+    MaterializedViewMetaData expected() {
+        return expected;
+    }
+
+    @Override
+    public TimeValue ackTimeout() {
+        return DEFAULT_ACK_TIMEOUT;
+    }
+
+    public PutMaterializedViewRequest(StreamInput in) throws IOException {
+        super(in);
+        name = new RelationName(in);
+        view = new MaterializedViewMetaData(in);
+        mustExist = in.readBoolean();
+        expected = in.readOptionalWriteable(MaterializedViewMetaData::new);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        name.writeTo(out);
+        view.writeTo(out);
+        out.writeBoolean(mustExist);
+        out.writeOptionalWriteable(expected);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.ddl.views;
+
+import io.crate.exceptions.RelationAlreadyExists;
+import io.crate.exceptions.RelationUnknown;
+import io.crate.metadata.cluster.DDLClusterStateService;
+import io.crate.metadata.view.MaterializedViewDDLModifier;
+import io.crate.metadata.view.MaterializedViewMetaData;
+import io.crate.metadata.view.MaterializedViewsMetaData;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.master.AcknowledgedResponse;
+import org.elasticsearch.action.support.master.TransportMasterNodeAction;
+import org.elasticsearch.cluster.AckedClusterStateUpdateTask;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockException;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.IOException;
+
+public final class TransportPutMaterializedViewAction
+    extends TransportMasterNodeAction<PutMaterializedViewRequest, AcknowledgedResponse> {
+
+    @Inject
+    public TransportPutMaterializedViewAction(TransportService transportService,
+                                              ClusterService clusterService,
+                                              ThreadPool threadPool,
+                                              DDLClusterStateService ddlClusterStateService,
+                                              IndexNameExpressionResolver indexNameExpressionResolver) {
+        super(
+            "internal:crate:sql/materialized_views/put",
+            transportService,
+            clusterService,
+            threadPool,
+            PutMaterializedViewRequest::new,
+            indexNameExpressionResolver
+        );
+        ddlClusterStateService.addModifier(new MaterializedViewDDLModifier());
+    }
+
+    @Override
+    protected String executor() {
+        return ThreadPool.Names.GENERIC;
+    }
+
+    @Override
+    protected AcknowledgedResponse read(StreamInput in) throws IOException {
+        return new AcknowledgedResponse(in);
+    }
+
+    @Override
+    protected void masterOperation(PutMaterializedViewRequest request,
+                                   ClusterState state,
+                                   ActionListener<AcknowledgedResponse> listener) {
+        clusterService.submitStateUpdateTask("materialized_views/put [" + request.name() + "]",
+            new AckedClusterStateUpdateTask<AcknowledgedResponse>(Priority.HIGH, request, listener) {
+
+                @Override
+                public ClusterState execute(ClusterState currentState) {
+                    MaterializedViewsMetaData views = currentState.metaData().custom(MaterializedViewsMetaData.TYPE);
+                    boolean exists = views != null && views.contains(request.name());
+                    if (request.mustExist() && !exists) {
+                        throw new RelationUnknown(request.name());
+                    }
+                    if (!request.mustExist() && exists) {
+                        throw new RelationAlreadyExists(request.name());
+                    }
+                    MaterializedViewMetaData expected = request.expected();
+                    if (expected != null && !expected.equals(views.getView(request.name()))) {
+                        throw new IllegalStateException(
+                            "Materialized view '" + request.name() + "' is being refreshed or has been changed concurrently");
+                    }
+                    return ClusterState.builder(currentState)
+                        .metaData(
+                            MetaData.builder(currentState.metaData())
+                                .putCustom(
+                                    MaterializedViewsMetaData.TYPE,
+                                    MaterializedViewsMetaData.put(views, request.name(), request.view()))
+                                .build()
+                        ).build();
+                }
+
+                @Override
+                protected AcknowledgedResponse newResponse(boolean acknowledged) {
+                    return new AcknowledgedResponse(acknowledged);
+                }
+            });
+    }
+
+    @Override
+    protected ClusterBlockException checkBlock(PutMaterializedViewRequest request, ClusterState state) {
+        return state.blocks().globalBlockedException(ClusterBlockLevel.METADATA_WRITE);
+    }
+}
@@ -335,17 +335,21 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         } else {
             Doc currentDoc = getDocument(indexShard, item.id(), item.version(), item.seqNo(), item.primaryTerm());
 
-            Map<String, Object> updatedSource = updateSourceGen.generateSource(
-                currentDoc,
-                item.updateAssignments(),
-                item.insertValues()
-            );
-
-            if (item.returnValues() != null) {
+            if (item.returnValues() == null) {
+                item.source(updateSourceGen.generateSourceBytes(
+                    currentDoc,
+                    item.updateAssignments(),
+                    item.insertValues()
+                ));
+            } else {
+                Map<String, Object> updatedSource = updateSourceGen.generateSource(
+                    currentDoc,
+                    item.updateAssignments(),
+                    item.insertValues()
+                );
                 updatedDoc = currentDoc.withUpdatedSource(updatedSource);
+                item.source(BytesReference.bytes(XContentFactory.jsonBuilder().map(updatedSource)));
             }
-
-            item.source(BytesReference.bytes(XContentFactory.jsonBuilder().map(updatedSource)));
             seqNo = item.seqNo();
             primaryTerm = item.primaryTerm();
             version = Versions.MATCH_ANY;
@@ -394,7 +398,7 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         if (doc == null) {
             throw new DocumentMissingException(indexShard.shardId(), Constants.DEFAULT_MAPPING_TYPE, id);
         }
-        if (doc.getSource() == null) {
+        if (doc.hasSource() == false) {
             throw new DocumentSourceMissingException(indexShard.shardId(), Constants.DEFAULT_MAPPING_TYPE, id);
         }
         if (version != Versions.MATCH_ANY && version != doc.getVersion()) {
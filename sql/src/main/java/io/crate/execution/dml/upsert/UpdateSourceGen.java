@@ -22,6 +22,7 @@
 
 package io.crate.execution.dml.upsert;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.crate.common.collections.Maps;
 import io.crate.data.Input;
 import io.crate.execution.engine.collect.CollectExpression;
@@ -38,7 +39,17 @@ import io.crate.metadata.Functions;
 import io.crate.metadata.Reference;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.doc.DocTableInfo;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -72,6 +83,10 @@ import java.util.Map;
  *
  *      resultSource: {x: 30, y: 30}
  * </pre>
+ *
+ * If only top-level columns are assigned and the table has no generated columns,
+ * {@link #generateSourceBytes(Doc, Symbol[], Object[])} patches the assigned fields while streaming the raw source
+ * instead of building and serializing a full copy of the source map.
  */
 final class UpdateSourceGen {
 
@@ -79,6 +94,7 @@ final class UpdateSourceGen {
     private final GeneratedColumns<Doc> generatedColumns;
     private final ArrayList<Reference> updateColumns;
     private final CheckConstraints<Doc, CollectExpression<Doc, ?>> checks;
+    private final String[] topLevelUpdateColumns;
 
     UpdateSourceGen(Functions functions, TransactionContext txnCtx, DocTableInfo table, String[] updateColumns) {
         DocRefResolver refResolver = new DocRefResolver(table.partitionedBy());
@@ -91,6 +107,9 @@ final class UpdateSourceGen {
             Reference ref = table.getReference(column);
             this.updateColumns.add(ref == null ? table.getDynamic(column, true) : ref);
         }
+        this.topLevelUpdateColumns = table.generatedColumns().isEmpty()
+            ? topLevelColumnNames(this.updateColumns, table)
+            : null;
         if (table.generatedColumns().isEmpty()) {
             generatedColumns = GeneratedColumns.empty();
         } else {
@@ -130,6 +149,97 @@ final class UpdateSourceGen {
         return updatedSource;
     }
 
+    /**
+     * Like {@link #generateSource(Doc, Symbol[], Object[])} but returns the serialized source.
+     * Uses {@link #patchSource(BytesReference, String[], Object[])} if possible.
+     * The source of {@code result} is then only parsed into a map if an assignment refers to a column of it.
+     */
+    BytesReference generateSourceBytes(Doc result, Symbol[] updateAssignments, Object[] insertValues) throws IOException {
+        if (topLevelUpdateColumns == null) {
+            return BytesReference.bytes(
+                XContentFactory.jsonBuilder().map(generateSource(result, updateAssignments, insertValues)));
+        }
+        Values values = new Values(result, insertValues);
+        Object[] newValues = new Object[updateColumns.size()];
+        for (int i = 0; i < updateColumns.size(); i++) {
+            Object value = updateAssignments[i].accept(eval, values).value();
+            checks.validate(updateColumns.get(i).column(), value);
+            newValues[i] = value;
+        }
+        return patchSource(result.getRawBytes(), topLevelUpdateColumns, newValues);
+    }
+
+    /**
+     * Copies {@code rawSource} field by field into a new source, replacing the values of {@code columns}.
+     * Columns which are not part of {@code rawSource} are appended.
+     * Untouched fields are copied token by token without being materialized.
+     */
+    @VisibleForTesting
+    static BytesReference patchSource(BytesReference rawSource, String[] columns, Object[] values) throws IOException {
+        boolean[] written = new boolean[columns.length];
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        try (XContentParser parser = XContentHelper.createParser(
+            NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, rawSource, XContentType.JSON)) {
+
+            XContentParser.Token token = parser.nextToken();
+            if (token != XContentParser.Token.START_OBJECT) {
+                throw new IllegalArgumentException("Source must be a JSON object, got: " + token);
+            }
+            while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+                int idx = indexOf(columns, fieldName);
+                if (idx == -1) {
+                    builder.field(fieldName);
+                    builder.copyCurrentStructure(parser);
+                } else {
+                    parser.skipChildren();
+                    builder.field(fieldName, values[idx]);
+                    written[idx] = true;
+                }
+            }
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (!written[i]) {
+                builder.field(columns[i], values[i]);
+            }
+        }
+        builder.endObject();
+        return BytesReference.bytes(builder);
+    }
+
+    private static int indexOf(String[] columns, String name) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the names of the update columns if all of them are top-level columns and none of them contains
+     *         a NOT NULL child column, otherwise null.
+     */
+    @Nullable
+    private static String[] topLevelColumnNames(ArrayList<Reference> updateColumns, DocTableInfo table) {
+        String[] names = new String[updateColumns.size()];
+        for (int i = 0; i < updateColumns.size(); i++) {
+            ColumnIdent column = updateColumns.get(i).column();
+            if (!column.isTopLevel()) {
+                return null;
+            }
+            names[i] = column.name();
+        }
+        for (ColumnIdent notNullColumn : table.notNullColumns()) {
+            if (!notNullColumn.isTopLevel() && indexOf(names, notNullColumn.name()) != -1) {
+                return null;
+            }
+        }
+        return names;
+    }
+
     private void injectGeneratedColumns(HashMap<String, Object> updatedSource) {
         for (Map.Entry<Reference, Input<?>> entry : generatedColumns.generatedToInject()) {
             ColumnIdent column = entry.getKey().column();
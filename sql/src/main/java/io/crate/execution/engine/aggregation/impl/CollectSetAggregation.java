@@ -27,6 +27,7 @@ import io.crate.breaker.SizeEstimator;
 import io.crate.breaker.SizeEstimatorFactory;
 import io.crate.data.Input;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.GroupByMaps;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
@@ -43,17 +44,19 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class CollectSetAggregation extends AggregationFunction<Map<Object, Object>, List<Object>> {
 
     /**
      * Used to signal there is a value for a key in order to simulate {@link java.util.HashSet#add(Object)} semantics
-     * using a plain {@link HashMap}.
+     * using a map.
      */
     private static final Object PRESENT = null;
 
     public static final String NAME = "collect_set";
     private final SizeEstimator<Object> innerTypeEstimator;
+    private final Supplier<Map<Object, Object>> newMap;
 
     private final FunctionInfo info;
     private final DataType partialReturnType;
@@ -70,7 +73,10 @@ public class CollectSetAggregation extends AggregationFunction<Map<Object, Objec
     }
 
     private CollectSetAggregation(FunctionInfo info) {
-        this.innerTypeEstimator = SizeEstimatorFactory.create(((ArrayType) info.returnType()).innerType());
+        DataType<Object> innerType = ((ArrayType<Object>) info.returnType()).innerType();
+        this.innerTypeEstimator = SizeEstimatorFactory.create(innerType);
+        // numeric values are kept in primitive maps to avoid an entry object per value
+        this.newMap = GroupByMaps.mapForType(innerType);
         this.info = info;
         this.partialReturnType = UncheckedObjectType.INSTANCE;
     }
@@ -94,13 +100,20 @@ public class CollectSetAggregation extends AggregationFunction<Map<Object, Objec
         if (value == null) {
             return state;
         }
-        if (state.put(value, PRESENT) == null) {
+        addValue(ramAccounting, state, value);
+        return state;
+    }
+
+    private void addValue(RamAccounting ramAccounting, Map<Object, Object> state, Object value) {
+        // PRESENT is null, so the result of put can't tell if the value was new
+        int size = state.size();
+        state.put(value, PRESENT);
+        if (state.size() > size) {
             ramAccounting.addBytes(
                 // values size + 32 bytes for entry, 4 bytes for increased capacity
                 RamUsageEstimator.alignObjectSize(innerTypeEstimator.estimateSize(value) + 36L)
             );
         }
-        return state;
     }
 
     @Nullable
@@ -110,7 +123,7 @@ public class CollectSetAggregation extends AggregationFunction<Map<Object, Objec
                                         Version minNodeInCluster,
                                         MemoryManager memoryManager) {
         ramAccounting.addBytes(RamUsageEstimator.alignObjectSize(64L)); // overhead for HashMap: 32 * 0 + 16 * 4 bytes
-        return new HashMap<>();
+        return newMap.get();
     }
 
     @Override
@@ -123,12 +136,7 @@ public class CollectSetAggregation extends AggregationFunction<Map<Object, Objec
                                       Map<Object, Object> state1,
                                       Map<Object, Object> state2) {
         for (Object newValue : state2.keySet()) {
-            if (state1.put(newValue, PRESENT) == null) {
-                ramAccounting.addBytes(
-                    // value size + 32 bytes for entry + 4 bytes for increased capacity
-                    RamUsageEstimator.alignObjectSize(innerTypeEstimator.estimateSize(newValue) + 36L)
-                );
-            }
+            addValue(ramAccounting, state1, newValue);
         }
         return state1;
     }
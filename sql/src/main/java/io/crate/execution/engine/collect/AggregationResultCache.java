@@ -0,0 +1,486 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import io.crate.Streamer;
+import io.crate.analyze.QueryClause;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.SentinelRow;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.dsl.projection.Projections;
+import io.crate.execution.jobs.SharedShardContext;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.expression.symbol.Symbols;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Node level cache for the output of shard level aggregations ({@link GroupProjection} or {@link AggregationProjection}).
+ *
+ * <p>
+ * Entries are keyed by the shard, the normalized collect phase and the {@link IndexReader.CacheKey} of the reader the
+ * output has been computed from. Any change to a shard that becomes visible with a refresh opens a new reader with a
+ * new cache key, so an entry can never be served for different data. Once a reader is closed all of its entries
+ * are invalidated.
+ * </p>
+ *
+ * <p>
+ * The cache is bounded by {@link #SIZE_SETTING}, evicts the least recently used entries and accounts its memory on
+ * the {@link CircuitBreaker#ACCOUNTING} breaker.
+ * </p>
+ */
+@Singleton
+public class AggregationResultCache {
+
+    public static final Setting<ByteSizeValue> SIZE_SETTING = Setting.memorySizeSetting(
+        "indices.aggregation_cache.size", "1%", Setting.Property.NodeScope);
+
+    /**
+     * Outputs which take more than this fraction of the cache size are not cached.
+     */
+    private static final int MAX_ENTRY_SIZE_DIVISOR = 20;
+
+    /**
+     * Rough estimate of the shallow size of a key and a value.
+     */
+    private static final long ENTRY_OVERHEAD_IN_BYTES = 128L;
+
+    private final boolean enabled;
+    private final long maxEntrySizeInBytes;
+    private final CircuitBreaker breaker;
+    private final Cache<Key, CachedRows> cache;
+    private final Map<ShardId, ShardStats> statsByShard = new ConcurrentHashMap<>();
+    private final Map<IndexReader.CacheKey, Set<Key>> keysByReader = new ConcurrentHashMap<>();
+
+    @Inject
+    public AggregationResultCache(Settings settings, CrateCircuitBreakerService breakerService) {
+        this(SIZE_SETTING.get(settings).getBytes(), breakerService.getBreaker(CircuitBreaker.ACCOUNTING));
+    }
+
+    @VisibleForTesting
+    AggregationResultCache(long sizeInBytes, CircuitBreaker breaker) {
+        this.enabled = sizeInBytes > 0;
+        this.maxEntrySizeInBytes = sizeInBytes / MAX_ENTRY_SIZE_DIVISOR;
+        this.breaker = breaker;
+        this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(sizeInBytes)
+            .weigher((Key key, CachedRows rows) -> (int) Math.min(weight(key, rows), Integer.MAX_VALUE))
+            .removalListener(this::onRemoval)
+            .build();
+    }
+
+    /**
+     * Returns the statistics of the entries of a shard. The statistics are dropped on {@link #clear(ShardId)}.
+     */
+    public ShardStats shardStats(ShardId shardId) {
+        return statsByShard.computeIfAbsent(shardId, id -> new ShardStats());
+    }
+
+    /**
+     * Invalidates all entries of a shard, should be called once a shard is closed.
+     */
+    public void clear(ShardId shardId) {
+        cache.asMap().keySet().removeIf(key -> key.shardId.equals(shardId));
+        statsByShard.remove(shardId);
+    }
+
+    /**
+     * Returns an iterator over the cached output of the shard projection of {@code normalizedPhase}.
+     * If there is no entry, the iterator created by {@code collect} is returned and its output is recorded and
+     * cached once it has been consumed completely.
+     *
+     * The lookup uses the searcher of the {@link SharedShardContext} of the shard, which is the searcher
+     * the iterator created by {@code collect} operates on.
+     */
+    public BatchIterator<Row> getOrCollect(IndexShard indexShard,
+                                           RoutedCollectPhase normalizedPhase,
+                                           CollectTask collectTask,
+                                           CheckedSupplier<BatchIterator<Row>, Exception> collect) throws Exception {
+        Projection projection = enabled ? cacheableProjection(normalizedPhase) : null;
+        if (projection == null) {
+            return collect.get();
+        }
+        ShardId shardId = indexShard.shardId();
+        BytesReference phaseKey = phaseKey(normalizedPhase, projection);
+        Streamer<?>[] streamers = Symbols.streamerArray(projection.outputs());
+
+        SharedShardContext sharedShardContext = collectTask.sharedShardContexts().getOrCreateContext(shardId);
+        Engine.Searcher searcher = sharedShardContext.acquireSearcher("aggregation-cache");
+        boolean releaseSearcher = true;
+        try {
+            IndexReader reader = searcher.reader();
+            List<Row> cachedRows = get(shardId, reader, phaseKey, streamers);
+            if (cachedRows != null) {
+                // released once the task finishes, like the searchers of the collectors,
+                // so that the searcher of the shared context stays open while the context may be used.
+                collectTask.addSearcher(sharedShardContext.readerId(), searcher);
+                releaseSearcher = false;
+                return InMemoryBatchIterator.of(cachedRows, SentinelRow.SENTINEL, false);
+            }
+            // the collector acquires the same searcher before this reference is released
+            return record(shardId, reader, phaseKey, streamers, collect.get());
+        } finally {
+            if (releaseSearcher) {
+                searcher.close();
+            }
+        }
+    }
+
+    /**
+     * @return the cached rows computed from the given reader or null if there is no entry.
+     */
+    @Nullable
+    @VisibleForTesting
+    List<Row> get(ShardId shardId,
+                  IndexReader reader,
+                  BytesReference phaseKey,
+                  Streamer<?>[] streamers) throws IOException {
+        ShardStats stats = shardStats(shardId);
+        IndexReader.CacheKey readerKey = readerKey(reader);
+        if (readerKey != null) {
+            CachedRows cachedRows = cache.getIfPresent(new Key(shardId, readerKey, phaseKey));
+            if (cachedRows != null) {
+                stats.hits.increment();
+                return cachedRows.read(streamers);
+            }
+        }
+        stats.misses.increment();
+        return null;
+    }
+
+    /**
+     * @return an iterator emitting the rows of {@code source}, which caches the rows once they are consumed completely.
+     */
+    @VisibleForTesting
+    BatchIterator<Row> record(ShardId shardId,
+                              IndexReader reader,
+                              BytesReference phaseKey,
+                              Streamer<?>[] streamers,
+                              BatchIterator<Row> source) {
+        IndexReader.CacheKey readerKey = readerKey(reader);
+        if (readerKey == null) {
+            return source;
+        }
+        ShardStats stats = shardStats(shardId);
+        Key key = new Key(shardId, readerKey, phaseKey);
+        return new RecordingBatchIterator(
+            source,
+            streamers,
+            maxEntrySizeInBytes,
+            rows -> put(key, rows, reader, stats)
+        );
+    }
+
+    @Nullable
+    private static Projection cacheableProjection(RoutedCollectPhase phase) {
+        Collection<? extends Projection> shardProjections = Projections.shardProjections(phase.projections());
+        if (shardProjections.size() != 1) {
+            return null;
+        }
+        Projection projection = shardProjections.iterator().next();
+        if (!(projection instanceof GroupProjection) && !(projection instanceof AggregationProjection)) {
+            return null;
+        }
+        if (!QueryClause.canMatch(phase.where())
+            || !isDeterministic(phase.where())
+            || !phase.toCollect().stream().allMatch(AggregationResultCache::isDeterministic)) {
+            return null;
+        }
+        return projection;
+    }
+
+    private static boolean isDeterministic(Symbol symbol) {
+        return !SymbolVisitors.any(
+            s -> s instanceof Function && !((Function) s).info().isDeterministic(),
+            symbol
+        );
+    }
+
+    private static BytesReference phaseKey(RoutedCollectPhase phase, Projection projection) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            Symbols.toStream(phase.toCollect(), out);
+            Symbols.toStream(phase.where(), out);
+            Projection.toStream(projection, out);
+            return out.bytes();
+        }
+    }
+
+    @Nullable
+    private static IndexReader.CacheKey readerKey(IndexReader reader) {
+        IndexReader.CacheHelper cacheHelper = reader.getReaderCacheHelper();
+        return cacheHelper == null ? null : cacheHelper.getKey();
+    }
+
+    private static long weight(Key key, CachedRows rows) {
+        return ENTRY_OVERHEAD_IN_BYTES + key.phaseKey.length() + rows.bytes.length();
+    }
+
+    private void put(Key key, CachedRows rows, IndexReader reader, ShardStats stats) {
+        long bytes = weight(key, rows);
+        try {
+            breaker.addEstimateBytesAndMaybeBreak(bytes, "aggregation_cache");
+        } catch (CircuitBreakingException e) {
+            return;
+        }
+        Set<Key> readerKeys;
+        try {
+            readerKeys = keysByReader.computeIfAbsent(key.readerKey, readerKey -> {
+                reader.getReaderCacheHelper().addClosedListener(this::onReaderClosed);
+                return ConcurrentHashMap.newKeySet();
+            });
+        } catch (AlreadyClosedException e) {
+            breaker.addWithoutBreaking(-bytes);
+            return;
+        }
+        readerKeys.add(key);
+        stats.sizeInBytes.add(bytes);
+        cache.put(key, rows);
+    }
+
+    private void onReaderClosed(IndexReader.CacheKey readerKey) {
+        Set<Key> keys = keysByReader.remove(readerKey);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    private void onRemoval(RemovalNotification<Key, CachedRows> notification) {
+        Key key = notification.getKey();
+        CachedRows rows = notification.getValue();
+        if (key == null || rows == null) {
+            return;
+        }
+        long bytes = weight(key, rows);
+        breaker.addWithoutBreaking(-bytes);
+        if (notification.getCause() != RemovalCause.REPLACED) {
+            Set<Key> readerKeys = keysByReader.get(key.readerKey);
+            if (readerKeys != null) {
+                readerKeys.remove(key);
+            }
+        }
+        ShardStats stats = statsByShard.get(key.shardId);
+        if (stats != null) {
+            stats.sizeInBytes.add(-bytes);
+            if (notification.getCause() == RemovalCause.SIZE) {
+                stats.evictions.increment();
+            }
+        }
+    }
+
+    public static final class ShardStats {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder sizeInBytes = new LongAdder();
+
+        public long hits() {
+            return hits.sum();
+        }
+
+        public long misses() {
+            return misses.sum();
+        }
+
+        public long evictions() {
+            return evictions.sum();
+        }
+
+        public long sizeInBytes() {
+            return sizeInBytes.sum();
+        }
+    }
+
+    private static final class Key {
+
+        private final ShardId shardId;
+        private final IndexReader.CacheKey readerKey;
+        private final BytesReference phaseKey;
+
+        Key(ShardId shardId, IndexReader.CacheKey readerKey, BytesReference phaseKey) {
+            this.shardId = shardId;
+            this.readerKey = readerKey;
+            this.phaseKey = phaseKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return shardId.equals(key.shardId) &&
+                   readerKey == key.readerKey &&
+                   phaseKey.equals(key.phaseKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shardId, readerKey, phaseKey);
+        }
+    }
+
+    private static final class CachedRows {
+
+        private final int numRows;
+        private final BytesReference bytes;
+
+        CachedRows(int numRows, BytesReference bytes) {
+            this.numRows = numRows;
+            this.bytes = bytes;
+        }
+
+        List<Row> read(Streamer<?>[] streamers) throws IOException {
+            List<Row> rows = new ArrayList<>(numRows);
+            try (StreamInput in = bytes.streamInput()) {
+                for (int i = 0; i < numRows; i++) {
+                    Object[] cells = new Object[streamers.length];
+                    for (int c = 0; c < streamers.length; c++) {
+                        cells[c] = streamers[c].readValueFrom(in);
+                    }
+                    rows.add(new RowN(cells));
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Serializes the rows of the source while they are consumed and hands them over to {@code onComplete} once
+     * the source is exhausted. Stops recording if the rows exceed {@code maxSizeInBytes}.
+     */
+    private static final class RecordingBatchIterator extends ForwardingBatchIterator<Row> {
+
+        private final BatchIterator<Row> delegate;
+        private final Streamer<?>[] streamers;
+        private final long maxSizeInBytes;
+        private final Consumer<CachedRows> onComplete;
+
+        @Nullable
+        private BytesStreamOutput out = new BytesStreamOutput();
+        private int numRows = 0;
+
+        RecordingBatchIterator(BatchIterator<Row> delegate,
+                               Streamer<?>[] streamers,
+                               long maxSizeInBytes,
+                               Consumer<CachedRows> onComplete) {
+            this.delegate = delegate;
+            this.streamers = streamers;
+            this.maxSizeInBytes = maxSizeInBytes;
+            this.onComplete = onComplete;
+        }
+
+        @Override
+        protected BatchIterator<Row> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public boolean moveNext() {
+            if (delegate.moveNext()) {
+                if (out != null) {
+                    record(delegate.currentElement());
+                }
+                return true;
+            }
+            if (out != null && delegate.allLoaded()) {
+                CachedRows rows = new CachedRows(numRows, out.bytes());
+                out = null;
+                onComplete.accept(rows);
+            }
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void record(Row row) {
+            try {
+                for (int i = 0; i < streamers.length; i++) {
+                    ((Streamer) streamers[i]).writeValueTo(out, row.get(i));
+                }
+                numRows++;
+                if (out.size() > maxSizeInBytes) {
+                    out = null;
+                }
+            } catch (IOException e) {
+                out = null;
+            }
+        }
+
+        @Override
+        public void moveToStart() {
+            out = null;
+            delegate.moveToStart();
+        }
+
+        @Override
+        public void kill(@Nonnull Throwable throwable) {
+            out = null;
+            delegate.kill(throwable);
+        }
+    }
+}
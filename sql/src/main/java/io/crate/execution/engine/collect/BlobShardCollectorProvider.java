@@ -23,6 +23,7 @@
 package io.crate.execution.engine.collect;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.blob.BlobEntry;
 import io.crate.blob.v2.BlobShard;
 import io.crate.data.BatchIterator;
 import io.crate.data.InMemoryBatchIterator;
@@ -46,7 +47,6 @@ import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
-import java.io.File;
 
 public class BlobShardCollectorProvider extends ShardCollectorProvider {
 
@@ -93,8 +93,8 @@ public class BlobShardCollectorProvider extends ShardCollectorProvider {
     }
 
     private Iterable<Row> getBlobRows(TransactionContext txnCtx, RoutedCollectPhase collectPhase, boolean requiresRepeat) {
-        Iterable<File> files = blobShard.blobContainer().getFiles();
-        Iterable<Row> rows = RowsTransformer.toRowsIterable(txnCtx, inputFactory, BlobReferenceResolver.INSTANCE, collectPhase, files);
+        Iterable<BlobEntry> blobs = blobShard.blobContainer().getBlobs();
+        Iterable<Row> rows = RowsTransformer.toRowsIterable(txnCtx, inputFactory, BlobReferenceResolver.INSTANCE, collectPhase, blobs);
         if (requiresRepeat) {
             return ImmutableList.copyOf(rows);
         }
@@ -36,6 +36,7 @@ public class CollectOperationModule extends AbstractModule {
 
         bind(JobsLogService.class).asEagerSingleton();
         bind(JobsLogs.class).toProvider(JobsLogService.class);
+        bind(AggregationResultCache.class).asEagerSingleton();
         bind(ShardCollectSource.class).asEagerSingleton();
         bind(SystemCollectSource.class).asEagerSingleton();
     }
@@ -36,11 +36,13 @@ import io.crate.execution.jobs.SharedShardContexts;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.TransactionContext;
+import io.crate.profile.OperatorProfiler;
 import org.elasticsearch.Version;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Locale;
 import java.util.function.Function;
@@ -60,6 +62,8 @@ public class CollectTask extends AbstractTask {
     private final int ramAccountingBlockSizeInBytes;
     private final ArrayList<MemoryManager> memoryManagers = new ArrayList<>();
     private final Version minNodeVersion;
+    @Nullable
+    private final OperatorProfiler operatorProfiler;
 
     private BatchIterator<Row> batchIterator = null;
     private long totalBytes = -1;
@@ -73,6 +77,28 @@ public class CollectTask extends AbstractTask {
                        SharedShardContexts sharedShardContexts,
                        Version minNodeVersion,
                        int ramAccountingBlockSizeInBytes) {
+        this(collectPhase,
+             txnCtx,
+             collectOperation,
+             ramAccounting,
+             memoryManagerFactory,
+             consumer,
+             sharedShardContexts,
+             minNodeVersion,
+             ramAccountingBlockSizeInBytes,
+             null);
+    }
+
+    public CollectTask(final CollectPhase collectPhase,
+                       TransactionContext txnCtx,
+                       MapSideDataCollectOperation collectOperation,
+                       RamAccounting ramAccounting,
+                       Function<RamAccounting, MemoryManager> memoryManagerFactory,
+                       RowConsumer consumer,
+                       SharedShardContexts sharedShardContexts,
+                       Version minNodeVersion,
+                       int ramAccountingBlockSizeInBytes,
+                       @Nullable OperatorProfiler operatorProfiler) {
         super(collectPhase.phaseId());
         this.collectPhase = collectPhase;
         this.txnCtx = txnCtx;
@@ -84,6 +110,7 @@ public class CollectTask extends AbstractTask {
         this.ramAccountingBlockSizeInBytes = ramAccountingBlockSizeInBytes;
         this.consumer.completionFuture().whenComplete(closeOrKill(this));
         this.minNodeVersion = minNodeVersion;
+        this.operatorProfiler = operatorProfiler;
     }
 
     public void addSearcher(int searcherId, Engine.Searcher searcher) {
@@ -210,4 +237,12 @@ public class CollectTask extends AbstractTask {
     public Version minNodeVersion() {
         return minNodeVersion;
     }
+
+    /**
+     * @return the profiler for the operators of the collect phase; null if profiling is disabled.
+     */
+    @Nullable
+    public OperatorProfiler operatorProfiler() {
+        return operatorProfiler;
+    }
 }
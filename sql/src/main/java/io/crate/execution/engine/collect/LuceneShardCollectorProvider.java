@@ -50,6 +50,7 @@ import io.crate.metadata.table.Operation;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.index.IndexService;
@@ -77,6 +78,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     private final BigArrays bigArrays;
     private final FieldTypeLookup fieldTypeLookup;
     private final DocTableInfo table;
+    private final AggregationResultCache aggregationResultCache;
 
     public LuceneShardCollectorProvider(Schemas schemas,
                                         LuceneQueryBuilder luceneQueryBuilder,
@@ -87,7 +89,8 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
                                         Settings settings,
                                         TransportActionProvider transportActionProvider,
                                         IndexShard indexShard,
-                                        BigArrays bigArrays) {
+                                        BigArrays bigArrays,
+                                        AggregationResultCache aggregationResultCache) {
         super(
             clusterService,
             schemas,
@@ -97,9 +100,14 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             settings,
             transportActionProvider,
             indexShard,
-            new ShardRowContext(indexShard, clusterService),
+            new ShardRowContext(
+                indexShard,
+                clusterService,
+                aggregationResultCache.shardStats(indexShard.shardId())
+            ),
             bigArrays
         );
+        this.aggregationResultCache = aggregationResultCache;
         this.luceneQueryBuilder = luceneQueryBuilder;
         this.functions = functions;
         this.indexShard = indexShard;
@@ -120,6 +128,13 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
         this.bigArrays = bigArrays;
     }
 
+    @Override
+    protected BatchIterator<Row> getCachedIterator(RoutedCollectPhase normalizedPhase,
+                                                   CollectTask collectTask,
+                                                   CheckedSupplier<BatchIterator<Row>, Exception> createIterator) throws Exception {
+        return aggregationResultCache.getOrCollect(indexShard, normalizedPhase, collectTask, createIterator);
+    }
+
     @Override
     protected BatchIterator<Row> getUnorderedIterator(RoutedCollectPhase collectPhase,
                                                       boolean requiresScroll,
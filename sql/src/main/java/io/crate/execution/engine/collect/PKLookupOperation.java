@@ -40,7 +40,6 @@ import io.crate.memory.MemoryManager;
 import io.crate.metadata.TransactionContext;
 import io.crate.planner.operators.PKAndVersion;
 import org.apache.lucene.index.Term;
-import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.VersionType;
@@ -64,8 +63,6 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static org.elasticsearch.common.xcontent.XContentHelper.convertToMap;
-
 public final class PKLookupOperation {
 
     private final IndicesService indicesService;
@@ -145,8 +142,7 @@ public final class PKLookupOperation {
                 docIdAndVersion.version,
                 docIdAndVersion.seqNo,
                 docIdAndVersion.primaryTerm,
-                convertToMap(visitor.source(), false, XContentType.JSON).v2(),
-                () -> visitor.source().utf8ToString()
+                visitor.source()
             );
         }
     }
@@ -44,6 +44,7 @@ import io.crate.metadata.RowGranularity;
 import io.crate.metadata.Schemas;
 import io.crate.metadata.shard.ShardReferenceResolver;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.index.shard.IndexShard;
@@ -104,6 +105,17 @@ public abstract class ShardCollectorProvider {
             "granularity must be DOC";
 
         RoutedCollectPhase normalizedCollectNode = collectPhase.normalize(shardNormalizer, null);
+        return getCachedIterator(
+            normalizedCollectNode,
+            collectTask,
+            () -> createIterator(collectPhase, normalizedCollectNode, requiresScroll, collectTask)
+        );
+    }
+
+    private BatchIterator<Row> createIterator(RoutedCollectPhase collectPhase,
+                                              RoutedCollectPhase normalizedCollectNode,
+                                              boolean requiresScroll,
+                                              CollectTask collectTask) {
         BatchIterator<Row> fusedIterator = getProjectionFusedIterator(normalizedCollectNode, collectTask);
         if (fusedIterator != null) {
             return fusedIterator;
@@ -125,6 +137,16 @@ public abstract class ShardCollectorProvider {
         );
     }
 
+    /**
+     * @return A BatchIterator which emits the same rows as the iterator created by {@code createIterator}.
+     *         Implementations may return previously computed rows instead of creating the iterator.
+     */
+    protected BatchIterator<Row> getCachedIterator(RoutedCollectPhase normalizedPhase,
+                                                   CollectTask collectTask,
+                                                   CheckedSupplier<BatchIterator<Row>, Exception> createIterator) throws Exception {
+        return createIterator.get();
+    }
+
     /**
      * @return A BatchIterator which already applies the transformation described in the shardProjections of the collectPhase.
      *         This can be used to return a specialized BatchIterator for certain projections. If this returns null
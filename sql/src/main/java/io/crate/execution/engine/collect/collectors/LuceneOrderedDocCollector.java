@@ -146,6 +146,8 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
             expression.setScorer(scorer);
         }
         ramAccounting.addBytes(batchSize * FIELD_DOC_SIZE);
+        // If the table has an index sort (`sort.field`) and `sort` is a prefix of it, the collector
+        // stops collecting a segment as soon as it holds `batchSize` hits, as no hits are tracked beyond that.
         TopFieldCollector topFieldCollector = TopFieldCollector.create(
             sort,
             batchSize,
@@ -51,6 +51,7 @@ public class ProjectorSetupCollectSource implements CollectSource {
             collectTask.getRamAccounting(),
             collectTask.memoryManager(),
             projectorFactory,
+            collectTask.operatorProfiler(),
             sourceDelegate.getIterator(txnCtx, collectPhase, collectTask, supportMoveToStart)
         );
     }
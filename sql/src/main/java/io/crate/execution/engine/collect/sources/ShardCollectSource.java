@@ -39,6 +39,7 @@ import io.crate.execution.TransportActionProvider;
 import io.crate.execution.dsl.phases.CollectPhase;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.dsl.projection.Projections;
+import io.crate.execution.engine.collect.AggregationResultCache;
 import io.crate.execution.engine.collect.CollectTask;
 import io.crate.execution.engine.collect.RemoteCollectorFactory;
 import io.crate.execution.engine.collect.RowsTransformer;
@@ -155,6 +156,7 @@ public class ShardCollectSource implements CollectSource {
     private final StaticTableReferenceResolver<UnassignedShard> unassignedShardReferenceResolver;
     private final StaticTableReferenceResolver<ShardRowContext> shardReferenceResolver;
     private final IntSupplier availableThreads;
+    private final AggregationResultCache aggregationResultCache;
 
     @Inject
     public ShardCollectSource(Settings settings,
@@ -171,7 +173,9 @@ public class ShardCollectSource implements CollectSource {
                               IndexEventListenerProxy indexEventListenerProxy,
                               BlobIndicesService blobIndicesService,
                               PageCacheRecycler pageCacheRecycler,
-                              CrateCircuitBreakerService circuitBreakerService) {
+                              CrateCircuitBreakerService circuitBreakerService,
+                              AggregationResultCache aggregationResultCache) {
+        this.aggregationResultCache = aggregationResultCache;
         this.unassignedShardReferenceResolver = new StaticTableReferenceResolver<>(
             SysShardsTableInfo.unassignedShardsExpressions());
         this.shardReferenceResolver = new StaticTableReferenceResolver<>(SysShardsTableInfo.expressions());
@@ -193,7 +197,8 @@ public class ShardCollectSource implements CollectSource {
             functions,
             luceneQueryBuilder,
             nodeJobsCounter,
-            bigArrays);
+            bigArrays,
+            aggregationResultCache);
         EvaluatingNormalizer nodeNormalizer = new EvaluatingNormalizer(
             functions,
             RowGranularity.DOC,
@@ -246,10 +251,12 @@ public class ShardCollectSource implements CollectSource {
             LOGGER.debug("removing shard upon close in {} shard={} numShards={}", ShardCollectSource.this, shardId, shards.size());
             assert shards.containsKey(shardId) : "shard entry missing upon close";
             shards.remove(shardId);
+            aggregationResultCache.clear(shardId);
         }
 
         @Override
         public void beforeIndexShardDeleted(ShardId shardId, Settings indexSettings) {
+            aggregationResultCache.clear(shardId);
             if (shards.remove(shardId) != null) {
                 LOGGER.debug("removed shard upon delete in {} shard={} remainingShards={}", ShardCollectSource.this, shardId, shards.size());
             } else {
@@ -273,7 +280,8 @@ public class ShardCollectSource implements CollectSource {
             collectTask.txnCtx(),
             collectTask.getRamAccounting(),
             collectTask.memoryManager(),
-            sharedProjectorFactory
+            sharedProjectorFactory,
+            collectTask.operatorProfiler()
         );
         boolean requireMoveToStartSupport = supportMoveToStart && !projectors.providesIndependentScroll();
 
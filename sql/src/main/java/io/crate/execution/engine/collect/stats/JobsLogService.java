@@ -62,6 +62,7 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.indices.MergeCoordinator;
 
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedDeque;
@@ -145,7 +146,8 @@ public class JobsLogService extends AbstractLifecycleComponent implements Provid
                           ClusterService clusterService,
                           ClusterSettings clusterSettings,
                           Functions functions,
-                          CrateCircuitBreakerService breakerService) {
+                          CrateCircuitBreakerService breakerService,
+                          MergeCoordinator mergeCoordinator) {
         this(
             settings,
             clusterService::localNode,
@@ -154,6 +156,8 @@ public class JobsLogService extends AbstractLifecycleComponent implements Provid
             Executors.newSingleThreadScheduledExecutor(),
             breakerService
         );
+        // the merges of the node are throttled if the queries become slow
+        jobsLogs.setQueryLatencyListener(mergeCoordinator::onQueryExecuted);
     }
 
     @VisibleForTesting
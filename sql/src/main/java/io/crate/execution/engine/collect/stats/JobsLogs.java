@@ -40,8 +40,10 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
 import java.util.function.LongSupplier;
 
+import static io.crate.planner.Plan.StatementType.SELECT;
 import static io.crate.planner.Plan.StatementType.UNDEFINED;
 
 
@@ -77,16 +79,26 @@ public class JobsLogs {
     private final LongAdder activeRequests = new LongAdder();
     private final BooleanSupplier enabled;
     private final ClassifiedMetrics classifiedMetrics = new ClassifiedMetrics();
+    private volatile LongConsumer queryLatencyListener = ignored -> {};
 
     public JobsLogs(BooleanSupplier enabled) {
         this.enabled = enabled;
     }
 
+    /**
+     * Sets a listener which receives the duration in ms of each successful SELECT statement handled by this node.
+     * <p>
+     * Like the metrics, durations are only recorded if {@link #isEnabled()} is true.
+     */
+    public void setQueryLatencyListener(LongConsumer queryLatencyListener) {
+        this.queryLatencyListener = queryLatencyListener;
+    }
+
     /**
      * Indicates if statistics are gathered.
      * This result will change if the cluster settings is updated.
      */
-    private boolean isEnabled() {
+    public boolean isEnabled() {
         return enabled.getAsBoolean();
     }
 
@@ -137,6 +149,9 @@ public class JobsLogs {
         assert classification != null : "A job must have a classification";
         if (log.errorMessage() == null) {
             classifiedMetrics.recordValue(classification, log.ended() - log.started());
+            if (classification.type() == SELECT) {
+                queryLatencyListener.accept(log.ended() - log.started());
+            }
         } else {
             classifiedMetrics.recordFailedExecution(classification, log.ended() - log.started());
         }
@@ -162,10 +177,18 @@ public class JobsLogs {
     }
 
     public void operationStarted(int operationId, UUID jobId, String name, LongSupplier bytesUsed) {
+        operationStarted(operationId, jobId, name, bytesUsed, new OperationResourceUsage());
+    }
+
+    public void operationStarted(int operationId,
+                                 UUID jobId,
+                                 String name,
+                                 LongSupplier bytesUsed,
+                                 OperationResourceUsage resourceUsage) {
         if (isEnabled()) {
             operationsTable.put(
                 uniqueOperationId(operationId, jobId),
-                new OperationContext(operationId, jobId, name, System.currentTimeMillis(), bytesUsed));
+                new OperationContext(operationId, jobId, name, System.currentTimeMillis(), bytesUsed, resourceUsage));
         }
     }
 
@@ -0,0 +1,134 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Resources used by an operation (a task of a job on a node).
+ *
+ * CPU time and allocated bytes are measured on the threads which iterate over the result of the operation,
+ * once per batch. The peak of the used bytes is sampled at the same points in time.
+ */
+public final class OperationResourceUsage {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final MethodHandle GET_THREAD_ALLOCATED_BYTES = getThreadAllocatedBytesHandle();
+
+    private final LongAdder cpuTimeNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private volatile long peakUsedBytes = 0L;
+    private volatile LongSupplier usedBytes = () -> 0L;
+    private volatile LongSupplier sentBytes = () -> 0L;
+
+    public void usedBytes(LongSupplier usedBytes) {
+        this.usedBytes = usedBytes;
+    }
+
+    /**
+     * @param sentBytes supplier for the size of the results which were sent to other operations
+     */
+    public void sentBytes(LongSupplier sentBytes) {
+        this.sentBytes = sentBytes;
+    }
+
+    public void onIteration(long cpuTimeNanos, long allocatedBytes) {
+        this.cpuTimeNanos.add(cpuTimeNanos);
+        this.allocatedBytes.add(allocatedBytes);
+        updatePeakUsedBytes();
+    }
+
+    private void updatePeakUsedBytes() {
+        long bytes = usedBytes.getAsLong();
+        if (bytes > peakUsedBytes) {
+            // racy, but good enough for a sampled value
+            peakUsedBytes = bytes;
+        }
+    }
+
+    public long cpuTimeNanos() {
+        return cpuTimeNanos.sum();
+    }
+
+    public long allocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    public long sentBytes() {
+        return sentBytes.getAsLong();
+    }
+
+    public long peakUsedBytes() {
+        updatePeakUsedBytes();
+        return peakUsedBytes;
+    }
+
+    /**
+     * @return the CPU time of the current thread in nanoseconds or -1 if not supported
+     */
+    static long currentThreadCpuTime() {
+        if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()) {
+            return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+        }
+        return -1L;
+    }
+
+    /**
+     * @return the bytes allocated by the current thread or -1 if not supported
+     */
+    static long currentThreadAllocatedBytes() {
+        if (GET_THREAD_ALLOCATED_BYTES == null) {
+            return -1L;
+        }
+        try {
+            return (long) GET_THREAD_ALLOCATED_BYTES.invokeExact(Thread.currentThread().getId());
+        } catch (Throwable t) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Returns a handle to the getThreadAllocatedBytes method of the ThreadMXBean of the HotSpot JVM,
+     * bound to the ThreadMXBean, or null if the method is not found or unavailable.
+     */
+    private static MethodHandle getThreadAllocatedBytesHandle() {
+        try {
+            Class<?> threadMXBeanClass = Class.forName("com.sun.management.ThreadMXBean");
+            if (threadMXBeanClass.isInstance(THREAD_MX_BEAN)) {
+                return MethodHandles.publicLookup()
+                    .findVirtual(threadMXBeanClass, "getThreadAllocatedBytes", MethodType.methodType(long.class, long.class))
+                    .bindTo(THREAD_MX_BEAN);
+            }
+            return null;
+        } catch (Exception e) {
+            // not available
+            return null;
+        }
+    }
+}
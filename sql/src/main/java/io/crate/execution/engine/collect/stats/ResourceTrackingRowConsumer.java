@@ -0,0 +1,154 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * RowConsumer which measures the CPU time and the allocated bytes of the threads that iterate over the
+ * BatchIterator it receives and adds them to the {@link OperationResourceUsage} of an operation.
+ *
+ * The measurements are taken once per iteration over a batch, so the overhead doesn't depend on the number of rows.
+ *
+ * If the iteration of an operation is nested in the iteration of another operation on the same thread
+ * (e.g. a collect phase and a merge phase on the same node), the resources used by the nested
+ * operation are subtracted from the outer operation.
+ */
+public final class ResourceTrackingRowConsumer implements RowConsumer {
+
+    /**
+     * CPU time and allocated bytes of the nested iterations of the current thread
+     */
+    private static final ThreadLocal<long[]> NESTED_USAGE = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final RowConsumer consumer;
+    private final OperationResourceUsage resourceUsage;
+
+    public ResourceTrackingRowConsumer(RowConsumer consumer, OperationResourceUsage resourceUsage) {
+        this.consumer = consumer;
+        this.resourceUsage = resourceUsage;
+    }
+
+    @Override
+    public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
+        if (iterator == null) {
+            consumer.accept(null, failure);
+        } else {
+            consumer.accept(new ResourceTrackingBatchIterator(iterator, resourceUsage), failure);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> completionFuture() {
+        return consumer.completionFuture();
+    }
+
+    @Override
+    public boolean requiresScroll() {
+        return consumer.requiresScroll();
+    }
+
+    private static class ResourceTrackingBatchIterator extends ForwardingBatchIterator<Row> {
+
+        private final BatchIterator<Row> delegate;
+        private final OperationResourceUsage resourceUsage;
+
+        private Thread iteratingThread = null;
+        private long iterationStartCpuTime;
+        private long iterationStartAllocatedBytes;
+        private long nestedCpuTimeAtStart;
+        private long nestedAllocatedBytesAtStart;
+
+        ResourceTrackingBatchIterator(BatchIterator<Row> delegate, OperationResourceUsage resourceUsage) {
+            this.delegate = delegate;
+            this.resourceUsage = resourceUsage;
+        }
+
+        @Override
+        protected BatchIterator<Row> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public boolean moveNext() {
+            if (iteratingThread == null) {
+                iteratingThread = Thread.currentThread();
+                iterationStartCpuTime = OperationResourceUsage.currentThreadCpuTime();
+                iterationStartAllocatedBytes = OperationResourceUsage.currentThreadAllocatedBytes();
+                long[] nestedUsage = NESTED_USAGE.get();
+                nestedCpuTimeAtStart = nestedUsage[0];
+                nestedAllocatedBytesAtStart = nestedUsage[1];
+            }
+            if (delegate.moveNext()) {
+                return true;
+            }
+            stopIteration();
+            return false;
+        }
+
+        @Override
+        public void moveToStart() {
+            stopIteration();
+            delegate.moveToStart();
+        }
+
+        @Override
+        public void close() {
+            stopIteration();
+            delegate.close();
+        }
+
+        private void stopIteration() {
+            if (iteratingThread == null) {
+                return;
+            }
+            // a consumer may pause and resume the iteration on another thread; the values of different threads can't be mixed
+            if (iteratingThread == Thread.currentThread()) {
+                long cpuTime = 0L;
+                if (iterationStartCpuTime >= 0) {
+                    cpuTime = OperationResourceUsage.currentThreadCpuTime() - iterationStartCpuTime;
+                }
+                long allocatedBytes = 0L;
+                if (iterationStartAllocatedBytes >= 0) {
+                    allocatedBytes = OperationResourceUsage.currentThreadAllocatedBytes() - iterationStartAllocatedBytes;
+                }
+                long[] nestedUsage = NESTED_USAGE.get();
+                long ownCpuTime = cpuTime - (nestedUsage[0] - nestedCpuTimeAtStart);
+                long ownAllocatedBytes = allocatedBytes - (nestedUsage[1] - nestedAllocatedBytesAtStart);
+                resourceUsage.onIteration(Math.max(0L, ownCpuTime), Math.max(0L, ownAllocatedBytes));
+
+                // replace the usage of the nested iterations with the total usage of this iteration,
+                // so that an outer iteration only subtracts the usage of its direct nested iterations.
+                nestedUsage[0] = nestedCpuTimeAtStart + cpuTime;
+                nestedUsage[1] = nestedAllocatedBytesAtStart + allocatedBytes;
+            }
+            iteratingThread = null;
+        }
+    }
+}
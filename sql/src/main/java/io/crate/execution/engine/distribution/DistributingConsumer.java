@@ -40,6 +40,7 @@ import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Consumer which sends requests to downstream nodes every {@link #pageSize} rows.
@@ -64,6 +65,7 @@ public class DistributingConsumer implements RowConsumer {
     private final List<Downstream> downstreams;
     private final boolean traceEnabled;
     private final CompletableFuture<Void> completionFuture;
+    private final AtomicLong sentBytes = new AtomicLong(0L);
 
     @VisibleForTesting
     final MultiBucketBuilder multiBucketBuilder;
@@ -112,6 +114,13 @@ public class DistributingConsumer implements RowConsumer {
         return completionFuture;
     }
 
+    /**
+     * @return the size of the result buckets sent to the downstreams so far in bytes
+     */
+    public long sentBytes() {
+        return sentBytes.get();
+    }
+
     private void consumeIt(BatchIterator<Row> it) {
         try {
             while (it.moveNext()) {
@@ -201,6 +210,7 @@ public class DistributingConsumer implements RowConsumer {
                 logger.trace("forwardResults targetNode={} jobId={} targetPhase={}/{} bucket={} isLast={}",
                     downstream.nodeId, jobId, targetPhaseId, inputId, bucketIdx, isLast);
             }
+            sentBytes.addAndGet(buckets[i].sizeInBytes());
             distributedResultAction.pushResult(
                 downstream.nodeId,
                 new DistributedResultRequest(jobId, targetPhaseId, inputId, bucketIdx, buckets[i], isLast),
@@ -24,7 +24,6 @@ package io.crate.execution.engine.distribution;
 
 import io.crate.Streamer;
 import io.crate.breaker.RamAccounting;
-import io.crate.data.RowConsumer;
 import io.crate.execution.dsl.phases.ExecutionPhases;
 import io.crate.execution.dsl.phases.NodeOperation;
 import io.crate.execution.jobs.PageBucketReceiver;
@@ -62,7 +61,7 @@ public class DistributingConsumerFactory {
         distributingDownstreamLogger = LogManager.getLogger(DistributingConsumer.class);
     }
 
-    public RowConsumer create(NodeOperation nodeOperation,
+    public DistributingConsumer create(NodeOperation nodeOperation,
                               RamAccounting ramAccounting,
                               DistributionInfo distributionInfo,
                               UUID jobId,
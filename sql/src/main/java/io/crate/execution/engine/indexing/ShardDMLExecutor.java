@@ -53,8 +53,6 @@ import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
-import static io.crate.execution.jobs.NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS;
-
 public class ShardDMLExecutor<TReq extends ShardRequest<TReq, TItem>,
                               TItem extends ShardRequest.Item,
                               TAcc,
@@ -116,19 +114,23 @@ public class ShardDMLExecutor<TReq extends ShardRequest<TReq, TItem>,
 
         nodeJobsCounter.increment(localNodeId);
         CompletableFuture<TAcc> result = listener.whenComplete((r, f) -> nodeJobsCounter.decrement(localNodeId));
-        operation.accept(request, withRetry(request, listener));
+        operation.accept(request, measure(request, withRetry(request, listener)));
         return result;
     }
 
     private RetryListener<ShardResponse> withRetry(TReq request, FutureActionListener<ShardResponse, TAcc> listener) {
         return new RetryListener<>(
             scheduler,
-            l -> operation.accept(request, l),
+            l -> operation.accept(request, measure(request, l)),
             listener,
             BACKOFF_POLICY
         );
     }
 
+    private ActionListener<ShardResponse> measure(TReq request, ActionListener<ShardResponse> listener) {
+        return nodeJobsCounter.getLimit(localNodeId).measure(request.items().size(), listener);
+    }
+
     @Override
     public CompletableFuture<TResult> apply(BatchIterator<Row> batchIterator) {
         BatchIterator<TReq> reqBatchIterator =
@@ -137,8 +139,7 @@ public class ShardDMLExecutor<TReq extends ShardRequest<TReq, TItem>,
         // as soon as possible. We do not want to throttle based on the targets node counter in such cases.
         Predicate<TReq> shouldPause = ignored -> true;
         if (batchIterator.involvesIO()) {
-            shouldPause = ignored ->
-                nodeJobsCounter.getInProgressJobsForNode(localNodeId) >= MAX_NODE_CONCURRENT_OPERATIONS;
+            shouldPause = ignored -> nodeJobsCounter.isLimitReached(localNodeId);
         }
 
         return new BatchIteratorBackpressureExecutor<>(
@@ -25,10 +25,12 @@ package io.crate.execution.engine.indexing;
 import io.crate.execution.dml.ShardRequest;
 import org.elasticsearch.index.shard.ShardId;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 public final class ShardedRequests<TReq extends ShardRequest<TReq, TItem>, TItem extends ShardRequest.Item> {
@@ -40,10 +42,15 @@ public final class ShardedRequests<TReq extends ShardRequest<TReq, TItem>, TItem
     final Map<ShardLocation, TReq> itemsByShard = new HashMap<>();
 
     private final Function<ShardId, TReq> requestFactory;
+    // number of items by the node of their shard, the node of shards which aren't assigned is null
+    private final Map<String, int[]> numItemsByNode = new HashMap<>();
 
     private int location = -1;
     private long usedMemoryEstimate = 0L;
 
+    @Nullable
+    ShardLocation lastAddedTo = null;
+
     /**
      * @param requestFactory function to create a request
      */
@@ -68,8 +75,10 @@ public final class ShardedRequests<TReq extends ShardRequest<TReq, TItem>, TItem
             itemsByShard.put(shardLocation, req);
         }
         location++;
+        lastAddedTo = shardLocation;
         req.add(location, item);
         rowSourceInfos.add(rowSourceInfo);
+        numItemsByNode.computeIfAbsent(shardLocation.nodeId, k -> new int[1])[0]++;
     }
 
     void addFailedItem(String sourceUri, String readFailure, Long lineNumber) {
@@ -87,6 +96,21 @@ public final class ShardedRequests<TReq extends ShardRequest<TReq, TItem>, TItem
         return usedMemoryEstimate;
     }
 
+    /**
+     * @return the number of items added for the shards on the given node
+     */
+    int numItems(@Nullable String nodeId) {
+        int[] numItems = numItemsByNode.get(nodeId);
+        return numItems == null ? 0 : numItems[0];
+    }
+
+    /**
+     * @return the nodes of the shards items were added for
+     */
+    Set<String> nodeIds() {
+        return numItemsByNode.keySet();
+    }
+
     public Map<String, List<ItemAndRoutingAndSourceInfo<TItem>>> itemsByMissingIndex() {
         return itemsByMissingIndex;
     }
@@ -33,6 +33,7 @@ import io.crate.execution.dml.upsert.ShardUpsertRequest;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.RowShardResolver;
 import io.crate.execution.jobs.NodeJobsCounter;
+import io.crate.execution.jobs.NodeLimit;
 import io.crate.execution.support.RetryListener;
 import io.crate.settings.CrateSetting;
 import io.crate.types.DataTypes;
@@ -50,6 +51,8 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.shard.ShardId;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -65,8 +68,12 @@ import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.ToLongFunction;
 
-import static io.crate.execution.jobs.NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS;
-
+/**
+ * Groups the rows of a BatchIterator into {@link ShardUpsertRequest}s and executes them.
+ *
+ * The number of items per request and the number of concurrent requests towards a node adapt to the response
+ * times and rejections of the node, see {@link NodeLimit}.
+ */
 public class ShardingUpsertExecutor
     implements Function<BatchIterator<Row>, CompletableFuture<? extends Iterable<? extends Row>>> {
 
@@ -177,43 +184,104 @@ public class ShardingUpsertExecutor
             // could be that processing the source uri only results in errors, so no items per shard exists
             return CompletableFuture.completedFuture(upsertResults);
         }
-        final AtomicInteger numRequests = new AtomicInteger(itemsByShard.size());
-        final AtomicReference<Exception> interrupt = new AtomicReference<>(null);
-        final CompletableFuture<UpsertResults> resultFuture = new CompletableFuture<>();
+        Map<ShardLocation, List<ShardUpsertRequest>> requestsByShard = new HashMap<>(itemsByShard.size());
+        int totalRequests = 0;
         Iterator<Map.Entry<ShardLocation, ShardUpsertRequest>> it = itemsByShard.entrySet().iterator();
         while (it.hasNext()) {
             Map.Entry<ShardLocation, ShardUpsertRequest> entry = it.next();
-            ShardUpsertRequest request = entry.getValue();
             it.remove();
-
-            String nodeId = entry.getKey().nodeId;
-            nodeJobsCounter.increment(nodeId);
-            ActionListener<ShardResponse> listener =
-                new ShardResponseActionListener(
-                    nodeId,
-                    numRequests,
-                    interrupt,
-                    upsertResults,
-                    resultCollector.accumulator(),
-                    rowSourceInfos,
-                    resultFuture);
-
-            listener = new RetryListener<>(
-                scheduler,
-                l -> {
-                    if (isDebugEnabled) {
-                        LOGGER.debug("Executing retry Listener for nodeId: {} request: {}", nodeId, request);
-                    }
-                    requestExecutor.execute(request, l);
-                },
-                listener,
-                BACKOFF_POLICY
+            List<ShardUpsertRequest> requests = splitByNodeBulkSize(entry.getKey(), entry.getValue());
+            requestsByShard.put(entry.getKey(), requests);
+            totalRequests += requests.size();
+        }
+        final AtomicInteger numRequests = new AtomicInteger(totalRequests);
+        final AtomicReference<Exception> interrupt = new AtomicReference<>(null);
+        final CompletableFuture<UpsertResults> resultFuture = new CompletableFuture<>();
+        for (Map.Entry<ShardLocation, List<ShardUpsertRequest>> entry : requestsByShard.entrySet()) {
+            execRequestsOneByOne(
+                entry.getKey().nodeId,
+                entry.getValue().iterator(),
+                numRequests,
+                interrupt,
+                upsertResults,
+                rowSourceInfos,
+                resultFuture
             );
-            requestExecutor.execute(request, listener);
         }
         return resultFuture;
     }
 
+    /**
+     * Splits the request into requests with at most the adaptive bulk size of the node of the shard.
+     * A batch is only cut once a node reached the largest bulk size of the nodes of the batch,
+     * see {@link #isNodeBulkSizeReached(ShardedRequests)}, so nodes with a smaller bulk size receive several requests.
+     */
+    private List<ShardUpsertRequest> splitByNodeBulkSize(ShardLocation shardLocation, ShardUpsertRequest request) {
+        int nodeBulkSize = nodeJobsCounter.getLimit(shardLocation.nodeId).bulkSize(bulkSize);
+        List<ShardUpsertRequest.Item> items = request.items();
+        if (items.size() <= nodeBulkSize) {
+            return List.of(request);
+        }
+        ArrayList<ShardUpsertRequest> requests = new ArrayList<>(items.size() / nodeBulkSize + 1);
+        for (int start = 0; start < items.size(); start += nodeBulkSize) {
+            ShardUpsertRequest part = requestFactory.apply(shardLocation.shardId);
+            for (ShardUpsertRequest.Item item : items.subList(start, Math.min(items.size(), start + nodeBulkSize))) {
+                part.add(item.location(), item);
+            }
+            requests.add(part);
+        }
+        return requests;
+    }
+
+    /**
+     * Executes the requests of a shard one after another, so that the parts of a split request
+     * don't exceed the concurrency limit of the node.
+     */
+    private void execRequestsOneByOne(String nodeId,
+                                      Iterator<ShardUpsertRequest> requests,
+                                      AtomicInteger numRequests,
+                                      AtomicReference<Exception> interrupt,
+                                      UpsertResults upsertResults,
+                                      List<RowSourceInfo> rowSourceInfos,
+                                      CompletableFuture<UpsertResults> resultFuture) {
+        ShardUpsertRequest request = requests.next();
+        nodeJobsCounter.increment(nodeId);
+        ActionListener<ShardResponse> listener =
+            new ShardResponseActionListener(
+                nodeId,
+                numRequests,
+                interrupt,
+                upsertResults,
+                resultCollector.accumulator(),
+                rowSourceInfos,
+                resultFuture);
+        if (requests.hasNext()) {
+            listener = ActionListener.runAfter(listener, () -> execRequestsOneByOne(
+                nodeId, requests, numRequests, interrupt, upsertResults, rowSourceInfos, resultFuture));
+        }
+
+        listener = new RetryListener<>(
+            scheduler,
+            l -> {
+                if (isDebugEnabled) {
+                    LOGGER.debug("Executing retry Listener for nodeId: {} request: {}", nodeId, request);
+                }
+                execRequest(nodeId, request, l);
+            },
+            listener,
+            BACKOFF_POLICY
+        );
+        execRequest(nodeId, request, listener);
+    }
+
+    /**
+     * Executes the request and feeds the response time or a rejection into the {@link NodeLimit} of the node.
+     */
+    private void execRequest(String nodeId, ShardUpsertRequest request, ActionListener<ShardResponse> listener) {
+        NodeLimit nodeLimit = nodeJobsCounter.getLimit(nodeId);
+        requestExecutor.execute(request, nodeLimit.measure(request.items().size(), listener));
+    }
+
 
     private CompletableFuture<AcknowledgedResponse> createPartitions(
         Map<String, List<ShardedRequests.ItemAndRoutingAndSourceInfo<ShardUpsertRequest.Item>>> itemsByMissingIndex) {
@@ -226,7 +294,7 @@ public class ShardingUpsertExecutor
     private boolean shouldPauseOnTargetNodeJobsCounter(ShardedRequests<ShardUpsertRequest, ShardUpsertRequest.Item> requests) {
         for (ShardLocation shardLocation : requests.itemsByShard.keySet()) {
             String requestNodeId = shardLocation.nodeId;
-            if (nodeJobsCounter.getInProgressJobsForNode(requestNodeId) >= MAX_NODE_CONCURRENT_OPERATIONS) {
+            if (nodeJobsCounter.isLimitReached(requestNodeId)) {
                 if (isDebugEnabled) {
                     LOGGER.debug("reached maximum concurrent operations for node {}", requestNodeId);
                 }
@@ -236,6 +304,42 @@ public class ShardingUpsertExecutor
         return false;
     }
 
+    private boolean shouldPauseOnCongestedTargetNode(ShardedRequests<ShardUpsertRequest, ShardUpsertRequest.Item> requests) {
+        for (ShardLocation shardLocation : requests.itemsByShard.keySet()) {
+            String requestNodeId = shardLocation.nodeId;
+            if (nodeJobsCounter.getLimit(requestNodeId).isCongested() && nodeJobsCounter.isLimitReached(requestNodeId)) {
+                if (isDebugEnabled) {
+                    LOGGER.debug("node {} is congested and reached its concurrent operations limit", requestNodeId);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cuts a batch once the node which received the last item got as many items as the largest adaptive bulk size
+     * of all nodes of the batch. The adaptive bulk size can be smaller or larger than the configured bulk size.
+     * Nodes with a smaller bulk size get their items in several requests, see {@link #splitByNodeBulkSize},
+     * so that a slow node doesn't shrink the requests towards all other nodes.
+     */
+    private boolean isNodeBulkSizeReached(ShardedRequests<ShardUpsertRequest, ShardUpsertRequest.Item> requests) {
+        ShardLocation shardLocation = requests.lastAddedTo;
+        if (shardLocation == null) {
+            return false;
+        }
+        int numItems = requests.numItems(shardLocation.nodeId);
+        if (numItems < nodeJobsCounter.getLimit(shardLocation.nodeId).bulkSize(bulkSize)) {
+            return false;
+        }
+        for (String nodeId : requests.nodeIds()) {
+            if (numItems < nodeJobsCounter.getLimit(nodeId).bulkSize(bulkSize)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /** @noinspection unused*/
     private boolean shouldPauseOnPartitionCreation(ShardedRequests<ShardUpsertRequest, ShardUpsertRequest.Item> ignore) {
         if (createPartitionsRequestOngoing) {
@@ -251,19 +355,22 @@ public class ShardingUpsertExecutor
     public CompletableFuture<? extends Iterable<Row>> apply(BatchIterator<Row> batchIterator) {
         var reqBatchIterator = BatchIterators.partition(
             batchIterator,
-            bulkSize,
+            (int) (bulkSize * NodeLimit.MAX_BULK_SIZE_FACTOR),
             () -> new ShardedRequests<>(requestFactory),
             grouper,
-            bulkShardCreationLimiter.or(isUsedBytesOverThreshold)
+            bulkShardCreationLimiter.or(isUsedBytesOverThreshold).or(this::isNodeBulkSizeReached)
         );
 
         // If IO is involved the source iterator should pause when the target node reaches a concurrent job counter limit.
         // Without IO, we assume that the source iterates over in-memory structures which should be processed as
-        // fast as possible to free resources.
+        // fast as possible to free resources. Unless a target node is congested, then it's paused nevertheless
+        // to avoid flooding the node with requests which get rejected anyway.
         Predicate<ShardedRequests<ShardUpsertRequest, ShardUpsertRequest.Item>> shouldPause =
             this::shouldPauseOnPartitionCreation;
         if (batchIterator.involvesIO()) {
             shouldPause = shouldPause.or(this::shouldPauseOnTargetNodeJobsCounter);
+        } else {
+            shouldPause = shouldPause.or(this::shouldPauseOnCongestedTargetNode);
         }
 
         BatchIteratorBackpressureExecutor<ShardedRequests<ShardUpsertRequest, ShardUpsertRequest.Item>, UpsertResults> executor =
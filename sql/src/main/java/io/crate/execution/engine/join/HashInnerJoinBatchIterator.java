@@ -233,12 +233,21 @@ public class HashInnerJoinBatchIterator extends JoinBatchIterator<Row, Row, Row>
             leftRow.cells(leftMatchingRowsIterator.next());
             combiner.setLeft(leftRow);
             if (joinCondition.test(combiner.currentElement())) {
+                onLeftRowMatched(leftMatchingRowsIterator);
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Called after a buffered left row matched the current right row, before the combined row is emitted.
+     *
+     * @param leftMatchingRows iterator over the buffered left rows with the same hash, positioned on the matched row
+     */
+    protected void onLeftRowMatched(Iterator<Object[]> leftMatchingRows) {
+    }
+
     private boolean mustSwitchToRight() {
         return left.allLoaded()
                || numberOfRowsInBuffer == blockSize
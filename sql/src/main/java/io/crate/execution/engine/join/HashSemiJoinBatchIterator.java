@@ -0,0 +1,59 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.join.CombinedRow;
+
+import java.util.Iterator;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Hash based semi join: emits every row of the left side at most once if there is at least one
+ * matching row on the right side.
+ * <p>
+ * Works like the {@link HashInnerJoinBatchIterator}, but a left row is removed from the buffer
+ * as soon as it matched, so subsequent right rows with the same join values can't emit it again.
+ * The right values of the emitted combined rows are those of the first match and must not be used
+ * by the consumer.
+ */
+public class HashSemiJoinBatchIterator extends HashInnerJoinBatchIterator {
+
+    public HashSemiJoinBatchIterator(RamAccountingBatchIterator<Row> left,
+                                     BatchIterator<Row> right,
+                                     CombinedRow combiner,
+                                     Predicate<Row> joinCondition,
+                                     ToIntFunction<Row> hashBuilderForLeft,
+                                     ToIntFunction<Row> hashBuilderForRight,
+                                     IntSupplier calculateBlockSize) {
+        super(left, right, combiner, joinCondition, hashBuilderForLeft, hashBuilderForRight, calculateBlockSize);
+    }
+
+    @Override
+    protected void onLeftRowMatched(Iterator<Object[]> leftMatchingRows) {
+        leftMatchingRows.remove();
+    }
+}
@@ -29,6 +29,7 @@ import io.crate.data.RowConsumer;
 import io.crate.execution.dsl.projection.Projection;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.TransactionContext;
+import io.crate.profile.OperatorProfiler;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 
 import javax.annotation.Nullable;
@@ -85,10 +86,26 @@ public class ProjectingRowConsumer implements RowConsumer {
                                      RamAccountingContext ramAccountingContext,
                                      MemoryManager memoryManager,
                                      ProjectorFactory projectorFactory) {
+        return create(lastConsumer, projections, jobId, txnCtx, ramAccountingContext, memoryManager, projectorFactory, null);
+    }
+
+    /**
+     * Like {@link #create(RowConsumer, Collection, UUID, TransactionContext, RamAccountingContext, MemoryManager, ProjectorFactory)}
+     * but records the stats of each projector if a {@code operatorProfiler} is given.
+     */
+    public static RowConsumer create(RowConsumer lastConsumer,
+                                     Collection<? extends Projection> projections,
+                                     UUID jobId,
+                                     TransactionContext txnCtx,
+                                     RamAccountingContext ramAccountingContext,
+                                     MemoryManager memoryManager,
+                                     ProjectorFactory projectorFactory,
+                                     @Nullable OperatorProfiler operatorProfiler) {
         if (projections.isEmpty()) {
             return lastConsumer;
         }
-        return new ProjectingRowConsumer(lastConsumer, projections, jobId, txnCtx, ramAccountingContext, memoryManager, projectorFactory);
+        return new ProjectingRowConsumer(
+            lastConsumer, projections, jobId, txnCtx, ramAccountingContext, memoryManager, projectorFactory, operatorProfiler);
     }
 
     private ProjectingRowConsumer(RowConsumer consumer,
@@ -97,9 +114,11 @@ public class ProjectingRowConsumer implements RowConsumer {
                                   TransactionContext txnCtx,
                                   RamAccountingContext ramAccountingContext,
                                   MemoryManager memoryManager,
-                                  ProjectorFactory projectorFactory) {
+                                  ProjectorFactory projectorFactory,
+                                  @Nullable OperatorProfiler operatorProfiler) {
         this.consumer = consumer;
-        this.projectors = new Projectors(projections, jobId, txnCtx, ramAccountingContext, memoryManager, projectorFactory);
+        this.projectors = new Projectors(
+            projections, jobId, txnCtx, ramAccountingContext, memoryManager, projectorFactory, operatorProfiler);
     }
 
     @Override
@@ -28,9 +28,15 @@ import io.crate.data.BatchIterator;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.engine.profile.ProfilingBatchIterator;
+import io.crate.execution.engine.profile.ProfilingInputBatchIterator;
+import io.crate.execution.engine.profile.ProfilingRamAccounting;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.TransactionContext;
+import io.crate.profile.OperatorProfiler;
+import io.crate.profile.OperatorStats;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.UUID;
@@ -43,6 +49,12 @@ public final class Projectors {
     @VisibleForTesting
     final ArrayList<Projector> projectors;
 
+    /**
+     * Stats of the projectors if profiling is enabled; same order as {@link #projectors}
+     */
+    @Nullable
+    private final ArrayList<OperatorStats> projectorStats;
+
     private final boolean independentScroll;
 
     public Projectors(Collection<? extends Projection> projections,
@@ -51,15 +63,41 @@ public final class Projectors {
                       RamAccounting ramAccounting,
                       MemoryManager memoryManager,
                       ProjectorFactory projectorFactory) {
+        this(projections, jobId, txnCtx, ramAccounting, memoryManager, projectorFactory, null);
+    }
+
+    /**
+     * @param operatorProfiler if not null, the rows, batches, timings and accounted bytes of each projector are recorded.
+     */
+    public Projectors(Collection<? extends Projection> projections,
+                      UUID jobId,
+                      TransactionContext txnCtx,
+                      RamAccounting ramAccounting,
+                      MemoryManager memoryManager,
+                      ProjectorFactory projectorFactory,
+                      @Nullable OperatorProfiler operatorProfiler) {
         boolean independentScroll = false;
         this.projectors = new ArrayList<>(projections.size());
+        this.projectorStats = operatorProfiler == null ? null : new ArrayList<>(projections.size());
+        int position = 0;
         for (Projection projection : projections) {
             if (projection.requiredGranularity().ordinal() > projectorFactory.supportedGranularity().ordinal()) {
+                position++;
                 continue;
             }
-            Projector projector = projectorFactory.create(projection, txnCtx, ramAccounting, memoryManager, jobId);
+            Projector projector;
+            if (operatorProfiler == null) {
+                projector = projectorFactory.create(projection, txnCtx, ramAccounting, memoryManager, jobId);
+            } else {
+                OperatorStats stats = new OperatorStats();
+                projector = projectorFactory.create(
+                    projection, txnCtx, new ProfilingRamAccounting(ramAccounting, stats), memoryManager, jobId);
+                operatorProfiler.register(position, projector.getClass().getSimpleName(), stats);
+                projectorStats.add(stats);
+            }
             projectors.add(projector);
             independentScroll = independentScroll || projector.providesIndependentScroll();
+            position++;
         }
         this.independentScroll = independentScroll;
     }
@@ -85,10 +123,35 @@ public final class Projectors {
         return result;
     }
 
+    /**
+     * Like {@link #wrap(Collection, UUID, TransactionContext, RamAccounting, MemoryManager, ProjectorFactory, BatchIterator)}
+     * but records the stats of each projector if a {@code operatorProfiler} is given.
+     */
+    public static BatchIterator<Row> wrap(Collection<? extends Projection> projections,
+                                          UUID jobId,
+                                          TransactionContext txnCtx,
+                                          RamAccounting ramAccounting,
+                                          MemoryManager memoryManager,
+                                          ProjectorFactory projectorFactory,
+                                          @Nullable OperatorProfiler operatorProfiler,
+                                          BatchIterator<Row> source) {
+        if (operatorProfiler == null) {
+            return wrap(projections, jobId, txnCtx, ramAccounting, memoryManager, projectorFactory, source);
+        }
+        return new Projectors(projections, jobId, txnCtx, ramAccounting, memoryManager, projectorFactory, operatorProfiler)
+            .wrap(source);
+    }
+
     public BatchIterator<Row> wrap(BatchIterator<Row> source) {
         BatchIterator<Row> result = source;
-        for (Projector projector : projectors) {
-            result = projector.apply(result);
+        for (int i = 0; i < projectors.size(); i++) {
+            if (projectorStats == null) {
+                result = projectors.get(i).apply(result);
+            } else {
+                OperatorStats stats = projectorStats.get(i);
+                result = projectors.get(i).apply(ProfilingInputBatchIterator.wrap(result, stats));
+                result = ProfilingBatchIterator.wrap(result, stats);
+            }
         }
         return result;
     }
@@ -0,0 +1,106 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.profile;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.profile.OperatorStats;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * BatchIterator which records the rows, batches and timings of the source iterator into {@link OperatorStats}.
+ *
+ * Timings are taken once per iteration over a batch (from the first {@link #moveNext()} call until it returns false)
+ * to keep the overhead per row low.
+ */
+public final class ProfilingBatchIterator<T> extends ForwardingBatchIterator<T> {
+
+    private final BatchIterator<T> delegate;
+    private final OperatorStats stats;
+
+    private Thread iteratingThread = null;
+    private long iterationStartTime;
+    private long iterationStartCpuTime;
+
+    public static <T> BatchIterator<T> wrap(BatchIterator<T> delegate, OperatorStats stats) {
+        return new ProfilingBatchIterator<>(delegate, stats);
+    }
+
+    private ProfilingBatchIterator(BatchIterator<T> delegate, OperatorStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @Override
+    protected BatchIterator<T> delegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean moveNext() {
+        if (iteratingThread == null) {
+            iteratingThread = Thread.currentThread();
+            iterationStartTime = System.nanoTime();
+            iterationStartCpuTime = OperatorStats.currentThreadCpuTime();
+        }
+        if (delegate.moveNext()) {
+            stats.onRow();
+            return true;
+        }
+        stopIteration();
+        return false;
+    }
+
+    @Override
+    public void moveToStart() {
+        stopIteration();
+        delegate.moveToStart();
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        long startTime = System.nanoTime();
+        return delegate.loadNextBatch().whenComplete((result, t) -> stats.onBatch(System.nanoTime() - startTime));
+    }
+
+    @Override
+    public void close() {
+        stopIteration();
+        delegate.close();
+    }
+
+    private void stopIteration() {
+        if (iteratingThread == null) {
+            return;
+        }
+        long time = System.nanoTime() - iterationStartTime;
+        long cpuTime = 0L;
+        // a consumer may pause and resume the iteration on another thread; CPU times of different threads can't be mixed
+        if (iterationStartCpuTime >= 0 && iteratingThread == Thread.currentThread()) {
+            cpuTime = OperatorStats.currentThreadCpuTime() - iterationStartCpuTime;
+        }
+        stats.onIteration(time, cpuTime);
+        iteratingThread = null;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.profile;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.profile.OperatorStats;
+
+/**
+ * BatchIterator which records the rows an operator consumes from its source iterator as input rows
+ * into {@link OperatorStats}.
+ */
+public final class ProfilingInputBatchIterator<T> extends ForwardingBatchIterator<T> {
+
+    private final BatchIterator<T> delegate;
+    private final OperatorStats stats;
+
+    public static <T> BatchIterator<T> wrap(BatchIterator<T> delegate, OperatorStats stats) {
+        return new ProfilingInputBatchIterator<>(delegate, stats);
+    }
+
+    private ProfilingInputBatchIterator(BatchIterator<T> delegate, OperatorStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @Override
+    protected BatchIterator<T> delegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean moveNext() {
+        if (delegate.moveNext()) {
+            stats.onInputRow();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.profile;
+
+import io.crate.breaker.RamAccounting;
+import io.crate.profile.OperatorStats;
+
+/**
+ * RamAccounting which records the bytes accounted by a single operator into {@link OperatorStats}
+ * before forwarding them to the RamAccounting of the phase.
+ */
+public final class ProfilingRamAccounting implements RamAccounting {
+
+    private final RamAccounting delegate;
+    private final OperatorStats stats;
+
+    public ProfilingRamAccounting(RamAccounting delegate, OperatorStats stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @Override
+    public void addBytes(long bytes) {
+        delegate.addBytes(bytes);
+        stats.addBytes(bytes);
+    }
+
+    @Override
+    public long totalBytes() {
+        return delegate.totalBytes();
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+        stats.releaseBytes();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.profile;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+import io.crate.profile.OperatorStats;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * RowConsumer which records the stats of the BatchIterator it receives using a {@link ProfilingBatchIterator},
+ * or only the rows using a {@link ProfilingInputBatchIterator} if it consumes the input of an operator.
+ */
+public final class ProfilingRowConsumer implements RowConsumer {
+
+    private final RowConsumer consumer;
+    private final OperatorStats stats;
+    private final boolean input;
+
+    /**
+     * Creates a consumer which records the rows the given {@code consumer} receives as input rows of an operator.
+     */
+    public static RowConsumer forInput(RowConsumer consumer, OperatorStats stats) {
+        return new ProfilingRowConsumer(consumer, stats, true);
+    }
+
+    public ProfilingRowConsumer(RowConsumer consumer, OperatorStats stats) {
+        this(consumer, stats, false);
+    }
+
+    private ProfilingRowConsumer(RowConsumer consumer, OperatorStats stats, boolean input) {
+        this.consumer = consumer;
+        this.stats = stats;
+        this.input = input;
+    }
+
+    @Override
+    public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
+        if (iterator == null) {
+            consumer.accept(null, failure);
+        } else if (input) {
+            consumer.accept(ProfilingInputBatchIterator.wrap(iterator, stats), failure);
+        } else {
+            consumer.accept(ProfilingBatchIterator.wrap(iterator, stats), failure);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> completionFuture() {
+        return consumer.completionFuture();
+    }
+
+    @Override
+    public boolean requiresScroll() {
+        return consumer.requiresScroll();
+    }
+}
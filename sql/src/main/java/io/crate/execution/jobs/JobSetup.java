@@ -71,6 +71,9 @@ import io.crate.execution.engine.collect.PKLookupOperation;
 import io.crate.execution.engine.collect.count.CountOperation;
 import io.crate.execution.engine.collect.sources.ShardCollectSource;
 import io.crate.execution.engine.collect.sources.SystemCollectSource;
+import io.crate.execution.engine.collect.stats.OperationResourceUsage;
+import io.crate.execution.engine.collect.stats.ResourceTrackingRowConsumer;
+import io.crate.execution.engine.distribution.DistributingConsumer;
 import io.crate.execution.engine.distribution.DistributingConsumerFactory;
 import io.crate.execution.engine.distribution.SingleBucketBuilder;
 import io.crate.execution.engine.distribution.StreamBucket;
@@ -81,6 +84,7 @@ import io.crate.execution.engine.join.NestedLoopOperation;
 import io.crate.execution.engine.pipeline.ProjectingRowConsumer;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
+import io.crate.execution.engine.profile.ProfilingRowConsumer;
 import io.crate.expression.InputFactory;
 import io.crate.expression.RowFilter;
 import io.crate.expression.eval.EvaluatingNormalizer;
@@ -94,6 +98,9 @@ import io.crate.metadata.settings.SessionSettings;
 import io.crate.metadata.table.Operation;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.StreamerVisitor;
+import io.crate.profile.OperatorProfiler;
+import io.crate.profile.OperatorStats;
+import io.crate.profile.ProfilingContext;
 import io.crate.types.DataTypes;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -481,6 +488,18 @@ public class JobSetup {
          * Retrieve the rowReceiver of the downstream of phase
          */
         RowConsumer getRowConsumer(UpstreamPhase phase, int pageSize, RamAccounting ramAccounting) {
+            if (taskBuilder.tracksResourceUsage() == false) {
+                return getRowConsumer(phase, pageSize, ramAccounting, null);
+            }
+            OperationResourceUsage resourceUsage = new OperationResourceUsage();
+            taskBuilder.addResourceUsage(phase.phaseId(), resourceUsage);
+            return new ResourceTrackingRowConsumer(getRowConsumer(phase, pageSize, ramAccounting, resourceUsage), resourceUsage);
+        }
+
+        private RowConsumer getRowConsumer(UpstreamPhase phase,
+                                           int pageSize,
+                                           RamAccounting ramAccounting,
+                                           @Nullable OperationResourceUsage resourceUsage) {
             NodeOperation nodeOperation = opCtx.nodeOperationByPhaseId.get(phase.phaseId());
             if (nodeOperation == null) {
                 return handlerPhaseConsumer(phase.phaseId());
@@ -496,8 +515,11 @@ public class JobSetup {
             switch (distributionType) {
                 case BROADCAST:
                 case MODULO:
-                    RowConsumer consumer = distributingConsumerFactory.create(
+                    DistributingConsumer consumer = distributingConsumerFactory.create(
                         nodeOperation, ramAccounting, phase.distributionInfo(), jobId(), pageSize);
+                    if (resourceUsage != null) {
+                        resourceUsage.sentBytes(consumer::sentBytes);
+                    }
                     if (logger.isTraceEnabled()) {
                         logger.trace(
                             "action=getRowReceiver, distributionType={}, phase={}, targetConsumer={}, target={}/{},",
@@ -548,6 +570,18 @@ public class JobSetup {
         public TransactionContext txnCtx() {
             return transactionContext;
         }
+
+        /**
+         * @return the profiler for the operators of the given phase; null if profiling is disabled.
+         */
+        @Nullable
+        OperatorProfiler operatorProfiler(ExecutionPhase phase) {
+            ProfilingContext profilingContext = taskBuilder.profilingContext();
+            if (profilingContext == null) {
+                return null;
+            }
+            return profilingContext.operatorProfiler(phase.phaseId(), phase.name());
+        }
     }
 
     private class InnerPreparer extends ExecutionPhaseVisitor<Context, Boolean> {
@@ -592,7 +626,8 @@ public class JobSetup {
                 context.txnCtx(),
                 ramAccountingContext,
                 memoryManager,
-                projectorFactory
+                projectorFactory,
+                context.operatorProfiler(pkLookupPhase)
             );
             context.registerSubContext(new PKLookupTask(
                 pkLookupPhase.jobId(),
@@ -631,7 +666,8 @@ public class JobSetup {
                     context.txnCtx(),
                     ramAccountingContext,
                     memoryManager,
-                    projectorFactory
+                    projectorFactory,
+                    context.operatorProfiler(phase)
                 );
                 context.registerBatchConsumer(phase.phaseId(), consumer);
                 return true;
@@ -676,7 +712,8 @@ public class JobSetup {
                 context.txnCtx(),
                 ramAccountingContext,
                 memoryManager,
-                projectorFactory
+                projectorFactory,
+                context.operatorProfiler(phase)
             );
 
             PageBucketReceiver pageBucketReceiver;
@@ -738,7 +775,8 @@ public class JobSetup {
                 consumer,
                 context.sharedShardContexts,
                 clusterService.state().getNodes().getMinNodeVersion(),
-                ramAccountingBlockSizeInBytes
+                ramAccountingBlockSizeInBytes,
+                context.operatorProfiler(phase)
             ));
             return true;
         }
@@ -766,7 +804,8 @@ public class JobSetup {
                 consumer,
                 context.sharedShardContexts,
                 clusterService.state().getNodes().getMinNodeVersion(),
-                ramAccountingBlockSizeInBytes
+                ramAccountingBlockSizeInBytes,
+                context.operatorProfiler(phase)
             ));
             return true;
         }
@@ -825,6 +864,13 @@ public class JobSetup {
                 }
             });
 
+            OperatorProfiler operatorProfiler = context.operatorProfiler(phase);
+            OperatorStats joinStats = null;
+            if (operatorProfiler != null) {
+                // registered first to keep the operators of the phase in data flow order
+                joinStats = new OperatorStats();
+                operatorProfiler.register("NestedLoop", joinStats);
+            }
             RowConsumer firstConsumer = ProjectingRowConsumer.create(
                 lastConsumer,
                 phase.projections(),
@@ -832,8 +878,12 @@ public class JobSetup {
                 context.txnCtx(),
                 ramAccountingContext,
                 memoryManager,
-                projectorFactory
+                projectorFactory,
+                operatorProfiler
             );
+            if (joinStats != null) {
+                firstConsumer = new ProfilingRowConsumer(firstConsumer, joinStats);
+            }
             Predicate<Row> joinCondition = RowFilter.create(context.transactionContext, inputFactory, phase.joinCondition());
 
             NestedLoopOperation joinOperation = new NestedLoopOperation(
@@ -854,7 +904,7 @@ public class JobSetup {
                 context,
                 (byte) 0,
                 leftMerge,
-                joinOperation.leftConsumer(),
+                profileInput(joinOperation.leftConsumer(), joinStats),
                 ramAccountingLeft,
                 memoryManager
             );
@@ -868,7 +918,7 @@ public class JobSetup {
                 context,
                 (byte) 1,
                 rightMerge,
-                joinOperation.rightConsumer(),
+                profileInput(joinOperation.rightConsumer(), joinStats),
                 ramAccountingRight,
                 memoryManager
             );
@@ -907,6 +957,13 @@ public class JobSetup {
                 }
             });
 
+            OperatorProfiler operatorProfiler = context.operatorProfiler(phase);
+            OperatorStats joinStats = null;
+            if (operatorProfiler != null) {
+                // registered first to keep the operators of the phase in data flow order
+                joinStats = new OperatorStats();
+                operatorProfiler.register("HashJoin", joinStats);
+            }
             RowConsumer firstConsumer = ProjectingRowConsumer.create(
                 lastConsumer,
                 phase.projections(),
@@ -914,8 +971,12 @@ public class JobSetup {
                 context.txnCtx(),
                 ramAccountingContext,
                 memoryManager,
-                projectorFactory
+                projectorFactory,
+                operatorProfiler
             );
+            if (joinStats != null) {
+                firstConsumer = new ProfilingRowConsumer(firstConsumer, joinStats);
+            }
             Predicate<Row> joinCondition = RowFilter.create(context.transactionContext, inputFactory, phase.joinCondition());
 
             HashJoinOperation joinOperation = new HashJoinOperation(
@@ -934,13 +995,14 @@ public class JobSetup {
                 inputFactory,
                 breaker(),
                 phase.estimatedRowSizeForLeft(),
-                phase.numberOfRowsForLeft());
+                phase.numberOfRowsForLeft(),
+                phase.joinType());
             DistResultRXTask left = pageDownstreamContextForNestedLoop(
                 phase.phaseId(),
                 context,
                 (byte) 0,
                 leftMerge,
-                joinOperation.leftConsumer(),
+                profileInput(joinOperation.leftConsumer(), joinStats),
                 ramAccountingLeft,
                 memoryManager
             );
@@ -952,7 +1014,7 @@ public class JobSetup {
                 context,
                 (byte) 1,
                 rightMerge,
-                joinOperation.rightConsumer(),
+                profileInput(joinOperation.rightConsumer(), joinStats),
                 ramAccountingRight,
                 memoryManager
             );
@@ -990,7 +1052,8 @@ public class JobSetup {
                     ctx.txnCtx(),
                     ramAccountingContext,
                     memoryManager,
-                    projectorFactory
+                    projectorFactory,
+                    ctx.operatorProfiler(mergePhase)
                 );
             }
 
@@ -1023,6 +1086,10 @@ public class JobSetup {
         return circuitBreakerService.getBreaker(CrateCircuitBreakerService.QUERY);
     }
 
+    private static RowConsumer profileInput(RowConsumer consumer, @Nullable OperatorStats joinStats) {
+        return joinStats == null ? consumer : ProfilingRowConsumer.forInput(consumer, joinStats);
+    }
+
     private static long toKey(int phaseId, byte inputId) {
         return ((long) phaseId << 32) | (inputId & 0xffffffffL);
     }
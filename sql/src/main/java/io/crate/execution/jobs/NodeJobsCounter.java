@@ -22,9 +22,15 @@
 
 package io.crate.execution.jobs;
 
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
@@ -33,9 +39,12 @@ import java.util.function.BiFunction;
  * Counts how many operations issued from the current node are in progress across the cluster.
  * If the destination node cannot be determined, it counts the in progress operations towards the unknown node.
  * Note: one job can span multiple nodes.
+ *
+ * In addition it keeps an adaptive {@link NodeLimit} per node which is fed with the response times and
+ * rejections of the operations. The limits of nodes which left the cluster are discarded.
  */
 @Singleton
-public class NodeJobsCounter {
+public class NodeJobsCounter implements ClusterStateListener {
 
     /**
      * Represents the maximum number of concurrent operations that can be issued towards a node.
@@ -45,6 +54,8 @@ public class NodeJobsCounter {
     private long unknownNodeCount = 0L;
     // Using single element long[] to avoid autoboxing
     private final Map<String, long[]> operationsCountPerNode = new ConcurrentHashMap<>();
+    private final Map<String, NodeLimit> limitPerNode = new ConcurrentHashMap<>();
+    private final NodeLimit unknownNodeLimit = new NodeLimit(null, (int) MAX_NODE_CONCURRENT_OPERATIONS);
 
     private static final BiFunction<String, long[], long[]> INCREMENT_COUNTER_FOR_NODE = (node, count) -> {
         if (count == null) {
@@ -66,6 +77,22 @@ public class NodeJobsCounter {
         return count;
     };
 
+    public NodeJobsCounter() {
+    }
+
+    @Inject
+    public NodeJobsCounter(ClusterService clusterService) {
+        clusterService.addListener(this);
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (event.nodesRemoved()) {
+            for (DiscoveryNode node : event.nodesDelta().removedNodes()) {
+                limitPerNode.remove(node.getId());
+            }
+        }
+    }
 
     public void increment(@Nullable String nodeId) {
         if (nodeId == null) {
@@ -93,4 +120,26 @@ public class NodeJobsCounter {
         }
         return count;
     }
+
+    /**
+     * @return the adaptive limit of the given node. If the node is unknown, the limit shared by all operations
+     *         towards unknown nodes is returned.
+     */
+    public NodeLimit getLimit(@Nullable String nodeId) {
+        if (nodeId == null) {
+            return unknownNodeLimit;
+        }
+        return limitPerNode.computeIfAbsent(nodeId, id -> new NodeLimit(id, (int) MAX_NODE_CONCURRENT_OPERATIONS));
+    }
+
+    /**
+     * @return true if the number of in progress operations towards the node reached its adaptive limit.
+     */
+    public boolean isLimitReached(@Nullable String nodeId) {
+        return getInProgressJobsForNode(nodeId) >= getLimit(nodeId).concurrencyLimit();
+    }
+
+    public Collection<NodeLimit> limits() {
+        return limitPerNode.values();
+    }
 }
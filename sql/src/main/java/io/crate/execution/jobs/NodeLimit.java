@@ -0,0 +1,183 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import io.crate.exceptions.SQLExceptions;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+
+/**
+ * Concurrency limit and bulk size factor for operations issued towards a single node.
+ *
+ * Both values follow an AIMD (additive increase, multiplicative decrease) scheme:
+ *
+ * <ul>
+ *     <li>A response with a round-trip time per item close to the lowest observed round-trip time per item
+ *     increases the values additively. The bulk size factor can grow up to {@link #MAX_BULK_SIZE_FACTOR}.</li>
+ *     <li>A response which took considerably longer per item than the lowest observed round-trip time per item
+ *     decreases the concurrency limit slightly.</li>
+ *     <li>A rejection (the node is overloaded) halves both values.</li>
+ * </ul>
+ *
+ * The round-trip times are normalized by the number of items of the request, so that a small request doesn't
+ * make requests of the regular size look slow.
+ * The lowest observed round-trip time is reset periodically so that a node which got permanently slower
+ * (e.g. due to a bigger load) can regain a higher limit.
+ */
+public final class NodeLimit {
+
+    static final int MIN_CONCURRENCY = 1;
+    static final int MAX_CONCURRENCY = 50;
+    static final double MIN_BULK_SIZE_FACTOR = 1.0 / 64;
+    public static final double MAX_BULK_SIZE_FACTOR = 4.0;
+
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double LATENCY_BACKOFF_RATIO = 0.9;
+    private static final double REJECTION_BACKOFF_RATIO = 0.5;
+    private static final double BULK_SIZE_FACTOR_INCREMENT = 1.0 / 16;
+    private static final int MIN_RTT_RESET_SAMPLES = 1000;
+
+    private final String nodeId;
+    private final int initialConcurrency;
+
+    private double concurrency;
+    private double bulkSizeFactor = 1.0;
+    private long minRttNanosPerItem = Long.MAX_VALUE;
+    private long lastRttNanos = 0L;
+    private int samplesSinceMinRttReset = 0;
+    private long numSamples = 0L;
+    private long numRejections = 0L;
+    private long numLimitDecreases = 0L;
+
+    NodeLimit(String nodeId, int initialConcurrency) {
+        this.nodeId = nodeId;
+        this.initialConcurrency = initialConcurrency;
+        this.concurrency = initialConcurrency;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return the number of concurrent operations which can be issued towards the node.
+     */
+    public synchronized int concurrencyLimit() {
+        return (int) concurrency;
+    }
+
+    /**
+     * @return true if the node pushed back and the concurrency limit is below the initial limit.
+     */
+    public synchronized boolean isCongested() {
+        return concurrency < initialConcurrency;
+    }
+
+    /**
+     * @return the number of items which should be sent to the node within a single request,
+     *         based on the configured {@code bulkSize}.
+     */
+    public synchronized int bulkSize(int bulkSize) {
+        return Math.max(1, (int) (bulkSize * bulkSizeFactor));
+    }
+
+    /**
+     * @param rttNanos the round-trip time of a request
+     * @param numItems the number of items of the request
+     */
+    public synchronized void onSample(long rttNanos, int numItems) {
+        numSamples++;
+        lastRttNanos = rttNanos;
+        long rttNanosPerItem = rttNanos / Math.max(1, numItems);
+        if (++samplesSinceMinRttReset >= MIN_RTT_RESET_SAMPLES) {
+            samplesSinceMinRttReset = 0;
+            minRttNanosPerItem = rttNanosPerItem;
+        } else {
+            minRttNanosPerItem = Math.min(minRttNanosPerItem, rttNanosPerItem);
+        }
+        if (rttNanosPerItem > minRttNanosPerItem * LATENCY_TOLERANCE) {
+            decreaseConcurrency(LATENCY_BACKOFF_RATIO);
+        } else {
+            concurrency = Math.min(MAX_CONCURRENCY, concurrency + 1.0 / concurrency);
+            bulkSizeFactor = Math.min(MAX_BULK_SIZE_FACTOR, bulkSizeFactor + BULK_SIZE_FACTOR_INCREMENT);
+        }
+    }
+
+    public synchronized void onRejection() {
+        numRejections++;
+        decreaseConcurrency(REJECTION_BACKOFF_RATIO);
+        bulkSizeFactor = Math.max(MIN_BULK_SIZE_FACTOR, bulkSizeFactor * REJECTION_BACKOFF_RATIO);
+    }
+
+    private void decreaseConcurrency(double ratio) {
+        double newConcurrency = Math.max(MIN_CONCURRENCY, concurrency * ratio);
+        if (newConcurrency < concurrency) {
+            numLimitDecreases++;
+        }
+        concurrency = newConcurrency;
+    }
+
+    /**
+     * Wraps the listener of a request with {@code numItems} items so that its round-trip time
+     * or its rejection is fed into this limit.
+     */
+    public <T> ActionListener<T> measure(int numItems, ActionListener<T> listener) {
+        long startNanos = System.nanoTime();
+        return new ActionListener<>() {
+
+            @Override
+            public void onResponse(T response) {
+                onSample(System.nanoTime() - startNanos, numItems);
+                listener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                if (SQLExceptions.unwrap(e) instanceof EsRejectedExecutionException) {
+                    onRejection();
+                }
+                listener.onFailure(e);
+            }
+        };
+    }
+
+    public synchronized double bulkSizeFactor() {
+        return bulkSizeFactor;
+    }
+
+    public synchronized long lastRttNanos() {
+        return lastRttNanos;
+    }
+
+    public synchronized long numSamples() {
+        return numSamples;
+    }
+
+    public synchronized long numRejections() {
+        return numRejections;
+    }
+
+    public synchronized long numLimitDecreases() {
+        return numLimitDecreases;
+    }
+}
@@ -22,6 +22,7 @@
 package io.crate.execution.jobs;
 
 import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntObjectHashMap;
 import com.carrotsearch.hppc.cursors.IntCursor;
 import com.google.common.annotations.VisibleForTesting;
 import io.crate.concurrent.CompletionListenable;
@@ -29,6 +30,7 @@ import io.crate.exceptions.JobKilledException;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.exceptions.TaskMissing;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.engine.collect.stats.OperationResourceUsage;
 import io.crate.profile.ProfilingContext;
 import io.crate.profile.Timer;
 import org.apache.logging.log4j.Logger;
@@ -80,6 +82,7 @@ public class RootTask implements CompletionListenable<Void> {
         private final String coordinatorNode;
         private final JobsLogs jobsLogs;
         private final List<Task> tasks = new ArrayList<>();
+        private final IntObjectHashMap<OperationResourceUsage> resourceUsageByPhaseId = new IntObjectHashMap<>();
         private final Collection<String> participatingNodes;
 
         @Nullable
@@ -106,6 +109,21 @@ public class RootTask implements CompletionListenable<Void> {
             tasks.add(task);
         }
 
+        /**
+         * @return true if the resource usage of the operations is recorded, which is only the case if the
+         *         operations log is enabled.
+         */
+        public boolean tracksResourceUsage() {
+            return jobsLogs.isEnabled();
+        }
+
+        /**
+         * Adds the {@link OperationResourceUsage} which is recorded in the operations log once the task of the phase finishes.
+         */
+        public void addResourceUsage(int phaseId, OperationResourceUsage resourceUsage) {
+            resourceUsageByPhaseId.put(phaseId, resourceUsage);
+        }
+
         boolean isEmpty() {
             return tasks.isEmpty();
         }
@@ -114,9 +132,14 @@ public class RootTask implements CompletionListenable<Void> {
             return jobId;
         }
 
+        @Nullable
+        public ProfilingContext profilingContext() {
+            return profilingContext;
+        }
+
         RootTask build() throws Exception {
             return new RootTask(
-                logger, jobId, coordinatorNode, participatingNodes, jobsLogs, tasks, profilingContext);
+                logger, jobId, coordinatorNode, participatingNodes, jobsLogs, tasks, resourceUsageByPhaseId, profilingContext);
         }
     }
 
@@ -127,6 +150,7 @@ public class RootTask implements CompletionListenable<Void> {
                      Collection<String> participatingNodes,
                      JobsLogs jobsLogs,
                      List<Task> orderedTasks,
+                     IntObjectHashMap<OperationResourceUsage> resourceUsageByPhaseId,
                      @Nullable ProfilingContext profilingContext) throws Exception {
         this.logger = logger;
         this.coordinatorNodeId = coordinatorNodeId;
@@ -158,7 +182,12 @@ public class RootTask implements CompletionListenable<Void> {
                 throw new IllegalArgumentException("Task for " + phaseId + " already added");
             }
             task.completionFuture().whenComplete(new RemoveTaskListener(phaseId));
-            jobsLogs.operationStarted(phaseId, jobId, task.name(), task::bytesUsed);
+            OperationResourceUsage resourceUsage = resourceUsageByPhaseId.get(phaseId);
+            if (resourceUsage == null) {
+                resourceUsage = new OperationResourceUsage();
+            }
+            resourceUsage.usedBytes(task::bytesUsed);
+            jobsLogs.operationStarted(phaseId, jobId, task.name(), task::bytesUsed, resourceUsage);
             task.prepare();
             if (profiler != null) {
                 String subContextName = ProfilingContext.generateProfilingKey(task.id(), task.name());
@@ -23,16 +23,23 @@
 package io.crate.expression.reference;
 
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Map;
 import java.util.function.Supplier;
 
 public final class Doc {
 
-    private final Map<String, Object> source;
+    private Map<String, Object> source;
     private final Supplier<String> raw;
+    @Nullable
+    private final BytesReference rawSource;
     private final int docId;
     private final String index;
     private final String id;
@@ -48,12 +55,38 @@ public final class Doc {
                long primaryTerm,
                Map<String, Object> source,
                Supplier<String> raw) {
+        this(docId, index, id, version, seqNo, primaryTerm, source, raw, null);
+    }
+
+    /**
+     * Creates a doc from the stored source. The source is only parsed into a map once {@link #getSource()} is used.
+     */
+    public Doc(int docId,
+               String index,
+               String id,
+               long version,
+               long seqNo,
+               long primaryTerm,
+               @Nullable BytesReference rawSource) {
+        this(docId, index, id, version, seqNo, primaryTerm, null, null, rawSource);
+    }
+
+    private Doc(int docId,
+                String index,
+                String id,
+                long version,
+                long seqNo,
+                long primaryTerm,
+                Map<String, Object> source,
+                Supplier<String> raw,
+                @Nullable BytesReference rawSource) {
         this.docId = docId;
         this.index = index;
         this.id = id;
         this.version = version;
         this.source = source;
         this.raw = raw;
+        this.rawSource = rawSource;
         this.seqNo = seqNo;
         this.primaryTerm = primaryTerm;
     }
@@ -79,10 +112,31 @@ public final class Doc {
     }
 
     public String getRaw() {
+        if (raw == null) {
+            return rawSource == null ? null : rawSource.utf8ToString();
+        }
         return raw.get();
     }
 
+    /**
+     * @return the serialized source, without parsing it if the doc was created from the stored source
+     */
+    public BytesReference getRawBytes() {
+        if (rawSource == null) {
+            String rawString = getRaw();
+            return rawString == null ? null : new BytesArray(rawString);
+        }
+        return rawSource;
+    }
+
+    public boolean hasSource() {
+        return source != null || rawSource != null;
+    }
+
     public Map<String, Object> getSource() {
+        if (source == null && rawSource != null) {
+            source = XContentHelper.convertToMap(rawSource, false, XContentType.JSON).v2();
+        }
         return source;
     }
 
@@ -99,7 +153,8 @@ public final class Doc {
             seqNo,
             primaryTerm,
             source,
-            raw);
+            raw,
+            rawSource);
     }
 
     public Doc withUpdatedSource(Map<String, Object> updatedSource) {
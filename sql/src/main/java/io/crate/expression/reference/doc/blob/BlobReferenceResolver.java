@@ -22,16 +22,16 @@
 package io.crate.expression.reference.doc.blob;
 
 import com.google.common.collect.ImmutableMap;
+import io.crate.blob.BlobEntry;
 import io.crate.execution.engine.collect.NestableCollectExpression;
 import io.crate.metadata.Reference;
 import io.crate.metadata.blob.BlobSchemaInfo;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.expression.reference.ReferenceResolver;
 
-import java.io.File;
 import java.util.Map;
 
-public class BlobReferenceResolver implements ReferenceResolver<CollectExpression<File, ?>> {
+public class BlobReferenceResolver implements ReferenceResolver<CollectExpression<BlobEntry, ?>> {
 
     public static final BlobReferenceResolver INSTANCE = new BlobReferenceResolver();
     private static final String DIGEST = "digest";
@@ -39,15 +39,15 @@ public class BlobReferenceResolver implements ReferenceResolver<CollectExpressio
 
     private static final Map<String, ExpressionBuilder> EXPRESSION_BUILDER =
         ImmutableMap.of(
-            DIGEST, () -> NestableCollectExpression.forFunction(File::getName),
-            LAST_MODIFIED, () -> NestableCollectExpression.forFunction(File::lastModified)
+            DIGEST, () -> NestableCollectExpression.forFunction(BlobEntry::digest),
+            LAST_MODIFIED, () -> NestableCollectExpression.forFunction(BlobEntry::lastModified)
         );
 
     private BlobReferenceResolver() {
     }
 
     @Override
-    public CollectExpression<File, ?> getImplementation(Reference refInfo) {
+    public CollectExpression<BlobEntry, ?> getImplementation(Reference refInfo) {
         assert BlobSchemaInfo.NAME.equals(refInfo.ident().tableIdent().schema()) :
             "schema name must be 'blob";
         ExpressionBuilder builder = EXPRESSION_BUILDER.get(refInfo.column().name());
@@ -58,6 +58,6 @@ public class BlobReferenceResolver implements ReferenceResolver<CollectExpressio
     }
 
     interface ExpressionBuilder {
-        CollectExpression<File, ?> create();
+        CollectExpression<BlobEntry, ?> create();
     }
 }
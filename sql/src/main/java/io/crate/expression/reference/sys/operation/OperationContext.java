@@ -21,6 +21,8 @@
 
 package io.crate.expression.reference.sys.operation;
 
+import io.crate.execution.engine.collect.stats.OperationResourceUsage;
+
 import java.util.Objects;
 import java.util.UUID;
 import java.util.function.LongSupplier;
@@ -33,13 +35,24 @@ public class OperationContext {
 
     public final long started;
     private final LongSupplier bytesUsed;
+    private final OperationResourceUsage resourceUsage;
 
     public OperationContext(int id, UUID jobId, String name, long started, LongSupplier bytesUsed) {
+        this(id, jobId, name, started, bytesUsed, new OperationResourceUsage());
+    }
+
+    public OperationContext(int id,
+                            UUID jobId,
+                            String name,
+                            long started,
+                            LongSupplier bytesUsed,
+                            OperationResourceUsage resourceUsage) {
         this.id = id;
         this.jobId = jobId;
         this.name = name;
         this.started = started;
         this.bytesUsed = bytesUsed;
+        this.resourceUsage = resourceUsage;
     }
 
     public int id() {
@@ -62,6 +75,10 @@ public class OperationContext {
         return bytesUsed.getAsLong();
     }
 
+    public OperationResourceUsage resourceUsage() {
+        return resourceUsage;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
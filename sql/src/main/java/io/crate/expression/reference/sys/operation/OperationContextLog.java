@@ -21,6 +21,7 @@
 
 package io.crate.expression.reference.sys.operation;
 
+import io.crate.execution.engine.collect.stats.OperationResourceUsage;
 import io.crate.expression.reference.sys.job.ContextLog;
 
 import javax.annotation.Nullable;
@@ -36,6 +37,10 @@ public class OperationContextLog implements ContextLog {
     private final String name;
     private final long started;
     private final long usedBytes;
+    private final long cpuTimeNanos;
+    private final long allocatedBytes;
+    private final long peakUsedBytes;
+    private final long sentBytes;
 
     public OperationContextLog(OperationContext operationContext, @Nullable String errorMessage) {
         // We don't want to have a reference to operationContext so that it can be GC'd
@@ -44,6 +49,11 @@ public class OperationContextLog implements ContextLog {
         this.name = operationContext.name();
         this.started = operationContext.started();
         this.usedBytes = operationContext.usedBytes();
+        OperationResourceUsage resourceUsage = operationContext.resourceUsage();
+        this.cpuTimeNanos = resourceUsage.cpuTimeNanos();
+        this.allocatedBytes = resourceUsage.allocatedBytes();
+        this.peakUsedBytes = Math.max(resourceUsage.peakUsedBytes(), usedBytes);
+        this.sentBytes = resourceUsage.sentBytes();
         this.errorMessage = errorMessage;
         this.ended = System.currentTimeMillis();
     }
@@ -73,6 +83,22 @@ public class OperationContextLog implements ContextLog {
         return usedBytes;
     }
 
+    public long cpuTimeNanos() {
+        return cpuTimeNanos;
+    }
+
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long peakUsedBytes() {
+        return peakUsedBytes;
+    }
+
+    public long sentBytes() {
+        return sentBytes;
+    }
+
     @Nullable
     public String errorMessage() {
         return errorMessage;
@@ -110,6 +136,10 @@ public class OperationContextLog implements ContextLog {
                ", jobId=" + jobId +
                ", name='" + name + '\'' +
                ", usedBytes=" + usedBytes +
+               ", cpuTimeNanos=" + cpuTimeNanos +
+               ", allocatedBytes=" + allocatedBytes +
+               ", peakUsedBytes=" + peakUsedBytes +
+               ", sentBytes=" + sentBytes +
                '}';
     }
 }
@@ -31,6 +31,7 @@ class ShardRecoverySizeExpression extends ObjectCollectExpression<ShardRowContex
     private static final String REUSED = "reused";
     private static final String RECOVERED = "recovered";
     private static final String PERCENT = "percent";
+    private static final String BYTES_PER_SEC = "bytes_per_sec";
 
     ShardRecoverySizeExpression() {
         addChildImplementations();
@@ -61,5 +62,11 @@ class ShardRecoverySizeExpression extends ObjectCollectExpression<ShardRowContex
                 return recoveryState.getIndex().recoveredBytesPercent();
             }
         });
+        childImplementations.put(BYTES_PER_SEC, new ShardRecoveryStateExpression<Long>() {
+            @Override
+            public Long innerValue(RecoveryState recoveryState) {
+                return recoveryState.getIndex().recoveredBytesPerSecond();
+            }
+        });
     }
 }
@@ -24,6 +24,7 @@ package io.crate.expression.reference.sys.shard;
 
 import com.google.common.base.Suppliers;
 import io.crate.blob.v2.BlobShard;
+import io.crate.execution.engine.collect.AggregationResultCache;
 import io.crate.metadata.IndexParts;
 import io.crate.metadata.PartitionName;
 import io.crate.metadata.RelationName;
@@ -43,6 +44,8 @@ public class ShardRowContext {
     @Nullable
     private final BlobShard blobShard;
     private final ClusterService clusterService;
+    @Nullable
+    private final AggregationResultCache.ShardStats aggregationCacheStats;
     private final Supplier<Long> sizeSupplier;
     private final IndexParts indexParts;
     private final String partitionIdent;
@@ -56,7 +59,13 @@ public class ShardRowContext {
     private final String templateName;
 
     public ShardRowContext(IndexShard indexShard, ClusterService clusterService) {
-        this(indexShard, null, clusterService, Suppliers.memoizeWithExpiration(() -> {
+        this(indexShard, clusterService, null);
+    }
+
+    public ShardRowContext(IndexShard indexShard,
+                           ClusterService clusterService,
+                           @Nullable AggregationResultCache.ShardStats aggregationCacheStats) {
+        this(indexShard, null, clusterService, aggregationCacheStats, Suppliers.memoizeWithExpiration(() -> {
             try {
                 StoreStats storeStats = indexShard.storeStats();
                 return storeStats.getSizeInBytes();
@@ -67,16 +76,18 @@ public class ShardRowContext {
     }
 
     public ShardRowContext(BlobShard blobShard, ClusterService clusterService) {
-        this(blobShard.indexShard(), blobShard, clusterService, blobShard::getTotalSize);
+        this(blobShard.indexShard(), blobShard, clusterService, null, blobShard::getTotalSize);
     }
 
     private ShardRowContext(IndexShard indexShard,
                             @Nullable BlobShard blobShard,
                             ClusterService clusterService,
+                            @Nullable AggregationResultCache.ShardStats aggregationCacheStats,
                             Supplier<Long> sizeSupplier) {
         this.indexShard = indexShard;
         this.blobShard = blobShard;
         this.clusterService = clusterService;
+        this.aggregationCacheStats = aggregationCacheStats;
         this.sizeSupplier = sizeSupplier;
         ShardId shardId = indexShard.shardId();
         String indexName = shardId.getIndexName();
@@ -113,6 +124,11 @@ public class ShardRowContext {
         return indexParts;
     }
 
+    @Nullable
+    public AggregationResultCache.ShardStats aggregationCacheStats() {
+        return aggregationCacheStats;
+    }
+
     public Long size() {
         return sizeSupplier.get();
     }
@@ -25,9 +25,19 @@ package io.crate.lucene;
 import io.crate.data.Input;
 import io.crate.expression.InputCondition;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.expression.operator.LikeOperators;
+import io.crate.expression.operator.RegexpMatchCaseInsensitiveOperator;
+import io.crate.expression.operator.RegexpMatchOperator;
+import io.crate.expression.operator.any.AnyOperator;
+import io.crate.expression.symbol.DynamicReference;
 import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.RefVisitor;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitor;
 import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.metadata.Reference;
+import io.crate.metadata.doc.DocSysColumns;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
@@ -45,18 +55,23 @@ import org.apache.lucene.search.Weight;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 /**
  * Query implementation which filters docIds by evaluating {@code condition} on each docId to verify if it matches.
  *
- * This query is very slow.
+ * This query is very slow. It is exposed as a {@link TwoPhaseIterator} whose {@link TwoPhaseIterator#matchCost()}
+ * is estimated from the function tree. Within a conjunction Lucene leads with the cheapest approximation and verifies
+ * two-phase clauses ordered by their match cost, so indexed clauses like {@code ts > ?} narrow down the candidates
+ * before the condition is evaluated.
  */
 class GenericFunctionQuery extends Query {
 
     private final Function function;
     private final LuceneCollectorExpression[] expressions;
     private final Input<Boolean> condition;
+    private final float matchCost;
 
     GenericFunctionQuery(Function function,
                          Collection<? extends LuceneCollectorExpression<?>> expressions,
@@ -65,6 +80,11 @@ class GenericFunctionQuery extends Query {
         // inner loop iterates over expressions - call toArray to avoid iterator allocations
         this.expressions = expressions.toArray(new LuceneCollectorExpression[0]);
         this.condition = condition;
+        this.matchCost = function.accept(MatchCostEstimator.INSTANCE, null);
+    }
+
+    float matchCost() {
+        return matchCost;
     }
 
     @Override
@@ -128,7 +148,7 @@ class GenericFunctionQuery extends Query {
         for (LuceneCollectorExpression expression : expressions) {
             expression.setNextReader(context);
         }
-        return new FilteredTwoPhaseIterator(context.reader(), condition, expressions);
+        return new FilteredTwoPhaseIterator(context.reader(), condition, expressions, matchCost);
     }
 
     @Override
@@ -140,13 +160,16 @@ class GenericFunctionQuery extends Query {
 
         private final Input<Boolean> condition;
         private final LuceneCollectorExpression[] expressions;
+        private final float matchCost;
 
         FilteredTwoPhaseIterator(LeafReader reader,
                                  Input<Boolean> condition,
-                                 LuceneCollectorExpression[] expressions) {
+                                 LuceneCollectorExpression[] expressions,
+                                 float matchCost) {
             super(DocIdSetIterator.all(reader.maxDoc()));
             this.condition = condition;
             this.expressions = expressions;
+            this.matchCost = matchCost;
         }
 
         @Override
@@ -160,7 +183,95 @@ class GenericFunctionQuery extends Query {
 
         @Override
         public float matchCost() {
-            // Arbitrary number, we don't have a way to get the cost of the condition
+            return matchCost;
+        }
+    }
+
+    /**
+     * Estimates the number of operations needed to evaluate a symbol for a single document.
+     * The numbers are only relative to each other; they don't need to be exact to get the clause ordering right.
+     */
+    static class MatchCostEstimator extends SymbolVisitor<Void, Float> {
+
+        static final MatchCostEstimator INSTANCE = new MatchCostEstimator();
+
+        private static final float FUNCTION_COST = 1f;
+        private static final float PATTERN_MATCH_COST = 50f;
+        private static final float ANY_ELEMENT_COST = 2f;
+        private static final float USER_DEFINED_FUNCTION_COST = 200f;
+        private static final float DOC_VALUES_COST = 5f;
+        private static final float SOURCE_LOOKUP_COST = 500f;
+
+        @Override
+        protected Float visitSymbol(Symbol symbol, Void context) {
+            return 0f;
+        }
+
+        @Override
+        public Float visitFunction(Function function, Void context) {
+            float cost = FUNCTION_COST;
+            for (Symbol arg : function.arguments()) {
+                cost += arg.accept(this, context);
+            }
+            Symbol filter = function.filter();
+            if (filter != null) {
+                cost += filter.accept(this, context);
+            }
+            var ident = function.info().ident();
+            String name = ident.name();
+            if (ident.fqnName().schema() != null) {
+                cost += USER_DEFINED_FUNCTION_COST;
+            }
+            boolean isPatternMatch = isPatternMatch(name);
+            if (name.startsWith(AnyOperator.OPERATOR_PREFIX)) {
+                cost += numElements(function.arguments()) * (isPatternMatch ? PATTERN_MATCH_COST : ANY_ELEMENT_COST);
+            } else if (isPatternMatch) {
+                cost += PATTERN_MATCH_COST;
+            }
+            return cost;
+        }
+
+        @Override
+        public Float visitReference(Reference ref, Void context) {
+            String root = ref.column().name();
+            if (root.equals(DocSysColumns.Names.DOC) || root.equals(DocSysColumns.Names.RAW)
+                || ref.isColumnStoreDisabled()) {
+                return SOURCE_LOOKUP_COST;
+            }
+            return DOC_VALUES_COST;
+        }
+
+        @Override
+        public Float visitDynamicReference(DynamicReference ref, Void context) {
+            return visitReference(ref, context);
+        }
+
+        private static boolean isPatternMatch(String name) {
+            switch (name) {
+                case LikeOperators.OP_LIKE:
+                case LikeOperators.OP_ILIKE:
+                case LikeOperators.ANY_LIKE:
+                case LikeOperators.ANY_ILIKE:
+                case LikeOperators.ANY_NOT_LIKE:
+                case LikeOperators.ANY_NOT_ILIKE:
+                case RegexpMatchOperator.NAME:
+                case RegexpMatchCaseInsensitiveOperator.NAME:
+                    return true;
+
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Number of elements the right-hand side array of an {@code ANY} operator contains, or a rough guess if
+         * the array is only known at runtime.
+         */
+        private static int numElements(List<Symbol> arguments) {
+            Symbol array = arguments.get(arguments.size() - 1);
+            if (array instanceof Literal && ((Literal<?>) array).value() instanceof List) {
+                return Math.max(1, ((List<?>) ((Literal<?>) array).value()).size());
+            }
             return 10;
         }
     }
@@ -57,6 +57,10 @@ public class SysOperationsLogTableInfo extends StaticTableInfo<OperationContextL
             .register("started", TIMESTAMPZ, () -> forFunction(OperationContextLog::started))
             .register("ended", TIMESTAMPZ, () -> forFunction(OperationContextLog::ended))
             .register("used_bytes", LONG, () -> forFunction(OperationContextLog::usedBytes))
+            .register("cpu_time", LONG, () -> forFunction(OperationContextLog::cpuTimeNanos))
+            .register("allocated_bytes", LONG, () -> forFunction(OperationContextLog::allocatedBytes))
+            .register("peak_used_bytes", LONG, () -> forFunction(OperationContextLog::peakUsedBytes))
+            .register("sent_bytes", LONG, () -> forFunction(OperationContextLog::sentBytes))
             .register("error", STRING, () -> forFunction(OperationContextLog::errorMessage));
     }
 
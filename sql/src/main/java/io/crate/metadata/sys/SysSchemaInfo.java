@@ -63,6 +63,7 @@ public class SysSchemaInfo implements SchemaInfo {
         tableInfos.put(SysHealthTableInfo.IDENT.name(), new SysHealthTableInfo());
         tableInfos.put(SysMetricsTableInfo.NAME.name(), new SysMetricsTableInfo(localNode));
         tableInfos.put(SysSegmentsTableInfo.IDENT.name(), new SysSegmentsTableInfo(clusterService::localNode));
+        tableInfos.put(SysMergesTableInfo.IDENT.name(), new SysMergesTableInfo(localNode));
         tableInfos.put(SysMetricsTableInfo.NAME.name(), new SysMetricsTableInfo(clusterService::localNode));
     }
 
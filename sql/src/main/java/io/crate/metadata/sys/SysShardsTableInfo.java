@@ -29,6 +29,7 @@ import io.crate.action.sql.SessionContext;
 import io.crate.analyze.WhereClause;
 import io.crate.analyze.user.Privilege;
 import io.crate.auth.user.User;
+import io.crate.execution.engine.collect.AggregationResultCache;
 import io.crate.execution.engine.collect.NestableCollectExpression;
 import io.crate.expression.NestableInput;
 import io.crate.expression.reference.sys.shard.NodeNestableInput;
@@ -64,6 +65,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 import static io.crate.execution.engine.collect.NestableCollectExpression.constant;
 import static io.crate.execution.engine.collect.NestableCollectExpression.forFunction;
@@ -105,6 +107,7 @@ public class SysShardsTableInfo extends StaticTableInfo<ShardRowContext> {
         static final ColumnIdent NODE = new ColumnIdent("node");
         static final ColumnIdent SEQ_NO_STATS = new ColumnIdent("seq_no_stats");
         static final ColumnIdent TRANSLOG_STATS = new ColumnIdent("translog_stats");
+        static final ColumnIdent AGGREGATION_CACHE = new ColumnIdent("aggregation_cache");
     }
 
     public static Map<ColumnIdent, RowCollectExpressionFactory<ShardRowContext>> expressions() {
@@ -131,6 +134,7 @@ public class SysShardsTableInfo extends StaticTableInfo<ShardRowContext> {
             .put(Columns.NODE, NestedNullObjectExpression::new)
             .put(Columns.SEQ_NO_STATS, NestedNullObjectExpression::new)
             .put(Columns.TRANSLOG_STATS, NestedNullObjectExpression::new)
+            .put(Columns.AGGREGATION_CACHE, NestedNullObjectExpression::new)
             .build();
     }
 
@@ -146,6 +150,7 @@ public class SysShardsTableInfo extends StaticTableInfo<ShardRowContext> {
         .setInnerType("reused", LONG)
         .setInnerType("recovered", LONG)
         .setInnerType("percent", FloatType.INSTANCE)
+        .setInnerType("bytes_per_sec", LONG)
         .build();
 
     private static final ObjectType TYPE_RECOVERY_FILES = ObjectType.builder()
@@ -198,9 +203,25 @@ public class SysShardsTableInfo extends StaticTableInfo<ShardRowContext> {
                     entry("number_of_operations", INTEGER, orDefaultIfClosed(r -> r.indexShard().translogStats().estimatedNumberOfOperations(), 0)),
                     entry("uncommitted_operations", INTEGER, orDefaultIfClosed(r -> r.indexShard().translogStats().getUncommittedOperations(), 0))
                 )
+            )
+            .register(
+                Columns.AGGREGATION_CACHE.name(),
+                ColumnRegistrar.object(
+                    entry("hits", LONG, aggregationCacheStat(AggregationResultCache.ShardStats::hits)),
+                    entry("misses", LONG, aggregationCacheStat(AggregationResultCache.ShardStats::misses)),
+                    entry("evictions", LONG, aggregationCacheStat(AggregationResultCache.ShardStats::evictions)),
+                    entry("size", LONG, aggregationCacheStat(AggregationResultCache.ShardStats::sizeInBytes))
+                )
             );
     }
 
+    private static Function<ShardRowContext, Long> aggregationCacheStat(ToLongFunction<AggregationResultCache.ShardStats> getStat) {
+        return r -> {
+            AggregationResultCache.ShardStats stats = r.aggregationCacheStats();
+            return stats == null ? 0L : getStat.applyAsLong(stats);
+        };
+    }
+
     private static <T, U> Function<T, U> orDefaultIfClosed(Function<T, U> getProperty, U defaultVal) {
         return x -> {
             try {
@@ -36,6 +36,7 @@ import io.crate.metadata.RelationName;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.indices.MergeCoordinator;
 import org.elasticsearch.repositories.RepositoriesService;
 
 import java.util.Collections;
@@ -60,7 +61,8 @@ public class SysTableDefinitions {
                                SysSnapshots sysSnapshots,
                                SysAllocations sysAllocations,
                                ShardSegments shardSegmentInfos,
-                               TableHealthService tableHealthService) {
+                               TableHealthService tableHealthService,
+                               MergeCoordinator mergeCoordinator) {
         Supplier<DiscoveryNode> localNode = clusterService::localNode;
         SysClusterTableInfo sysClusterTableInfo = (SysClusterTableInfo) sysSchemaInfo.getTableInfo(SysClusterTableInfo.IDENT.name());
         assert sysClusterTableInfo != null : "sys.cluster table must exist in sys schema";
@@ -132,6 +134,10 @@ public class SysTableDefinitions {
             () -> completedFuture(shardSegmentInfos),
             SysSegmentsTableInfo.expressions(clusterService::localNode),
             true));
+        tableDefinitions.put(SysMergesTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(mergeCoordinator.merges()),
+            SysMergesTableInfo.expressions(localNode),
+            false));
     }
 
     public StaticTableDefinition<?> get(RelationName relationName) {
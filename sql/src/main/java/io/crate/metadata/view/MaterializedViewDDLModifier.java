@@ -0,0 +1,94 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.view;
+
+import io.crate.metadata.RelationName;
+import io.crate.metadata.cluster.DDLClusterStateModifier;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.MetaData;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the {@link MaterializedViewsMetaData} in sync with the tables which hold the rows of the views.
+ */
+public class MaterializedViewDDLModifier implements DDLClusterStateModifier {
+
+    @Override
+    public ClusterState onDropTable(ClusterState currentState, RelationName relationName) {
+        MaterializedViewsMetaData views = currentState.metaData().custom(MaterializedViewsMetaData.TYPE);
+        if (views == null) {
+            return currentState;
+        }
+        return updateViews(currentState, views.remove(relationName));
+    }
+
+    @Override
+    public ClusterState onRenameTable(ClusterState currentState,
+                                      RelationName sourceRelationName,
+                                      RelationName targetRelationName,
+                                      boolean isPartitionedTable) {
+        MaterializedViewsMetaData views = currentState.metaData().custom(MaterializedViewsMetaData.TYPE);
+        if (views == null) {
+            return currentState;
+        }
+        return updateViews(currentState, views.rename(sourceRelationName, targetRelationName));
+    }
+
+    @Override
+    public ClusterState onSwapRelations(ClusterState currentState, RelationName source, RelationName target) {
+        MaterializedViewsMetaData views = currentState.metaData().custom(MaterializedViewsMetaData.TYPE);
+        if (views == null) {
+            return currentState;
+        }
+        MaterializedViewMetaData sourceView = views.getView(source);
+        MaterializedViewMetaData targetView = views.getView(target);
+        if (sourceView == null && targetView == null) {
+            return currentState;
+        }
+        if (targetView != null && source.equals(MaterializedViewsMetaData.stagingTable(target))) {
+            // A refresh replaced the rows of the view, the definition stays with the name
+            return currentState;
+        }
+        MaterializedViewsMetaData updatedViews = views;
+        if (sourceView != null) {
+            updatedViews = MaterializedViewsMetaData.put(updatedViews.remove(source), target, sourceView);
+        }
+        if (targetView != null) {
+            MaterializedViewsMetaData withoutTarget = sourceView == null ? updatedViews.remove(target) : updatedViews;
+            updatedViews = MaterializedViewsMetaData.put(withoutTarget, source, targetView);
+        }
+        return updateViews(currentState, updatedViews);
+    }
+
+    private static ClusterState updateViews(ClusterState currentState, @Nullable MaterializedViewsMetaData updatedViews) {
+        if (updatedViews == null) {
+            return currentState;
+        }
+        return ClusterState.builder(currentState)
+            .metaData(MetaData.builder(currentState.metaData())
+                .putCustom(MaterializedViewsMetaData.TYPE, updatedViews)
+                .build())
+            .build();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.view;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Objects;
+
+public class MaterializedViewMetaData implements Writeable {
+
+    private final String stmt;
+    @Nullable
+    private final String owner;
+    @Nullable
+    private final String watermarkColumn;
+    private final long watermarkDelay;
+    @Nullable
+    private final Long watermark;
+    @Nullable
+    private final Long pendingWatermark;
+    @Nullable
+    private final String refreshingNode;
+    @Nullable
+    private final String stagingTableUUID;
+
+    public MaterializedViewMetaData(String stmt,
+                                    @Nullable String owner,
+                                    @Nullable String watermarkColumn,
+                                    long watermarkDelay,
+                                    @Nullable Long watermark) {
+        this(stmt, owner, watermarkColumn, watermarkDelay, watermark, null, null, null);
+    }
+
+    public MaterializedViewMetaData(String stmt,
+                                    @Nullable String owner,
+                                    @Nullable String watermarkColumn,
+                                    long watermarkDelay,
+                                    @Nullable Long watermark,
+                                    @Nullable Long pendingWatermark,
+                                    @Nullable String refreshingNode,
+                                    @Nullable String stagingTableUUID) {
+        this.stmt = stmt;
+        this.owner = owner;
+        this.watermarkColumn = watermarkColumn;
+        this.watermarkDelay = watermarkDelay;
+        this.watermark = watermark;
+        this.pendingWatermark = pendingWatermark;
+        this.refreshingNode = refreshingNode;
+        this.stagingTableUUID = stagingTableUUID;
+    }
+
+    public MaterializedViewMetaData(StreamInput in) throws IOException {
+        stmt = in.readString();
+        owner = in.readOptionalString();
+        watermarkColumn = in.readOptionalString();
+        watermarkDelay = in.readVLong();
+        watermark = in.readOptionalLong();
+        pendingWatermark = in.readOptionalLong();
+        refreshingNode = in.readOptionalString();
+        stagingTableUUID = in.readOptionalString();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(stmt);
+        out.writeOptionalString(owner);
+        out.writeOptionalString(watermarkColumn);
+        out.writeVLong(watermarkDelay);
+        out.writeOptionalLong(watermark);
+        out.writeOptionalLong(pendingWatermark);
+        out.writeOptionalString(refreshingNode);
+        out.writeOptionalString(stagingTableUUID);
+    }
+
+    /**
+     * The SELECT statement the materialized view is based on.
+     */
+    public String stmt() {
+        return stmt;
+    }
+
+    @Nullable
+    public String owner() {
+        return owner;
+    }
+
+    /**
+     * The column of the source table which is used to detect new rows on refresh.
+     * If null, every refresh re-computes the whole view.
+     */
+    @Nullable
+    public String watermarkColumn() {
+        return watermarkColumn;
+    }
+
+    /**
+     * Rows whose watermark is within this distance of the highest watermark of the source table are
+     * left for a later refresh, so that rows which arrive late are still included.
+     */
+    public long watermarkDelay() {
+        return watermarkDelay;
+    }
+
+    /**
+     * The highest value of the {@link #watermarkColumn()} which is already included in the view.
+     * Null if the view is not incremental or has never been refreshed.
+     */
+    @Nullable
+    public Long watermark() {
+        return watermark;
+    }
+
+    /**
+     * The watermark up to which an incremental refresh is inserting rows.
+     * If it is still set once that refresh is over, the refresh failed, the rows of the view
+     * may be incomplete and the next refresh has to re-compute the whole view.
+     */
+    @Nullable
+    public Long pendingWatermark() {
+        return pendingWatermark;
+    }
+
+    /**
+     * The ephemeral id of the node which is currently refreshing the view.
+     */
+    @Nullable
+    public String refreshingNode() {
+        return refreshingNode;
+    }
+
+    /**
+     * The index uuid of the staging table a full refresh has created and not dropped yet.
+     * A refresh only drops a table with the name of the staging table if it is this table.
+     */
+    @Nullable
+    public String stagingTableUUID() {
+        return stagingTableUUID;
+    }
+
+    public boolean isIncremental() {
+        return watermarkColumn != null;
+    }
+
+    public MaterializedViewMetaData withRefreshStarted(String nodeId, @Nullable Long newPendingWatermark) {
+        return new MaterializedViewMetaData(
+            stmt, owner, watermarkColumn, watermarkDelay, watermark, newPendingWatermark, nodeId, stagingTableUUID);
+    }
+
+    /**
+     * Keeps the {@link #pendingWatermark()}, so that the next refresh re-computes the view.
+     */
+    public MaterializedViewMetaData withRefreshFailed() {
+        return new MaterializedViewMetaData(
+            stmt, owner, watermarkColumn, watermarkDelay, watermark, pendingWatermark, null, stagingTableUUID);
+    }
+
+    public MaterializedViewMetaData withRefreshCompleted(@Nullable Long newWatermark) {
+        return new MaterializedViewMetaData(
+            stmt, owner, watermarkColumn, watermarkDelay, newWatermark, null, null, stagingTableUUID);
+    }
+
+    public MaterializedViewMetaData withStagingTable(@Nullable String newStagingTableUUID) {
+        return new MaterializedViewMetaData(
+            stmt, owner, watermarkColumn, watermarkDelay, watermark, pendingWatermark, refreshingNode, newStagingTableUUID);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MaterializedViewMetaData that = (MaterializedViewMetaData) o;
+        return watermarkDelay == that.watermarkDelay &&
+               Objects.equals(stmt, that.stmt) &&
+               Objects.equals(owner, that.owner) &&
+               Objects.equals(watermarkColumn, that.watermarkColumn) &&
+               Objects.equals(watermark, that.watermark) &&
+               Objects.equals(pendingWatermark, that.pendingWatermark) &&
+               Objects.equals(refreshingNode, that.refreshingNode) &&
+               Objects.equals(stagingTableUUID, that.stagingTableUUID);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            stmt, owner, watermarkColumn, watermarkDelay, watermark, pendingWatermark, refreshingNode, stagingTableUUID);
+    }
+}
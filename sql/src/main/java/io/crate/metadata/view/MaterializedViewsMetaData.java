@@ -0,0 +1,298 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.view;
+
+import io.crate.metadata.RelationName;
+import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.AbstractNamedDiffable;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Definitions of all materialized views.
+ * The rows of a materialized view are stored in a regular table with the same name,
+ * this only holds the information required to refresh it.
+ */
+public class MaterializedViewsMetaData extends AbstractNamedDiffable<MetaData.Custom> implements MetaData.Custom {
+
+    public static final String TYPE = "materialized_views";
+    private final Map<String, MaterializedViewMetaData> viewByName;
+
+    MaterializedViewsMetaData(Map<String, MaterializedViewMetaData> viewByName) {
+        this.viewByName = viewByName;
+    }
+
+    public MaterializedViewsMetaData(StreamInput in) throws IOException {
+        int numViews = in.readVInt();
+        viewByName = new HashMap<>(numViews);
+        for (int i = 0; i < numViews; i++) {
+            viewByName.put(in.readString(), new MaterializedViewMetaData(in));
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(viewByName.size());
+        for (Map.Entry<String, MaterializedViewMetaData> view : viewByName.entrySet()) {
+            out.writeString(view.getKey());
+            view.getValue().writeTo(out);
+        }
+    }
+
+    @Override
+    public EnumSet<MetaData.XContentContext> context() {
+        return EnumSet.of(MetaData.XContentContext.GATEWAY, MetaData.XContentContext.SNAPSHOT);
+    }
+
+    @Override
+    public String getWriteableName() {
+        return TYPE;
+    }
+
+    @Override
+    public Version getMinimalSupportedVersion() {
+        return Version.V_4_2_0;
+    }
+
+    /*
+     * MaterializedViewsMetaData XContent has the following structure:
+     *
+     * <pre>
+     *     {
+     *       "materialized_views": {
+     *         "doc.my_view": {
+     *           "stmt": "select x, count(*) from t1 group by x",
+     *           "owner": "user_a",
+     *           "watermark_column": "ts",
+     *           "watermark_delay": 60000,
+     *           "watermark": 1589366400000,
+     *           "pending_watermark": 1589366460000,
+     *           "refreshing_node": "Hz0Gi6tGSfWcqDqxn3jGGg",
+     *           "staging_table_uuid": "d7hGMbaxQ0yhZnJdvpDZqA"
+     *         }
+     *       }
+     *     }
+     * </pre>
+     *
+     * All fields but "stmt" and "owner" are only present if they are set.
+     */
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(TYPE);
+        for (Map.Entry<String, MaterializedViewMetaData> entry : viewByName.entrySet()) {
+            MaterializedViewMetaData view = entry.getValue();
+            builder.startObject(entry.getKey());
+            {
+                builder.field("stmt", view.stmt());
+                builder.field("owner", view.owner());
+                if (view.watermarkColumn() != null) {
+                    builder.field("watermark_column", view.watermarkColumn());
+                }
+                if (view.watermarkDelay() != 0L) {
+                    builder.field("watermark_delay", view.watermarkDelay());
+                }
+                if (view.watermark() != null) {
+                    builder.field("watermark", view.watermark());
+                }
+                if (view.pendingWatermark() != null) {
+                    builder.field("pending_watermark", view.pendingWatermark());
+                }
+                if (view.refreshingNode() != null) {
+                    builder.field("refreshing_node", view.refreshingNode());
+                }
+                if (view.stagingTableUUID() != null) {
+                    builder.field("staging_table_uuid", view.stagingTableUUID());
+                }
+            }
+            builder.endObject();
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    public static MaterializedViewsMetaData fromXContent(XContentParser parser) throws IOException {
+        Map<String, MaterializedViewMetaData> views = new HashMap<>();
+
+        if (parser.nextToken() == XContentParser.Token.FIELD_NAME && parser.currentName().equals(TYPE)) {
+            if (parser.nextToken() == XContentParser.Token.START_OBJECT) {
+                while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                    String viewName = parser.currentName();
+                    if (parser.nextToken() == XContentParser.Token.START_OBJECT) {
+                        String stmt = null;
+                        String owner = null;
+                        String watermarkColumn = null;
+                        long watermarkDelay = 0L;
+                        Long watermark = null;
+                        Long pendingWatermark = null;
+                        String refreshingNode = null;
+                        String stagingTableUUID = null;
+                        while (parser.nextToken() != XContentParser.Token.END_OBJECT) {
+                            String fieldName = parser.currentName();
+                            parser.nextToken();
+                            switch (fieldName) {
+                                case "stmt":
+                                    stmt = parser.text();
+                                    break;
+
+                                case "owner":
+                                    owner = parser.textOrNull();
+                                    break;
+
+                                case "watermark_column":
+                                    watermarkColumn = parser.textOrNull();
+                                    break;
+
+                                case "watermark_delay":
+                                    watermarkDelay = parser.longValue();
+                                    break;
+
+                                case "watermark":
+                                    watermark = parser.longValue();
+                                    break;
+
+                                case "pending_watermark":
+                                    pendingWatermark = parser.longValue();
+                                    break;
+
+                                case "refreshing_node":
+                                    refreshingNode = parser.textOrNull();
+                                    break;
+
+                                case "staging_table_uuid":
+                                    stagingTableUUID = parser.textOrNull();
+                                    break;
+
+                                default:
+                                    parser.skipChildren();
+                            }
+                        }
+                        if (stmt == null) {
+                            throw new ElasticsearchParseException(
+                                "failed to parse materialized views, expected field 'stmt' in object");
+                        }
+                        views.put(viewName, new MaterializedViewMetaData(
+                            stmt,
+                            owner,
+                            watermarkColumn,
+                            watermarkDelay,
+                            watermark,
+                            pendingWatermark,
+                            refreshingNode,
+                            stagingTableUUID
+                        ));
+                    }
+                }
+            }
+            if (parser.nextToken() != XContentParser.Token.END_OBJECT) {
+                // each custom metadata is packed inside an object.
+                // each custom must move the parser to the end otherwise possible following customs won't be read
+                throw new ElasticsearchParseException(
+                    "failed to parse materialized views, expected an object token at the end");
+            }
+        }
+        return new MaterializedViewsMetaData(views);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        MaterializedViewsMetaData that = (MaterializedViewsMetaData) o;
+        return viewByName.equals(that.viewByName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(viewByName);
+    }
+
+    /**
+     * The table into which a refresh writes the rows of a view before it is swapped with the table of the view.
+     */
+    public static RelationName stagingTable(RelationName view) {
+        return new RelationName(view.schema(), view.name() + "_staging");
+    }
+
+    public boolean contains(RelationName relationName) {
+        return viewByName.containsKey(relationName.fqn());
+    }
+
+    @Nullable
+    public MaterializedViewMetaData getView(RelationName name) {
+        return viewByName.get(name.fqn());
+    }
+
+    /**
+     * @return A copy of the MaterializedViewsMetaData with the view added (or replaced in case it already existed)
+     */
+    public static MaterializedViewsMetaData put(@Nullable MaterializedViewsMetaData prevViews,
+                                                RelationName name,
+                                                MaterializedViewMetaData view) {
+        HashMap<String, MaterializedViewMetaData> viewByName = prevViews == null
+            ? new HashMap<>()
+            : new HashMap<>(prevViews.viewByName);
+        viewByName.put(name.fqn(), view);
+        return new MaterializedViewsMetaData(viewByName);
+    }
+
+    /**
+     * @return A copy of the MaterializedViewsMetaData without the view or null if there was no such view.
+     */
+    @Nullable
+    public MaterializedViewsMetaData remove(RelationName name) {
+        if (!viewByName.containsKey(name.fqn())) {
+            return null;
+        }
+        HashMap<String, MaterializedViewMetaData> viewByName = new HashMap<>(this.viewByName);
+        viewByName.remove(name.fqn());
+        return new MaterializedViewsMetaData(viewByName);
+    }
+
+    /**
+     * @return A copy of the MaterializedViewsMetaData with the view moved to the new name
+     *         or null if there was no such view.
+     */
+    @Nullable
+    public MaterializedViewsMetaData rename(RelationName source, RelationName target) {
+        MaterializedViewMetaData view = viewByName.get(source.fqn());
+        if (view == null) {
+            return null;
+        }
+        HashMap<String, MaterializedViewMetaData> viewByName = new HashMap<>(this.viewByName);
+        viewByName.remove(source.fqn());
+        viewByName.put(target.fqn(), view);
+        return new MaterializedViewsMetaData(viewByName);
+    }
+}
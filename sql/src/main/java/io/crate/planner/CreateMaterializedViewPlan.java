@@ -0,0 +1,103 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.action.FutureActionListener;
+import io.crate.analyze.AnalyzedCreateMaterializedView;
+import io.crate.analyze.BoundCreateTable;
+import io.crate.analyze.NumberOfShards;
+import io.crate.auth.user.User;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.RowConsumer;
+import io.crate.execution.ddl.tables.TableCreator;
+import io.crate.execution.ddl.views.PutMaterializedViewRequest;
+import io.crate.execution.support.OneRowActionListener;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.view.MaterializedViewMetaData;
+import io.crate.planner.node.ddl.CreateTablePlan;
+import io.crate.planner.operators.SubQueryResults;
+import org.elasticsearch.action.support.master.AcknowledgedResponse;
+
+/**
+ * Creates the table which holds the rows of a materialized view and stores the view definition.
+ * The view is empty until it is refreshed for the first time.
+ */
+public final class CreateMaterializedViewPlan implements Plan {
+
+    private final AnalyzedCreateMaterializedView createView;
+    private final NumberOfShards numberOfShards;
+    private final TableCreator tableCreator;
+    private final Schemas schemas;
+
+    CreateMaterializedViewPlan(AnalyzedCreateMaterializedView createView,
+                               NumberOfShards numberOfShards,
+                               TableCreator tableCreator,
+                               Schemas schemas) {
+        this.createView = createView;
+        this.numberOfShards = numberOfShards;
+        this.tableCreator = tableCreator;
+        this.schemas = schemas;
+    }
+
+    @Override
+    public StatementType type() {
+        return StatementType.DDL;
+    }
+
+    @Override
+    public void executeOrFail(DependencyCarrier dependencies,
+                              PlannerContext plannerContext,
+                              RowConsumer consumer,
+                              Row params,
+                              SubQueryResults subQueryResults) {
+        BoundCreateTable boundCreateTable = CreateTablePlan.bind(
+            createView.createTable(),
+            plannerContext.transactionContext(),
+            plannerContext.functions(),
+            params,
+            subQueryResults,
+            numberOfShards,
+            schemas,
+            dependencies.fulltextAnalyzerResolver());
+        User owner = createView.owner();
+        PutMaterializedViewRequest request = new PutMaterializedViewRequest(
+            createView.name(),
+            new MaterializedViewMetaData(
+                createView.formattedQuery(),
+                owner == null ? null : owner.name(),
+                createView.watermarkColumn(),
+                createView.watermarkDelay(),
+                null
+            ),
+            false
+        );
+        tableCreator.create(boundCreateTable)
+            .thenCompose(ignored -> {
+                FutureActionListener<AcknowledgedResponse, Long> listener = new FutureActionListener<>(r -> 1L);
+                dependencies.putMaterializedViewAction().execute(request, listener);
+                return listener;
+            })
+            .whenComplete(new OneRowActionListener<>(consumer, Row1::new));
+    }
+}
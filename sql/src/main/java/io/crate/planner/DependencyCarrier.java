@@ -23,6 +23,7 @@
 package io.crate.planner;
 
 import io.crate.action.sql.DCLStatementDispatcher;
+import io.crate.action.sql.SQLOperations;
 import io.crate.analyze.repositories.RepositoryParamValidator;
 import io.crate.execution.TransportActionProvider;
 import io.crate.execution.ddl.RepositoryService;
@@ -32,6 +33,7 @@ import io.crate.execution.ddl.tables.AlterTableOperation;
 import io.crate.execution.ddl.tables.TransportDropTableAction;
 import io.crate.execution.ddl.views.TransportCreateViewAction;
 import io.crate.execution.ddl.views.TransportDropViewAction;
+import io.crate.execution.ddl.views.TransportPutMaterializedViewAction;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.PhasesTaskFactory;
 import io.crate.expression.udf.TransportCreateUserDefinedFunctionAction;
@@ -68,12 +70,14 @@ public class DependencyCarrier {
     private final ProjectionBuilder projectionBuilder;
     private final TransportCreateViewAction createViewAction;
     private final TransportDropViewAction dropViewAction;
+    private final TransportPutMaterializedViewAction putMaterializedViewAction;
     private final TransportSwapRelationsAction swapRelationsAction;
     private final TransportCreateIndexAction createIndexAction;
     private final TransportCreateUserDefinedFunctionAction createFunctionAction;
     private final TransportDropUserDefinedFunctionAction dropFunctionAction;
     private final LicenseService licenseService;
     private final Provider<TransportAnalyzeAction> analyzeAction;
+    private final Provider<SQLOperations> sqlOperations;
     private final AlterTableOperation alterTableOperation;
     private final FulltextAnalyzerResolver fulltextAnalyzerResolver;
     private final RepositoryService repositoryService;
@@ -92,11 +96,13 @@ public class DependencyCarrier {
                              TransportDropTableAction transportDropTableAction,
                              TransportCreateViewAction createViewAction,
                              TransportDropViewAction dropViewAction,
+                             TransportPutMaterializedViewAction putMaterializedViewAction,
                              TransportSwapRelationsAction swapRelationsAction,
                              TransportCreateIndexAction createIndexAction,
                              TransportCreateUserDefinedFunctionAction createFunctionAction,
                              TransportDropUserDefinedFunctionAction dropFunctionAction,
                              Provider<TransportAnalyzeAction> analyzeAction,
+                             Provider<SQLOperations> sqlOperations,
                              AlterTableOperation alterTableOperation,
                              FulltextAnalyzerResolver fulltextAnalyzerResolver,
                              RepositoryService repositoryService,
@@ -114,11 +120,13 @@ public class DependencyCarrier {
         projectionBuilder = new ProjectionBuilder(functions);
         this.createViewAction = createViewAction;
         this.dropViewAction = dropViewAction;
+        this.putMaterializedViewAction = putMaterializedViewAction;
         this.swapRelationsAction = swapRelationsAction;
         this.createIndexAction = createIndexAction;
         this.createFunctionAction = createFunctionAction;
         this.dropFunctionAction = dropFunctionAction;
         this.analyzeAction = analyzeAction;
+        this.sqlOperations = sqlOperations;
         this.alterTableOperation = alterTableOperation;
         this.fulltextAnalyzerResolver = fulltextAnalyzerResolver;
         this.repositoryService = repositoryService;
@@ -189,6 +197,10 @@ public class DependencyCarrier {
         return dropViewAction;
     }
 
+    public TransportPutMaterializedViewAction putMaterializedViewAction() {
+        return putMaterializedViewAction;
+    }
+
     public TransportCreateIndexAction createIndexAction() {
         return createIndexAction;
     }
@@ -220,4 +232,8 @@ public class DependencyCarrier {
     public TransportAnalyzeAction analyzeAction() {
         return analyzeAction.get();
     }
+
+    public SQLOperations sqlOperations() {
+        return sqlOperations.get();
+    }
 }
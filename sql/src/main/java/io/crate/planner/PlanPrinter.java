@@ -235,10 +235,16 @@ public final class PlanPrinter {
 
         @Override
         public ImmutableMap.Builder<String, Object> visitJoin(Join plan, Void context) {
-            return createMap(plan, createSubMap()
+            ImmutableMap.Builder<String, Object> subMap = createSubMap()
                 .put("left", process(plan.left(), context).build())
                 .put("right", process(plan.right(), context).build())
-                .put("joinPhase", phaseMap(plan.joinPhase())));
+                .put("joinPhase", phaseMap(plan.joinPhase()));
+            if (plan.estimatedCost() >= 0) {
+                subMap
+                    .put("numExpectedRows", plan.numExpectedRows())
+                    .put("estimatedCost", plan.estimatedCost());
+            }
+            return createMap(plan, subMap);
         }
 
         @Override
@@ -37,6 +37,7 @@ import io.crate.analyze.AnalyzedCopyTo;
 import io.crate.analyze.AnalyzedCreateAnalyzer;
 import io.crate.analyze.AnalyzedCreateBlobTable;
 import io.crate.analyze.AnalyzedCreateFunction;
+import io.crate.analyze.AnalyzedCreateMaterializedView;
 import io.crate.analyze.AnalyzedCreateRepository;
 import io.crate.analyze.AnalyzedCreateSnapshot;
 import io.crate.analyze.AnalyzedCreateTable;
@@ -55,6 +56,7 @@ import io.crate.analyze.AnalyzedGCDanglingArtifacts;
 import io.crate.analyze.AnalyzedKill;
 import io.crate.analyze.AnalyzedOptimizeTable;
 import io.crate.analyze.AnalyzedPromoteReplica;
+import io.crate.analyze.AnalyzedRefreshMaterializedView;
 import io.crate.analyze.AnalyzedRefreshTable;
 import io.crate.analyze.AnalyzedRerouteAllocateReplicaShard;
 import io.crate.analyze.AnalyzedRerouteCancelShard;
@@ -492,6 +494,24 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
         return new CreateViewPlan(createViewStmt);
     }
 
+    @Override
+    public Plan visitCreateMaterializedView(AnalyzedCreateMaterializedView createMaterializedView,
+                                            PlannerContext context) {
+        return new CreateMaterializedViewPlan(createMaterializedView, numberOfShards, tableCreator, schemas);
+    }
+
+    @Override
+    public Plan visitRefreshMaterializedView(AnalyzedRefreshMaterializedView refreshMaterializedView,
+                                             PlannerContext context) {
+        AnalyzedInsertStatement insert = refreshMaterializedView.insert();
+        AnalyzedRelation maxWatermark = refreshMaterializedView.maxWatermark();
+        return new RefreshMaterializedViewPlan(
+            refreshMaterializedView,
+            insert == null ? null : process(insert, context),
+            maxWatermark == null ? null : process(maxWatermark, context)
+        );
+    }
+
     @Override
     public Plan visitDropView(AnalyzedDropView dropView, PlannerContext context) {
         return new DropViewPlan(dropView);
@@ -0,0 +1,342 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner;
+
+import io.crate.action.FutureActionListener;
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.Session;
+import io.crate.analyze.AnalyzedRefreshMaterializedView;
+import io.crate.data.CollectingRowConsumer;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.RowConsumer;
+import io.crate.data.RowN;
+import io.crate.execution.ddl.RelationNameSwap;
+import io.crate.execution.ddl.SwapRelationsRequest;
+import io.crate.execution.ddl.views.PutMaterializedViewRequest;
+import io.crate.execution.engine.FirstColumnConsumers;
+import io.crate.execution.support.OneRowActionListener;
+import io.crate.metadata.view.MaterializedViewMetaData;
+import io.crate.planner.operators.SubQueryResults;
+import io.crate.types.DataType;
+import org.elasticsearch.action.support.master.AcknowledgedResponse;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Refreshes a materialized view, see {@link AnalyzedRefreshMaterializedView}.
+ *
+ * <p>
+ * Refreshes of a view are serialized: a refresh first records the node running it in the definition of the view
+ * and fails if another refresh has done so and its node is still part of the cluster.
+ * </p>
+ *
+ * <p>
+ * A full refresh writes the rows into the staging table and swaps it with the table of the view in one cluster
+ * state update, so readers either see the previous or the new rows and a failed refresh keeps the previous rows.
+ * </p>
+ *
+ * <p>
+ * An incremental refresh records the watermark up to which it inserts rows before it starts inserting them and
+ * stores that watermark as the new watermark of the view once all rows are inserted. If the refresh fails, or the
+ * node running it leaves the cluster, the rows of the view may be incomplete, so the next refresh does a full refresh
+ * instead of inserting (and counting) any rows a second time.
+ * </p>
+ */
+public final class RefreshMaterializedViewPlan implements Plan {
+
+    private final AnalyzedRefreshMaterializedView refresh;
+    @Nullable
+    private final Plan insert;
+    @Nullable
+    private final Plan maxWatermark;
+
+    RefreshMaterializedViewPlan(AnalyzedRefreshMaterializedView refresh,
+                                @Nullable Plan insert,
+                                @Nullable Plan maxWatermark) {
+        this.refresh = refresh;
+        this.insert = insert;
+        this.maxWatermark = maxWatermark;
+    }
+
+    @Override
+    public StatementType type() {
+        return StatementType.INSERT;
+    }
+
+    @Override
+    public void executeOrFail(DependencyCarrier dependencies,
+                              PlannerContext plannerContext,
+                              RowConsumer consumer,
+                              Row params,
+                              SubQueryResults subQueryResults) {
+        MaterializedViewMetaData view = refresh.view();
+        DiscoveryNodes nodes = dependencies.clusterService().state().nodes();
+        if (view.refreshingNode() != null && containsNode(nodes, view.refreshingNode())) {
+            throw new IllegalStateException("Materialized view '" + refresh.name() + "' is already being refreshed");
+        }
+        String localNode = nodes.getLocalNode().getEphemeralId();
+        CompletableFuture<Long> rowCount;
+        if (maxWatermark == null) {
+            rowCount = refreshFull(dependencies, localNode, null);
+        } else {
+            rowCount = executeSubPlan(maxWatermark, dependencies, plannerContext, Row.EMPTY)
+                .thenCompose(max -> {
+                    Long current = max == null ? null : ((Number) max).longValue() - view.watermarkDelay();
+                    if (view.pendingWatermark() != null || view.refreshingNode() != null) {
+                        // A previous refresh failed or its node left the cluster, the view may be incomplete
+                        return refreshFull(dependencies, localNode, current);
+                    }
+                    return refreshIncremental(dependencies, plannerContext, localNode, current);
+                });
+        }
+        rowCount.whenComplete(new OneRowActionListener<>(consumer, Row1::new));
+    }
+
+    private CompletableFuture<Long> refreshIncremental(DependencyCarrier dependencies,
+                                                       PlannerContext plannerContext,
+                                                       String localNode,
+                                                       @Nullable Long current) {
+        MaterializedViewMetaData view = refresh.view();
+        Long previous = view.watermark();
+        if (current == null || (previous != null && current <= previous)) {
+            return CompletableFuture.completedFuture(0L);
+        }
+        DataType<?> watermarkType = refresh.watermarkType();
+        assert insert != null && watermarkType != null : "an incremental refresh must have an insert and a watermark type";
+        Row watermarks = new RowN(
+            previous == null ? null : watermarkType.value(previous),
+            watermarkType.value(current)
+        );
+        return withRefreshRecorded(
+            dependencies,
+            view.withRefreshStarted(localNode, current),
+            current,
+            ignored -> executeSubPlan(insert, dependencies, plannerContext, watermarks)
+                .thenApply(RefreshMaterializedViewPlan::toLong)
+        );
+    }
+
+    /**
+     * Re-computes all rows of the view in the staging table and swaps it with the table of the view.
+     *
+     * <p>
+     * The index uuid of the staging table is recorded in the definition of the view before any rows are inserted.
+     * A staging table left behind by a refresh whose node left the cluster is only dropped if it has that uuid,
+     * any other relation with the name of the staging table makes the refresh fail.
+     * </p>
+     *
+     * @param watermark the watermark up to which rows are included, only used for an incremental view.
+     */
+    private CompletableFuture<Long> refreshFull(DependencyCarrier dependencies,
+                                                String localNode,
+                                                @Nullable Long watermark) {
+        MaterializedViewMetaData view = refresh.view();
+        DataType<?> watermarkType = refresh.watermarkType();
+        Row insertParams = watermarkType == null ? Row.EMPTY : new Row1(watermarkType.value(watermark));
+        return withRefreshRecorded(
+            dependencies,
+            view.withRefreshStarted(localNode, watermark),
+            watermark,
+            current -> {
+                String leftOverUUID = stagingTableUUID(dependencies);
+                if (leftOverUUID != null && !leftOverUUID.equals(current.get().stagingTableUUID())) {
+                    throw new IllegalStateException(
+                        "Relation '" + refresh.stagingTable() + "' is used to refresh materialized view '"
+                        + refresh.name() + "' but already exists");
+                }
+                Session session = dependencies.sqlOperations().newSystemSession();
+                String stagingTable = refresh.stagingTable().sqlFqn();
+                AtomicBoolean createdStagingTable = new AtomicBoolean(false);
+                CompletableFuture<Long> dropLeftOver = leftOverUUID == null
+                    ? CompletableFuture.completedFuture(0L)
+                    : execute(session, "DROP TABLE " + stagingTable, Row.EMPTY);
+                CompletableFuture<Long> rowCount = dropLeftOver
+                    .thenCompose(ignored -> execute(session, refresh.createStagingTable(), Row.EMPTY))
+                    .thenCompose(ignored -> {
+                        createdStagingTable.set(true);
+                        String uuid = stagingTableUUID(dependencies);
+                        if (uuid == null) {
+                            throw new IllegalStateException(
+                                "Staging table '" + stagingTable + "' doesn't exist after it has been created");
+                        }
+                        MaterializedViewMetaData withStagingTable = current.get().withStagingTable(uuid);
+                        return putView(dependencies, withStagingTable, current.get())
+                            .thenAccept(ignored2 -> current.set(withStagingTable));
+                    })
+                    .thenCompose(ignored -> execute(session, refresh.insertIntoStagingTable(), insertParams))
+                    .thenCompose(insertCount -> execute(session, "REFRESH TABLE " + stagingTable, Row.EMPTY)
+                        .thenCompose(ignored -> swapWithStagingTable(dependencies))
+                        .thenApply(ignored -> {
+                            // the staging table became the table of the view
+                            current.set(current.get().withStagingTable(null));
+                            return insertCount;
+                        }));
+
+                CompletableFuture<Long> result = new CompletableFuture<>();
+                rowCount.whenComplete((insertCount, failure) -> {
+                    if (failure == null) {
+                        result.complete(insertCount);
+                    } else if (createdStagingTable.get()) {
+                        execute(session, "DROP TABLE IF EXISTS " + stagingTable, Row.EMPTY)
+                            .whenComplete((ignored, dropFailure) -> {
+                                if (dropFailure == null) {
+                                    current.set(current.get().withStagingTable(null));
+                                }
+                                result.completeExceptionally(failure);
+                            });
+                    } else {
+                        result.completeExceptionally(failure);
+                    }
+                });
+                return result.whenComplete((ignored, failure) -> session.close());
+            }
+        );
+    }
+
+    /**
+     * The index uuid of the table with the name of the staging table, null if there is no such table.
+     */
+    @Nullable
+    private String stagingTableUUID(DependencyCarrier dependencies) {
+        IndexMetaData index = dependencies.clusterService().state().metaData()
+            .index(refresh.stagingTable().indexNameOrAlias());
+        return index == null ? null : index.getIndexUUID();
+    }
+
+    /**
+     * Records {@code started} as definition of the view, runs the refresh and records its outcome.
+     * Fails without running the refresh if the definition of the view changed since it has been analyzed,
+     * for example because another refresh started in the meantime.
+     *
+     * <p>
+     * The refresh gets the latest definition of the view it has recorded and must update it whenever it records
+     * a new one, the outcome is recorded based on that definition.
+     * </p>
+     */
+    private CompletableFuture<Long> withRefreshRecorded(
+            DependencyCarrier dependencies,
+            MaterializedViewMetaData started,
+            @Nullable Long newWatermark,
+            Function<AtomicReference<MaterializedViewMetaData>, CompletableFuture<Long>> refreshRows) {
+        return putView(dependencies, started, refresh.view())
+            .thenCompose(ignored -> {
+                AtomicReference<MaterializedViewMetaData> current = new AtomicReference<>(started);
+                CompletableFuture<Long> rowCount;
+                try {
+                    rowCount = refreshRows.apply(current);
+                } catch (Throwable t) {
+                    rowCount = CompletableFuture.failedFuture(t);
+                }
+                CompletableFuture<Long> result = new CompletableFuture<>();
+                rowCount.whenComplete((count, failure) -> {
+                    MaterializedViewMetaData recorded = current.get();
+                    MaterializedViewMetaData finished = failure == null
+                        ? recorded.withRefreshCompleted(newWatermark)
+                        : recorded.withRefreshFailed();
+                    putView(dependencies, finished, recorded).whenComplete((ignored2, putFailure) -> {
+                        if (failure != null) {
+                            result.completeExceptionally(failure);
+                        } else if (putFailure != null) {
+                            result.completeExceptionally(putFailure);
+                        } else {
+                            result.complete(count);
+                        }
+                    });
+                });
+                return result;
+            });
+    }
+
+    private CompletableFuture<Long> putView(DependencyCarrier dependencies,
+                                            MaterializedViewMetaData view,
+                                            MaterializedViewMetaData expected) {
+        FutureActionListener<AcknowledgedResponse, Long> listener = new FutureActionListener<>(r -> 0L);
+        dependencies.putMaterializedViewAction().execute(
+            new PutMaterializedViewRequest(refresh.name(), view, expected),
+            listener
+        );
+        return listener;
+    }
+
+    /**
+     * Swaps the staging table with the table of the view and drops the table with the previous rows.
+     */
+    private CompletableFuture<Long> swapWithStagingTable(DependencyCarrier dependencies) {
+        SwapRelationsRequest request = new SwapRelationsRequest(
+            List.of(new RelationNameSwap(refresh.stagingTable(), refresh.name())),
+            List.of(refresh.stagingTable())
+        );
+        FutureActionListener<AcknowledgedResponse, Long> listener = new FutureActionListener<>(r -> 0L);
+        dependencies.swapRelationsAction().execute(request, listener);
+        return listener;
+    }
+
+    private static boolean containsNode(DiscoveryNodes nodes, String ephemeralId) {
+        for (DiscoveryNode node : nodes) {
+            if (node.getEphemeralId().equals(ephemeralId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static CompletableFuture<Long> execute(Session session, String stmt, Row params) {
+        AtomicLong rowCount = new AtomicLong();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+
+            @Override
+            public void setNextRow(Row row) {
+                rowCount.set(toLong(row.get(0)));
+            }
+        };
+        try {
+            session.quickExec(stmt, resultReceiver, params);
+        } catch (Throwable t) {
+            return CompletableFuture.failedFuture(t);
+        }
+        return resultReceiver.completionFuture().thenApply(ignored -> rowCount.get());
+    }
+
+    private static CompletableFuture<Object> executeSubPlan(Plan plan,
+                                                            DependencyCarrier dependencies,
+                                                            PlannerContext plannerContext,
+                                                            Row params) {
+        CollectingRowConsumer<Object[], Object> consumer = FirstColumnConsumers.createSingleRowConsumer();
+        plan.execute(dependencies, PlannerContext.forSubPlan(plannerContext), consumer, params, SubQueryResults.EMPTY);
+        return consumer.completionFuture();
+    }
+
+    private static long toLong(@Nullable Object rowCount) {
+        return rowCount == null ? 0L : ((Number) rowCount).longValue();
+    }
+}
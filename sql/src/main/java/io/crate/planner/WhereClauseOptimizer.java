@@ -23,6 +23,7 @@
 package io.crate.planner;
 
 import io.crate.analyze.GeneratedColumnExpander;
+import io.crate.analyze.GeneratedColumnReplacer;
 import io.crate.analyze.WhereClause;
 import io.crate.analyze.where.DocKeys;
 import io.crate.analyze.where.EqualityExtractor;
@@ -192,6 +193,8 @@ public final class WhereClauseOptimizer {
             }
         }
         if (docKeys == null) {
+            // done after extracting the keys and partitions, they only match on the original columns
+            query = GeneratedColumnReplacer.replace(query, table);
             WhereClauseValidator.validate(query);
         }
         return new DetailedQuery(query, docKeys, partitionValues, clusteredBy);
@@ -58,6 +58,8 @@ import org.elasticsearch.action.admin.cluster.snapshots.get.TransportGetSnapshot
 import org.elasticsearch.action.admin.cluster.snapshots.restore.RestoreSnapshotRequest;
 import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexModule;
+import org.elasticsearch.index.store.SnapshotIndexStore;
 import org.elasticsearch.snapshots.SnapshotInfo;
 
 import java.util.ArrayList;
@@ -69,6 +71,7 @@ import java.util.function.Function;
 
 import static io.crate.analyze.PartitionPropertiesAnalyzer.toPartitionName;
 import static io.crate.analyze.SnapshotSettings.IGNORE_UNAVAILABLE;
+import static io.crate.analyze.SnapshotSettings.MOUNT;
 import static io.crate.analyze.SnapshotSettings.WAIT_FOR_COMPLETION;
 
 public class RestoreSnapshotPlan implements Plan {
@@ -133,6 +136,10 @@ public class RestoreSnapshotPlan implements Plan {
                         .waitForCompletion(WAIT_FOR_COMPLETION.get(settings))
                         .includeGlobalState(false)
                         .includeAliases(true);
+                    if (MOUNT.get(settings)) {
+                        request.indexSettings(Settings.builder()
+                            .put(IndexModule.INDEX_STORE_TYPE_SETTING.getKey(), SnapshotIndexStore.TYPE));
+                    }
                     transportActionProvider.transportRestoreSnapshotAction().execute(
                         request,
                         new OneRowActionListener<>(consumer, r -> new Row1(r == null ? -1L : 1L)));
@@ -157,7 +164,7 @@ public class RestoreSnapshotPlan implements Plan {
 
         Settings settings = GenericPropertiesConverter.genericPropertiesToSettings(
             restoreSnapshot.properties().map(eval),
-            SnapshotSettings.SETTINGS
+            SnapshotSettings.RESTORE_SETTINGS
         );
 
         HashSet<BoundRestoreSnapshot.RestoreTableInfo> restoreTables = new HashSet<>(restoreSnapshot.tables().size());
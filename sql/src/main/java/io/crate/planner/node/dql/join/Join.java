@@ -69,6 +69,9 @@ public class Join implements ExecutionPlan, ResultDescription {
     @Nullable
     private PositionalOrderBy orderBy;
 
+    private final long numExpectedRows;
+    private final double estimatedCost;
+
     public Join(JoinPhase joinPhase,
                 ExecutionPlan left,
                 ExecutionPlan right,
@@ -76,7 +79,9 @@ public class Join implements ExecutionPlan, ResultDescription {
                 int offset,
                 int maxRowsPerNode,
                 int numOutputs,
-                @Nullable PositionalOrderBy orderBy) {
+                @Nullable PositionalOrderBy orderBy,
+                long numExpectedRows,
+                double estimatedCost) {
         this.left = left;
         this.right = right;
         this.joinPhase = joinPhase;
@@ -85,6 +90,8 @@ public class Join implements ExecutionPlan, ResultDescription {
         this.maxRowsPerNode = maxRowsPerNode;
         this.orderBy = orderBy;
         this.numOutputs = numOutputs;
+        this.numExpectedRows = numExpectedRows;
+        this.estimatedCost = estimatedCost;
     }
 
     public ExecutionPlan left() {
@@ -99,6 +106,20 @@ public class Join implements ExecutionPlan, ResultDescription {
         return joinPhase;
     }
 
+    /**
+     * @return the estimated number of rows produced by the join or a negative number if unknown.
+     */
+    public long numExpectedRows() {
+        return numExpectedRows;
+    }
+
+    /**
+     * @return the estimated cumulative cost of this join and the joins below it or a negative number if unknown.
+     */
+    public double estimatedCost() {
+        return estimatedCost;
+    }
+
     @Override
     public ResultDescription resultDescription() {
         return this;
@@ -47,6 +47,7 @@ import io.crate.planner.operators.LogicalPlan;
 import io.crate.planner.operators.LogicalPlanner;
 import io.crate.planner.operators.SubQueryResults;
 import io.crate.planner.statement.CopyFromPlan;
+import io.crate.profile.OperatorStats;
 import io.crate.profile.ProfilingContext;
 import io.crate.profile.Timer;
 import org.elasticsearch.common.collect.MapBuilder;
@@ -55,6 +56,7 @@ import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -68,6 +70,8 @@ import static io.crate.data.SentinelRow.SENTINEL;
 
 public class ExplainPlan implements Plan {
 
+    private static final String OPERATORS = "Operators";
+
     public enum Phase {
         Analyze,
         Plan,
@@ -211,6 +215,10 @@ public class ExplainPlan implements Plan {
         //      "nodeId2": {"QueryBreakDown": {...}}
         //  }
 
+        //
+        // If the nodes recorded stats of the operators (projectors, joins) of a phase, the stats are summed up
+        // across the nodes and added to the phase as "operators": {"0-FilterProjector": {"Rows": 10, ...}, ...}
+
         Map<String, Object> phasesTimings = extractPhasesTimingsFrom(timingsByNodeId, operationTree);
         Map<String, Map<String, Object>> resultNodeTimings = getNodeTimingsWithoutPhases(phasesTimings.keySet(), timingsByNodeId);
         MapBuilder<String, Object> executionTimingsMap = MapBuilder.newMapBuilder();
@@ -243,8 +251,38 @@ public class ExplainPlan implements Plan {
         Map<String, Object> phaseTimingsAcrossNodes = getPhaseTimingsAcrossNodes(phaseName, timingsByNodeId);
 
         if (!phaseTimingsAcrossNodes.isEmpty()) {
-            allPhases.put(phaseName, ImmutableMap.of("nodes", phaseTimingsAcrossNodes));
+            Map<String, Object> operatorStats = getOperatorStatsAcrossNodes(phaseName, timingsByNodeId);
+            if (operatorStats.isEmpty()) {
+                allPhases.put(phaseName, ImmutableMap.of("nodes", phaseTimingsAcrossNodes));
+            } else {
+                allPhases.put(phaseName, ImmutableMap.of("nodes", phaseTimingsAcrossNodes, "operators", operatorStats));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> getOperatorStatsAcrossNodes(String phaseName,
+                                                                   Map<String, Map<String, Object>> timingsByNodeId) {
+        Map<String, Object> statsByOperator = new LinkedHashMap<>();
+        for (Map<String, Object> timingsForNode : timingsByNodeId.values()) {
+            if (timingsForNode == null) {
+                continue;
+            }
+            Map<String, Object> operatorsByPhase = (Map<String, Object>) timingsForNode.get(OPERATORS);
+            if (operatorsByPhase == null) {
+                continue;
+            }
+            Map<String, Object> operators = (Map<String, Object>) operatorsByPhase.get(phaseName);
+            if (operators == null) {
+                continue;
+            }
+            for (Map.Entry<String, Object> entry : operators.entrySet()) {
+                Map<String, Object> stats = (Map<String, Object>) statsByOperator.computeIfAbsent(
+                    entry.getKey(), k -> new LinkedHashMap<>());
+                OperatorStats.merge(stats, (Map<String, Object>) entry.getValue());
+            }
         }
+        return Collections.unmodifiableMap(statsByOperator);
     }
 
     private static Map<String, Object> getPhaseTimingsAcrossNodes(String phaseName,
@@ -275,6 +313,7 @@ public class ExplainPlan implements Plan {
             for (String phaseToRemove : phasesNames) {
                 timings.remove(phaseToRemove);
             }
+            timings.remove(OPERATORS);
         }
 
         return Collections.unmodifiableMap(nodeTimingsWithoutPhases);
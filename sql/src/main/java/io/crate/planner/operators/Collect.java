@@ -23,6 +23,7 @@
 package io.crate.planner.operators;
 
 import io.crate.action.sql.SessionContext;
+import io.crate.analyze.GeneratedColumnReplacer;
 import io.crate.analyze.OrderBy;
 import io.crate.analyze.SymbolEvaluator;
 import io.crate.analyze.WhereClause;
@@ -212,7 +213,7 @@ public class Collect implements LogicalPlan {
         if (positionalOrderBy != null) {
             collectPhase.orderBy(
                 order
-                    .map(s -> SubQueryAndParamBinder.convert(s, params, subQueryResults))
+                    .map(s -> replaceGeneratedColumns(SubQueryAndParamBinder.convert(s, params, subQueryResults)))
                     // Filter out literal constants as ordering by constants is a NO-OP and also not supported
                     // on the collect operation.
                     .exclude(s -> s instanceof Literal));
@@ -342,13 +343,25 @@ public class Collect implements LogicalPlan {
             tableInfo.rowGranularity(),
             preferSourceLookup && tableInfo instanceof DocTableInfo
                 ? Lists2.map(boundOutputs, DocReferences::toSourceLookup)
-                : boundOutputs,
+                : Lists2.map(boundOutputs, this::replaceGeneratedColumns),
             Collections.emptyList(),
             where.queryOrFallback(),
             DistributionInfo.DEFAULT_BROADCAST
         );
     }
 
+    /**
+     * Expressions like `date_trunc('day', ts)` in the outputs or ORDER BY are read from the doc values of a matching
+     * generated column instead of being evaluated per row.
+     * Outer operators refer to the outputs by position, so this is only done on the phase.
+     */
+    private Symbol replaceGeneratedColumns(Symbol symbol) {
+        if (tableInfo instanceof DocTableInfo) {
+            return GeneratedColumnReplacer.replace(symbol, (DocTableInfo) tableInfo);
+        }
+        return symbol;
+    }
+
     @Override
     public boolean preferShardProjections() {
         // Can't run on shard level for system tables
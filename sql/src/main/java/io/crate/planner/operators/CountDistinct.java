@@ -0,0 +1,181 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.operators;
+
+import io.crate.analyze.OrderBy;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.common.collections.Lists2;
+import io.crate.data.Row;
+import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
+import io.crate.execution.engine.aggregation.impl.CollectSetAggregation;
+import io.crate.execution.engine.aggregation.impl.CountAggregation;
+import io.crate.expression.scalar.CollectionCountFunction;
+import io.crate.expression.symbol.DefaultTraversalSymbolVisitor;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.planner.ExecutionPlan;
+import io.crate.planner.PlannerContext;
+import io.crate.types.DataTypes;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+import static io.crate.planner.operators.LogicalPlanner.extractColumns;
+
+/**
+ * Computes a global {@code count(DISTINCT x)} without collecting all distinct values on the handler:
+ *
+ * <pre>
+ *     SELECT count(DISTINCT x) FROM t
+ *
+ *     CountDistinct[collection_count(collect_set(x))]
+ *       HashAggregate[count(x)]
+ *         GroupHashAggregate[x]
+ *           Collect[t | x]
+ * </pre>
+ *
+ * The distinct values are grouped like in {@code SELECT x FROM t GROUP BY x}, which redistributes them by their hash
+ * across the nodes. Each node counts the values of its partition and the handler only sums up the partial counts.
+ *
+ * The outputs are the original {@code collection_count(collect_set(x))} symbols; parent operators refer to them as a
+ * whole and don't evaluate the {@code collect_set} aggregation themselves.
+ */
+public class CountDistinct extends ForwardingLogicalPlan {
+
+    private final List<Symbol> outputs;
+
+    /**
+     * @return the {@code collection_count(collect_set(x))} function if the aggregation of the relation is a global
+     *         {@code count(DISTINCT x)} and the {@code collect_set} result isn't used anywhere else; otherwise null.
+     */
+    @Nullable
+    static Function countDistinctOrNull(AnalyzedRelation relation, List<Function> aggregates) {
+        if (!relation.groupBy().isEmpty() || aggregates.size() != 1) {
+            return null;
+        }
+        Function collectSet = aggregates.get(0);
+        if (!collectSet.info().ident().name().equals(CollectSetAggregation.NAME) || collectSet.filter() != null) {
+            return null;
+        }
+        Symbol arg = collectSet.arguments().get(0);
+        if (!DataTypes.PRIMITIVE_TYPES.contains(arg.valueType())) {
+            return null;
+        }
+        CountDistinctUsage usage = new CountDistinctUsage(collectSet);
+        relation.visitSymbols(symbol -> symbol.accept(CountDistinctUsageVisitor.INSTANCE, usage));
+        if (usage.collectSetUsedDirectly || usage.collectionCount == null) {
+            return null;
+        }
+        return usage.collectionCount;
+    }
+
+    static LogicalPlan.Builder create(LogicalPlan.Builder source, Function collectionCount) {
+        Function collectSet = (Function) collectionCount.arguments().get(0);
+        Symbol arg = collectSet.arguments().get(0);
+        List<Symbol> distinctKeys = List.of(arg);
+        Function count = new Function(
+            new FunctionInfo(
+                new FunctionIdent(CountAggregation.NAME, List.of(arg.valueType())),
+                DataTypes.LONG,
+                FunctionInfo.Type.AGGREGATE),
+            distinctKeys
+        );
+        return (tableStats, hints, usedColumns, params) -> {
+            LogicalPlan sourcePlan = source.build(tableStats, hints, extractColumns(arg), params);
+            long numDistinctValues = GroupHashAggregate.approximateDistinctValues(
+                sourcePlan.numExpectedRows(), tableStats, distinctKeys);
+            GroupHashAggregate distinctValues = new GroupHashAggregate(
+                sourcePlan, distinctKeys, List.of(), numDistinctValues);
+            return new CountDistinct(new HashAggregate(distinctValues, List.of(count)), List.of(collectionCount));
+        };
+    }
+
+    CountDistinct(LogicalPlan source, List<Symbol> outputs) {
+        super(source);
+        this.outputs = outputs;
+    }
+
+    @Override
+    public ExecutionPlan build(PlannerContext plannerContext,
+                               ProjectionBuilder projectionBuilder,
+                               int limit,
+                               int offset,
+                               @Nullable OrderBy order,
+                               @Nullable Integer pageSizeHint,
+                               Row params,
+                               SubQueryResults subQueryResults) {
+        return source.build(plannerContext, projectionBuilder, limit, offset, order, pageSizeHint, params, subQueryResults);
+    }
+
+    @Override
+    public List<Symbol> outputs() {
+        return outputs;
+    }
+
+    @Override
+    public LogicalPlan replaceSources(List<LogicalPlan> sources) {
+        return new CountDistinct(Lists2.getOnlyElement(sources), outputs);
+    }
+
+    @Override
+    public long numExpectedRows() {
+        return 1L;
+    }
+
+    @Override
+    public <C, R> R accept(LogicalPlanVisitor<C, R> visitor, C context) {
+        return visitor.visitCountDistinct(this, context);
+    }
+
+    private static class CountDistinctUsage {
+
+        private final Function collectSet;
+        private Function collectionCount;
+        private boolean collectSetUsedDirectly = false;
+
+        CountDistinctUsage(Function collectSet) {
+            this.collectSet = collectSet;
+        }
+    }
+
+    private static class CountDistinctUsageVisitor extends DefaultTraversalSymbolVisitor<CountDistinctUsage, Void> {
+
+        private static final CountDistinctUsageVisitor INSTANCE = new CountDistinctUsageVisitor();
+
+        @Override
+        public Void visitFunction(Function function, CountDistinctUsage usage) {
+            if (function.equals(usage.collectSet)) {
+                usage.collectSetUsedDirectly = true;
+                return null;
+            }
+            if (function.info().ident().name().equals(CollectionCountFunction.NAME)
+                && function.arguments().get(0).equals(usage.collectSet)) {
+                usage.collectionCount = function;
+                return null;
+            }
+            return super.visitFunction(function, usage);
+        }
+    }
+}
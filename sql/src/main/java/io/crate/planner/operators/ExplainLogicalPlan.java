@@ -28,6 +28,7 @@ import io.crate.data.Row;
 import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.pipeline.TopN;
+import io.crate.expression.symbol.AggregateMode;
 import io.crate.expression.symbol.SelectSymbol;
 import io.crate.expression.symbol.format.SymbolPrinter;
 import io.crate.planner.ExecutionPlan;
@@ -171,10 +172,11 @@ public class ExplainLogicalPlan {
 
         @Override
         public ImmutableMap.Builder<String, Object> visitNestedLoopJoin(NestedLoopJoin logicalPlan, Context context) {
-            ImmutableMap.Builder<String, Object> mapBuilder = createMap(logicalPlan, createSubMap()
+            ImmutableMap.Builder<String, Object> subMap = createSubMap()
                 .put("left", explainMap(logicalPlan.lhs, context))
                 .put("right", explainMap(logicalPlan.rhs, context))
-                .put("joinType", logicalPlan.joinType()));
+                .put("joinType", logicalPlan.joinType());
+            ImmutableMap.Builder<String, Object> mapBuilder = createMap(logicalPlan, addJoinEstimates(logicalPlan, subMap));
 
             if (logicalPlan.joinCondition() != null) {
                 mapBuilder.put("joinCondition", SymbolPrinter.INSTANCE.printQualified(logicalPlan.joinCondition()));
@@ -184,20 +186,34 @@ public class ExplainLogicalPlan {
 
         @Override
         public ImmutableMap.Builder<String, Object> visitHashJoin(HashJoin logicalPlan, Context context) {
-            return createMap(logicalPlan, createSubMap()
+            return createMap(logicalPlan, addJoinEstimates(logicalPlan, createSubMap()
                 .put("left", explainMap(logicalPlan.lhs, context))
                 .put("right", explainMap(logicalPlan.rhs, context))
                 .put("joinType", logicalPlan.joinType())
                 .put("joinCondition",
-                    SymbolPrinter.INSTANCE.printQualified(logicalPlan.joinCondition())));
+                    SymbolPrinter.INSTANCE.printQualified(logicalPlan.joinCondition()))));
+        }
+
+        private static ImmutableMap.Builder<String, Object> addJoinEstimates(LogicalPlan join,
+                                                                             ImmutableMap.Builder<String, Object> subMap) {
+            double cost = JoinCosts.cost(join);
+            if (cost >= 0) {
+                subMap
+                    .put("numExpectedRows", join.numExpectedRows())
+                    .put("estimatedCost", cost);
+            }
+            return subMap;
         }
 
         @Override
         public ImmutableMap.Builder<String, Object> visitGroupHashAggregate(GroupHashAggregate logicalPlan, Context context) {
-            return createMap(logicalPlan, createSubMap()
+            ImmutableMap.Builder<String, Object> subMap = createSubMap()
                 .put("aggregates", ExplainLeaf.printList(logicalPlan.aggregates))
-                .put("groupKeys", ExplainLeaf.printList(logicalPlan.groupKeys))
-                .put("source", explainMap(logicalPlan.source, context)));
+                .put("groupKeys", ExplainLeaf.printList(logicalPlan.groupKeys));
+            if (logicalPlan.mode() != AggregateMode.ITER_FINAL) {
+                subMap.put("mode", logicalPlan.mode().name());
+            }
+            return createMap(logicalPlan, subMap.put("source", explainMap(logicalPlan.source, context)));
         }
 
         @Override
@@ -207,6 +223,13 @@ public class ExplainLogicalPlan {
                 .put("source", explainMap(logicalPlan.source, context)));
         }
 
+        @Override
+        public ImmutableMap.Builder<String, Object> visitCountDistinct(CountDistinct logicalPlan, Context context) {
+            return createMap(logicalPlan, createSubMap()
+                .put("outputs", ExplainLeaf.printList(logicalPlan.outputs()))
+                .put("source", explainMap(logicalPlan.source, context)));
+        }
+
         @Override
         public ImmutableMap.Builder<String, Object> visitInsert(Insert logicalPlan, Context context) {
             return createMap(logicalPlan, createSubMap()
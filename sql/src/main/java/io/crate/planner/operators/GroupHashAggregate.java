@@ -27,8 +27,10 @@ import io.crate.common.collections.Lists2;
 import io.crate.data.Row;
 import io.crate.execution.dsl.phases.ExecutionPhases;
 import io.crate.execution.dsl.phases.MergePhase;
+import io.crate.execution.dsl.projection.EvalProjection;
 import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.dsl.projection.builder.InputColumns;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.pipeline.TopN;
 import io.crate.expression.symbol.AggregateMode;
@@ -66,6 +68,7 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
     final List<Symbol> groupKeys;
     private final List<Symbol> outputs;
     private final long numExpectedRows;
+    private final AggregateMode mode;
 
     public static Builder create(Builder source, List<Symbol> groupKeys, List<Function> aggregates) {
         return (tableStats, hints, parentUsedCols, params) -> {
@@ -88,7 +91,7 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
         };
     }
 
-    static long approximateDistinctValues(long numSourceRows, TableStats tableStats, List<Symbol> groupKeys) {
+    public static long approximateDistinctValues(long numSourceRows, TableStats tableStats, List<Symbol> groupKeys) {
         long distinctValues = 1;
         int numKeysWithStats = 0;
         for (Symbol groupKey : groupKeys) {
@@ -126,8 +129,24 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
     }
 
     GroupHashAggregate(LogicalPlan source, List<Symbol> groupKeys, List<Function> aggregates, long numExpectedRows) {
+        this(source, groupKeys, aggregates, numExpectedRows, AggregateMode.ITER_FINAL);
+    }
+
+    /**
+     * @param mode describes the input and output of the whole operator:
+     *             {@link AggregateMode#ITER_FINAL} aggregates rows into final values,
+     *             {@link AggregateMode#ITER_PARTIAL} aggregates rows into partial states which are not merged across
+     *             shards or nodes and {@link AggregateMode#PARTIAL_FINAL} merges partial states
+     *             (produced by a {@link AggregateMode#ITER_PARTIAL} operator further down the tree) into final values.
+     */
+    public GroupHashAggregate(LogicalPlan source,
+                              List<Symbol> groupKeys,
+                              List<Function> aggregates,
+                              long numExpectedRows,
+                              AggregateMode mode) {
         super(source);
         this.numExpectedRows = numExpectedRows;
+        this.mode = mode;
         this.outputs = Lists2.concat(groupKeys, aggregates);
         this.groupKeys = groupKeys;
         this.aggregates = aggregates;
@@ -143,6 +162,13 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
         return aggregates;
     }
 
+    public List<Symbol> groupKeys() {
+        return groupKeys;
+    }
+
+    public AggregateMode mode() {
+        return mode;
+    }
 
     @Override
     public ExecutionPlan build(PlannerContext plannerContext,
@@ -159,6 +185,21 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
             executionPlan = Merge.ensureOnHandler(executionPlan, plannerContext);
         }
         List<Symbol> sourceOutputs = source.outputs();
+        if (mode == AggregateMode.ITER_PARTIAL) {
+            // The partial states are merged by a PARTIAL_FINAL aggregation further up the tree,
+            // so there is no need to merge them here.
+            executionPlan.addProjection(projectionBuilder.groupProjection(
+                sourceOutputs,
+                groupKeys,
+                aggregates,
+                AggregateMode.ITER_PARTIAL,
+                source.preferShardProjections() ? RowGranularity.SHARD : RowGranularity.NODE
+            ));
+            return executionPlan;
+        }
+        if (mode == AggregateMode.PARTIAL_FINAL) {
+            return buildPartialFinal(plannerContext, projectionBuilder, executionPlan, sourceOutputs);
+        }
         if (shardsContainAllGroupKeyValues()) {
             GroupProjection groupProjection = projectionBuilder.groupProjection(
                 sourceOutputs,
@@ -210,6 +251,34 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
         );
     }
 
+    private ExecutionPlan buildPartialFinal(PlannerContext plannerContext,
+                                            ProjectionBuilder projectionBuilder,
+                                            ExecutionPlan executionPlan,
+                                            List<Symbol> sourceOutputs) {
+        if (ExecutionPhases.executesOnHandler(plannerContext.handlerNode(), executionPlan.resultDescription().nodeIds())) {
+            executionPlan.addProjection(projectionBuilder.groupProjection(
+                sourceOutputs, groupKeys, aggregates, AggregateMode.PARTIAL_FINAL, RowGranularity.NODE));
+            return executionPlan;
+        }
+        // Bring the group keys to the front so that the rows can be distributed by the first group key
+        executionPlan.addProjection(
+            new EvalProjection(InputColumns.create(outputs, new InputColumns.SourceSymbols(sourceOutputs))));
+        executionPlan.setDistributionInfo(DistributionInfo.DEFAULT_MODULO);
+        GroupProjection toFinal = projectionBuilder.groupProjection(
+            this.outputs,
+            groupKeys,
+            aggregates,
+            AggregateMode.PARTIAL_FINAL,
+            RowGranularity.CLUSTER
+        );
+        return createMerge(
+            plannerContext,
+            executionPlan,
+            Collections.singletonList(toFinal),
+            executionPlan.resultDescription().nodeIds()
+        );
+    }
+
     @Override
     public List<Symbol> outputs() {
         return outputs;
@@ -217,7 +286,7 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
 
     @Override
     public LogicalPlan replaceSources(List<LogicalPlan> sources) {
-        return new GroupHashAggregate(Lists2.getOnlyElement(sources), groupKeys, aggregates, numExpectedRows);
+        return new GroupHashAggregate(Lists2.getOnlyElement(sources), groupKeys, aggregates, numExpectedRows, mode);
     }
 
     private ExecutionPlan createMerge(PlannerContext plannerContext,
@@ -270,6 +339,7 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
                "src=" + source +
                ", keys=" + groupKeys +
                ", agg=" + aggregates +
+               ", mode=" + mode +
                '}';
     }
 }
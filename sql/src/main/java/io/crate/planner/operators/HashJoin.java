@@ -35,6 +35,9 @@ import io.crate.execution.dsl.projection.builder.InputColumns;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.join.JoinOperations;
 import io.crate.execution.engine.pipeline.TopN;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.SelectSymbol;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
@@ -62,6 +65,7 @@ import static io.crate.planner.operators.LogicalPlanner.NO_LIMIT;
 public class HashJoin implements LogicalPlan {
 
     private final Symbol joinCondition;
+    private final JoinType joinType;
     private final TableStats tableStats;
     @VisibleForTesting
     final AnalyzedRelation concreteRelation;
@@ -74,7 +78,23 @@ public class HashJoin implements LogicalPlan {
                     Symbol joinCondition,
                     AnalyzedRelation concreteRelation,
                     TableStats tableStats) {
-        this.outputs = Lists2.concat(lhs.outputs(), rhs.outputs());
+        this(lhs, rhs, joinCondition, concreteRelation, tableStats, JoinType.INNER);
+    }
+
+    /**
+     * @param joinType INNER or SEMI. A SEMI join only outputs the columns of {@code lhs} and emits each
+     *                 row of {@code lhs} at most once, its join condition must consist of EQ operators
+     *                 comparing a symbol of {@code lhs} with a symbol of {@code rhs}.
+     */
+    public HashJoin(LogicalPlan lhs,
+                    LogicalPlan rhs,
+                    Symbol joinCondition,
+                    AnalyzedRelation concreteRelation,
+                    TableStats tableStats,
+                    JoinType joinType) {
+        assert joinType == JoinType.INNER || joinType == JoinType.SEMI : "HashJoin only supports INNER and SEMI joins";
+        this.joinType = joinType;
+        this.outputs = joinType == JoinType.SEMI ? lhs.outputs() : Lists2.concat(lhs.outputs(), rhs.outputs());
         this.lhs = lhs;
         this.rhs = rhs;
         this.concreteRelation = concreteRelation;
@@ -83,7 +103,7 @@ public class HashJoin implements LogicalPlan {
     }
 
     public JoinType joinType() {
-        return JoinType.INNER;
+        return joinType;
     }
 
     public Symbol joinCondition() {
@@ -128,7 +148,8 @@ public class HashJoin implements LogicalPlan {
         boolean tablesSwitched = false;
         // We move smaller table to the right side since benchmarking
         // revealed that this improves performance in most cases.
-        if (lhs.numExpectedRows() < rhs.numExpectedRows()) {
+        // The sides of a semi join are fixed, only rows of the left side are emitted.
+        if (joinType == JoinType.INNER && lhs.numExpectedRows() < rhs.numExpectedRows()) {
             tablesSwitched = true;
             leftLogicalPlan = rhs;
             rightLogicalPlan = lhs;
@@ -138,8 +159,9 @@ public class HashJoin implements LogicalPlan {
             rightExecutionPlan = tmp;
         }
 
-        Tuple<List<Symbol>, List<Symbol>> hashSymbols =
-            extractHashJoinSymbolsFromJoinSymbolsAndSplitPerSide(tablesSwitched);
+        Tuple<List<Symbol>, List<Symbol>> hashSymbols = joinType == JoinType.SEMI
+            ? splitHashJoinSymbolsPerSide()
+            : extractHashJoinSymbolsFromJoinSymbolsAndSplitPerSide(tablesSwitched);
 
         ResultDescription leftResultDesc = leftExecutionPlan.resultDescription();
         ResultDescription rightResultDesc = rightExecutionPlan.resultDescription();
@@ -192,6 +214,7 @@ public class HashJoin implements LogicalPlan {
             leftOutputs.size(),
             rightOutputs.size(),
             joinExecutionNodes,
+            joinType,
             InputColumns.create(joinCondition, joinOutputs),
             InputColumns.create(hashSymbols.v1(), new InputColumns.SourceSymbols(leftOutputs)),
             InputColumns.create(hashSymbols.v2(), new InputColumns.SourceSymbols(rightOutputs)),
@@ -206,7 +229,9 @@ public class HashJoin implements LogicalPlan {
             0,
             TopN.NO_LIMIT,
             outputs.size(),
-            null
+            null,
+            numExpectedRows(),
+            JoinCosts.cost(this)
         );
     }
 
@@ -217,6 +242,9 @@ public class HashJoin implements LogicalPlan {
 
     @Override
     public List<AbstractTableRelation> baseTables() {
+        if (joinType == JoinType.SEMI) {
+            return lhs.baseTables();
+        }
         return Lists2.concat(lhs.baseTables(), rhs.baseTables());
     }
 
@@ -232,7 +260,8 @@ public class HashJoin implements LogicalPlan {
             sources.get(1),
             joinCondition,
             concreteRelation,
-            tableStats
+            tableStats,
+            joinType
         );
     }
 
@@ -253,14 +282,40 @@ public class HashJoin implements LogicalPlan {
         return new Tuple<>(hashJoinSymbolsForJoinTree, hashJoinSymbolsForConcreteRelation);
     }
 
+    /**
+     * Splits the arguments of the EQ operators of the join condition by the side providing them.
+     * Used for semi joins, whose right side doesn't necessarily originate from a relation of the query.
+     */
+    private Tuple<List<Symbol>, List<Symbol>> splitHashJoinSymbolsPerSide() {
+        List<Symbol> leftSymbols = new ArrayList<>();
+        List<Symbol> rightSymbols = new ArrayList<>();
+        for (Symbol condition : AndOperator.split(joinCondition)) {
+            if (condition instanceof Function && ((Function) condition).info().ident().name().equals(EqOperator.NAME)) {
+                List<Symbol> args = ((Function) condition).arguments();
+                boolean firstArgIsLeft = lhs.outputs().contains(args.get(0));
+                leftSymbols.add(args.get(firstArgIsLeft ? 0 : 1));
+                rightSymbols.add(args.get(firstArgIsLeft ? 1 : 0));
+            }
+        }
+        return new Tuple<>(leftSymbols, rightSymbols);
+    }
+
     @Override
     public long numExpectedRows() {
-        // We don't have any cardinality estimates, so just take the bigger table
-        return Math.max(lhs.numExpectedRows(), rhs.numExpectedRows());
+        return JoinCosts.estimateJoinNumRows(
+            lhs.numExpectedRows(),
+            rhs.numExpectedRows(),
+            joinType,
+            joinCondition,
+            tableStats
+        );
     }
 
     @Override
     public long estimatedRowSize() {
+        if (joinType == JoinType.SEMI) {
+            return lhs.estimatedRowSize();
+        }
         return lhs.estimatedRowSize() + rhs.estimatedRowSize();
     }
 
@@ -0,0 +1,175 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.operators;
+
+import io.crate.analyze.QueriedSelectRelation;
+import io.crate.analyze.relations.AbstractTableRelation;
+import io.crate.analyze.relations.AliasedAnalyzedRelation;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.data.Row;
+import io.crate.expression.symbol.Symbol;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.planner.selectivity.SelectivityFunctions;
+import io.crate.statistics.Stats;
+import io.crate.statistics.TableStats;
+
+import javax.annotation.Nullable;
+
+/**
+ * Cardinality and cost estimates of joins, used to order the relations of a join and to show the estimates in
+ * {@code EXPLAIN}.
+ * <p>
+ * The cost of a join tree is the sum of the costs of its join operations, where the cost of a single join is:
+ * <ul>
+ *     <li>hash join: {@code lhs + rhs + output} (building and probing the hash table)</li>
+ *     <li>nested loop: {@code lhs * rhs + output}</li>
+ * </ul>
+ * A negative number of rows or cost means that there are no statistics to estimate it.
+ */
+final class JoinCosts {
+
+    static final long UNKNOWN = -1L;
+
+    private JoinCosts() {
+    }
+
+    /**
+     * Estimates the number of rows of a relation from the statistics of the table it selects from.
+     */
+    static long estimateNumRows(AnalyzedRelation relation, TableStats tableStats, @Nullable Row params) {
+        if (relation instanceof AliasedAnalyzedRelation) {
+            return estimateNumRows(((AliasedAnalyzedRelation) relation).relation(), tableStats, params);
+        }
+        if (relation instanceof QueriedSelectRelation) {
+            QueriedSelectRelation<?> queriedRelation = (QueriedSelectRelation<?>) relation;
+            if (!queriedRelation.groupBy().isEmpty()
+                || queriedRelation.hasAggregates()
+                || queriedRelation.limit() != null) {
+                return UNKNOWN;
+            }
+            AnalyzedRelation source = queriedRelation.subRelation();
+            while (source instanceof AliasedAnalyzedRelation) {
+                source = ((AliasedAnalyzedRelation) source).relation();
+            }
+            if (source instanceof AbstractTableRelation) {
+                return estimateNumRows((AbstractTableRelation<?>) source, relation, tableStats, params);
+            }
+            return UNKNOWN;
+        }
+        if (relation instanceof AbstractTableRelation) {
+            return estimateNumRows((AbstractTableRelation<?>) relation, relation, tableStats, params);
+        }
+        return UNKNOWN;
+    }
+
+    private static long estimateNumRows(AbstractTableRelation<?> table,
+                                        AnalyzedRelation relation,
+                                        TableStats tableStats,
+                                        @Nullable Row params) {
+        Stats stats = tableStats.getStats(table.tableInfo().ident());
+        if (stats.numDocs() < 0) {
+            return UNKNOWN;
+        }
+        return SelectivityFunctions.estimateNumRows(stats, relation.where().queryOrFallback(), params);
+    }
+
+    /**
+     * Estimates the number of rows a join of two relations produces.
+     */
+    static long estimateJoinNumRows(long lhsNumRows,
+                                    long rhsNumRows,
+                                    JoinType joinType,
+                                    @Nullable Symbol joinCondition,
+                                    TableStats tableStats) {
+        if (lhsNumRows < 0 || rhsNumRows < 0) {
+            // Without estimates fall back to the size of the cross product or the bigger relation
+            if (joinType == JoinType.CROSS) {
+                return lhsNumRows * rhsNumRows;
+            }
+            return Math.max(lhsNumRows, rhsNumRows);
+        }
+        double crossProduct = (double) lhsNumRows * rhsNumRows;
+        double innerNumRows = joinCondition == null
+            ? crossProduct
+            : crossProduct * SelectivityFunctions.estimateJoinSelectivity(
+                joinCondition, tableStats, lhsNumRows, rhsNumRows);
+        switch (joinType) {
+            case CROSS:
+                return toNumRows(crossProduct);
+
+            case INNER:
+                return toNumRows(innerNumRows);
+
+            case LEFT:
+                return Math.max(toNumRows(innerNumRows), lhsNumRows);
+
+            case RIGHT:
+                return Math.max(toNumRows(innerNumRows), rhsNumRows);
+
+            case FULL:
+                return Math.max(toNumRows(innerNumRows), Math.max(lhsNumRows, rhsNumRows));
+
+            default:
+                // SEMI and ANTI joins emit a subset of the left side
+                return lhsNumRows;
+        }
+    }
+
+    private static long toNumRows(double numRows) {
+        return (long) Math.min(Math.ceil(numRows), Long.MAX_VALUE);
+    }
+
+    /**
+     * The cost of a single join operation, see {@link JoinCosts}.
+     */
+    static double joinCost(long lhsNumRows, long rhsNumRows, long numRows, boolean hashJoin) {
+        if (hashJoin) {
+            return (double) lhsNumRows + rhsNumRows + numRows;
+        }
+        return (double) lhsNumRows * rhsNumRows + numRows;
+    }
+
+    /**
+     * The cumulative cost of all joins within the given plan or {@link #UNKNOWN} if any join input can't be estimated.
+     */
+    static double cost(LogicalPlan plan) {
+        double cost = 0.0;
+        for (LogicalPlan source : plan.sources()) {
+            double sourceCost = cost(source);
+            if (sourceCost < 0) {
+                return UNKNOWN;
+            }
+            cost += sourceCost;
+        }
+        if (plan instanceof HashJoin || plan instanceof NestedLoopJoin) {
+            long lhsNumRows = plan.sources().get(0).numExpectedRows();
+            long rhsNumRows = plan.sources().get(1).numExpectedRows();
+            long numRows = plan.numExpectedRows();
+            if (lhsNumRows < 0 || rhsNumRows < 0 || numRows < 0) {
+                return UNKNOWN;
+            }
+            cost += joinCost(lhsNumRows, rhsNumRows, numRows, plan instanceof HashJoin);
+        }
+        return cost;
+    }
+}
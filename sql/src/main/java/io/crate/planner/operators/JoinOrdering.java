@@ -24,14 +24,23 @@ package io.crate.planner.operators;
 
 import com.carrotsearch.hppc.ObjectIntHashMap;
 import com.google.common.annotations.VisibleForTesting;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.symbol.Symbol;
+import io.crate.planner.node.dql.join.JoinType;
 import io.crate.sql.tree.QualifiedName;
+import io.crate.statistics.TableStats;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.IntPredicate;
 
 /**
  * Utility class which is used by the {@link JoinPlanBuilder} for the building of
@@ -39,9 +48,193 @@ import java.util.Set;
  */
 final class JoinOrdering {
 
+    /**
+     * Up to this number of relations all left-deep join trees are considered, above a greedy search is used.
+     */
+    private static final int MAX_RELATIONS_FOR_EXHAUSTIVE_SEARCH = 10;
+
     private JoinOrdering() {
     }
 
+    /**
+     * Returns the relations in the order of the left-deep join tree with the lowest estimated cost,
+     * see {@link JoinCosts}. On equal costs the original order is preferred.
+     *
+     * @param numRowsByRelation    the estimated number of rows of each relation, in the original order
+     * @param conditionsByRelations the conditions joining two relations, e.g. {{t1, t2}: t1.x = t2.y}
+     * @param hashJoinEnabled      if equi-joins can be executed using a hash join
+     */
+    static List<QualifiedName> orderByCost(Map<QualifiedName, Long> numRowsByRelation,
+                                           Map<Set<QualifiedName>, Symbol> conditionsByRelations,
+                                           boolean hashJoinEnabled,
+                                           TableStats tableStats) {
+        List<QualifiedName> relations = new ArrayList<>(numRowsByRelation.keySet());
+        int numRelations = relations.size();
+        long[] numRows = new long[numRelations];
+        Symbol[][] conditions = new Symbol[numRelations][numRelations];
+        for (int i = 0; i < numRelations; i++) {
+            numRows[i] = numRowsByRelation.get(relations.get(i));
+            for (int j = 0; j < numRelations; j++) {
+                if (i != j) {
+                    conditions[i][j] = conditionsByRelations.get(Set.of(relations.get(i), relations.get(j)));
+                }
+            }
+        }
+        JoinCostTable costTable = new JoinCostTable(numRows, conditions, hashJoinEnabled, tableStats);
+        int[] order = numRelations <= MAX_RELATIONS_FOR_EXHAUSTIVE_SEARCH
+            ? costTable.cheapestOrder()
+            : costTable.greedyOrder();
+        List<QualifiedName> orderedRelations = new ArrayList<>(numRelations);
+        for (int idx : order) {
+            orderedRelations.add(relations.get(idx));
+        }
+        return orderedRelations;
+    }
+
+    /**
+     * Estimates the cost of adding relations to a (partial) left-deep join tree.
+     * Sets of relations are represented as bit sets, an int for the exhaustive search, which is limited to
+     * {@link #MAX_RELATIONS_FOR_EXHAUSTIVE_SEARCH} relations, and a {@link BitSet} for the greedy search.
+     */
+    private static class JoinCostTable {
+
+        private final long[] numRows;
+        private final Symbol[][] conditions;
+        private final boolean hashJoinEnabled;
+        private final TableStats tableStats;
+
+        JoinCostTable(long[] numRows, Symbol[][] conditions, boolean hashJoinEnabled, TableStats tableStats) {
+            this.numRows = numRows;
+            this.conditions = conditions;
+            this.hashJoinEnabled = hashJoinEnabled;
+            this.tableStats = tableStats;
+        }
+
+        /**
+         * Dynamic programming over all subsets: the cheapest tree of a set is the cheapest tree of the set without
+         * one relation joined with that relation.
+         */
+        int[] cheapestOrder() {
+            int numRelations = numRows.length;
+            int numSets = 1 << numRelations;
+            double[] costs = new double[numSets];
+            long[] setNumRows = new long[numSets];
+            int[] lastRelation = new int[numSets];
+            Arrays.fill(costs, Double.POSITIVE_INFINITY);
+            for (int i = 0; i < numRelations; i++) {
+                costs[1 << i] = 0.0;
+                setNumRows[1 << i] = numRows[i];
+                lastRelation[1 << i] = i;
+            }
+            for (int set = 1; set < numSets; set++) {
+                if (Integer.bitCount(set) < 2) {
+                    continue;
+                }
+                // iterate backwards so that on equal costs the original order is kept
+                for (int next = numRelations - 1; next >= 0; next--) {
+                    if ((set & (1 << next)) == 0) {
+                        continue;
+                    }
+                    int prevSet = set & ~(1 << next);
+                    Symbol condition = condition(prevSet, next);
+                    long joinNumRows = joinNumRows(setNumRows[prevSet], next, condition);
+                    double cost = costs[prevSet] + JoinCosts.joinCost(
+                        setNumRows[prevSet], numRows[next], joinNumRows, isHashJoin(condition));
+                    if (cost < costs[set]) {
+                        costs[set] = cost;
+                        setNumRows[set] = joinNumRows;
+                        lastRelation[set] = next;
+                    }
+                }
+            }
+            int[] order = new int[numRelations];
+            int set = numSets - 1;
+            for (int i = numRelations - 1; i >= 0; i--) {
+                order[i] = lastRelation[set];
+                set &= ~(1 << order[i]);
+            }
+            return order;
+        }
+
+        /**
+         * Starts with the cheapest join of two relations and keeps adding the relation which is cheapest to join next.
+         */
+        int[] greedyOrder() {
+            int numRelations = numRows.length;
+            int[] order = new int[numRelations];
+            double cheapestCost = Double.POSITIVE_INFINITY;
+            long joinedNumRows = 0;
+            for (int lhs = 0; lhs < numRelations; lhs++) {
+                for (int rhs = 0; rhs < numRelations; rhs++) {
+                    if (lhs == rhs) {
+                        continue;
+                    }
+                    Symbol condition = conditions[lhs][rhs];
+                    long joinNumRows = joinNumRows(numRows[lhs], rhs, condition);
+                    double cost = JoinCosts.joinCost(numRows[lhs], numRows[rhs], joinNumRows, isHashJoin(condition));
+                    if (cost < cheapestCost) {
+                        cheapestCost = cost;
+                        joinedNumRows = joinNumRows;
+                        order[0] = lhs;
+                        order[1] = rhs;
+                    }
+                }
+            }
+            BitSet joined = new BitSet(numRelations);
+            joined.set(order[0]);
+            joined.set(order[1]);
+            for (int i = 2; i < numRelations; i++) {
+                cheapestCost = Double.POSITIVE_INFINITY;
+                long nextNumRows = 0;
+                for (int next = joined.nextClearBit(0); next < numRelations; next = joined.nextClearBit(next + 1)) {
+                    Symbol condition = condition(joined::get, next);
+                    long joinNumRows = joinNumRows(joinedNumRows, next, condition);
+                    double cost = JoinCosts.joinCost(joinedNumRows, numRows[next], joinNumRows, isHashJoin(condition));
+                    if (cost < cheapestCost) {
+                        cheapestCost = cost;
+                        nextNumRows = joinNumRows;
+                        order[i] = next;
+                    }
+                }
+                joined.set(order[i]);
+                joinedNumRows = nextNumRows;
+            }
+            return order;
+        }
+
+        @Nullable
+        private Symbol condition(int set, int next) {
+            return condition(i -> (set & (1 << i)) != 0, next);
+        }
+
+        @Nullable
+        private Symbol condition(IntPredicate isJoined, int next) {
+            List<Symbol> parts = new ArrayList<>();
+            for (int i = 0; i < numRows.length; i++) {
+                if (isJoined.test(i) && conditions[i][next] != null) {
+                    parts.add(conditions[i][next]);
+                }
+            }
+            return parts.isEmpty() ? null : AndOperator.join(parts);
+        }
+
+        private long joinNumRows(long lhsNumRows, int next, @Nullable Symbol condition) {
+            return JoinCosts.estimateJoinNumRows(
+                lhsNumRows,
+                numRows[next],
+                condition == null ? JoinType.CROSS : JoinType.INNER,
+                condition,
+                tableStats
+            );
+        }
+
+        private boolean isHashJoin(@Nullable Symbol condition) {
+            return hashJoinEnabled
+                   && condition != null
+                   && EquiJoinDetector.isHashJoinPossible(JoinType.INNER, condition);
+        }
+    }
+
     static Collection<QualifiedName> getOrderedRelationNames(Collection<QualifiedName> sourceRelations,
                                                              Set<? extends Set<QualifiedName>> explicitJoinConditions,
                                                              Set<? extends Set<QualifiedName>> implicitJoinConditions) {
@@ -45,10 +45,12 @@ import org.elasticsearch.common.util.set.Sets;
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -100,11 +102,14 @@ public class JoinPlanBuilder implements LogicalPlan.Builder {
 
         Collection<QualifiedName> orderedRelationNames;
         if (mss.sources().size() > 2) {
-            orderedRelationNames = JoinOrdering.getOrderedRelationNames(
-                mss.sources().keySet(),
-                joinPairs.keySet(),
-                queryParts.keySet()
-            );
+            orderedRelationNames = orderByCost(joinPairs, queryParts, tableStats, params);
+            if (orderedRelationNames == null) {
+                orderedRelationNames = JoinOrdering.getOrderedRelationNames(
+                    mss.sources().keySet(),
+                    joinPairs.keySet(),
+                    queryParts.keySet()
+                );
+            }
         } else {
             orderedRelationNames = mss.sources().keySet();
         }
@@ -190,6 +195,47 @@ public class JoinPlanBuilder implements LogicalPlan.Builder {
         return joinPlan;
     }
 
+    /**
+     * Orders the relations by the estimated cost of the joins, see {@link JoinOrdering#orderByCost}.
+     *
+     * @return the ordered relations or null if the relations cannot be re-ordered freely because of outer or
+     *         semi joins, or if there are no statistics for a relation.
+     */
+    @Nullable
+    private List<QualifiedName> orderByCost(Map<Set<QualifiedName>, JoinPair> joinPairs,
+                                            Map<Set<QualifiedName>, Symbol> queryParts,
+                                            TableStats tableStats,
+                                            @Nullable Row params) {
+        for (JoinPair joinPair : mss.joinPairs()) {
+            if (joinPair.joinType() != JoinType.INNER && joinPair.joinType() != JoinType.CROSS) {
+                return null;
+            }
+        }
+        LinkedHashMap<QualifiedName, Long> numRowsByRelation = new LinkedHashMap<>();
+        for (Map.Entry<QualifiedName, AnalyzedRelation> entry : mss.sources().entrySet()) {
+            long numRows = JoinCosts.estimateNumRows(entry.getValue(), tableStats, params);
+            if (numRows < 0) {
+                return null;
+            }
+            numRowsByRelation.put(entry.getKey(), numRows);
+        }
+        Map<Set<QualifiedName>, Symbol> conditionsByRelations = new HashMap<>();
+        for (Map.Entry<Set<QualifiedName>, JoinPair> entry : joinPairs.entrySet()) {
+            conditionsByRelations.put(entry.getKey(), entry.getValue().condition());
+        }
+        for (Map.Entry<Set<QualifiedName>, Symbol> entry : queryParts.entrySet()) {
+            if (entry.getKey().size() == 2) {
+                conditionsByRelations.merge(entry.getKey(), entry.getValue(), AndOperator::of);
+            }
+        }
+        return JoinOrdering.orderByCost(
+            numRowsByRelation,
+            conditionsByRelations,
+            txnCtx.sessionContext().isHashJoinEnabled(),
+            tableStats
+        );
+    }
+
     private static LogicalPlan createJoinPlan(LogicalPlan lhsPlan,
                                               LogicalPlan rhsPlan,
                                               JoinType joinType,
@@ -213,7 +259,8 @@ public class JoinPlanBuilder implements LogicalPlan.Builder {
                 joinType,
                 joinCondition,
                 !query.symbolType().isValueSymbol(),
-                lhs);
+                lhs,
+                tableStats);
         }
     }
 
@@ -257,7 +304,9 @@ public class JoinPlanBuilder implements LogicalPlan.Builder {
             condition = null;
         } else {
             type = maybeInvertPair(nextName, joinPair);
-            condition = joinPair.condition();
+            condition = type == JoinType.INNER
+                ? mergeInnerJoinConditions(joinPair.condition(), joinPairs, joinNames, nextName)
+                : joinPair.condition();
             addColumnsFrom(condition, addToUsedColumns, nextRel);
         }
         for (JoinPair pair : joinPairs.values()) {
@@ -302,6 +351,26 @@ public class JoinPlanBuilder implements LogicalPlan.Builder {
         );
     }
 
+    /**
+     * Removes the inner join pairs between the next relation and any other of the already joined relations
+     * and merges their conditions, otherwise they'd never be applied if the relation is connected to more than one
+     * of the already joined relations.
+     */
+    private static Symbol mergeInnerJoinConditions(Symbol condition,
+                                                   Map<Set<QualifiedName>, JoinPair> joinPairs,
+                                                   Set<QualifiedName> joinNames,
+                                                   QualifiedName nextName) {
+        for (QualifiedName name : joinNames) {
+            Set<QualifiedName> names = Sets.newHashSet(name, nextName);
+            JoinPair pair = joinPairs.get(names);
+            if (pair != null && pair.joinType() == JoinType.INNER) {
+                joinPairs.remove(names);
+                condition = AndOperator.of(condition, pair.condition());
+            }
+        }
+        return condition;
+    }
+
     @Nullable
     private static <V> V removeMatch(Map<Set<QualifiedName>, V> valuesByNames, Set<QualifiedName> names, QualifiedName nextName) {
         for (QualifiedName name : names) {
@@ -60,6 +60,10 @@ public class LogicalPlanVisitor<C, R> {
         return visitPlan(logicalPlan, context);
     }
 
+    public R visitCountDistinct(CountDistinct logicalPlan, C context) {
+        return visitPlan(logicalPlan, context);
+    }
+
     public R visitInsert(Insert logicalPlan, C context) {
         return visitPlan(logicalPlan, context);
     }
@@ -77,14 +77,20 @@ import io.crate.planner.optimizer.rule.MoveFilterBeneathOrder;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathProjectSet;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathUnion;
 import io.crate.planner.optimizer.rule.MoveFilterBeneathWindowAgg;
+import io.crate.planner.optimizer.rule.MoveLimitBeneathFetchOrEval;
+import io.crate.planner.optimizer.rule.MoveLimitBeneathOuterJoin;
+import io.crate.planner.optimizer.rule.MoveLimitBeneathUnion;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathBoundary;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathFetchOrEval;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathNestedLoop;
 import io.crate.planner.optimizer.rule.MoveOrderBeneathUnion;
+import io.crate.planner.optimizer.rule.MoveOrderedLimitBeneathUnion;
+import io.crate.planner.optimizer.rule.MovePartialAggregateBeneathJoin;
 import io.crate.planner.optimizer.rule.RemoveRedundantFetchOrEval;
 import io.crate.planner.optimizer.rule.RewriteCollectToGet;
 import io.crate.planner.optimizer.rule.RewriteFilterOnOuterJoinToInnerJoin;
 import io.crate.planner.optimizer.rule.RewriteGroupByKeysLimitToTopNDistinct;
+import io.crate.planner.optimizer.rule.RewriteInSubqueryToSemiJoin;
 import io.crate.statistics.TableStats;
 import io.crate.types.DataTypes;
 import org.elasticsearch.Version;
@@ -137,8 +143,14 @@ public class LogicalPlanner {
                 new MoveOrderBeneathBoundary(),
                 new MoveOrderBeneathFetchOrEval(),
                 new DeduplicateOrder(),
+                new MoveLimitBeneathUnion(),
+                new MoveOrderedLimitBeneathUnion(),
+                new MoveLimitBeneathFetchOrEval(),
+                new MoveLimitBeneathOuterJoin(),
                 new RewriteCollectToGet(functions),
-                new RewriteGroupByKeysLimitToTopNDistinct()
+                new RewriteGroupByKeysLimitToTopNDistinct(),
+                new MovePartialAggregateBeneathJoin(functions),
+                new RewriteInSubqueryToSemiJoin()
             ),
             minNodeVersionInCluster
         );
@@ -268,7 +280,7 @@ public class LogicalPlanner {
                                                 functions,
                                                 txnCtx
                                             ),
-                                            relation.groupBy(),
+                                            relation,
                                             splitPoints.aggregates()
                                         ),
                                         relation.having()
@@ -296,11 +308,16 @@ public class LogicalPlanner {
     }
 
     private static LogicalPlan.Builder groupByOrAggregate(LogicalPlan.Builder source,
-                                                          List<Symbol> groupKeys,
+                                                          AnalyzedRelation relation,
                                                           List<Function> aggregates) {
+        List<Symbol> groupKeys = relation.groupBy();
         if (!groupKeys.isEmpty()) {
             return GroupHashAggregate.create(source, groupKeys, aggregates);
         }
+        Function countDistinct = CountDistinct.countDistinctOrNull(relation, aggregates);
+        if (countDistinct != null) {
+            return CountDistinct.create(source, countDistinct);
+        }
         if (!aggregates.isEmpty()) {
             return (tableStats, hints, usedColumns, params) ->
                 new HashAggregate(source.build(tableStats, hints, extractColumns(aggregates), params), aggregates);
@@ -60,6 +60,17 @@ public class MultiPhase extends ForwardingLogicalPlan {
         };
     }
 
+    /**
+     * Creates a MultiPhase which executes the given sub-queries and the dependencies of {@code source}
+     * before {@code source}, or returns {@code source} if there are none.
+     */
+    public static LogicalPlan createIfNeeded(LogicalPlan source, Map<LogicalPlan, SelectSymbol> subQueries) {
+        if (subQueries.isEmpty() && source.dependencies().isEmpty()) {
+            return source;
+        }
+        return new MultiPhase(source, subQueries);
+    }
+
     private MultiPhase(LogicalPlan source, Map<LogicalPlan, SelectSymbol> subQueries) {
         super(source);
         HashMap<LogicalPlan, SelectSymbol> allSubQueries = new HashMap<>(source.dependencies());
@@ -46,6 +46,7 @@ import io.crate.planner.ResultDescription;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.node.dql.join.Join;
 import io.crate.planner.node.dql.join.JoinType;
+import io.crate.statistics.TableStats;
 import org.elasticsearch.common.collect.Tuple;
 
 import javax.annotation.Nullable;
@@ -70,6 +71,7 @@ public class NestedLoopJoin implements LogicalPlan {
     private final List<Symbol> outputs;
     private final List<AbstractTableRelation> baseTables;
     private final Map<LogicalPlan, SelectSymbol> dependencies;
+    private final TableStats tableStats;
     private boolean orderByWasPushedDown = false;
 
     NestedLoopJoin(LogicalPlan lhs,
@@ -77,8 +79,10 @@ public class NestedLoopJoin implements LogicalPlan {
                    JoinType joinType,
                    @Nullable Symbol joinCondition,
                    boolean isFiltered,
-                   AnalyzedRelation topMostLeftRelation) {
+                   AnalyzedRelation topMostLeftRelation,
+                   TableStats tableStats) {
         this.joinType = joinType;
+        this.tableStats = tableStats;
         this.isFiltered = isFiltered || joinCondition != null;
         this.lhs = lhs;
         this.rhs = rhs;
@@ -99,8 +103,9 @@ public class NestedLoopJoin implements LogicalPlan {
                           @Nullable Symbol joinCondition,
                           boolean isFiltered,
                           AnalyzedRelation topMostLeftRelation,
-                          boolean orderByWasPushedDown) {
-        this(lhs, rhs, joinType, joinCondition, isFiltered, topMostLeftRelation);
+                          boolean orderByWasPushedDown,
+                          TableStats tableStats) {
+        this(lhs, rhs, joinType, joinCondition, isFiltered, topMostLeftRelation, tableStats);
         this.orderByWasPushedDown = orderByWasPushedDown;
     }
 
@@ -213,7 +218,9 @@ public class NestedLoopJoin implements LogicalPlan {
             0,
             TopN.NO_LIMIT,
             outputs.size(),
-            orderByFromLeft
+            orderByFromLeft,
+            numExpectedRows(),
+            JoinCosts.cost(this)
         );
     }
 
@@ -241,7 +248,8 @@ public class NestedLoopJoin implements LogicalPlan {
             joinCondition,
             isFiltered,
             topMostLeftRelation,
-            orderByWasPushedDown
+            orderByWasPushedDown,
+            tableStats
         );
     }
 
@@ -286,12 +294,13 @@ public class NestedLoopJoin implements LogicalPlan {
 
     @Override
     public long numExpectedRows() {
-        if (joinType == JoinType.CROSS) {
-            return lhs.numExpectedRows() * rhs.numExpectedRows();
-        } else {
-            // We don't have any cardinality estimates, so just take the bigger table
-            return Math.max(lhs.numExpectedRows(), rhs.numExpectedRows());
-        }
+        return JoinCosts.estimateJoinNumRows(
+            lhs.numExpectedRows(),
+            rhs.numExpectedRows(),
+            joinType,
+            joinCondition,
+            tableStats
+        );
     }
 
     @Override
@@ -170,6 +170,12 @@ public final class StatementClassifier extends LogicalPlanVisitor<Set<String>, V
         return visitPlan(logicalPlan, context);
     }
 
+    @Override
+    public Void visitCountDistinct(CountDistinct logicalPlan, Set<String> context) {
+        logicalPlan.source.accept(this, context);
+        return visitPlan(logicalPlan, context);
+    }
+
     @Override
     public Void visitInsert(Insert logicalPlan, Set<String> context) {
         logicalPlan.source.accept(this, context);
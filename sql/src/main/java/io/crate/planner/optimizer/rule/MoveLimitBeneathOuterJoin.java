@@ -0,0 +1,101 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.planner.operators.Limit;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.NestedLoopJoin;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.matcher.Capture;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.statistics.TableStats;
+
+import java.util.List;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+import static io.crate.planner.optimizer.matcher.Patterns.source;
+import static io.crate.planner.optimizer.rule.Util.limitAndOffsetForSource;
+
+/**
+ * Every row of the preserved side of an outer join results in at least one row of the join,
+ * so a limit on top of the join can be applied to the preserved side as well:
+ *
+ * <pre>
+ *     Limit[10;0]                              Limit[10;0]
+ *      |                                        |
+ *     NestedLoopJoin[LEFT]          ->         NestedLoopJoin[LEFT]
+ *      /    \                                   /           \
+ *     t1    t2                                 Limit[10;0]   t2
+ *                                               |
+ *                                              t1
+ * </pre>
+ *
+ * The other side is left untouched because its rows are needed to find the matches of the preserved side.
+ */
+public final class MoveLimitBeneathOuterJoin implements Rule<Limit> {
+
+    private final Capture<NestedLoopJoin> nlCapture;
+    private final Pattern<Limit> pattern;
+
+    public MoveLimitBeneathOuterJoin() {
+        this.nlCapture = new Capture<>();
+        this.pattern = typeOf(Limit.class)
+            .with(source(), typeOf(NestedLoopJoin.class).capturedAs(nlCapture)
+                .with(nl -> nl.joinType() == JoinType.LEFT || nl.joinType() == JoinType.RIGHT));
+    }
+
+    @Override
+    public Pattern<Limit> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(Limit limit,
+                             Captures captures,
+                             TableStats tableStats,
+                             TransactionContext txnCtx) {
+        NestedLoopJoin nl = captures.get(nlCapture);
+        LogicalPlan lhs = nl.sources().get(0);
+        LogicalPlan rhs = nl.sources().get(1);
+        if (nl.joinType() == JoinType.LEFT) {
+            Limit lhsLimit = lhs instanceof Limit ? null : limitAndOffsetForSource(limit, lhs);
+            if (lhsLimit == null) {
+                return null;
+            }
+            return limit.replaceSources(List.of(nl.replaceSources(List.of(lhsLimit, rhs))));
+        }
+        // An ORDER BY pushed beneath the join decides which rows are the first ones,
+        // these can belong to any row of the right side.
+        if (nl.orderByWasPushedDown()) {
+            return null;
+        }
+        Limit rhsLimit = rhs instanceof Limit ? null : limitAndOffsetForSource(limit, rhs);
+        if (rhsLimit == null) {
+            return null;
+        }
+        return limit.replaceSources(List.of(nl.replaceSources(List.of(lhs, rhsLimit))));
+    }
+}
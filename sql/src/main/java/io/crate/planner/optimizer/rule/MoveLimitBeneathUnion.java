@@ -0,0 +1,106 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.operators.Limit;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.Union;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.matcher.Capture;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.statistics.TableStats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+import static io.crate.planner.optimizer.matcher.Patterns.source;
+import static io.crate.planner.optimizer.rule.Util.limitAndOffsetForSource;
+
+/**
+ * Transforms
+ *
+ * <pre>
+ *     Limit[10;5]
+ *      |
+ *     Union
+ *      /  \
+ *     a    b
+ * </pre>
+ *
+ * into
+ *
+ * <pre>
+ *     Limit[10;5]
+ *      |
+ *     Union
+ *      /          \
+ *     Limit[15;0]  Limit[15;0]
+ *      |            |
+ *      a            b
+ * </pre>
+ *
+ * so that each side of the union stops collecting rows once it provided enough rows for the limit.
+ */
+public final class MoveLimitBeneathUnion implements Rule<Limit> {
+
+    private final Capture<Union> unionCapture;
+    private final Pattern<Limit> pattern;
+
+    public MoveLimitBeneathUnion() {
+        this.unionCapture = new Capture<>();
+        this.pattern = typeOf(Limit.class)
+            .with(source(), typeOf(Union.class).capturedAs(unionCapture));
+    }
+
+    @Override
+    public Pattern<Limit> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(Limit limit,
+                             Captures captures,
+                             TableStats tableStats,
+                             TransactionContext txnCtx) {
+        Union union = captures.get(unionCapture);
+        List<LogicalPlan> unionSources = union.sources();
+        ArrayList<LogicalPlan> newSources = new ArrayList<>(unionSources.size());
+        boolean changed = false;
+        for (LogicalPlan unionSource : unionSources) {
+            Limit sourceLimit = unionSource instanceof Limit ? null : limitAndOffsetForSource(limit, unionSource);
+            if (sourceLimit == null) {
+                newSources.add(unionSource);
+            } else {
+                newSources.add(sourceLimit);
+                changed = true;
+            }
+        }
+        if (changed) {
+            return limit.replaceSources(List.of(union.replaceSources(newSources)));
+        }
+        return null;
+    }
+}
@@ -67,7 +67,7 @@ public final class MoveOrderBeneathUnion implements Rule<Order> {
         return union.replaceSources(List.of(lhsOrder, rhsOrder));
     }
 
-    private static Order updateSources(Order order, LogicalPlan rhs) {
+    static Order updateSources(Order order, LogicalPlan rhs) {
         List<Symbol> sourceOutputs = order.source().outputs();
         return new Order(rhs, order.orderBy().map(s -> {
             int idx = sourceOutputs.indexOf(s);
@@ -0,0 +1,187 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.Functions;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.planner.operators.GroupHashAggregate;
+import io.crate.planner.operators.HashJoin;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.NestedLoopJoin;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.statistics.TableStats;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static io.crate.planner.operators.LogicalPlanner.extractColumns;
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+
+/**
+ * Pre-aggregates the side of an inner join that contains all the aggregated columns:
+ *
+ * <pre>
+ *     SELECT d.region, sum(f.amount) FROM facts f JOIN dims d ON f.dim_id = d.id GROUP BY d.region
+ * </pre>
+ *
+ * <pre>
+ *     GroupBy[region | sum(amount)]             GroupBy[region | sum(amount)] PARTIAL_FINAL
+ *       Join[dim_id = id]               ->        Join[dim_id = id]
+ *         Collect[facts]                            GroupBy[dim_id | sum(amount)] ITER_PARTIAL
+ *         Collect[dims]                               Collect[facts]
+ *                                                   Collect[dims]
+ * </pre>
+ *
+ * The join then processes one row per shard and distinct join key instead of one row per fact.
+ * Each partial state is joined with the same rows as the facts it was built from,
+ * so merging the joined states results in the same values as aggregating the joined facts.
+ *
+ * The rule only applies if the statistics indicate that the partial aggregation reduces the number of rows
+ * and if the partial states of all aggregations have the same type as their final values,
+ * which is required because the join operators stream the rows using the types of their output symbols.
+ */
+public final class MovePartialAggregateBeneathJoin implements Rule<GroupHashAggregate> {
+
+    /**
+     * The partial aggregation must reduce the number of rows at least by this factor
+     */
+    private static final int MIN_REDUCTION_FACTOR = 2;
+
+    private final Pattern<GroupHashAggregate> pattern;
+    private final Functions functions;
+
+    public MovePartialAggregateBeneathJoin(Functions functions) {
+        this.functions = functions;
+        this.pattern = typeOf(GroupHashAggregate.class)
+            .with(groupBy -> groupBy.mode() == AggregateMode.ITER_FINAL
+                             && !groupBy.aggregates().isEmpty()
+                             && isInnerJoin(groupBy.source()));
+    }
+
+    @Override
+    public Pattern<GroupHashAggregate> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(GroupHashAggregate groupBy,
+                             Captures captures,
+                             TableStats tableStats,
+                             TransactionContext txnCtx) {
+        for (Function aggregate : groupBy.aggregates()) {
+            if (!hasFinalTypeAsPartialType(aggregate)) {
+                return null;
+            }
+        }
+        LogicalPlan join = groupBy.source();
+        LogicalPlan lhs = join.sources().get(0);
+        LogicalPlan rhs = join.sources().get(1);
+
+        Set<Symbol> aggregatedColumns = extractColumns(groupBy.aggregates());
+        LogicalPlan aggregatedSide;
+        if (aggregatedColumns.isEmpty()) {
+            // count(*)
+            aggregatedSide = lhs.numExpectedRows() >= rhs.numExpectedRows() ? lhs : rhs;
+        } else if (lhs.outputs().containsAll(aggregatedColumns)) {
+            aggregatedSide = lhs;
+        } else if (rhs.outputs().containsAll(aggregatedColumns)) {
+            aggregatedSide = rhs;
+        } else {
+            return null;
+        }
+        LogicalPlan otherSide = aggregatedSide == lhs ? rhs : lhs;
+
+        // All columns of the aggregated side which are used by the join or the group keys must remain available
+        Set<Symbol> usedColumns = extractColumns(groupBy.groupKeys());
+        Symbol joinCondition = joinCondition(join);
+        if (joinCondition != null) {
+            usedColumns.addAll(extractColumns(joinCondition));
+        }
+        LinkedHashSet<Symbol> partialGroupKeys = new LinkedHashSet<>();
+        for (Symbol column : usedColumns) {
+            if (aggregatedSide.outputs().contains(column)) {
+                partialGroupKeys.add(column);
+            } else if (!otherSide.outputs().contains(column)) {
+                return null;
+            }
+        }
+        List<Symbol> partialKeys = new ArrayList<>(partialGroupKeys);
+        long numSourceRows = aggregatedSide.numExpectedRows();
+        long numGroups = GroupHashAggregate.approximateDistinctValues(numSourceRows, tableStats, partialKeys);
+        if (numSourceRows <= 0 || numGroups > numSourceRows / MIN_REDUCTION_FACTOR) {
+            return null;
+        }
+        GroupHashAggregate partialAggregate = new GroupHashAggregate(
+            aggregatedSide,
+            partialKeys,
+            groupBy.aggregates(),
+            numGroups,
+            AggregateMode.ITER_PARTIAL
+        );
+        LogicalPlan newJoin = join.replaceSources(
+            aggregatedSide == lhs ? List.of(partialAggregate, rhs) : List.of(lhs, partialAggregate));
+        return new GroupHashAggregate(
+            newJoin,
+            groupBy.groupKeys(),
+            groupBy.aggregates(),
+            groupBy.numExpectedRows(),
+            AggregateMode.PARTIAL_FINAL
+        );
+    }
+
+    private boolean hasFinalTypeAsPartialType(Function aggregate) {
+        FunctionImplementation implementation = functions.getQualified(aggregate.info().ident());
+        return implementation instanceof AggregationFunction
+               && ((AggregationFunction<?, ?>) implementation).partialType().equals(aggregate.valueType());
+    }
+
+    private static boolean isInnerJoin(LogicalPlan plan) {
+        if (plan instanceof HashJoin) {
+            return ((HashJoin) plan).joinType() == JoinType.INNER;
+        }
+        if (plan instanceof NestedLoopJoin) {
+            JoinType joinType = ((NestedLoopJoin) plan).joinType();
+            return joinType == JoinType.INNER || joinType == JoinType.CROSS;
+        }
+        return false;
+    }
+
+    @Nullable
+    private static Symbol joinCondition(LogicalPlan join) {
+        if (join instanceof HashJoin) {
+            return ((HashJoin) join).joinCondition();
+        }
+        return ((NestedLoopJoin) join).joinCondition();
+    }
+}
@@ -257,7 +257,8 @@ public final class RewriteFilterOnOuterJoinToInnerJoin implements Rule<Filter> {
             nl.joinCondition(),
             nl.isFiltered(),
             nl.topMostLeftRelation(),
-            nl.orderByWasPushedDown()
+            nl.orderByWasPushedDown(),
+            tableStats
         );
         assert newJoin.outputs().equals(nl.outputs()) : "Outputs after rewrite must be the same as before";
         return splitQueries.isEmpty() ? newJoin : new Filter(newJoin, AndOperator.join(splitQueries.values()));
@@ -0,0 +1,228 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import io.crate.analyze.WhereClause;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.any.AnyOperators;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Reference;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.consumer.FetchMode;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.FetchOrEval;
+import io.crate.planner.operators.HashJoin;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.MultiPhase;
+import io.crate.planner.operators.Order;
+import io.crate.planner.operators.RootRelationBoundary;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.statistics.TableStats;
+import org.elasticsearch.Version;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+
+/**
+ * Rewrites an uncorrelated {@code x IN (SELECT y ...)} into a hash semi join if the sub-query is estimated
+ * to return many rows.
+ *
+ * <pre>
+ *     MultiPhase                           Collect t1
+ *       subQueries: SELECT y FROM t2   ->    where: <remaining query>
+ *       Collect t1                         --- SEMI ---
+ *         where: x = ANY(SelectSymbol)     Collect t2 (y)
+ * </pre>
+ *
+ * Otherwise the result of the sub-query is collected on the handler node and bound as array literal into the
+ * query of the outer relation, which has to hold the complete result in memory and ships it to every shard.
+ * The semi join instead streams the rows of the sub-query to the join nodes, distributed by the hash of the
+ * join value.
+ *
+ * Only applies if the {@code ANY} expression is a top-level conjunction of the query of a {@link Collect}
+ * which is reached through single-source operators, because then a false or null result filters out the row in
+ * both variants.
+ *
+ * The rule does not descend through a {@link FetchOrEval}: the collect operator beneath it may only emit the
+ * {@code _fetchid} of a query-then-fetch plan and the join must not be placed in between the collect and fetch phase.
+ */
+public final class RewriteInSubqueryToSemiJoin implements Rule<MultiPhase> {
+
+    /**
+     * Minimum number of estimated rows of the sub-query to use a semi join.
+     * Below that, binding the values into the query is cheaper than running the join.
+     */
+    static final long MIN_SUB_QUERY_ROWS = 100_000L;
+
+    private final Pattern<MultiPhase> pattern;
+
+    public RewriteInSubqueryToSemiJoin() {
+        this.pattern = typeOf(MultiPhase.class);
+    }
+
+    @Override
+    public Pattern<MultiPhase> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(MultiPhase multiPhase,
+                             Captures captures,
+                             TableStats tableStats,
+                             TransactionContext txnCtx) {
+        if (!txnCtx.sessionSettings().hashJoinsEnabled()) {
+            return null;
+        }
+        for (Map.Entry<LogicalPlan, SelectSymbol> entry : multiPhase.dependencies().entrySet()) {
+            LogicalPlan subPlan = entry.getKey();
+            SelectSymbol selectSymbol = entry.getValue();
+            if (selectSymbol.getResultType() != SelectSymbol.ResultType.SINGLE_COLUMN_MULTIPLE_VALUES
+                || subPlan.numExpectedRows() < MIN_SUB_QUERY_ROWS) {
+                continue;
+            }
+            LogicalPlan newSource = rewriteCollect(multiPhase.source(), selectSymbol, subPlan, tableStats);
+            if (newSource != null) {
+                Map<LogicalPlan, SelectSymbol> remainingSubQueries = new HashMap<>(multiPhase.dependencies());
+                remainingSubQueries.remove(subPlan);
+                return MultiPhase.createIfNeeded(newSource, remainingSubQueries);
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static LogicalPlan rewriteCollect(LogicalPlan plan,
+                                              SelectSymbol selectSymbol,
+                                              LogicalPlan subPlan,
+                                              TableStats tableStats) {
+        if (plan instanceof Collect) {
+            return toSemiJoin((Collect) plan, selectSymbol, subPlan, tableStats);
+        }
+        if (plan instanceof MultiPhase || plan instanceof FetchOrEval || plan.sources().size() != 1) {
+            return null;
+        }
+        LogicalPlan newSource = rewriteCollect(plan.sources().get(0), selectSymbol, subPlan, tableStats);
+        return newSource == null ? null : plan.replaceSources(List.of(newSource));
+    }
+
+    @Nullable
+    private static LogicalPlan toSemiJoin(Collect collect,
+                                          SelectSymbol selectSymbol,
+                                          LogicalPlan subPlan,
+                                          TableStats tableStats) {
+        WhereClause where = collect.where();
+        if (!where.hasQuery()) {
+            return null;
+        }
+        LogicalPlan rhs = unwrapSubPlan(subPlan);
+        Symbol rhsOutput = rhs.outputs().get(0);
+        List<Symbol> remainingConditions = new ArrayList<>();
+        Reference lhsColumn = null;
+        for (Symbol condition : AndOperator.split(where.query())) {
+            Reference column = lhsColumn == null ? columnComparedToSubQuery(condition, selectSymbol) : null;
+            if (column != null && column.valueType().equals(rhsOutput.valueType())) {
+                lhsColumn = column;
+            } else {
+                remainingConditions.add(condition);
+            }
+        }
+        if (lhsColumn == null) {
+            return null;
+        }
+        List<Symbol> lhsOutputs = collect.outputs();
+        if (!lhsOutputs.contains(lhsColumn)) {
+            lhsOutputs = new ArrayList<>(collect.outputs());
+            lhsOutputs.add(lhsColumn);
+        }
+        Collect lhs = new Collect(
+            collect.preferSourceLookup(),
+            collect.relation(),
+            lhsOutputs,
+            new WhereClause(
+                remainingConditions.isEmpty() ? null : AndOperator.join(remainingConditions),
+                where.partitions(),
+                where.clusteredBy()
+            ),
+            collect.numExpectedRows(),
+            collect.estimatedRowSize()
+        );
+        HashJoin semiJoin = new HashJoin(
+            lhs,
+            rhs,
+            EqOperator.createFunction(lhsColumn, rhsOutput),
+            collect.relation(),
+            tableStats,
+            JoinType.SEMI
+        );
+        if (lhsOutputs == collect.outputs()) {
+            return semiJoin;
+        }
+        // Parent operators may expect exactly the outputs of the collect operator
+        return new FetchOrEval(semiJoin, collect.outputs(), FetchMode.NEVER_CLEAR, false);
+    }
+
+    /**
+     * The sub-query plan ensures that its result is on the handler and is ordered to speed up the
+     * building of a terms query, neither is necessary for the semi join.
+     */
+    private static LogicalPlan unwrapSubPlan(LogicalPlan subPlan) {
+        LogicalPlan plan = subPlan;
+        if (plan instanceof RootRelationBoundary) {
+            plan = ((RootRelationBoundary) plan).source();
+        }
+        if (plan instanceof Order) {
+            plan = ((Order) plan).source();
+        }
+        return plan;
+    }
+
+    @Nullable
+    private static Reference columnComparedToSubQuery(Symbol condition, SelectSymbol selectSymbol) {
+        if (condition instanceof Function) {
+            Function function = (Function) condition;
+            if (function.info().ident().name().equals(AnyOperators.Names.EQ)
+                && function.arguments().get(0) instanceof Reference
+                && function.arguments().get(1).equals(selectSymbol)) {
+                return (Reference) function.arguments().get(0);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Version requiredVersion() {
+        // Older nodes would execute the hash join phase as inner join
+        return Version.V_4_2_0;
+    }
+}
@@ -22,8 +22,13 @@
 
 package io.crate.planner.optimizer.rule;
 
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.planner.operators.Limit;
 import io.crate.planner.operators.LogicalPlan;
+import io.crate.types.DataTypes;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 public final class Util {
@@ -39,4 +44,34 @@ public final class Util {
             parent.replaceSources(child.sources())
         ));
     }
+
+    /**
+     * @return a new limit for the sources of {@code limit} which must provide {@code limit + offset} rows,
+     *         or null if the limit is unbounded or can't be computed without evaluating parameters or sub-queries.
+     */
+    @Nullable
+    static Limit limitAndOffsetForSource(Limit limit, LogicalPlan source) {
+        Symbol limitSymbol = limit.limit();
+        Symbol offsetSymbol = limit.offset();
+        if (!(offsetSymbol instanceof Literal)) {
+            return null;
+        }
+        Long offset = DataTypes.LONG.value(((Literal<?>) offsetSymbol).value());
+        if (offset == null || offset == 0L) {
+            if (limitSymbol instanceof Literal && isUnbounded((Literal<?>) limitSymbol)) {
+                return null;
+            }
+            return new Limit(source, limitSymbol, Literal.of(0L));
+        }
+        if (!(limitSymbol instanceof Literal) || isUnbounded((Literal<?>) limitSymbol)) {
+            return null;
+        }
+        long limitValue = DataTypes.LONG.value(((Literal<?>) limitSymbol).value());
+        return new Limit(source, Literal.of(limitValue + offset), Literal.of(0L));
+    }
+
+    private static boolean isUnbounded(Literal<?> limit) {
+        Long value = DataTypes.LONG.value(limit.value());
+        return value == null || value < 0;
+    }
 }
@@ -38,6 +38,7 @@ import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.statistics.ColumnStats;
 import io.crate.statistics.Stats;
+import io.crate.statistics.TableStats;
 
 import javax.annotation.Nullable;
 import java.util.Arrays;
@@ -63,6 +64,59 @@ public class SelectivityFunctions {
         return (long) (stats.numDocs() * query.accept(estimator, null));
     }
 
+    /**
+     * Estimates the fraction of the cross product of two relations which matches the given join condition.
+     * <p>
+     * An equality between two columns has a selectivity of {@code 1 / max(distinct(a), distinct(b))}, assuming the
+     * values of the column with fewer distinct values are all contained in the other column.
+     * Without column statistics a key/foreign-key relationship is assumed, in which case the join produces as many
+     * rows as the bigger relation.
+     * </p>
+     */
+    public static double estimateJoinSelectivity(Symbol joinCondition,
+                                                 TableStats tableStats,
+                                                 long lhsNumRows,
+                                                 long rhsNumRows) {
+        double keySelectivity = 1.0 / Math.max(1L, Math.min(lhsNumRows, rhsNumRows));
+        double selectivity = 1.0;
+        for (Symbol part : AndOperator.split(joinCondition)) {
+            selectivity *= joinConditionSelectivity(part, tableStats, keySelectivity);
+        }
+        return selectivity;
+    }
+
+    private static double joinConditionSelectivity(Symbol condition, TableStats tableStats, double keySelectivity) {
+        if (condition instanceof Literal) {
+            return Boolean.FALSE.equals(((Literal) condition).value()) ? 0.0 : 1.0;
+        }
+        if (!(condition instanceof Function) || !((Function) condition).info().ident().name().equals(EqOperator.NAME)) {
+            return MAGIC_SEL;
+        }
+        List<Symbol> arguments = ((Function) condition).arguments();
+        ColumnStats<?> lhsStats = columnStats(arguments.get(0), tableStats);
+        ColumnStats<?> rhsStats = columnStats(arguments.get(1), tableStats);
+        if (lhsStats == null && rhsStats == null) {
+            return keySelectivity;
+        }
+        double distinct = Math.max(
+            lhsStats == null ? 1.0 : lhsStats.approxDistinct(),
+            rhsStats == null ? 1.0 : rhsStats.approxDistinct()
+        );
+        return 1.0 / Math.max(1.0, distinct);
+    }
+
+    @Nullable
+    private static ColumnStats<?> columnStats(Symbol symbol, TableStats tableStats) {
+        while (symbol instanceof Field) {
+            symbol = ((Field) symbol).pointer();
+        }
+        if (symbol instanceof Reference) {
+            Reference ref = (Reference) symbol;
+            return tableStats.getStats(ref.ident().tableIdent()).statsByColumn().get(ref.column());
+        }
+        return null;
+    }
+
     static class SelectivityEstimator extends SymbolVisitor<Void, Double> {
 
         private final Stats stats;
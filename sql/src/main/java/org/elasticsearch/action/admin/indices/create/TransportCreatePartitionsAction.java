@@ -234,6 +234,8 @@ public class TransportCreatePartitionsAction extends TransportMasterNodeAction<C
                     removalReasons.add("failed on parsing mappings on index creation");
                     throw mpe;
                 }
+                // validate that the index sort can be built from the mappings
+                indexService.getIndexSortSupplier().get();
 
                 // now, update the mappings with the actual source
                 Map<String, MappingMetaData> mappingsMetaData = Maps.newHashMap();
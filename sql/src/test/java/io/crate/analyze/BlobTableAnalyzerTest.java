@@ -150,6 +150,14 @@ public class BlobTableAnalyzerTest extends CrateDummyClusterServiceUnitTest {
             is("/tmp/crate_blob_data"));
     }
 
+    @Test
+    public void testCreateBlobTableWithPackedStorage() {
+        AnalyzedCreateBlobTable analysis = e.analyze("create blob table thumbnails with (blobs_packed=true)");
+        Settings settings = buildSettings(analysis);
+
+        assertThat(settings.getAsBoolean(BlobIndicesService.SETTING_INDEX_BLOBS_PACKED.getKey(), false), is(true));
+    }
+
     @Test
     public void testCreateBlobTableWithPathInvalidType() {
         expectedException.expect(IllegalArgumentException.class);
@@ -0,0 +1,227 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.common.collections.Lists2;
+import io.crate.data.Row;
+import io.crate.expression.symbol.ParameterSymbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.view.MaterializedViewMetaData;
+import io.crate.metadata.view.MaterializedViewsMetaData;
+import io.crate.planner.PlannerContext;
+import io.crate.planner.node.ddl.CreateTablePlan;
+import io.crate.planner.operators.SubQueryResults;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.test.ClusterServiceUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+public class MaterializedViewAnalyzerTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+
+    @Before
+    public void setUpExecutor() throws IOException {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("create table t1 (x int not null, y long, name text, ts timestamp with time zone)")
+            .addTable("create table v_counts (x int primary key, cnt bigint)")
+            .addTable("create table v2_staging (x int)")
+            .build();
+    }
+
+    private BoundCreateTable bind(AnalyzedCreateMaterializedView createView) {
+        PlannerContext plannerContext = e.getPlannerContext(clusterService.state());
+        return CreateTablePlan.bind(
+            createView.createTable(),
+            plannerContext.transactionContext(),
+            plannerContext.functions(),
+            Row.EMPTY,
+            SubQueryResults.EMPTY,
+            new NumberOfShards(clusterService),
+            e.schemas(),
+            e.fulltextAnalyzerResolver()
+        );
+    }
+
+    @Test
+    public void test_create_materialized_view_creates_table_with_output_columns() {
+        AnalyzedCreateMaterializedView createView = e.analyze(
+            "create materialized view v1 as select x, count(*) as cnt from t1 group by x");
+
+        assertThat(createView.name(), is(new RelationName("doc", "v1")));
+        assertThat(createView.watermarkColumn(), nullValue());
+        assertThat(
+            Lists2.map(createView.createTable().analyzedTableElements().columns(), c -> c.ident().fqn()),
+            contains("x", "cnt"));
+        assertThat(bind(createView).primaryKeys(), empty());
+    }
+
+    @Test
+    public void test_incremental_grouped_view_uses_group_keys_as_primary_key() {
+        AnalyzedCreateMaterializedView createView = e.analyze(
+            "create materialized view v1 with (watermark_column = 'ts') as " +
+            "select x, count(*) as cnt, max(y) as max_y from t1 group by x");
+
+        assertThat(createView.watermarkColumn(), is("ts"));
+        assertThat(bind(createView).primaryKeys(), contains("x"));
+    }
+
+    @Test
+    public void test_incremental_view_grouped_by_nullable_column_is_rejected() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(
+            "cannot be refreshed incrementally: the GROUP BY key 'name' must be a column with a NOT NULL constraint");
+        e.analyze("create materialized view v1 with (watermark_column = 'ts') as " +
+                  "select name, count(*) as cnt from t1 group by name");
+    }
+
+    @Test
+    public void test_full_view_grouped_by_nullable_column_has_no_primary_key() {
+        AnalyzedCreateMaterializedView createView = e.analyze(
+            "create materialized view v1 as select name, count(*) as cnt from t1 group by name");
+
+        assertThat(bind(createView).primaryKeys(), empty());
+    }
+
+    @Test
+    public void test_incremental_view_with_unsupported_aggregate_is_rejected() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("cannot be refreshed incrementally: only GROUP BY keys and count, sum, min or max");
+        e.analyze("create materialized view v1 with (watermark_column = 'ts') as " +
+                  "select x, avg(y) as avg_y from t1 group by x");
+    }
+
+    @Test
+    public void test_watermark_column_must_have_integer_or_timestamp_type() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("the watermark column 'name' must have an integer or timestamp type");
+        e.analyze("create materialized view v1 with (watermark_column = 'name') as select x, name from t1");
+    }
+
+    @Test
+    public void test_unknown_materialized_view_property_is_rejected() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Setting 'refresh_interval' is not supported for materialized views");
+        e.analyze("create materialized view v1 with (refresh_interval = 10) as select x from t1");
+    }
+
+    @Test
+    public void test_materialized_view_definition_must_not_contain_parameters() {
+        expectedException.expect(UnsupportedOperationException.class);
+        e.analyze("create materialized view v1 as select x from t1 where x = ?");
+    }
+
+    @Test
+    public void test_incremental_refresh_merges_new_rows_into_existing_groups() {
+        MaterializedViewsMetaData views = MaterializedViewsMetaData.put(
+            null,
+            new RelationName("doc", "v_counts"),
+            new MaterializedViewMetaData("SELECT x, count(*) AS cnt FROM t1 GROUP BY x", null, "ts", 0L, 10L));
+        ClusterState state = clusterService.state();
+        ClusterServiceUtils.setState(clusterService, ClusterState.builder(state)
+            .metaData(MetaData.builder(state.metaData()).putCustom(MaterializedViewsMetaData.TYPE, views)));
+
+        AnalyzedRefreshMaterializedView refresh = e.analyze("refresh materialized view v_counts");
+
+        assertThat(refresh.isIncremental(), is(true));
+        assertThat(refresh.stagingTable(), is(new RelationName("doc", "v_counts_staging")));
+        assertThat(refresh.createStagingTable(), containsString("PRIMARY KEY"));
+        assertThat(refresh.insertIntoStagingTable(), startsWith("INSERT INTO doc.v_counts_staging (x, cnt) SELECT"));
+        assertThat(refresh.insertIntoStagingTable(), containsString("$1"));
+        assertThat(refresh.insert().onDuplicateKeyAssignments().size(), is(1));
+        assertThat(
+            SymbolVisitors.any(
+                s -> s instanceof ParameterSymbol,
+                refresh.insert().subQueryRelation().where().queryOrFallback()),
+            is(true));
+    }
+
+    @Test
+    public void test_full_refresh_inserts_all_rows_into_staging_table() {
+        MaterializedViewsMetaData views = MaterializedViewsMetaData.put(
+            null,
+            new RelationName("doc", "v_counts"),
+            new MaterializedViewMetaData("SELECT x, count(*) AS cnt FROM t1 GROUP BY x", null, null, 0L, null));
+        ClusterState state = clusterService.state();
+        ClusterServiceUtils.setState(clusterService, ClusterState.builder(state)
+            .metaData(MetaData.builder(state.metaData()).putCustom(MaterializedViewsMetaData.TYPE, views)));
+
+        AnalyzedRefreshMaterializedView refresh = e.analyze("refresh materialized view v_counts");
+
+        assertThat(refresh.isIncremental(), is(false));
+        assertThat(refresh.insert(), nullValue());
+        assertThat(refresh.createStagingTable(), not(containsString("PRIMARY KEY")));
+        assertThat(refresh.insertIntoStagingTable(), not(containsString("$1")));
+    }
+
+    @Test
+    public void test_watermark_delay_is_stored_with_view() {
+        AnalyzedCreateMaterializedView createView = e.analyze(
+            "create materialized view v1 with (watermark_column = 'ts', watermark_delay = 60000) as " +
+            "select x, count(*) as cnt from t1 group by x");
+
+        assertThat(createView.watermarkDelay(), is(60000L));
+    }
+
+    @Test
+    public void test_watermark_delay_requires_watermark_column() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Setting 'watermark_delay' requires the 'watermark_column' setting");
+        e.analyze("create materialized view v1 with (watermark_delay = 10) as select x from t1");
+    }
+
+    @Test
+    public void test_watermark_delay_must_not_be_negative() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Setting 'watermark_delay' must not be negative");
+        e.analyze("create materialized view v1 with (watermark_column = 'ts', watermark_delay = -1) as select x from t1");
+    }
+
+    @Test
+    public void test_create_materialized_view_fails_if_staging_table_exists() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(
+            "Relation 'doc.v2_staging' is used to refresh materialized view 'doc.v2' but already exists");
+        e.analyze("create materialized view v2 as select x from t1");
+    }
+
+    @Test
+    public void test_refresh_of_unknown_materialized_view_fails() {
+        expectedException.expectMessage("Relation 'doc.unknown' unknown");
+        e.analyze("refresh materialized view unknown");
+    }
+}
@@ -35,12 +35,14 @@ import io.crate.metadata.settings.SessionSettings;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import static java.util.Collections.emptyMap;
@@ -282,4 +284,95 @@ public class UpdateSourceGenTest extends CrateDummyClusterServiceUnitTest {
         );
         assertThat(updatedSource, is(Map.of("obj", Map.of("x", 10))));
     }
+
+    @Test
+    public void test_generate_source_bytes_patches_top_level_columns_and_keeps_other_fields() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .addTable("create table t (id int, counter int, payload object as (a text, b array(int)))")
+            .build();
+        AnalyzedUpdateStatement update = e.analyze("update t set counter = counter + 1");
+        Assignments assignments = Assignments.convert(update.assignmentByTargetCol());
+        DocTableInfo table = (DocTableInfo) update.table().tableInfo();
+        UpdateSourceGen updateSourceGen = new UpdateSourceGen(
+            e.functions(),
+            txnCtx,
+            table,
+            assignments.targetNames()
+        );
+        String raw = "{\"id\":1,\"payload\":{\"a\":\"foo\",\"b\":[1,2]},\"counter\":41}";
+        BytesReference updatedSource = updateSourceGen.generateSourceBytes(
+            new Doc(
+                1,
+                table.concreteIndices()[0],
+                "1",
+                1,
+                1,
+                1,
+                Map.of("id", 1, "payload", Map.of("a", "foo", "b", List.of(1, 2)), "counter", 41),
+                () -> raw
+            ),
+            assignments.sources(),
+            new Object[0]
+        );
+        assertThat(
+            updatedSource.utf8ToString(),
+            is("{\"id\":1,\"payload\":{\"a\":\"foo\",\"b\":[1,2]},\"counter\":42}"));
+    }
+
+    @Test
+    public void test_patch_source_appends_columns_missing_in_source() throws Exception {
+        BytesReference source = UpdateSourceGen.patchSource(
+            new BytesArray("{\"x\":1,\"o\":{\"y\":[1,{\"z\":2}]}}"),
+            new String[] { "o", "n" },
+            new Object[] { Map.of("y", 3), null }
+        );
+        assertThat(source.utf8ToString(), is("{\"x\":1,\"o\":{\"y\":3},\"n\":null}"));
+    }
+
+    @Test
+    public void test_generate_source_bytes_from_stored_source() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .addTable("create table t (id int, counter int, name text)")
+            .build();
+        DocTableInfo table = e.resolveTableInfo("t");
+        BytesArray raw = new BytesArray("{\"id\":1,\"counter\":41,\"name\":\"foo\"}");
+
+        AnalyzedUpdateStatement update = e.analyze("update t set name = 'bar'");
+        Assignments assignments = Assignments.convert(update.assignmentByTargetCol());
+        UpdateSourceGen updateSourceGen = new UpdateSourceGen(e.functions(), txnCtx, table, assignments.targetNames());
+        BytesReference updatedSource = updateSourceGen.generateSourceBytes(
+            new Doc(1, table.concreteIndices()[0], "1", 1, 1, 1, raw), assignments.sources(), new Object[0]);
+        assertThat(updatedSource.utf8ToString(), is("{\"id\":1,\"counter\":41,\"name\":\"bar\"}"));
+
+        update = e.analyze("update t set counter = counter + 1");
+        assignments = Assignments.convert(update.assignmentByTargetCol());
+        updateSourceGen = new UpdateSourceGen(e.functions(), txnCtx, table, assignments.targetNames());
+        updatedSource = updateSourceGen.generateSourceBytes(
+            new Doc(1, table.concreteIndices()[0], "1", 1, 1, 1, raw), assignments.sources(), new Object[0]);
+        assertThat(updatedSource.utf8ToString(), is("{\"id\":1,\"counter\":42,\"name\":\"foo\"}"));
+    }
+
+    @Test
+    public void test_generate_source_bytes_validates_not_null_constraint() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .addTable("create table t (x int not null)")
+            .build();
+        AnalyzedUpdateStatement update = e.analyze("update t set x = null");
+        Assignments assignments = Assignments.convert(update.assignmentByTargetCol());
+        DocTableInfo table = (DocTableInfo) update.table().tableInfo();
+        UpdateSourceGen updateSourceGen = new UpdateSourceGen(
+            e.functions(),
+            txnCtx,
+            table,
+            assignments.targetNames()
+        );
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("\"x\" must not be null");
+        updateSourceGen.generateSourceBytes(
+            new Doc(1, table.concreteIndices()[0], "1", 1, 1, 1, Map.of("x", 1), () -> "{\"x\":1}"),
+            assignments.sources(),
+            new Object[0]
+        );
+    }
 }
@@ -0,0 +1,229 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import io.crate.Streamer;
+import io.crate.data.BatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.TestingRowConsumer;
+import io.crate.types.DataTypes;
+import org.apache.logging.log4j.LogManager;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class AggregationResultCacheTest extends CrateUnitTest {
+
+    private static final ShardId SHARD_ID = new ShardId("t", "_na_", 0);
+    private static final Streamer<?>[] STREAMERS = new Streamer[]{DataTypes.LONG.streamer()};
+
+    private final List<Directory> directories = new ArrayList<>();
+    private final List<IndexReader> readers = new ArrayList<>();
+
+    @After
+    public void closeReaders() throws Exception {
+        IOUtils.close(readers);
+        IOUtils.close(directories);
+    }
+
+    @Test
+    public void testCachedRowsAreOnlyReturnedForTheSameReader() throws Exception {
+        CircuitBreaker breaker = breaker(ByteSizeValue.parseBytesSizeValue("1mb", "test"));
+        AggregationResultCache cache = new AggregationResultCache(1024 * 1024, breaker);
+        IndexReader reader = newReader();
+        BytesReference phaseKey = phaseKey(1);
+
+        assertThat(cache.get(SHARD_ID, reader, phaseKey, STREAMERS), nullValue());
+        assertThat(consume(cache.record(SHARD_ID, reader, phaseKey, STREAMERS, rows(1L, 2L))).size(), is(2));
+
+        List<Row> rows = cache.get(SHARD_ID, reader, phaseKey, STREAMERS);
+        assertThat(rows.size(), is(2));
+        assertThat(rows.get(0).get(0), is(1L));
+        assertThat(rows.get(1).get(0), is(2L));
+        assertThat(cache.get(SHARD_ID, newReader(), phaseKey, STREAMERS), nullValue());
+        assertThat(cache.get(SHARD_ID, reader, phaseKey(2), STREAMERS), nullValue());
+
+        AggregationResultCache.ShardStats stats = cache.shardStats(SHARD_ID);
+        assertThat(stats.hits(), is(1L));
+        assertThat(stats.misses(), is(3L));
+        assertThat(stats.sizeInBytes(), greaterThan(0L));
+        assertThat(breaker.getUsed(), is(stats.sizeInBytes()));
+    }
+
+    @Test
+    public void testRowsAreOnlyCachedIfTheSourceIsConsumedCompletely() throws Exception {
+        CircuitBreaker breaker = breaker(ByteSizeValue.parseBytesSizeValue("1mb", "test"));
+        AggregationResultCache cache = new AggregationResultCache(1024 * 1024, breaker);
+        IndexReader reader = newReader();
+
+        BatchIterator<Row> iterator = cache.record(SHARD_ID, reader, phaseKey(1), STREAMERS, rows(1L, 2L));
+        assertThat(iterator.moveNext(), is(true));
+        iterator.close();
+
+        assertThat(cache.get(SHARD_ID, reader, phaseKey(1), STREAMERS), nullValue());
+        assertThat(breaker.getUsed(), is(0L));
+    }
+
+    @Test
+    public void testEntriesAreInvalidatedAndReleasedWhenTheReaderIsClosed() throws Exception {
+        CircuitBreaker breaker = breaker(ByteSizeValue.parseBytesSizeValue("1mb", "test"));
+        AggregationResultCache cache = new AggregationResultCache(1024 * 1024, breaker);
+        IndexReader reader = newReader();
+        IndexReader otherReader = newReader();
+        consume(cache.record(SHARD_ID, reader, phaseKey(1), STREAMERS, rows(1L)));
+        consume(cache.record(SHARD_ID, otherReader, phaseKey(1), STREAMERS, rows(2L)));
+        long sizeOfOtherReaderEntry = breaker.getUsed() / 2;
+
+        reader.close();
+
+        assertThat(cache.get(SHARD_ID, reader, phaseKey(1), STREAMERS), nullValue());
+        assertThat(cache.get(SHARD_ID, otherReader, phaseKey(1), STREAMERS).get(0).get(0), is(2L));
+        assertThat(breaker.getUsed(), is(sizeOfOtherReaderEntry));
+        assertThat(cache.shardStats(SHARD_ID).sizeInBytes(), is(sizeOfOtherReaderEntry));
+    }
+
+    @Test
+    public void testEntriesAreEvictedOnceTheCacheIsFull() throws Exception {
+        long sizeInBytes = 4000;
+        CircuitBreaker breaker = breaker(ByteSizeValue.parseBytesSizeValue("1mb", "test"));
+        AggregationResultCache cache = new AggregationResultCache(sizeInBytes, breaker);
+        IndexReader reader = newReader();
+
+        for (int i = 0; i < 100; i++) {
+            consume(cache.record(SHARD_ID, reader, phaseKey(i), STREAMERS, rows((long) i)));
+        }
+
+        AggregationResultCache.ShardStats stats = cache.shardStats(SHARD_ID);
+        assertThat(stats.evictions(), greaterThan(0L));
+        assertThat(stats.sizeInBytes(), lessThanOrEqualTo(sizeInBytes));
+        assertThat(breaker.getUsed(), is(stats.sizeInBytes()));
+        // the most recently cached entry is never evicted by itself
+        assertThat(cache.get(SHARD_ID, reader, phaseKey(99), STREAMERS).get(0).get(0), is(99L));
+    }
+
+    @Test
+    public void testOutputsExceedingTheMaxEntrySizeAreNotCached() throws Exception {
+        CircuitBreaker breaker = breaker(ByteSizeValue.parseBytesSizeValue("1mb", "test"));
+        // max entry size is 1/20 of the cache size = 200 bytes
+        AggregationResultCache cache = new AggregationResultCache(4000, breaker);
+        IndexReader reader = newReader();
+        Long[] values = new Long[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) i;
+        }
+
+        assertThat(consume(cache.record(SHARD_ID, reader, phaseKey(1), STREAMERS, rows(values))).size(), is(100));
+
+        assertThat(cache.get(SHARD_ID, reader, phaseKey(1), STREAMERS), nullValue());
+        assertThat(breaker.getUsed(), is(0L));
+    }
+
+    @Test
+    public void testRowsAreNotCachedIfTheBreakerTrips() throws Exception {
+        CircuitBreaker breaker = breaker(new ByteSizeValue(10, ByteSizeUnit.BYTES));
+        AggregationResultCache cache = new AggregationResultCache(1024 * 1024, breaker);
+        IndexReader reader = newReader();
+
+        assertThat(consume(cache.record(SHARD_ID, reader, phaseKey(1), STREAMERS, rows(1L))).size(), is(1));
+
+        assertThat(cache.get(SHARD_ID, reader, phaseKey(1), STREAMERS), nullValue());
+        assertThat(breaker.getUsed(), is(0L));
+        assertThat(cache.shardStats(SHARD_ID).sizeInBytes(), is(0L));
+    }
+
+    @Test
+    public void testClearInvalidatesAndReleasesTheEntriesOfTheShard() throws Exception {
+        CircuitBreaker breaker = breaker(ByteSizeValue.parseBytesSizeValue("1mb", "test"));
+        AggregationResultCache cache = new AggregationResultCache(1024 * 1024, breaker);
+        IndexReader reader = newReader();
+        consume(cache.record(SHARD_ID, reader, phaseKey(1), STREAMERS, rows(1L)));
+        assertThat(breaker.getUsed(), greaterThan(0L));
+
+        cache.clear(SHARD_ID);
+
+        assertThat(breaker.getUsed(), is(0L));
+        assertThat(cache.get(SHARD_ID, reader, phaseKey(1), STREAMERS), nullValue());
+    }
+
+    private static CircuitBreaker breaker(ByteSizeValue limit) {
+        return new MemoryCircuitBreaker(limit, 1.0, LogManager.getLogger(AggregationResultCacheTest.class));
+    }
+
+    private static BytesReference phaseKey(int id) {
+        return new BytesArray(Integer.toString(id));
+    }
+
+    private static BatchIterator<Row> rows(Long... values) {
+        List<Row> rows = new ArrayList<>(values.length);
+        for (Long value : values) {
+            rows.add(new Row1(value));
+        }
+        return InMemoryBatchIterator.of(rows, SENTINEL, false);
+    }
+
+    private static List<Object[]> consume(BatchIterator<Row> iterator) throws Exception {
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(iterator, null);
+        return consumer.getResult();
+    }
+
+    private IndexReader newReader() throws IOException {
+        Directory directory = new ByteBuffersDirectory();
+        directories.add(directory);
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+            writer.addDocument(new Document());
+            writer.commit();
+        }
+        IndexReader reader = DirectoryReader.open(directory);
+        readers.add(reader);
+        return reader;
+    }
+}
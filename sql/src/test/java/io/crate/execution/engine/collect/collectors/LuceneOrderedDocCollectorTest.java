@@ -49,6 +49,11 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.FilterCollector;
+import org.apache.lucene.search.FilterLeafCollector;
+import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -80,6 +85,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
@@ -373,6 +379,93 @@ public class LuceneOrderedDocCollectorTest extends RandomizedTest {
         assertThat(values.next().get(0), Matchers.is(1.0F));
     }
 
+    @Test
+    public void testSearchTerminatesEarlyIfSortMatchesIndexSort() throws Exception {
+        Sort sort = new Sort(new SortedNumericSortField("value", SortField.Type.LONG, true));
+        int numDocs = 1000;
+        int batchSize = 10;
+
+        CountingSearcher searcher = new CountingSearcher(createSortedIndex(sort, numDocs));
+        LuceneOrderedDocCollector collector = sortedCollector(searcher, sort, batchSize);
+        assertThat(Iterables.size(collector.collect()), is(batchSize));
+        // the hits of the (single) segment are sorted, so once `batchSize` hits are collected the next hit isn't
+        // competitive and the TopFieldCollector terminates the collection of the segment
+        assertThat(searcher.collectedDocs, lessThanOrEqualTo(batchSize + 1));
+    }
+
+    @Test
+    public void testSearchVisitsAllDocsIfIndexIsNotSorted() throws Exception {
+        Sort sort = new Sort(new SortedNumericSortField("value", SortField.Type.LONG, true));
+        int numDocs = 1000;
+        int batchSize = 10;
+
+        CountingSearcher searcher = new CountingSearcher(createSortedIndex(null, numDocs));
+        LuceneOrderedDocCollector collector = sortedCollector(searcher, sort, batchSize);
+        assertThat(Iterables.size(collector.collect()), is(batchSize));
+        assertThat(searcher.collectedDocs, is(numDocs));
+    }
+
+    private IndexReader createSortedIndex(@Nullable Sort indexSort, int numDocs) throws IOException {
+        IndexWriterConfig cfg = new IndexWriterConfig(new KeywordAnalyzer());
+        if (indexSort != null) {
+            cfg.setIndexSort(indexSort);
+        }
+        IndexWriter w = new IndexWriter(new ByteBuffersDirectory(), cfg);
+        for (long i = 0L; i < numDocs; i++) {
+            addDocToLucene(w, i);
+        }
+        w.forceMerge(1);
+        w.commit();
+        return DirectoryReader.open(w, true, true);
+    }
+
+    private static LuceneOrderedDocCollector sortedCollector(IndexSearcher searcher, Sort sort, int batchSize) {
+        return new LuceneOrderedDocCollector(
+            new ShardId("dummy", UUIDs.base64UUID(), 0),
+            searcher,
+            new MatchAllDocsQuery(),
+            null,
+            false,
+            batchSize,
+            RamAccounting.NO_ACCOUNTING,
+            new CollectorContext(mappedFieldType -> null),
+            f -> null,
+            sort,
+            Collections.emptyList(),
+            Collections.emptyList()
+        );
+    }
+
+    /**
+     * Counts the documents which are passed to the collectors
+     */
+    private static class CountingSearcher extends IndexSearcher {
+
+        private int collectedDocs = 0;
+
+        CountingSearcher(IndexReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public void search(Query query, Collector collector) throws IOException {
+            super.search(query, new FilterCollector(collector) {
+
+                @Override
+                public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+                    return new FilterLeafCollector(super.getLeafCollector(context)) {
+
+                        @Override
+                        public void collect(int doc) throws IOException {
+                            collectedDocs++;
+                            super.collect(doc);
+                        }
+                    };
+                }
+            });
+        }
+    }
+
     private static void addDoc(IndexWriter w, KeywordFieldMapper.KeywordFieldType fieldType, String value) throws IOException {
         Document doc = new Document();
         Field field = new Field(fieldType.name(), value, fieldType);
@@ -62,6 +62,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import static io.crate.planner.Plan.StatementType.SELECT;
@@ -444,6 +445,32 @@ public class JobsLogsTest extends CrateDummyClusterServiceUnitTest {
         assertTrue(entries.contains(new OperationContextLog(ctxA, null)));
     }
 
+    @Test
+    public void testResourceUsageOfOperationIsRecordedInOperationsLog() {
+        JobsLogs jobsLogs = new JobsLogs(() -> true);
+        Queue<OperationContextLog> q = new BlockingEvictingQueue<>(10);
+        jobsLogs.updateOperationsLog(new QueueSink<>(q, ramAccountingContext::close));
+
+        UUID jobId = UUID.randomUUID();
+        OperationResourceUsage resourceUsage = new OperationResourceUsage();
+        AtomicLong usedBytes = new AtomicLong(512L);
+        resourceUsage.usedBytes(usedBytes::get);
+        resourceUsage.sentBytes(() -> 64L);
+        jobsLogs.operationStarted(1, jobId, "collect", usedBytes::get, resourceUsage);
+
+        resourceUsage.onIteration(100L, 2048L);
+        usedBytes.set(128L);
+        resourceUsage.onIteration(50L, 1024L);
+        jobsLogs.operationFinished(1, jobId, null);
+
+        OperationContextLog log = jobsLogs.operationsLog().iterator().next();
+        assertThat(log.cpuTimeNanos(), is(150L));
+        assertThat(log.allocatedBytes(), is(3072L));
+        assertThat(log.peakUsedBytes(), is(512L));
+        assertThat(log.usedBytes(), is(128L));
+        assertThat(log.sentBytes(), is(64L));
+    }
+
     @Test
     public void testLowerBoundScheduler() {
         assertThat(JobsLogService.clearInterval(TimeValue.timeValueMillis(1L)), is(1000L));
@@ -0,0 +1,154 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.RowConsumer;
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assume.assumeThat;
+
+public class ResourceTrackingRowConsumerTest extends CrateUnitTest {
+
+    private static final int ALLOCATION_SIZE = 1024 * 1024;
+    private static final int NUM_ROWS = 20;
+
+    private static Object blackhole;
+
+    @Test
+    public void testUsageOfNestedConsumerIsSubtractedFromOuterConsumer() throws Exception {
+        assumeThat(OperationResourceUsage.currentThreadAllocatedBytes(), greaterThanOrEqualTo(0L));
+        assumeThat(OperationResourceUsage.currentThreadCpuTime(), greaterThanOrEqualTo(0L));
+
+        OperationResourceUsage innerUsage = new OperationResourceUsage();
+        OperationResourceUsage outerUsage = new OperationResourceUsage();
+        RowConsumer inner = new ResourceTrackingRowConsumer(new AllocatingConsumer(), innerUsage);
+        // the outer operation triggers the complete iteration of the inner operation on the same thread
+        // while iterating over its only row, but doesn't allocate or burn CPU itself
+        RowConsumer outer = new ResourceTrackingRowConsumer(new NestingConsumer(inner), outerUsage);
+
+        outer.accept(InMemoryBatchIterator.of(new Row1(1), SENTINEL), null);
+        outer.completionFuture().get();
+
+        assertThat(innerUsage.allocatedBytes(), greaterThanOrEqualTo((long) ALLOCATION_SIZE * NUM_ROWS));
+        assertThat(outerUsage.allocatedBytes(), lessThan((long) ALLOCATION_SIZE));
+        assertThat(innerUsage.cpuTimeNanos(), greaterThan(0L));
+        assertThat(outerUsage.cpuTimeNanos(), lessThan(innerUsage.cpuTimeNanos()));
+    }
+
+    @Test
+    public void testUsageOfSequentialConsumersIsNotSubtracted() throws Exception {
+        assumeThat(OperationResourceUsage.currentThreadAllocatedBytes(), greaterThanOrEqualTo(0L));
+
+        OperationResourceUsage firstUsage = new OperationResourceUsage();
+        OperationResourceUsage secondUsage = new OperationResourceUsage();
+        RowConsumer first = new ResourceTrackingRowConsumer(new AllocatingConsumer(), firstUsage);
+        RowConsumer second = new ResourceTrackingRowConsumer(new AllocatingConsumer(), secondUsage);
+
+        first.accept(rows(), null);
+        second.accept(rows(), null);
+
+        assertThat(first.completionFuture().isDone(), is(true));
+        assertThat(second.completionFuture().isDone(), is(true));
+        assertThat(firstUsage.allocatedBytes(), greaterThanOrEqualTo((long) ALLOCATION_SIZE * NUM_ROWS));
+        assertThat(secondUsage.allocatedBytes(), greaterThanOrEqualTo((long) ALLOCATION_SIZE * NUM_ROWS));
+    }
+
+    private static BatchIterator<Row> rows() {
+        Row1[] rows = new Row1[NUM_ROWS];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows[i] = new Row1(i);
+        }
+        return InMemoryBatchIterator.of(List.of(rows), SENTINEL, false);
+    }
+
+    /**
+     * Allocates {@link #ALLOCATION_SIZE} bytes per row
+     */
+    private static class AllocatingConsumer implements RowConsumer {
+
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        @Override
+        public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            while (iterator.moveNext()) {
+                blackhole = new byte[ALLOCATION_SIZE];
+            }
+            iterator.close();
+            result.complete(null);
+        }
+
+        @Override
+        public CompletableFuture<?> completionFuture() {
+            return result;
+        }
+    }
+
+    /**
+     * Runs the inner consumer to completion for each row
+     */
+    private static class NestingConsumer implements RowConsumer {
+
+        private final RowConsumer inner;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        NestingConsumer(RowConsumer inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            while (iterator.moveNext()) {
+                inner.accept(rows(), null);
+            }
+            iterator.close();
+            result.complete(null);
+        }
+
+        @Override
+        public CompletableFuture<?> completionFuture() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.indexing;
+
+import io.crate.execution.dml.ShardRequest;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class ShardedRequestsTest extends CrateUnitTest {
+
+    private static class DummyShardRequest extends ShardRequest<DummyShardRequest, DummyRequestItem> {
+
+        DummyShardRequest(ShardId shardId) {
+            super(shardId, UUID.randomUUID());
+        }
+
+        @Override
+        protected DummyRequestItem readItem(StreamInput input) {
+            return null;
+        }
+    }
+
+    private static class DummyRequestItem extends ShardRequest.Item {
+        DummyRequestItem(String id) {
+            super(id);
+        }
+    }
+
+    @Test
+    public void test_items_are_counted_by_node_of_their_shard() {
+        ShardedRequests<DummyShardRequest, DummyRequestItem> requests = new ShardedRequests<>(DummyShardRequest::new);
+        ShardLocation n1Shard0 = new ShardLocation(new ShardId("t", "_na_", 0), "n1");
+        ShardLocation n1Shard1 = new ShardLocation(new ShardId("t", "_na_", 1), "n1");
+        ShardLocation n2Shard2 = new ShardLocation(new ShardId("t", "_na_", 2), "n2");
+        ShardLocation unassigned = new ShardLocation(new ShardId("t", "_na_", 3), null);
+
+        requests.add(new DummyRequestItem("1"), 10, n1Shard0, RowSourceInfo.EMPTY_INSTANCE);
+        requests.add(new DummyRequestItem("2"), 10, n1Shard1, RowSourceInfo.EMPTY_INSTANCE);
+        requests.add(new DummyRequestItem("3"), 10, n2Shard2, RowSourceInfo.EMPTY_INSTANCE);
+        requests.add(new DummyRequestItem("4"), 10, unassigned, RowSourceInfo.EMPTY_INSTANCE);
+        requests.add(new DummyRequestItem("5"), 10, n1Shard0, RowSourceInfo.EMPTY_INSTANCE);
+
+        assertThat(requests.numItems("n1"), is(3));
+        assertThat(requests.numItems("n2"), is(1));
+        assertThat(requests.numItems(null), is(1));
+        assertThat(requests.numItems("n3"), is(0));
+        assertThat(new ArrayList<>(requests.nodeIds()), containsInAnyOrder("n1", "n2", null));
+        assertThat(requests.lastAddedTo, is(n1Shard0));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import io.crate.breaker.RowAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.join.CombinedRow;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchIterators;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static org.mockito.Mockito.mock;
+
+public class HashSemiJoinBatchIteratorTest {
+
+    private static final List<Object> LEFT_VALUES = Arrays.asList(0, 0, 1, 2, 2, 3, 4, 4);
+    private static final List<Object> RIGHT_VALUES = Arrays.asList(1, 1, 2, 3, 4, 4, 5, 5, 6);
+
+    // every matching left row is emitted once, even if there are multiple matching rows on the right side
+    private static final List<Object[]> EXPECTED_RESULT = Arrays.asList(
+        new Object[] { 1, 1 },
+        new Object[] { 2, 2 }, new Object[] { 2, 2 },
+        new Object[] { 3, 3 },
+        new Object[] { 4, 4 }, new Object[] { 4, 4 }
+    );
+
+    private static Supplier<BatchIterator<Row>> semiJoin(Supplier<BatchIterator<Row>> left,
+                                                         Supplier<BatchIterator<Row>> right,
+                                                         int blockSize) {
+        return () -> new HashSemiJoinBatchIterator(
+            new RamAccountingBatchIterator<>(left.get(), mock(RowAccounting.class)),
+            right.get(),
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            row -> Objects.hash(row.get(0)),
+            row -> Objects.hash(row.get(0)),
+            () -> blockSize
+        );
+    }
+
+    @Test
+    public void testSemiHashJoinEmitsMatchingLeftRowsOnce() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(semiJoin(
+            () -> TestingBatchIterators.ofValues(LEFT_VALUES),
+            () -> TestingBatchIterators.ofValues(RIGHT_VALUES),
+            5
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(EXPECTED_RESULT);
+    }
+
+    @Test
+    public void testSemiHashJoinWithBatchedSourcesAndBlockSizeSmallerThanDataSet() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(semiJoin(
+            () -> new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(LEFT_VALUES), 2, 4, null),
+            () -> new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(RIGHT_VALUES), 2, 4, null),
+            1
+        ));
+        tester.verifyResultAndEdgeCaseBehaviour(EXPECTED_RESULT);
+    }
+}
@@ -23,6 +23,8 @@
 package io.crate.execution.engine.pipeline;
 
 import io.crate.breaker.RamAccountingContext;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row1;
 import io.crate.execution.TransportActionProvider;
 import io.crate.execution.dsl.projection.FilterProjection;
 import io.crate.execution.dsl.projection.GroupProjection;
@@ -37,7 +39,9 @@ import io.crate.memory.OnHeapMemoryManager;
 import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.Functions;
 import io.crate.metadata.RowGranularity;
+import io.crate.profile.ProfilingContext;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.TestingRowConsumer;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
@@ -51,8 +55,11 @@ import org.mockito.Answers;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import static io.crate.data.SentinelRow.SENTINEL;
 import static io.crate.testing.TestingHelpers.getFunctions;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -111,4 +118,32 @@ public class ProjectorsTest extends CrateDummyClusterServiceUnitTest {
         assertThat(projectors.projectors.get(0), instanceOf(GroupingProjector.class));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStatsOfProjectorsAreRecordedIfProfilingIsEnabled() throws Exception {
+        FilterProjection filterProjection = new FilterProjection(new InputColumn(0), Collections.emptyList());
+        ProfilingContext profilingContext = new ProfilingContext(List::of);
+
+        Projectors projectors = new Projectors(
+            List.of(filterProjection),
+            UUID.randomUUID(),
+            CoordinatorTxnCtx.systemTransactionContext(),
+            RAM_ACCOUNTING_CONTEXT,
+            memoryManager,
+            projectorFactory,
+            profilingContext.operatorProfiler(1, "mergeOnHandler")
+        );
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(projectors.wrap(InMemoryBatchIterator.of(
+            List.of(new Row1(true), new Row1(false), new Row1(true)), SENTINEL, true)), null);
+        assertThat(consumer.getResult().size(), is(2));
+
+        Map<String, Object> operators = (Map<String, Object>) profilingContext.getDurationInMSByTimer().get("Operators");
+        Map<String, Object> phaseOperators = (Map<String, Object>) operators.get("1-mergeOnHandler");
+        Map<String, Object> filterStats = (Map<String, Object>) phaseOperators.get("0-FilterProjector");
+        assertThat(filterStats.get("InputRows"), is(3L));
+        assertThat(filterStats.get("Rows"), is(2L));
+        assertThat(filterStats.get("Batches"), is(0L));
+    }
+
 }
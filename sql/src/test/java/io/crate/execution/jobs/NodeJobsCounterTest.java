@@ -23,9 +23,16 @@
 package io.crate.execution.jobs;
 
 import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.junit.Before;
 import org.junit.Test;
 
+import static io.crate.testing.DiscoveryNodes.newNode;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.Is.is;
 
 public class NodeJobsCounterTest extends CrateUnitTest {
@@ -74,4 +81,44 @@ public class NodeJobsCounterTest extends CrateUnitTest {
             fail("Did not expect unregistering a job for a null node to fail but got: " + e.getMessage());
         }
     }
+
+    @Test
+    public void test_limit_is_reached_once_in_progress_jobs_reach_adaptive_limit() {
+        for (int i = 0; i < NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS; i++) {
+            assertThat(nodeJobsCounter.isLimitReached("node1"), is(false));
+            nodeJobsCounter.increment("node1");
+        }
+        assertThat(nodeJobsCounter.isLimitReached("node1"), is(true));
+
+        nodeJobsCounter.decrement("node1");
+        nodeJobsCounter.getLimit("node1").onRejection();
+        assertThat(nodeJobsCounter.isLimitReached("node1"), is(true));
+        assertThat(nodeJobsCounter.limits().size(), is(1));
+    }
+
+    @Test
+    public void test_limit_of_unknown_node_is_shared() {
+        NodeLimit limit = nodeJobsCounter.getLimit(null);
+        limit.onRejection();
+        assertThat(nodeJobsCounter.getLimit(null), sameInstance(limit));
+        assertThat(nodeJobsCounter.getLimit(null).isCongested(), is(true));
+    }
+
+    @Test
+    public void test_limits_of_nodes_which_left_the_cluster_are_removed() {
+        DiscoveryNode node1 = newNode("node1", "n1");
+        DiscoveryNode node2 = newNode("node2", "n2");
+        ClusterState withBothNodes = ClusterState.builder(ClusterName.DEFAULT)
+            .nodes(DiscoveryNodes.builder().add(node1).add(node2).localNodeId("n1"))
+            .build();
+        ClusterState withNode1 = ClusterState.builder(withBothNodes)
+            .nodes(DiscoveryNodes.builder().add(node1).localNodeId("n1"))
+            .build();
+        nodeJobsCounter.getLimit("n1");
+        nodeJobsCounter.getLimit("n2");
+
+        nodeJobsCounter.clusterChanged(new ClusterChangedEvent("test", withNode1, withBothNodes));
+        assertThat(nodeJobsCounter.limits().size(), is(1));
+        assertThat(nodeJobsCounter.limits().iterator().next().nodeId(), is("n1"));
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class NodeLimitTest extends CrateUnitTest {
+
+    @Test
+    public void test_fast_responses_increase_concurrency_limit_additively() {
+        NodeLimit limit = new NodeLimit("n1", 5);
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(100, 100);
+        }
+        assertThat(limit.concurrencyLimit(), is(5));
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(100, 100);
+        }
+        assertThat(limit.concurrencyLimit(), is(7));
+        assertThat(limit.isCongested(), is(false));
+    }
+
+    @Test
+    public void test_rejection_halves_concurrency_limit_and_bulk_size() {
+        NodeLimit limit = new NodeLimit("n1", 8);
+        limit.onRejection();
+        assertThat(limit.concurrencyLimit(), is(4));
+        assertThat(limit.bulkSize(1000), is(500));
+        assertThat(limit.isCongested(), is(true));
+        assertThat(limit.numRejections(), is(1L));
+
+        for (int i = 0; i < 10; i++) {
+            limit.onRejection();
+        }
+        assertThat(limit.concurrencyLimit(), is(NodeLimit.MIN_CONCURRENCY));
+        assertThat(limit.bulkSize(1000), is((int) (1000 * NodeLimit.MIN_BULK_SIZE_FACTOR)));
+    }
+
+    @Test
+    public void test_slow_response_decreases_concurrency_limit() {
+        NodeLimit limit = new NodeLimit("n1", 10);
+        limit.onSample(100, 100);
+        limit.onSample(1000, 100);
+        assertThat(limit.concurrencyLimit(), is(9));
+        assertThat(limit.numLimitDecreases(), is(1L));
+    }
+
+    @Test
+    public void test_bulk_size_recovers_after_rejection_with_fast_responses() {
+        NodeLimit limit = new NodeLimit("n1", 5);
+        limit.onRejection();
+        for (int i = 0; i < 8; i++) {
+            limit.onSample(100, 100);
+        }
+        assertThat(limit.bulkSize(1000), is(1000));
+    }
+
+    @Test
+    public void test_bulk_size_grows_beyond_configured_bulk_size_with_fast_responses() {
+        NodeLimit limit = new NodeLimit("n1", 5);
+        for (int i = 0; i < 16; i++) {
+            limit.onSample(100, 100);
+        }
+        assertThat(limit.bulkSize(1000), is(2000));
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(100, 100);
+        }
+        assertThat(limit.bulkSize(1000), is((int) (1000 * NodeLimit.MAX_BULK_SIZE_FACTOR)));
+    }
+
+    @Test
+    public void test_small_request_does_not_make_requests_of_regular_size_look_slow() {
+        NodeLimit limit = new NodeLimit("n1", 10);
+        limit.onSample(1_000, 1);
+        for (int i = 0; i < 20; i++) {
+            // slower in total, but faster per item than the small request
+            limit.onSample(50_000, 100);
+            limit.onSample(2_000, 2);
+        }
+        assertThat(limit.numLimitDecreases(), is(0L));
+        assertThat(limit.concurrencyLimit(), greaterThan(10));
+
+        limit.onSample(500_000, 100);
+        assertThat(limit.numLimitDecreases(), is(1L));
+    }
+}
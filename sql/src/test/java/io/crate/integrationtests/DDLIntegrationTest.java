@@ -117,6 +117,35 @@ public class DDLIntegrationTest extends SQLTransportIntegrationTest {
         JSONAssert.assertEquals(expectedResetSettings, getIndexSettings("test"), false);
     }
 
+    @Test
+    public void testCreateTableWithIndexSort() throws Exception {
+        execute("create table test (id int, ts timestamp with time zone) " +
+                "clustered into 1 shards " +
+                "with (\"sort.field\" = 'ts', \"sort.order\" = 'desc', number_of_replicas = 0)");
+        String expectedSettings = "{\"test\":{" +
+                                  "\"settings\":{" +
+                                  "\"index.sort.field\":\"ts\"," +
+                                  "\"index.sort.order\":\"desc\"" +
+                                  "}}}";
+        JSONAssert.assertEquals(expectedSettings, getIndexSettings("test"), false);
+
+        execute("insert into test (id, ts) values (1, 10), (2, 30), (3, null), (4, 20)");
+        refresh();
+        execute("select id from test order by ts desc limit 3");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("3\n2\n4\n"));
+
+        expectedException.expect(SQLActionException.class);
+        expectedException.expectMessage("setting [index.sort.field], not updateable");
+        execute("alter table test close");
+        execute("alter table test set (\"sort.field\" = 'id')");
+    }
+
+    @Test
+    public void testCreateTableWithIndexSortOnUnknownColumn() throws Exception {
+        expectedException.expect(SQLActionException.class);
+        expectedException.expectMessage("unknown index sort field [x]");
+        execute("create table test (id int) with (\"sort.field\" = 'x')");
+    }
 
     @Test
     public void testCreateTableAlreadyExistsException() throws Exception {
@@ -602,6 +602,13 @@ public class GroupByAggregateTest extends SQLTransportIntegrationTest {
         assertEquals(2L, response.rows()[0][0]);
     }
 
+    @Test
+    public void test_global_count_distinct_in_expression_and_having() throws Exception {
+        execute("select count(distinct department) + 1 from employees having count(distinct department) > 1");
+        assertEquals(1, response.rowCount());
+        assertEquals(5L, response.rows()[0][0]);
+    }
+
     @Test
     public void testGlobalCountDistinctColumnReuse() throws Exception {
 
@@ -0,0 +1,212 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.integrationtests;
+
+import io.crate.action.sql.SQLActionException;
+import io.crate.execution.ddl.views.PutMaterializedViewRequest;
+import io.crate.execution.ddl.views.TransportPutMaterializedViewAction;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.view.MaterializedViewMetaData;
+import io.crate.metadata.view.MaterializedViewsMetaData;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.junit.Test;
+
+import static io.crate.testing.TestingHelpers.printedTable;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MaterializedViewIntegrationTest extends SQLTransportIntegrationTest {
+
+    private RelationName relationName(String name) {
+        return new RelationName(sqlExecutor.getCurrentSchema(), name);
+    }
+
+    private MaterializedViewMetaData view(String name) {
+        MaterializedViewsMetaData views = internalCluster().getInstance(ClusterService.class)
+            .state().metaData().custom(MaterializedViewsMetaData.TYPE);
+        return views.getView(relationName(name));
+    }
+
+    private String stagingTableUUID(String name) {
+        return internalCluster().getInstance(ClusterService.class)
+            .state().metaData().index(relationName(name).indexNameOrAlias()).getIndexUUID();
+    }
+
+    private void putView(String name, MaterializedViewMetaData newView) throws Exception {
+        internalCluster().getInstance(TransportPutMaterializedViewAction.class)
+            .execute(new PutMaterializedViewRequest(relationName(name), newView, view(name)))
+            .get();
+    }
+
+    @Test
+    public void test_failed_full_refresh_keeps_previous_rows() {
+        execute("create table t1 (x int)");
+        execute("insert into t1 (x) values (1), (2)");
+        execute("refresh table t1");
+        execute("create materialized view v1 as select x, 10 / x as q from t1");
+        execute("refresh materialized view v1");
+        assertThat(printedTable(execute("select x, q from v1 order by x").rows()), is("1| 10\n2| 5\n"));
+
+        execute("insert into t1 (x) values (0)");
+        execute("refresh table t1");
+        try {
+            execute("refresh materialized view v1");
+            fail("refresh must fail with a division by zero");
+        } catch (SQLActionException ignored) {
+            // expected
+        }
+        assertThat(printedTable(execute("select x, q from v1 order by x").rows()), is("1| 10\n2| 5\n"));
+        execute("select count(*) from information_schema.tables where table_name = 'v1_staging'");
+        assertThat(response.rows()[0][0], is(0L));
+        assertThat(view("v1").refreshingNode(), nullValue());
+    }
+
+    @Test
+    public void test_incremental_refresh_includes_late_rows_within_watermark_delay() {
+        execute("create table t1 (ts bigint, v int)");
+        execute("insert into t1 (ts, v) values (80, 1), (100, 2)");
+        execute("refresh table t1");
+        execute("create materialized view v1 with (watermark_column = 'ts', watermark_delay = 10) as " +
+                "select ts, v from t1");
+        execute("refresh materialized view v1");
+        execute("refresh table v1");
+        assertThat(printedTable(execute("select ts, v from v1 order by ts").rows()), is("80| 1\n"));
+        assertThat(view("v1").watermark(), is(90L));
+
+        // 95 arrives late, after 100 has been seen, but within the delay
+        execute("insert into t1 (ts, v) values (95, 3), (120, 4)");
+        execute("refresh table t1");
+        execute("refresh materialized view v1");
+        execute("refresh table v1");
+        assertThat(
+            printedTable(execute("select ts, v from v1 order by ts").rows()),
+            is("80| 1\n95| 3\n100| 2\n"));
+        assertThat(view("v1").watermark(), is(110L));
+    }
+
+    @Test
+    public void test_refresh_after_failed_incremental_refresh_does_not_count_rows_twice() throws Exception {
+        execute("create table t1 (g int not null, v int, ts bigint)");
+        execute("insert into t1 (g, v, ts) values (1, 10, 1), (1, 20, 2), (2, 5, 3)");
+        execute("refresh table t1");
+        execute("create materialized view v1 with (watermark_column = 'ts') as " +
+                "select g, count(*) as cnt, sum(v) as s from t1 group by g");
+        execute("refresh materialized view v1");
+        execute("refresh table v1");
+
+        execute("insert into t1 (g, v, ts) values (1, 1, 4), (2, 2, 5)");
+        execute("refresh table t1");
+        // Simulate a refresh which inserted its rows but failed before it stored the new watermark
+        MaterializedViewMetaData started = view("v1").withRefreshStarted("unknown-node", 5L);
+        putView("v1", started);
+        execute("insert into v1 (g, cnt, s) select g, count(*), sum(v) from t1 where ts > 3 group by g " +
+                "on conflict (g) do update set cnt = cnt + excluded.cnt, s = s + excluded.s");
+        putView("v1", started.withRefreshFailed());
+
+        execute("refresh materialized view v1");
+        execute("refresh materialized view v1");
+        execute("refresh table v1");
+        assertThat(
+            printedTable(execute("select g, cnt, s from v1 order by g").rows()),
+            is("1| 3| 31\n2| 2| 7\n"));
+        MaterializedViewMetaData view = view("v1");
+        assertThat(view.watermark(), is(5L));
+        assertThat(view.pendingWatermark(), nullValue());
+        assertThat(view.refreshingNode(), nullValue());
+    }
+
+    @Test
+    public void test_refresh_of_view_left_by_node_which_left_the_cluster_rebuilds_the_view() throws Exception {
+        execute("create table t1 (ts bigint, v int)");
+        execute("insert into t1 (ts, v) values (1, 1), (2, 2)");
+        execute("refresh table t1");
+        execute("create materialized view v1 with (watermark_column = 'ts') as select ts, v from t1");
+        execute("refresh materialized view v1");
+        execute("refresh table v1");
+
+        // A refresh whose node left the cluster appended some rows and left a staging table behind
+        putView("v1", view("v1").withRefreshStarted("unknown-node", 2L));
+        execute("insert into v1 (ts, v) values (2, 2)");
+        execute("create table v1_staging (ts bigint, v int)");
+        putView("v1", view("v1").withStagingTable(stagingTableUUID("v1_staging")));
+
+        execute("refresh materialized view v1");
+        assertThat(printedTable(execute("select ts, v from v1 order by ts").rows()), is("1| 1\n2| 2\n"));
+        assertThat(view("v1").refreshingNode(), nullValue());
+        assertThat(view("v1").stagingTableUUID(), nullValue());
+    }
+
+    @Test
+    public void test_refresh_does_not_drop_table_created_with_name_of_staging_table() {
+        execute("create table t1 (x int)");
+        execute("insert into t1 (x) values (1)");
+        execute("refresh table t1");
+        execute("create materialized view v1 as select x from t1");
+        execute("refresh materialized view v1");
+
+        execute("create table v1_staging (y int)");
+        execute("insert into v1_staging (y) values (42)");
+        execute("refresh table v1_staging");
+        try {
+            execute("refresh materialized view v1");
+            fail("refresh must fail if another table uses the name of the staging table");
+        } catch (SQLActionException e) {
+            assertThat(e.getMessage(), containsString("is used to refresh materialized view"));
+        }
+        assertThat(printedTable(execute("select y from v1_staging").rows()), is("42\n"));
+        assertThat(printedTable(execute("select x from v1").rows()), is("1\n"));
+        assertThat(view("v1").refreshingNode(), nullValue());
+    }
+
+    @Test
+    public void test_full_refresh_of_view_grouped_by_nullable_column_keeps_null_group() {
+        execute("create table t1 (g int, v int)");
+        execute("insert into t1 (g, v) values (1, 10), (null, 5), (null, 6)");
+        execute("refresh table t1");
+        execute("create materialized view v1 as select g, sum(v) as s from t1 group by g");
+        execute("refresh materialized view v1");
+        execute("refresh materialized view v1");
+        assertThat(printedTable(execute("select g, s from v1 order by g nulls first").rows()), is("NULL| 11\n1| 10\n"));
+
+        try {
+            execute("create materialized view v2 with (watermark_column = 'v') as " +
+                    "select g, count(*) as cnt from t1 group by g");
+            fail("an incremental view must not be grouped by a nullable column");
+        } catch (SQLActionException e) {
+            assertThat(e.getMessage(), containsString("must be a column with a NOT NULL constraint"));
+        }
+    }
+
+    @Test
+    public void test_concurrent_refresh_of_same_view_fails() throws Exception {
+        execute("create table t1 (x int)");
+        execute("create materialized view v1 as select x from t1");
+        String localNode = internalCluster().getInstance(ClusterService.class).localNode().getEphemeralId();
+        putView("v1", view("v1").withRefreshStarted(localNode, null));
+
+        expectedException.expect(SQLActionException.class);
+        expectedException.expectMessage("is already being refreshed");
+        execute("refresh materialized view v1");
+    }
+}
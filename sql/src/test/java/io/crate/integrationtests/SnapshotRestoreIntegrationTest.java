@@ -349,6 +349,24 @@ public class SnapshotRestoreIntegrationTest extends SQLTransportIntegrationTest
         assertThat(response.rowCount(), is(3L));
     }
 
+    @Test
+    public void testSnapshotAndRestoreWithConcurrentMultiPartFileTransfers() throws Exception {
+        execute("CREATE REPOSITORY chunked_repo TYPE \"fs\" with (location=?, chunk_size='1kb', " +
+                "max_concurrent_file_transfers=4)",
+            new Object[]{TEMPORARY_FOLDER.newFolder().getAbsolutePath()});
+        createTable("my_table", false);
+        execute("CREATE SNAPSHOT chunked_repo.my_snapshot TABLE my_table WITH (wait_for_completion=true)");
+        execute("drop table my_table");
+
+        execute("RESTORE SNAPSHOT chunked_repo.my_snapshot ALL with (wait_for_completion=true)");
+        ensureGreen();
+        execute("select id, ft from my_table order by id");
+        assertThat(TestingHelpers.printedTable(response.rows()),
+            is("1| The quick brown fox jumps over the lazy dog.\n" +
+               "2| Morgenstund hat Gold im Mund.\n" +
+               "3| Reden ist Schweigen. Silber ist Gold.\n"));
+    }
+
     @Test
     public void testRestoreSnapshotSinglePartition() throws Exception {
         createTableAndSnapshot("my_parted_table", SNAPSHOT_NAME, true);
@@ -419,6 +437,37 @@ public class SnapshotRestoreIntegrationTest extends SQLTransportIntegrationTest
         assertThat(TestingHelpers.printedTable(response.rows()), is(getFqn("my_table") + "\n"));
     }
 
+    @Test
+    public void test_mount_snapshot_reads_table_without_restoring_it() throws Exception {
+        createTableAndSnapshot("my_table", SNAPSHOT_NAME);
+        execute("drop table my_table");
+
+        execute("RESTORE SNAPSHOT " + snapshotName() + " TABLE my_table with (" +
+                "mount=true, " +
+                "wait_for_completion=true)");
+        ensureYellow();
+        execute("select id, name from my_table where match(ft, 'gold') order by id");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("2| bar\n3| baz\n"));
+
+        expectedException.expectMessage("cannot delete snapshot because it is mounted by index [" + getFqn("my_table") + "]");
+        execute("drop snapshot " + snapshotName());
+    }
+
+    @Test
+    public void test_mounted_table_has_no_replicas() throws Exception {
+        createTableAndSnapshot("my_table", SNAPSHOT_NAME);
+        execute("drop table my_table");
+
+        execute("RESTORE SNAPSHOT " + snapshotName() + " TABLE my_table with (" +
+                "mount=true, " +
+                "wait_for_completion=true)");
+        execute("select number_of_replicas from information_schema.tables where table_name = 'my_table'");
+        assertThat(response.rows()[0][0], is("0"));
+
+        expectedException.expectMessage("is mounted from a snapshot and cannot have replicas");
+        execute("alter table my_table set (number_of_replicas = 1)");
+    }
+
     @Test
     public void testRestoreOnlyOneTable() throws Exception {
         createTable("my_table_1", false);
@@ -164,8 +164,9 @@ public class SysShardsTest extends SQLTransportIntegrationTest {
     public void testSelectStarAllTables() throws Exception {
         SQLResponse response = execute("select * from sys.shards");
         assertEquals(26L, response.rowCount());
-        assertEquals(18, response.cols().length);
+        assertEquals(19, response.cols().length);
         assertThat(response.cols(), arrayContaining(
+            "aggregation_cache",
             "blob_path",
             "id",
             "min_lucene_version",
@@ -219,6 +220,31 @@ public class SysShardsTest extends SQLTransportIntegrationTest {
         assertThat(((Number) translogStats.get("uncommitted_operations")).longValue(), greaterThanOrEqualTo(0L));
     }
 
+    @Test
+    public void test_aggregation_result_is_served_from_cache_until_refresh() {
+        execute("create table tbl (x int) clustered into 1 shards with (number_of_replicas = 0)");
+        execute("insert into tbl (x) values (1), (2), (3)");
+        refresh();
+
+        execute("select sum(x) from tbl");
+        assertThat(response.rows()[0][0], is(6L));
+        execute("select sum(x) from tbl");
+        assertThat(response.rows()[0][0], is(6L));
+        execute("select aggregation_cache['hits'], aggregation_cache['misses'] from sys.shards " +
+                "where table_name = 'tbl'");
+        assertThat(response.rows()[0][0], is(1L));
+        assertThat(response.rows()[0][1], is(1L));
+
+        execute("insert into tbl (x) values (4)");
+        refresh();
+        execute("select sum(x) from tbl");
+        assertThat(response.rows()[0][0], is(10L));
+        execute("select aggregation_cache['hits'], aggregation_cache['misses'] from sys.shards " +
+                "where table_name = 'tbl'");
+        assertThat(response.rows()[0][0], is(1L));
+        assertThat(response.rows()[0][1], is(2L));
+    }
+
     @Test
     public void testSelectStarMatch() throws Exception {
         expectedException.expect(SQLActionException.class);
@@ -29,6 +29,7 @@ import org.elasticsearch.Version;
 import org.junit.Test;
 
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 
 
@@ -70,4 +71,27 @@ public class GenericFunctionQueryTest extends CrateDummyClusterServiceUnitTest {
             assertThat(tester.runQuery("x", "abs(x) = 1"), contains(1));
         }
     }
+
+    @Test
+    public void test_match_cost_of_pattern_match_is_higher_than_cost_of_simple_scalar() throws Exception {
+        QueryTester.Builder builder = new QueryTester.Builder(
+            createTempDir(),
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            "create table t (x int)"
+        );
+        builder.indexValues("x", 1, 2, 3);
+        try (QueryTester tester = builder.build()) {
+            var simple = (GenericFunctionQuery) tester.toQuery("abs(x) = 1");
+            var patternMatch = (GenericFunctionQuery) tester.toQuery("concat(x, 'a') like '%1%'");
+            assertThat(patternMatch.matchCost(), greaterThan(simple.matchCost()));
+
+            var searcher = tester.searcher();
+            var weight = patternMatch.createWeight(searcher, ScoreMode.COMPLETE_NO_SCORES, 1.0f);
+            var scorer = weight.scorer(searcher.getTopReaderContext().leaves().get(0));
+            assertThat(scorer.twoPhaseIterator().matchCost(), is(patternMatch.matchCost()));
+            assertThat(tester.runQuery("x", "concat(x, 'a') like '%1%'"), contains(1));
+        }
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.metadata.view;
+
+import io.crate.metadata.RelationName;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class MaterializedViewsMetaDataTest extends CrateUnitTest {
+
+    private static MaterializedViewsMetaData createMetaData() {
+        return new MaterializedViewsMetaData(Map.of(
+            "doc.full_view",
+            new MaterializedViewMetaData("SELECT x, y FROM t1 WHERE z = 'a'", "user_a", null, 0L, null),
+            "my_schema.incremental_view",
+            new MaterializedViewMetaData("SELECT a, count(*) AS cnt FROM t2 GROUP BY a", null, "ts", 60000L, 1589366400000L),
+            "my_schema.refreshing_view",
+            new MaterializedViewMetaData(
+                "SELECT a, b FROM t3", null, "ts", 0L, 10L, 20L, "node-ephemeral-id", "staging-index-uuid")
+        ));
+    }
+
+    @Test
+    public void test_materialized_views_metadata_streaming() throws IOException {
+        MaterializedViewsMetaData views = createMetaData();
+        BytesStreamOutput out = new BytesStreamOutput();
+        views.writeTo(out);
+
+        StreamInput in = out.bytes().streamInput();
+        assertThat(new MaterializedViewsMetaData(in), is(views));
+    }
+
+    @Test
+    public void test_materialized_views_metadata_to_xcontent() throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+
+        // reflects the logic used to process custom metadata in the cluster state
+        builder.startObject();
+        MaterializedViewsMetaData views = createMetaData();
+        views.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        builder.endObject();
+
+        XContentParser parser = JsonXContent.jsonXContent.createParser(
+            xContentRegistry(),
+            DeprecationHandler.THROW_UNSUPPORTED_OPERATION,
+            BytesReference.toBytes(BytesReference.bytes(builder)));
+        parser.nextToken(); // start object
+        assertThat(MaterializedViewsMetaData.fromXContent(parser), is(views));
+
+        // a metadata custom must consume the surrounded END_OBJECT token, no token must be left
+        assertThat(parser.nextToken(), nullValue());
+    }
+
+    @Test
+    public void test_rename_moves_view_definition() {
+        MaterializedViewsMetaData views = createMetaData();
+        RelationName source = new RelationName("doc", "full_view");
+        RelationName target = new RelationName("doc", "renamed_view");
+
+        MaterializedViewsMetaData renamed = views.rename(source, target);
+        assertThat(renamed.contains(source), is(false));
+        assertThat(renamed.getView(target), is(views.getView(source)));
+        assertThat(views.rename(new RelationName("doc", "unknown"), target), nullValue());
+    }
+
+    @Test
+    public void test_failed_refresh_keeps_pending_watermark_and_releases_view() {
+        MaterializedViewMetaData view = new MaterializedViewMetaData(
+            "SELECT a, b FROM t3", null, "ts", 0L, 10L);
+
+        MaterializedViewMetaData started = view.withRefreshStarted("node-1", 20L);
+        assertThat(started.watermark(), is(10L));
+        assertThat(started.pendingWatermark(), is(20L));
+        assertThat(started.refreshingNode(), is("node-1"));
+
+        MaterializedViewMetaData failed = started.withRefreshFailed();
+        assertThat(failed.watermark(), is(10L));
+        assertThat(failed.pendingWatermark(), is(20L));
+        assertThat(failed.refreshingNode(), nullValue());
+
+        MaterializedViewMetaData withStagingTable = failed.withStagingTable("uuid");
+        assertThat(withStagingTable.withRefreshStarted("node-2", 30L).withRefreshFailed().stagingTableUUID(), is("uuid"));
+
+        MaterializedViewMetaData completed = failed.withRefreshStarted("node-2", 30L).withRefreshCompleted(30L);
+        assertThat(completed.watermark(), is(30L));
+        assertThat(completed.pendingWatermark(), nullValue());
+        assertThat(completed.refreshingNode(), nullValue());
+    }
+
+    @Test
+    public void test_staging_table_is_in_schema_of_view() {
+        assertThat(
+            MaterializedViewsMetaData.stagingTable(new RelationName("my_schema", "metrics")),
+            is(new RelationName("my_schema", "metrics_staging")));
+    }
+}
@@ -135,10 +135,12 @@ public class PlanPrinterTest extends CrateDummyClusterServiceUnitTest {
                "left={Collect={type=executionPlan, " +
                    "collectPhase={COLLECT={type=executionPhase, id=0, executionNodes=[n1], " +
                        "distribution={distributedByColumn=0, type=BROADCAST}, toCollect=Ref{doc.t1.x, integer}, " +
+                       "projections=[{type=TopN, limit=10, offset=0, outputs=IC{0, integer}}], " +
                        "routing={n1={t1=[0, 1, 2, 3]}}, where=true, orderBy=Ref{doc.t1.x, integer} ASC}}}}, " +
                "right={Collect={type=executionPlan, " +
                    "collectPhase={COLLECT={type=executionPhase, id=1, executionNodes=[n1], " +
                    "distribution={distributedByColumn=0, type=BROADCAST}, toCollect=Ref{doc.t2.y, integer}, " +
+                   "projections=[{type=TopN, limit=10, offset=0, outputs=IC{0, integer}}], " +
                    "routing={n1={t2=[0, 1, 2, 3]}}, where=true, orderBy=Ref{doc.t2.y, integer} ASC}}}}, " +
                "mergePhase={MERGE={type=executionPhase, id=2, executionNodes=[n1], " +
                    "distribution={distributedByColumn=0, type=BROADCAST}, " +
@@ -47,17 +47,15 @@ import io.crate.execution.dsl.projection.WindowAggProjection;
 import io.crate.execution.engine.NodeOperationTreeGenerator;
 import io.crate.execution.engine.aggregation.impl.CountAggregation;
 import io.crate.expression.symbol.AggregateMode;
-import io.crate.expression.symbol.Aggregation;
-import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.InputColumn;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
-import io.crate.expression.symbol.SymbolType;
 import io.crate.metadata.PartitionName;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.Routing;
 import io.crate.metadata.RowGranularity;
+import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.CountPlan;
 import io.crate.planner.node.dql.QueryThenFetch;
@@ -91,6 +89,7 @@ import static io.crate.testing.SymbolMatchers.isReference;
 import static io.crate.testing.TestingHelpers.isSQL;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -223,6 +222,16 @@ public class SelectPlannerTest extends CrateDummyClusterServiceUnitTest {
         assertEquals(DataTypes.LONG, mergePhase.outputTypes().get(0));
     }
 
+    @Test
+    public void test_expression_matching_generated_column_is_collected_from_generated_column() throws Exception {
+        Merge merge = e.plan("select revenue - cost from gc_table order by 1");
+        Collect collect = (Collect) merge.subPlan();
+        RoutedCollectPhase collectPhase = ((RoutedCollectPhase) collect.collectPhase());
+
+        assertThat(collectPhase.toCollect(), contains(isReference("profit")));
+        assertThat(collectPhase.orderBy().orderBySymbols(), contains(isReference("profit")));
+    }
+
     @Test
     public void testShardSelectWithOrderBy() throws Exception {
         Merge merge = e.plan("select id from sys.shards order by id limit 10");
@@ -364,29 +373,24 @@ public class SelectPlannerTest extends CrateDummyClusterServiceUnitTest {
     @Test
     public void testCountDistinctPlan() throws Exception {
         Merge globalAggregate = e.plan("select count(distinct name) from users");
-        Collect collect = (Collect) globalAggregate.subPlan();
+        Merge distributedGroupBy = (Merge) globalAggregate.subPlan();
+        Collect collect = (Collect) distributedGroupBy.subPlan();
 
         RoutedCollectPhase collectPhase = ((RoutedCollectPhase) collect.collectPhase());
-        Projection projection = collectPhase.projections().get(0);
-        assertThat(projection, instanceOf(AggregationProjection.class));
-        AggregationProjection aggregationProjection = (AggregationProjection) projection;
-        assertThat(aggregationProjection.aggregations().size(), is(1));
-        assertThat(aggregationProjection.mode(), is(AggregateMode.ITER_PARTIAL));
-
-        Aggregation aggregation = aggregationProjection.aggregations().get(0);
-        Symbol aggregationInput = aggregation.inputs().get(0);
-        assertThat(aggregationInput.symbolType(), is(SymbolType.INPUT_COLUMN));
-
-        assertThat(collectPhase.toCollect().get(0), instanceOf(Reference.class));
         assertThat(((Reference) collectPhase.toCollect().get(0)).column().name(), is("name"));
-
-        MergePhase mergePhase = globalAggregate.mergePhase();
-        assertThat(mergePhase.projections().size(), is(2));
-        Projection projection1 = mergePhase.projections().get(1);
-
-        assertThat(projection1, instanceOf(EvalProjection.class));
-        Symbol collection_count = projection1.outputs().get(0);
-        assertThat(collection_count, instanceOf(Function.class));
+        assertThat(collectPhase.distributionInfo().distributionType(), is(DistributionType.MODULO));
+        GroupProjection partialGroup = (GroupProjection) collectPhase.projections().get(0);
+        assertThat(partialGroup.values(), empty());
+
+        List<Projection> nodeProjections = distributedGroupBy.mergePhase().projections();
+        assertThat(nodeProjections.get(0), instanceOf(GroupProjection.class));
+        AggregationProjection partialCount = (AggregationProjection) nodeProjections.get(1);
+        assertThat(partialCount.mode(), is(AggregateMode.ITER_PARTIAL));
+        assertThat(partialCount.aggregations().get(0).functionIdent().name(), is("count"));
+
+        AggregationProjection finalCount = (AggregationProjection) globalAggregate.mergePhase().projections().get(0);
+        assertThat(finalCount.mode(), is(AggregateMode.PARTIAL_FINAL));
+        assertThat(globalAggregate.mergePhase().outputTypes(), contains(DataTypes.LONG));
     }
 
     @Test
@@ -76,8 +76,37 @@ public class UnionPlannerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(unionExecutionPlan.mergePhase().projections(), contains(
             instanceOf(TopNProjection.class)
         ));
-        assertThat(unionExecutionPlan.left(), instanceOf(Collect.class));
-        assertThat(unionExecutionPlan.right(), instanceOf(Collect.class));
+        // The limit is applied on both sides of the union, a Merge is only added if the tables aren't on the handler
+        assertThat(collectOf(unionExecutionPlan.left()).collectPhase().projections(), contains(
+            instanceOf(TopNProjection.class)
+        ));
+        assertThat(collectOf(unionExecutionPlan.right()).collectPhase().projections(), contains(
+            instanceOf(TopNProjection.class)
+        ));
+    }
+
+    @Test
+    public void testUnionWithLimitAppliesLimitOnBothSides() {
+        ExecutionPlan plan = e.plan(
+            "select id from users " +
+            "union all " +
+            "select id from locations " +
+            "limit 2 offset 1");
+        assertThat(plan, instanceOf(UnionExecutionPlan.class));
+        UnionExecutionPlan unionExecutionPlan = (UnionExecutionPlan) plan;
+        TopNProjection leftTopN = (TopNProjection) collectOf(unionExecutionPlan.left()).collectPhase().projections().get(0);
+        assertThat(leftTopN.limit(), is(3));
+        assertThat(leftTopN.offset(), is(0));
+        TopNProjection rightTopN = (TopNProjection) collectOf(unionExecutionPlan.right()).collectPhase().projections().get(0);
+        assertThat(rightTopN.limit(), is(3));
+        assertThat(rightTopN.offset(), is(0));
+    }
+
+    private static Collect collectOf(ExecutionPlan plan) {
+        if (plan instanceof Merge) {
+            return (Collect) ((Merge) plan).subPlan();
+        }
+        return (Collect) plan;
     }
 
     @Test
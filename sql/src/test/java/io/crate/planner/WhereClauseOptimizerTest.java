@@ -34,7 +34,9 @@ import io.crate.testing.SQLExecutor;
 import org.junit.Before;
 import org.junit.Test;
 
+import static io.crate.testing.SymbolMatchers.isFunction;
 import static io.crate.testing.SymbolMatchers.isLiteral;
+import static io.crate.testing.SymbolMatchers.isReference;
 import static io.crate.testing.TestingHelpers.isDocKey;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.contains;
@@ -52,6 +54,10 @@ public class WhereClauseOptimizerTest extends CrateDummyClusterServiceUnitTest{
             .addTable("create table bystring (name string primary key, score double) " +
                       "clustered by (name) ")
             .addTable("create table clustered_by_only (x int) clustered by (x)")
+            .addTable("create table generated_day (" +
+                      "   ts timestamp with time zone," +
+                      "   day as date_trunc('day', ts)" +
+                      ")")
             .addPartitionedTable(
                 "create table parted (" +
                 "   id int," +
@@ -154,4 +160,11 @@ public class WhereClauseOptimizerTest extends CrateDummyClusterServiceUnitTest{
             "select * from bystring where name = 'foo' and _version = 2");
         assertThat(query.docKeys().toString(), is("Optional[DocKeys{foo, 2}]"));
     }
+
+    @Test
+    public void test_expression_matching_generated_column_is_replaced_with_generated_column() {
+        WhereClauseOptimizer.DetailedQuery query = optimize(
+            "select * from generated_day where date_trunc('day', ts) = '2020-01-01T00:00:00Z'");
+        assertThat(query.query(), isFunction("op_=", isReference("day"), isLiteral(1577836800000L)));
+    }
 }
@@ -26,11 +26,16 @@ import com.carrotsearch.hppc.ObjectIntHashMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.crate.sql.tree.QualifiedName;
+import io.crate.statistics.TableStats;
 import io.crate.testing.T3;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.contains;
@@ -71,6 +76,45 @@ public class JoinOrderingTest {
         assertThat(JoinOrdering.findAndRemoveFirstJoinPair(occurrences, sets), is(ImmutableSet.of(T3.T1, T3.T2)));
     }
 
+    /**
+     * Cross joins of relations where each relation has fewer rows than the previous one,
+     * the cheapest order joins the smallest relations first.
+     */
+    private static List<QualifiedName> orderCrossJoinByCost(int numRelations) {
+        LinkedHashMap<QualifiedName, Long> numRowsByRelation = new LinkedHashMap<>();
+        for (int i = 0; i < numRelations; i++) {
+            numRowsByRelation.put(new QualifiedName("t" + i), (long) (numRelations - i));
+        }
+        return JoinOrdering.orderByCost(numRowsByRelation, Map.of(), true, new TableStats());
+    }
+
+    private static List<QualifiedName> smallestRelationsFirst(int numRelations) {
+        // on equal costs the pair which comes first in the original order is kept
+        List<QualifiedName> expected = new ArrayList<>(numRelations);
+        expected.add(new QualifiedName("t" + (numRelations - 2)));
+        expected.add(new QualifiedName("t" + (numRelations - 1)));
+        for (int i = numRelations - 3; i >= 0; i--) {
+            expected.add(new QualifiedName("t" + i));
+        }
+        return expected;
+    }
+
+    @Test
+    public void testOrderByCostExhaustiveSearchJoinsSmallestRelationsFirst() {
+        assertThat(orderCrossJoinByCost(4), is(smallestRelationsFirst(4)));
+    }
+
+    @Test
+    public void testOrderByCostGreedySearchJoinsSmallestRelationsFirst() {
+        assertThat(orderCrossJoinByCost(11), is(smallestRelationsFirst(11)));
+    }
+
+    @Test
+    public void testOrderByCostGreedySearchWithMoreThan32Relations() {
+        assertThat(orderCrossJoinByCost(40), is(smallestRelationsFirst(40)));
+        assertThat(orderCrossJoinByCost(70), is(smallestRelationsFirst(70)));
+    }
+
     @Test
     public void testOptimizeJoinNoPresort() throws Exception {
         Collection<QualifiedName> qualifiedNames = JoinOrdering.orderByJoinConditions(
@@ -41,6 +41,8 @@ import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.QueryThenFetch;
 import io.crate.planner.node.dql.join.Join;
 import io.crate.planner.node.dql.join.JoinType;
+import io.crate.statistics.ColumnStats;
+import io.crate.statistics.MostCommonValues;
 import io.crate.statistics.Stats;
 import io.crate.statistics.TableStats;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
@@ -55,6 +57,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -526,4 +529,32 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
             "]\n";
         assertThat(logicalPlan, is(isPlan(e.functions(), expectedPlan)));
     }
+
+    @Test
+    public void test_join_order_and_estimates_are_based_on_table_stats() {
+        MultiSourceSelect mss = e.normalize("select * from t1, t2, t3 where t1.a = t2.b and t2.b = t3.c");
+        TableStats tableStats = new TableStats();
+        tableStats.updateTableStats(Map.of(
+            new RelationName(Schemas.DOC_SCHEMA_NAME, "t1"), new Stats(10_000, 0, Map.of(new ColumnIdent("a"), textStats(10))),
+            new RelationName(Schemas.DOC_SCHEMA_NAME, "t2"), new Stats(10_000, 0, Map.of(new ColumnIdent("b"), textStats(10))),
+            new RelationName(Schemas.DOC_SCHEMA_NAME, "t3"), new Stats(10, 0, Map.of(new ColumnIdent("c"), textStats(10)))
+        ));
+
+        // t1 and t2 have few distinct join values, joining them first would result in a huge intermediate result
+        LogicalPlan operator = createLogicalPlan(mss, tableStats);
+        assertThat(operator, instanceOf(HashJoin.class));
+        HashJoin join = (HashJoin) operator;
+        assertThat(join.rhs.baseTables().get(0).tableInfo().ident().name(), is("t1"));
+        assertThat(join.lhs.numExpectedRows(), is(10_000L));
+        assertThat(join.numExpectedRows(), is(10_000_000L));
+
+        Join executionPlan = buildJoin(operator);
+        assertThat(executionPlan.numExpectedRows(), is(10_000_000L));
+        assertThat(executionPlan.estimatedCost(), is(10_040_010.0));
+    }
+
+    private static ColumnStats<String> textStats(double approxDistinct) {
+        return new ColumnStats<>(
+            0.0, 8.0, approxDistinct, DataTypes.STRING, new MostCommonValues(new Object[0], new double[0]), List.of());
+    }
 }
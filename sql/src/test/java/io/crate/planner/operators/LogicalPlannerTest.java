@@ -24,18 +24,24 @@ package io.crate.planner.operators;
 
 import io.crate.analyze.OrderBy;
 import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.expression.symbol.AggregateMode;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.SelectSymbol;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.format.SymbolPrinter;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Functions;
 import io.crate.metadata.RelationName;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.SubqueryPlanner;
 import io.crate.planner.consumer.FetchMode;
+import io.crate.statistics.ColumnStats;
+import io.crate.statistics.MostCommonValues;
+import io.crate.statistics.Stats;
 import io.crate.statistics.TableStats;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
+import io.crate.types.DataTypes;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.hamcrest.FeatureMatcher;
 import org.hamcrest.Matcher;
@@ -43,14 +49,17 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.stream.Collectors;
 
 import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 
 public class LogicalPlannerTest extends CrateDummyClusterServiceUnitTest {
 
@@ -86,6 +95,23 @@ public class LogicalPlannerTest extends CrateDummyClusterServiceUnitTest {
                                 "Collect[.unnest | [col1] | true]\n"));
     }
 
+    @Test
+    public void test_global_count_distinct_is_planned_as_count_of_grouped_values() {
+        LogicalPlan plan = plan("select count(distinct x) from t1");
+        assertThat(plan, isPlan("CountDistinct[collection_count(collect_set(x))]\n" +
+                                "Aggregate[count(x)]\n" +
+                                "GroupBy[x | ]\n" +
+                                "Collect[doc.t1 | [x] | true]\n"));
+    }
+
+    @Test
+    public void test_count_distinct_is_not_rewritten_if_collect_set_is_used_directly() {
+        LogicalPlan plan = plan("select count(distinct x), collect_set(x) from t1");
+        assertThat(plan, isPlan("FetchOrEval[collection_count(collect_set(x)), collect_set(x)]\n" +
+                                "Aggregate[collect_set(x)]\n" +
+                                "Collect[doc.t1 | [x] | true]\n"));
+    }
+
     @Test
     public void testQTFWithOrderBy() throws Exception {
         LogicalPlan plan = plan("select a, x from t1 order by a");
@@ -337,6 +363,66 @@ public class LogicalPlannerTest extends CrateDummyClusterServiceUnitTest {
                                 "Get[doc.users | name | DocKeys{1}"));
     }
 
+    @Test
+    public void test_partial_aggregate_is_moved_beneath_join_if_it_reduces_the_number_of_rows() {
+        tableStats.updateTableStats(Map.of(
+            new RelationName("doc", "t1"), new Stats(10_000, 0, Map.of(new ColumnIdent("i"), intStats(10))),
+            new RelationName("doc", "t2"), new Stats(100, 0, Map.of(new ColumnIdent("i"), intStats(100)))
+        ));
+        LogicalPlan plan = plan("select t2.b, sum(t1.x) from t1 join t2 on t1.i = t2.i group by t2.b");
+        String printedPlan = printPlan(plan);
+        assertThat(printedPlan, containsString("GroupBy[b | sum(x) | PARTIAL_FINAL]\n"));
+        assertThat(printedPlan, containsString("GroupBy[i | sum(x) | ITER_PARTIAL]\n"));
+    }
+
+    @Test
+    public void test_partial_aggregate_is_not_moved_beneath_join_without_statistics() {
+        LogicalPlan plan = plan("select t2.b, sum(t1.x) from t1 join t2 on t1.i = t2.i group by t2.b");
+        String printedPlan = printPlan(plan);
+        assertThat(printedPlan, containsString("GroupBy[b | sum(x)]\n"));
+        assertThat(printedPlan, not(containsString("ITER_PARTIAL")));
+    }
+
+    @Test
+    public void test_in_subquery_with_many_estimated_rows_is_planned_as_semi_join() {
+        tableStats.updateTableStats(Map.of(
+            new RelationName("doc", "t2"), new Stats(200_000, 0, Map.of(new ColumnIdent("i"), intStats(200_000)))
+        ));
+        LogicalPlan plan = plan("select a, count(*) from t1 where x in (select i from t2) and a = 'foo' group by a");
+        assertThat(plan.dependencies().isEmpty(), is(true));
+        String printedPlan = printPlan(plan);
+        assertThat(printedPlan, containsString("HashJoin[\n"));
+        assertThat(printedPlan, containsString("--- SEMI ---\n"));
+        assertThat(printedPlan, containsString("Collect[doc.t2 | [i] | true]\n"));
+        assertThat(printedPlan, not(containsString("SelectSymbol")));
+        assertThat(printedPlan, not(containsString("_fetchid")));
+    }
+
+    @Test
+    public void test_in_subquery_is_not_planned_as_semi_join_beneath_a_fetch() {
+        tableStats.updateTableStats(Map.of(
+            new RelationName("doc", "t2"), new Stats(200_000, 0, Map.of(new ColumnIdent("i"), intStats(200_000)))
+        ));
+        LogicalPlan plan = plan("select * from t1 where x in (select i from t2)");
+        assertThat(plan.dependencies().size(), is(1));
+        String printedPlan = printPlan(plan);
+        assertThat(printedPlan, containsString("Collect[doc.t1 | [_fetchid] | "));
+        assertThat(printedPlan, containsString("SelectSymbol"));
+        assertThat(printedPlan, not(containsString("SEMI")));
+    }
+
+    @Test
+    public void test_in_subquery_without_statistics_is_bound_into_the_query() {
+        LogicalPlan plan = plan("select a from t1 where x in (select i from t2)");
+        assertThat(plan.dependencies().size(), is(1));
+        assertThat(printPlan(plan), not(containsString("SEMI")));
+    }
+
+    private static ColumnStats<Integer> intStats(double approxDistinct) {
+        return new ColumnStats<>(
+            0.0, 4.0, approxDistinct, DataTypes.INTEGER, new MostCommonValues(new Object[0], new double[0]), List.of());
+    }
+
     public static LogicalPlan plan(String statement,
                                    SQLExecutor sqlExecutor,
                                    ClusterService clusterService,
@@ -412,6 +498,10 @@ public class LogicalPlannerTest extends CrateDummyClusterServiceUnitTest {
                 addSymbolsList(groupHashAggregate.groupKeys);
                 sb.append(" | ");
                 addSymbolsList(groupHashAggregate.aggregates);
+                if (groupHashAggregate.mode() != AggregateMode.ITER_FINAL) {
+                    sb.append(" | ");
+                    sb.append(groupHashAggregate.mode());
+                }
                 sb.append("]\n");
                 plan = groupHashAggregate.source;
             }
@@ -466,6 +556,13 @@ public class LogicalPlannerTest extends CrateDummyClusterServiceUnitTest {
                 sb.append("]\n");
                 plan = filter.source;
             }
+            if (plan instanceof CountDistinct) {
+                CountDistinct countDistinct = (CountDistinct) plan;
+                startLine("CountDistinct[");
+                addSymbolsList(countDistinct.outputs());
+                sb.append("]\n");
+                plan = countDistinct.source;
+            }
             if (plan instanceof HashAggregate) {
                 HashAggregate aggregate = (HashAggregate) plan;
                 startLine("Aggregate[");
@@ -33,6 +33,8 @@ import org.junit.Test;
 import java.io.IOException;
 
 import static io.crate.planner.operators.LogicalPlannerTest.isPlan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 
 public class PushDownTest extends CrateDummyClusterServiceUnitTest {
 
@@ -466,4 +468,46 @@ public class PushDownTest extends CrateDummyClusterServiceUnitTest {
                            "Get[doc.users | id, name | DocKeys{1}";
         assertThat(plan, isPlan(sqlExecutor.functions(), expectedPlan));
     }
+
+    @Test
+    public void test_limit_on_union_is_applied_on_both_sides_of_the_union() {
+        LogicalPlan plan = plan("select name from users union all select text from users limit 10");
+        assertThat(plan, isPlan(sqlExecutor.functions(),
+                                "Limit[10;0]\n" +
+                                "Union[\n" +
+                                    "Limit[10;0]\n" +
+                                    "Collect[doc.users | [name] | true]\n" +
+                                "---\n" +
+                                    "Limit[10;0]\n" +
+                                    "Collect[doc.users | [text] | true]\n" +
+                                "]\n"));
+    }
+
+    @Test
+    public void test_order_by_and_limit_on_union_are_applied_on_both_sides_of_the_union() {
+        LogicalPlan plan = plan(
+            "select name from users union all select text from users order by name limit 10 offset 5");
+        assertThat(plan, isPlan(sqlExecutor.functions(),
+                                "Limit[10;5]\n" +
+                                "Union[\n" +
+                                    "Limit[15;0]\n" +
+                                    "OrderBy[name ASC]\n" +
+                                    "Collect[doc.users | [name] | true]\n" +
+                                "---\n" +
+                                    "Limit[15;0]\n" +
+                                    "OrderBy[text ASC]\n" +
+                                    "Collect[doc.users | [text] | true]\n" +
+                                "]\n"));
+    }
+
+    @Test
+    public void test_limit_on_left_join_is_applied_on_the_left_side_only() {
+        LogicalPlan plan = plan("select t1.a, t2.b from t1 left join t2 on t1.a = t2.b limit 10");
+        while (!(plan instanceof NestedLoopJoin)) {
+            plan = plan.sources().get(0);
+        }
+        NestedLoopJoin nl = (NestedLoopJoin) plan;
+        assertThat(nl.lhs, instanceOf(Limit.class));
+        assertThat(nl.rhs, not(instanceOf(Limit.class)));
+    }
 }
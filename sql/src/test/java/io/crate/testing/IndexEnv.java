@@ -160,6 +160,7 @@ public final class IndexEnv implements AutoCloseable {
                 }
             },
             new NoneCircuitBreakerService(),
+            null,
             BigArrays.NON_RECYCLING_INSTANCE,
             threadPool,
             new IndicesQueryCache(Settings.EMPTY),